@@ -176,8 +176,11 @@ public class AaaManager {
 
         cfgListener.reconfigureNetwork(netCfgService.getConfig(appId, AaaConfig.class));
 
-        // register our event handler
-        packetService.addProcessor(processor, PacketProcessor.director(2));
+        // register our event handler for EAPOL frames only
+        packetService.addProcessor(processor, PacketProcessor.director(2),
+                                   DefaultTrafficSelector.builder()
+                                           .matchEthType(EthType.EtherType.EAPOL.ethType().toShort())
+                                           .build());
         requestIntercepts();
 
         StateMachine.initializeMaps();
@@ -22,7 +22,9 @@ import org.onlab.packet.IpAddress;
 import org.onosproject.incubator.net.intf.Interface;
 import org.onosproject.incubator.net.intf.InterfaceService;
 import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.flow.DefaultTrafficSelector;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.TrafficSelector;
 import org.onosproject.net.flow.TrafficTreatment;
 import org.onosproject.net.host.InterfaceIpAddress;
 import org.onosproject.net.packet.DefaultOutboundPacket;
@@ -53,7 +55,11 @@ public class IcmpHandler {
     }
 
     public void start() {
-        packetService.addProcessor(processor, PacketProcessor.director(4));
+        TrafficSelector selector = DefaultTrafficSelector.builder()
+                .matchEthType(Ethernet.TYPE_IPV4)
+                .matchIPProtocol(IPv4.PROTOCOL_ICMP)
+                .build();
+        packetService.addProcessor(processor, PacketProcessor.director(4), selector);
     }
 
     public void stop() {
@@ -59,12 +59,12 @@ public class IGMPComponent {
     public void activate() {
         appId = coreService.registerApplication("org.onosproject.igmp");
 
-        packetService.addProcessor(processor, PacketProcessor.director(1));
-
         // Build a traffic selector for all multicast traffic
         TrafficSelector.Builder selector = DefaultTrafficSelector.builder();
         selector.matchEthType(Ethernet.TYPE_IPV4);
         selector.matchIPProtocol(IPv4.PROTOCOL_IGMP);
+
+        packetService.addProcessor(processor, PacketProcessor.director(1), selector.build());
         packetService.requestPackets(selector.build(), PacketPriority.REACTIVE, appId);
 
         log.info("Started");
@@ -81,7 +81,7 @@ public final class PIMPacketHandler {
         selector.matchIPProtocol(IPv4.PROTOCOL_PIM);
         packetService.requestPackets(selector.build(), PacketPriority.REACTIVE, appId);
 
-        packetService.addProcessor(processor, PacketProcessor.director(1));
+        packetService.addProcessor(processor, PacketProcessor.director(1), selector.build());
     }
 
     /**
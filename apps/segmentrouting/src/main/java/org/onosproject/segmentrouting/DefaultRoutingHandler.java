@@ -23,6 +23,7 @@ import org.onlab.packet.IpPrefix;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.Link;
+import org.onosproject.net.topology.Topology;
 import org.onosproject.segmentrouting.config.DeviceConfigNotFoundException;
 import org.onosproject.segmentrouting.config.DeviceConfiguration;
 import org.slf4j.Logger;
@@ -34,6 +35,7 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -220,6 +222,7 @@ public class DefaultRoutingHandler {
             }
         }
 
+        Topology topology = srManager.topologyService.currentTopology();
         for (DeviceId impactedDevice : routesBydevice.keySet()) {
             ArrayList<ArrayList<DeviceId>> deviceRoutes =
                     routesBydevice.get(impactedDevice);
@@ -238,14 +241,7 @@ public class DefaultRoutingHandler {
                         if (!targetSw.equals(src)) {
                             continue;
                         }
-                        Set<DeviceId> nextHops = new HashSet<>();
-                        for (ArrayList<DeviceId> via : swViaMap.get(targetSw)) {
-                            if (via.isEmpty()) {
-                                nextHops.add(dst);
-                            } else {
-                                nextHops.add(via.get(0));
-                            }
-                        }
+                        Set<DeviceId> nextHops = getNextHops(topology, targetSw, dst);
                         if (!populateEcmpRoutingRulePartial(targetSw, dst, nextHops)) {
                             return false;
                         }
@@ -418,19 +414,13 @@ public class DefaultRoutingHandler {
 
         HashMap<Integer, HashMap<DeviceId, ArrayList<ArrayList<DeviceId>>>> switchVia = ecmpSPG
                 .getAllLearnedSwitchesAndVia();
+        Topology topology = srManager.topologyService.currentTopology();
         for (Integer itrIdx : switchVia.keySet()) {
             HashMap<DeviceId, ArrayList<ArrayList<DeviceId>>> swViaMap = switchVia
                     .get(itrIdx);
             for (DeviceId targetSw : swViaMap.keySet()) {
-                Set<DeviceId> nextHops = new HashSet<>();
                 log.debug("** Iter: {} root: {} target: {}", itrIdx, destSw, targetSw);
-                for (ArrayList<DeviceId> via : swViaMap.get(targetSw)) {
-                    if (via.isEmpty()) {
-                        nextHops.add(destSw);
-                    } else {
-                        nextHops.add(via.get(0));
-                    }
-                }
+                Set<DeviceId> nextHops = getNextHops(topology, targetSw, destSw);
                 if (!populateEcmpRoutingRulePartial(targetSw, destSw, nextHops)) {
                     return false;
                 }
@@ -440,6 +430,24 @@ public class DefaultRoutingHandler {
         return true;
     }
 
+    /**
+     * Returns the neighbors of the target switch along the shortest paths
+     * towards the destination switch. The next hops come from the table the
+     * topology computes once for all device pairs, rather than from the paths
+     * of each shortest path graph.
+     *
+     * @param topology topology the next hops are looked up in
+     * @param targetSw switch the routing rules are populated on
+     * @param destSw   destination switch
+     * @return next hop switches; empty if the destination is not reachable
+     */
+    private Set<DeviceId> getNextHops(Topology topology, DeviceId targetSw, DeviceId destSw) {
+        return srManager.topologyService.getEcmpNextHops(topology, targetSw, destSw)
+                .stream()
+                .map(link -> link.dst().deviceId())
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
     private boolean populateEcmpRoutingRulePartial(DeviceId targetSw,
                                                    DeviceId destSw,
                                                    Set<DeviceId> nextHops) {
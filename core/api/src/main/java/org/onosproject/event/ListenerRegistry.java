@@ -17,6 +17,7 @@ package org.onosproject.event;
 
 import org.slf4j.Logger;
 
+import java.util.Collections;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 
@@ -72,6 +73,37 @@ public class ListenerRegistry<E extends Event, L extends EventListener<E>>
         }
     }
 
+    /**
+     * Returns the listeners currently registered.
+     *
+     * @return unmodifiable view of the registered listeners
+     */
+    public Set<L> getListeners() {
+        return Collections.unmodifiableSet(listeners);
+    }
+
+    /**
+     * Delivers the specified event to a single listener, provided that the
+     * listener is still registered and finds the event relevant. This allows
+     * dispatchers to deliver events to each listener separately rather than
+     * to all listeners at once via {@link #process(Event)}.
+     *
+     * @param event    event to be delivered
+     * @param listener listener to deliver the event to
+     */
+    public void deliver(E event, L listener) {
+        if (!listeners.contains(listener)) {
+            return;
+        }
+        try {
+            if (listener.isRelevant(event)) {
+                listener.event(event);
+            }
+        } catch (Exception error) {
+            reportProblem(event, error);
+        }
+    }
+
     @Override
     public void onProcessLimit() {
         if (lastStart > 0) {
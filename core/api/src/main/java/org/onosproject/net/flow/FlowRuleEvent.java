@@ -15,13 +15,20 @@
  */
 package org.onosproject.net.flow;
 
+import com.google.common.collect.ImmutableList;
 import org.onosproject.event.AbstractEvent;
 
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
  * Describes flow rule event.
  */
 public class FlowRuleEvent extends AbstractEvent<FlowRuleEvent.Type, FlowRule> {
 
+    private final List<FlowEntry> entries;
+
     /**
      * Type of flow rule events.
      */
@@ -41,6 +48,12 @@ public class FlowRuleEvent extends AbstractEvent<FlowRuleEvent.Type, FlowRule> {
          */
         RULE_UPDATED,
 
+        /**
+         * Signifies that the statistics of a number of flow rules of a
+         * device have been updated at once.
+         */
+        RULE_STATS_UPDATED,
+
         // internal event between Manager <-> Store
 
         /*
@@ -62,6 +75,7 @@ public class FlowRuleEvent extends AbstractEvent<FlowRuleEvent.Type, FlowRule> {
      */
     public FlowRuleEvent(Type type, FlowRule flowRule) {
         super(type, flowRule);
+        this.entries = ImmutableList.of();
     }
 
     /**
@@ -73,6 +87,30 @@ public class FlowRuleEvent extends AbstractEvent<FlowRuleEvent.Type, FlowRule> {
      */
     public FlowRuleEvent(Type type, FlowRule flowRule, long time) {
         super(type, flowRule, time);
+        this.entries = ImmutableList.of();
+    }
+
+    /**
+     * Creates an event signifying that the statistics of the specified flow
+     * entries of a device have been updated. The first entry is the subject
+     * of the event.
+     *
+     * @param entries updated flow entries of the same device
+     */
+    public FlowRuleEvent(List<FlowEntry> entries) {
+        super(Type.RULE_STATS_UPDATED, entries.isEmpty() ? null : entries.get(0));
+        checkArgument(!entries.isEmpty(), "Updated entries cannot be empty");
+        this.entries = ImmutableList.copyOf(entries);
+    }
+
+    /**
+     * Returns the flow entries whose statistics were updated, for
+     * {@link Type#RULE_STATS_UPDATED} events.
+     *
+     * @return updated flow entries; empty for other event types
+     */
+    public List<FlowEntry> entries() {
+        return entries;
     }
 
 }
@@ -15,6 +15,7 @@
  */
 package org.onosproject.net.flow;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.onosproject.net.DeviceId;
@@ -90,6 +91,36 @@ public interface FlowRuleStore extends Store<FlowRuleBatchEvent, FlowRuleStoreDe
      */
     FlowRuleEvent addOrUpdateFlowRule(FlowEntry rule);
 
+    /**
+     * Updates the statistics of existing flow entries of a device at once, as
+     * reported by the device. Entries confirmed as added for the first time
+     * each yield a RULE_ADDED event, while all other updates are aggregated
+     * into a single RULE_STATS_UPDATED event.
+     *
+     * @param deviceId device identifier
+     * @param entries  flow entries reported by the device
+     * @return resulting events; empty if nothing was updated
+     */
+    default List<FlowRuleEvent> updateFlowStatistics(DeviceId deviceId, List<FlowEntry> entries) {
+        List<FlowRuleEvent> events = new ArrayList<>();
+        List<FlowEntry> updated = new ArrayList<>();
+        for (FlowEntry entry : entries) {
+            FlowRuleEvent event = addOrUpdateFlowRule(entry);
+            if (event == null) {
+                continue;
+            }
+            if (event.type() == FlowRuleEvent.Type.RULE_UPDATED) {
+                updated.add(entry);
+            } else {
+                events.add(event);
+            }
+        }
+        if (!updated.isEmpty()) {
+            events.add(new FlowRuleEvent(updated));
+        }
+        return events;
+    }
+
     /**
      * @param rule the flow entry to remove
      * @return flow_removed event, or null if nothing removed
@@ -15,22 +15,32 @@
  */
 package org.onosproject.net.packet;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import org.onlab.packet.DeserializationException;
+import org.onlab.packet.EthernetView;
 import org.onosproject.net.ConnectPoint;
 import org.onlab.packet.Ethernet;
+import org.slf4j.Logger;
 
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.util.Objects;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Default implementation of an immutable inbound packet.
  */
 public final class DefaultInboundPacket implements InboundPacket {
 
+    private static final Logger log = getLogger(DefaultInboundPacket.class);
+
     private final ConnectPoint receivedFrom;
-    private final Ethernet parsed;
+    private final Supplier<Ethernet> parsed;
     private final ByteBuffer unparsed;
+    private final Supplier<EthernetView> headers;
 
     /**
      * Creates an immutable inbound packet.
@@ -42,8 +52,38 @@ public final class DefaultInboundPacket implements InboundPacket {
     public  DefaultInboundPacket(ConnectPoint receivedFrom, Ethernet parsed,
                                 ByteBuffer unparsed) {
         this.receivedFrom = receivedFrom;
-        this.parsed = parsed;
+        this.parsed = Suppliers.ofInstance(parsed);
+        this.unparsed = unparsed;
+        this.headers = Suppliers.memoize(() -> EthernetView.of(unparsed));
+    }
+
+    /**
+     * Creates an immutable inbound packet whose raw bytes are parsed into an
+     * ethernet frame only when, and at most once, the parsed form is needed.
+     *
+     * @param receivedFrom connection point where received
+     * @param unparsed     unparsed raw bytes
+     */
+    public DefaultInboundPacket(ConnectPoint receivedFrom, ByteBuffer unparsed) {
+        this.receivedFrom = receivedFrom;
+        this.parsed = Suppliers.memoize(() -> parse(unparsed));
         this.unparsed = unparsed;
+        this.headers = Suppliers.memoize(() -> EthernetView.of(unparsed));
+    }
+
+    private static Ethernet parse(ByteBuffer unparsed) {
+        try {
+            if (unparsed.hasArray()) {
+                return Ethernet.deserializer().deserialize(unparsed.array(),
+                        unparsed.arrayOffset() + unparsed.position(), unparsed.remaining());
+            }
+            byte[] data = new byte[unparsed.remaining()];
+            unparsed.duplicate().get(data);
+            return Ethernet.deserializer().deserialize(data, 0, data.length);
+        } catch (BufferUnderflowException | DeserializationException e) {
+            log.error("packet deserialization problem : {}", e.getMessage());
+            return null;
+        }
     }
 
     @Override
@@ -53,7 +93,7 @@ public final class DefaultInboundPacket implements InboundPacket {
 
     @Override
     public Ethernet parsed() {
-        return parsed;
+        return parsed.get();
     }
 
     @Override
@@ -62,9 +102,14 @@ public final class DefaultInboundPacket implements InboundPacket {
         return unparsed;
     }
 
+    @Override
+    public EthernetView headers() {
+        return headers.get();
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(receivedFrom, parsed, unparsed);
+        return Objects.hash(receivedFrom, parsed(), unparsed);
     }
 
     @Override
@@ -75,7 +120,7 @@ public final class DefaultInboundPacket implements InboundPacket {
         if (obj instanceof InboundPacket) {
             final DefaultInboundPacket other = (DefaultInboundPacket) obj;
             return Objects.equals(this.receivedFrom, other.receivedFrom) &&
-                    Objects.equals(this.parsed, other.parsed) &&
+                    Objects.equals(this.parsed(), other.parsed()) &&
                     Objects.equals(this.unparsed, other.unparsed);
         }
         return false;
@@ -85,7 +130,7 @@ public final class DefaultInboundPacket implements InboundPacket {
     public String toString() {
         return toStringHelper(this)
                 .add("receivedFrom", receivedFrom)
-                .add("parsed", parsed)
+                .add("parsed", parsed())
                 .toString();
     }
 }
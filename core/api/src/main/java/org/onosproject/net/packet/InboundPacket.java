@@ -17,6 +17,7 @@ package org.onosproject.net.packet;
 
 import org.onosproject.net.ConnectPoint;
 import org.onlab.packet.Ethernet;
+import org.onlab.packet.EthernetView;
 
 import java.nio.ByteBuffer;
 
@@ -47,4 +48,15 @@ public interface InboundPacket {
      */
     ByteBuffer unparsed();
 
+    /**
+     * Returns a view of the Ethernet and IPv4 headers of the packet. Unlike
+     * {@link #parsed()}, the view decodes only the header fields asked for,
+     * which makes it the cheaper way to classify packets.
+     *
+     * @return view of the packet headers
+     */
+    default EthernetView headers() {
+        return EthernetView.of(unparsed());
+    }
+
 }
@@ -41,7 +41,23 @@ public interface PacketService {
      */
     void addProcessor(PacketProcessor processor, int priority);
 
-    // TODO allow processors to register for particular types of packets
+    /**
+     * Adds the specified processor to the list of packet processors, to be
+     * given only packets matching the specified selector. The selector may
+     * match on the ethertype, and for IPv4 packets also on the IP protocol
+     * and the TCP or UDP ports; processors should still be prepared to
+     * receive packets the selector does not match.
+     *
+     * @param processor processor to be added
+     * @param priority  priority in the reverse natural order
+     * @param selector  selector of packets of interest to the processor
+     * @throws java.lang.IllegalArgumentException if the selector uses
+     *                                            unsupported criteria
+     */
+    default void addProcessor(PacketProcessor processor, int priority,
+                              TrafficSelector selector) {
+        addProcessor(processor, priority);
+    }
 
     /**
      * Removes the specified processor from the processing pipeline.
@@ -20,7 +20,13 @@ import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.flow.FlowEntry;
 import org.onosproject.net.flow.FlowRule;
 
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Flow Store to house the computed statistics.
@@ -62,4 +68,28 @@ public interface FlowStatisticStore {
      * @return set of current values
      */
     Set<FlowEntry> getPreviousFlowStatistic(ConnectPoint connectPoint);
+
+    /**
+     * Fetches the current observed flow stats values of the flows whose byte
+     * counts grew the most since their previous observation.
+     *
+     * @param connectPoint the port to fetch information for
+     * @param topn the maximum number of flows to return
+     * @return list of current flow rules, in decreasing order of byte growth
+     */
+    default List<FlowEntry> getTopFlowStatistic(ConnectPoint connectPoint, int topn) {
+        Set<FlowEntry> current = getCurrentFlowStatistic(connectPoint);
+        Set<FlowEntry> previous = getPreviousFlowStatistic(connectPoint);
+        if (current == null || previous == null || topn <= 0) {
+            return Collections.emptyList();
+        }
+
+        Map<FlowRule, Long> previousBytes = new HashMap<>();
+        previous.forEach(e -> previousBytes.put(e, e.bytes()));
+        return current.stream()
+                .filter(previousBytes::containsKey)
+                .sorted(Comparator.comparingLong((FlowEntry e) -> previousBytes.get(e) - e.bytes()))
+                .limit(topn)
+                .collect(Collectors.toList());
+    }
 }
@@ -113,6 +113,20 @@ public interface TopologyService
     Set<Path> getPaths(Topology topology, DeviceId src, DeviceId dst,
                        LinkWeight weight);
 
+    /**
+     * Returns the set of links leading out of the source device along any of
+     * the shortest paths, in terms of hop-count, towards the destination
+     * device. The next hops of all device pairs are computed together the
+     * first time they are requested and shared for the life of the topology.
+     *
+     * @param topology topology descriptor
+     * @param src      source device
+     * @param dst      destination device
+     * @return set of ECMP next hop links; empty if the destination is not
+     * reachable or is the source itself
+     */
+    Set<Link> getEcmpNextHops(Topology topology, DeviceId src, DeviceId dst);
+
     /**
      * Returns the set of all disjoint shortest path pairs, precomputed in terms of hop-count,
      * between the specified source and destination devices.
@@ -113,6 +113,17 @@ public interface TopologyStore extends Store<TopologyEvent, TopologyStoreDelegat
     Set<Path> getPaths(Topology topology, DeviceId src, DeviceId dst,
                        LinkWeight weight);
 
+    /**
+     * Returns the set of links leading out of src along the shortest paths,
+     * in terms of hop-count, towards dst.
+     *
+     * @param topology topology descriptor
+     * @param src      source device
+     * @param dst      destination device
+     * @return set of ECMP next hop links
+     */
+    Set<Link> getEcmpNextHops(Topology topology, DeviceId src, DeviceId dst);
+
     /**
      * Computes and returns the set of disjoint shortest path pairs
      * between src and dst.
@@ -17,9 +17,11 @@
 package org.onosproject.store.service;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -213,6 +215,40 @@ public interface AsyncConsistentMap<K, V> {
      */
     CompletableFuture<Set<Entry<K, Versioned<V>>>> entrySet();
 
+    /**
+     * Returns the values (and associated versions) of the specified keys.
+     * Keys that are not present in the map are left out of the result.
+     *
+     * @param keys keys whose values are to be returned
+     * @return a future for a map from the keys present in this map to their values
+     */
+    default CompletableFuture<Map<K, Versioned<V>>> getAll(Collection<K> keys) {
+        Map<K, Versioned<V>> values = new ConcurrentHashMap<>();
+        return CompletableFuture.allOf(keys.stream()
+                                               .map(key -> get(key).thenAccept(v -> {
+                                                   if (v != null) {
+                                                       values.put(key, v);
+                                                   }
+                                               }))
+                                               .toArray(CompletableFuture[]::new))
+                .thenApply(v -> values);
+    }
+
+    /**
+     * Associates each of the specified keys with its value in this map,
+     * regardless of any existing values. The entries are not guaranteed to
+     * be put atomically with respect to one another.
+     *
+     * @param entries entries to put into this map
+     * @return a future to be completed once all entries are put
+     */
+    default CompletableFuture<Void> putAll(Map<K, V> entries) {
+        return CompletableFuture.allOf(entries.entrySet()
+                                               .stream()
+                                               .map(e -> put(e.getKey(), e.getValue()))
+                                               .toArray(CompletableFuture[]::new));
+    }
+
     /**
      * If the specified key is not already associated with a value
      * associates it with the given value and returns null, else returns the current value.
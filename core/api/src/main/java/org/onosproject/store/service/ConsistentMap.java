@@ -17,6 +17,8 @@
 package org.onosproject.store.service;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -215,6 +217,48 @@ public interface ConsistentMap<K, V> {
      */
     Set<Entry<K, Versioned<V>>> entrySet();
 
+    /**
+     * Returns an iterator over the entries contained in this map.
+     * Unlike entrySet(), the entries may be fetched a page at a time as the
+     * iteration proceeds, in which case the iteration reflects updates made
+     * to the map after it started only partially. The iterator does not
+     * support removal.
+     *
+     * @return iterator over the entries contained in this map
+     */
+    default Iterator<Entry<K, Versioned<V>>> entryIterator() {
+        return entrySet().iterator();
+    }
+
+    /**
+     * Returns the values (and associated versions) of the specified keys.
+     * Keys that are not present in the map are left out of the result.
+     *
+     * @param keys keys whose values are to be returned
+     * @return map from the keys present in this map to their values
+     */
+    default Map<K, Versioned<V>> getAll(Collection<K> keys) {
+        Map<K, Versioned<V>> values = new HashMap<>();
+        for (K key : keys) {
+            Versioned<V> value = get(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Associates each of the specified keys with its value in this map,
+     * regardless of any existing values. The entries are not guaranteed to
+     * be put atomically with respect to one another.
+     *
+     * @param entries entries to put into this map
+     */
+    default void putAll(Map<K, V> entries) {
+        entries.forEach(this::put);
+    }
+
     /**
      * If the specified key is not already associated with a value
      * associates it with the given value and returns null, else returns the current value.
@@ -21,6 +21,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.base.MoreObjects;
+import org.onlab.util.HexString;
 
 /**
  * Database update operation.
@@ -69,7 +70,7 @@ public final class DatabaseUpdate {
 
     private Type type;
     private String mapName;
-    private String key;
+    private byte[] key;
     private byte[] value;
     private byte[] currentValue;
     private long currentVersion = -1;
@@ -91,10 +92,10 @@ public final class DatabaseUpdate {
     }
 
     /**
-     * Returns the item key being updated.
+     * Returns the serialized key of the item being updated.
      * @return item key
      */
-    public String key() {
+    public byte[] key() {
         return key;
     }
 
@@ -127,7 +128,7 @@ public final class DatabaseUpdate {
         return MoreObjects.toStringHelper(this)
             .add("type", type)
             .add("mapName", mapName)
-            .add("key", key)
+            .add("key", HexString.toHexString(key))
             .add("value", value)
             .add("currentValue", currentValue)
             .add("currentVersion", currentVersion)
@@ -166,7 +167,7 @@ public final class DatabaseUpdate {
             return this;
         }
 
-        public Builder withKey(String key) {
+        public Builder withKey(byte[] key) {
             update.key = checkNotNull(key, "key cannot be null");
             return this;
         }
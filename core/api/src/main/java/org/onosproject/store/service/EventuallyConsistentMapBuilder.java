@@ -176,6 +176,19 @@ public interface EventuallyConsistentMapBuilder<K, V> {
      */
     EventuallyConsistentMapBuilder<K, V> withPersistence();
 
+    /**
+     * Configure anti-entropy to first exchange a hash tree summarizing the
+     * map contents, and only exchange per-key digests for the parts of the
+     * map in which replicas diverge. Suited to large maps, for which sending
+     * the digest of every entry in each anti-entropy round is costly.
+     * <p>
+     * The default behavior is to advertise the digest of every entry.
+     * </p>
+     *
+     * @return this EventuallyConsistentMapBuilder
+     */
+    EventuallyConsistentMapBuilder<K, V> withHashTreeAntiEntropy();
+
     /**
      * Builds an eventually consistent map based on the configuration options
      * supplied to this builder.
@@ -21,8 +21,12 @@ import org.junit.Test;
 import org.onosproject.event.AbstractEventTest;
 import org.onosproject.net.intent.IntentTestsMocks;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.testing.EqualsTester;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 /**
  * Unit Tests for the FlowRuleEvent class.
  */
@@ -74,4 +78,19 @@ public class FlowRuleEventTest extends AbstractEventTest {
         validateEvent(event, FlowRuleEvent.Type.RULE_UPDATED, flowRule, time,
                 time + TimeUnit.SECONDS.toMillis(30));
     }
+
+    /**
+     * Tests the constructor of aggregated statistics update events.
+     */
+    @Test
+    public void testStatsConstructor() {
+        final long time = System.currentTimeMillis();
+        final FlowEntry entry1 = new DefaultFlowEntry(new IntentTestsMocks.MockFlowRule(1));
+        final FlowEntry entry2 = new DefaultFlowEntry(new IntentTestsMocks.MockFlowRule(2));
+        final FlowRuleEvent event = new FlowRuleEvent(ImmutableList.of(entry1, entry2));
+        validateEvent(event, FlowRuleEvent.Type.RULE_STATS_UPDATED, entry1, time,
+                time + TimeUnit.SECONDS.toMillis(30));
+        assertEquals(ImmutableList.of(entry1, entry2), event.entries());
+        assertTrue(new FlowRuleEvent(FlowRuleEvent.Type.RULE_UPDATED, entry1).entries().isEmpty());
+    }
 }
@@ -26,6 +26,7 @@ import com.google.common.testing.EqualsTester;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.onlab.junit.ImmutableClassChecker.assertThatClassIsImmutable;
 import static org.onosproject.net.NetTestTools.connectPoint;
 
@@ -78,4 +79,18 @@ public class DefaultInboundPacketTest {
         assertThat(packet1.parsed(), equalTo(eth));
         assertThat(packet1.unparsed(), notNullValue());
     }
+
+    /**
+     * Tests that a packet created from raw bytes alone parses them on demand.
+     */
+    @Test
+    public void testLazyParsing() {
+        DefaultInboundPacket packet =
+                new DefaultInboundPacket(connectPoint("d1", 1), byteBuffer);
+        Ethernet parsed = packet.parsed();
+        assertThat(parsed.getSourceMAC(), equalTo(MacAddress.BROADCAST));
+        assertThat(packet.parsed(), sameInstance(parsed));
+        assertThat(packet.headers().destinationMac(), equalTo(MacAddress.BROADCAST));
+        assertThat(packet.headers().etherType(), equalTo(eth.getEtherType()));
+    }
 }
@@ -15,6 +15,7 @@
  */
 package org.onosproject.net.topology;
 
+import com.google.common.collect.ImmutableSet;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.DisjointPath;
@@ -73,6 +74,11 @@ public class TopologyServiceAdapter implements TopologyService {
         return null;
     }
 
+    @Override
+    public Set<Link> getEcmpNextHops(Topology topology, DeviceId src, DeviceId dst) {
+        return ImmutableSet.of();
+    }
+
     @Override
     public boolean isInfrastructure(Topology topology, ConnectPoint connectPoint) {
         return false;
@@ -103,7 +103,7 @@ public final class TestEventuallyConsistentMap<K, V> extends EventuallyConsisten
         if (result != null) {
             EventuallyConsistentMapEvent<K, V> removeEvent =
                     new EventuallyConsistentMapEvent<>(mapName, REMOVE,
-                            key, map.get(key));
+                            key, result);
             notifyListeners(removeEvent);
         }
         return result;
@@ -121,7 +121,14 @@ public final class TestEventuallyConsistentMap<K, V> extends EventuallyConsisten
 
     @Override
     public V compute(K key, BiFunction<K, V, V> recomputeFunction) {
-        return map.compute(key, recomputeFunction);
+        V previous = map.get(key);
+        V result = map.compute(key, recomputeFunction);
+        if (result != null) {
+            notifyListeners(new EventuallyConsistentMapEvent<>(mapName, PUT, key, result));
+        } else if (previous != null) {
+            notifyListeners(new EventuallyConsistentMapEvent<>(mapName, REMOVE, key, previous));
+        }
+        return result;
     }
 
     @Override
@@ -226,6 +233,11 @@ public final class TestEventuallyConsistentMap<K, V> extends EventuallyConsisten
             return this;
         }
 
+        @Override
+        public EventuallyConsistentMapBuilder<K, V> withHashTreeAntiEntropy() {
+            return this;
+        }
+
         @Override
         public EventuallyConsistentMap<K, V> build() {
             if (name == null) {
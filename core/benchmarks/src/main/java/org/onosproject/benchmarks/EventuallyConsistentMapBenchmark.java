@@ -0,0 +1,124 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmarks;
+
+import com.google.common.collect.ImmutableSet;
+import org.onlab.packet.IpAddress;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.cluster.ClusterServiceAdapter;
+import org.onosproject.cluster.ControllerNode;
+import org.onosproject.cluster.DefaultControllerNode;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.store.cluster.messaging.ClusterCommunicationServiceAdapter;
+import org.onosproject.store.cluster.messaging.MessageSubject;
+import org.onosproject.store.ecmap.EventuallyConsistentMapBuilderImpl;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.service.EventuallyConsistentMap;
+import org.onosproject.store.service.WallClockTimestamp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Benchmarks of local reads and writes of an eventually consistent map in
+ * a two node cluster. Updates are serialized for the peer as they would be
+ * for the wire, but are then dropped by the stub communication service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventuallyConsistentMapBenchmark {
+
+    private static final int KEYS = 10_000;
+
+    private EventuallyConsistentMap<String, String> map;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        map = new EventuallyConsistentMapBuilderImpl<String, String>(
+                new TwoNodeClusterService(), new DroppingCommunicationService(), null)
+                .withName("onos-benchmark-map")
+                .withSerializer(KryoNamespace.newBuilder().register(KryoNamespaces.BASIC))
+                .withTimestampProvider((k, v) -> new WallClockTimestamp())
+                .build();
+
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "key-" + i;
+            map.put(keys[i], "value-" + i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        map.destroy();
+    }
+
+    @Benchmark
+    public void put() {
+        String key = keys[ThreadLocalRandom.current().nextInt(KEYS)];
+        map.put(key, key);
+    }
+
+    @Benchmark
+    public String get() {
+        return map.get(keys[ThreadLocalRandom.current().nextInt(KEYS)]);
+    }
+
+    // Cluster of the local node and a single peer.
+    private static final class TwoNodeClusterService extends ClusterServiceAdapter {
+        private final ControllerNode peer =
+                new DefaultControllerNode(new NodeId("peer"), IpAddress.valueOf("127.0.0.2"));
+
+        @Override
+        public Set<ControllerNode> getNodes() {
+            return ImmutableSet.of(getLocalNode(), peer);
+        }
+
+        @Override
+        public ControllerNode.State getState(NodeId nodeId) {
+            return ControllerNode.State.ACTIVE;
+        }
+    }
+
+    // Communication service encoding and then dropping all messages.
+    private static final class DroppingCommunicationService extends ClusterCommunicationServiceAdapter {
+        @Override
+        public <M> CompletableFuture<Void> unicast(M message, MessageSubject subject,
+                                                   Function<M, byte[]> encoder, NodeId toNodeId) {
+            encoder.apply(message);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
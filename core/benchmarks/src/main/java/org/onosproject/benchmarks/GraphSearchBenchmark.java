@@ -0,0 +1,160 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmarks;
+
+import com.google.common.collect.Sets;
+import org.onlab.graph.AbstractEdge;
+import org.onlab.graph.AdjacencyListsGraph;
+import org.onlab.graph.CompressedSparseRowGraph;
+import org.onlab.graph.DijkstraGraphSearch;
+import org.onlab.graph.EdgeWeight;
+import org.onlab.graph.Graph;
+import org.onlab.graph.GraphPathSearch;
+import org.onlab.graph.IndexedDijkstraGraphSearch;
+import org.onlab.graph.Vertex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of finding all shortest paths between two vertexes of a sparse
+ * graph, comparing {@link DijkstraGraphSearch} over an adjacency lists graph
+ * with {@link IndexedDijkstraGraphSearch} over the compressed sparse row copy
+ * of the same graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphSearchBenchmark {
+
+    // Number of links leaving each vertex besides the one closing the ring
+    private static final int EXTRA_DEGREE = 3;
+    private static final int MAX_WEIGHT = 10;
+    private static final int PAIRS = 64;
+
+    @Param({"1000", "5000", "10000"})
+    private int vertexCount;
+
+    private final EdgeWeight<TestVertex, TestEdge> weight = TestEdge::weight;
+    private final DijkstraGraphSearch<TestVertex, TestEdge> dijkstra = new DijkstraGraphSearch<>();
+    private final IndexedDijkstraGraphSearch<TestVertex, TestEdge> indexedDijkstra =
+            new IndexedDijkstraGraphSearch<>();
+
+    private Graph<TestVertex, TestEdge> adjacencyGraph;
+    private CompressedSparseRowGraph<TestVertex, TestEdge> csrGraph;
+    private TestVertex[] sources;
+    private TestVertex[] destinations;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(vertexCount);
+        TestVertex[] vertexes = new TestVertex[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            vertexes[i] = new TestVertex(i);
+        }
+
+        // A ring keeps the graph connected, random chords make it a mesh
+        Set<TestEdge> edges = Sets.newHashSet();
+        for (int i = 0; i < vertexCount; i++) {
+            link(edges, vertexes[i], vertexes[(i + 1) % vertexCount], random);
+            for (int j = 0; j < EXTRA_DEGREE; j++) {
+                link(edges, vertexes[i], vertexes[random.nextInt(vertexCount)], random);
+            }
+        }
+
+        adjacencyGraph = new AdjacencyListsGraph<>(Sets.newHashSet(vertexes), edges);
+        csrGraph = CompressedSparseRowGraph.copyOf(adjacencyGraph);
+
+        sources = new TestVertex[PAIRS];
+        destinations = new TestVertex[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            sources[i] = vertexes[random.nextInt(vertexCount)];
+            destinations[i] = vertexes[random.nextInt(vertexCount)];
+        }
+    }
+
+    // Adds links in both directions between two distinct vertexes
+    private void link(Set<TestEdge> edges, TestVertex one, TestVertex two, Random random) {
+        if (!one.equals(two)) {
+            double cost = 1 + random.nextInt(MAX_WEIGHT);
+            edges.add(new TestEdge(one, two, cost));
+            edges.add(new TestEdge(two, one, cost));
+        }
+    }
+
+    @Benchmark
+    public GraphPathSearch.Result<TestVertex, TestEdge> dijkstra() {
+        int pair = next++ % PAIRS;
+        return dijkstra.search(adjacencyGraph, sources[pair], destinations[pair],
+                               weight, GraphPathSearch.ALL_PATHS);
+    }
+
+    @Benchmark
+    public GraphPathSearch.Result<TestVertex, TestEdge> indexedDijkstra() {
+        int pair = next++ % PAIRS;
+        return indexedDijkstra.search(csrGraph, sources[pair], destinations[pair],
+                                      weight, GraphPathSearch.ALL_PATHS);
+    }
+
+    private static final class TestVertex implements Vertex {
+
+        private final int id;
+
+        private TestVertex(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof TestVertex && ((TestVertex) obj).id == id;
+        }
+    }
+
+    private static final class TestEdge extends AbstractEdge<TestVertex> {
+
+        private final double weight;
+
+        private TestEdge(TestVertex src, TestVertex dst, double weight) {
+            super(src, dst);
+            this.weight = weight;
+        }
+
+        private double weight() {
+            return weight;
+        }
+    }
+}
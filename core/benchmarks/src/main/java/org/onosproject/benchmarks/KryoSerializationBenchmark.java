@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmarks;
+
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.Ip4Prefix;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.core.ApplicationId;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DefaultLink;
+import org.onosproject.net.Link;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.flow.TrafficTreatment;
+import org.onosproject.net.intent.Intent;
+import org.onosproject.net.intent.MockIdGenerator;
+import org.onosproject.net.intent.PointToPointIntent;
+import org.onosproject.net.provider.ProviderId;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.onosproject.net.DeviceId.deviceId;
+import static org.onosproject.net.PortNumber.portNumber;
+
+/**
+ * Benchmarks of serializing and deserializing frequently distributed API
+ * types using the {@link KryoNamespaces#API} namespace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KryoSerializationBenchmark {
+
+    private static final ProviderId PID = new ProviderId("of", "org.onosproject.benchmarks");
+    private static final ApplicationId APP_ID = new DefaultApplicationId(1, "org.onosproject.benchmarks");
+
+    private final MockIdGenerator idGenerator = new MockIdGenerator();
+
+    private KryoNamespace serializer;
+
+    private FlowRule flowRule;
+    private Link link;
+    private Intent intent;
+
+    private byte[] flowRuleBytes;
+    private byte[] linkBytes;
+    private byte[] intentBytes;
+
+    @Setup
+    public void setUp() {
+        Intent.bindIdGenerator(idGenerator);
+        serializer = KryoNamespace.newBuilder().register(KryoNamespaces.API).build();
+
+        ConnectPoint src = new ConnectPoint(deviceId("of:0000000000000001"), portNumber(1));
+        ConnectPoint dst = new ConnectPoint(deviceId("of:0000000000000002"), portNumber(2));
+        TrafficSelector selector = DefaultTrafficSelector.builder()
+                .matchEthType(Ethernet.TYPE_IPV4)
+                .matchIPDst(Ip4Prefix.valueOf("10.0.0.0/24"))
+                .build();
+        TrafficTreatment treatment = DefaultTrafficTreatment.builder()
+                .setOutput(portNumber(2))
+                .build();
+
+        flowRule = DefaultFlowRule.builder()
+                .forDevice(src.deviceId())
+                .withSelector(selector)
+                .withTreatment(treatment)
+                .withPriority(100)
+                .fromApp(APP_ID)
+                .makePermanent()
+                .build();
+        link = new DefaultLink(PID, src, dst, Link.Type.DIRECT);
+        intent = PointToPointIntent.builder()
+                .appId(APP_ID)
+                .selector(selector)
+                .treatment(treatment)
+                .ingressPoint(src)
+                .egressPoint(dst)
+                .build();
+
+        flowRuleBytes = serializer.serialize(flowRule);
+        linkBytes = serializer.serialize(link);
+        intentBytes = serializer.serialize(intent);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Intent.unbindIdGenerator(idGenerator);
+    }
+
+    @Benchmark
+    public byte[] serializeFlowRule() {
+        return serializer.serialize(flowRule);
+    }
+
+    @Benchmark
+    public Object deserializeFlowRule() {
+        return serializer.deserialize(flowRuleBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeLink() {
+        return serializer.serialize(link);
+    }
+
+    @Benchmark
+    public Object deserializeLink() {
+        return serializer.deserialize(linkBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeIntent() {
+        return serializer.serialize(intent);
+    }
+
+    @Benchmark
+    public Object deserializeIntent() {
+        return serializer.deserialize(intentBytes);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.benchmarks;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.onosproject.store.cluster.messaging.Endpoint;
+import org.onlab.netty.InternalMessage;
+import org.onlab.netty.MessageDecoder;
+import org.onlab.netty.MessageEncoder;
+import org.onlab.packet.IpAddress;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of encoding and decoding inter-node messages with the
+ * {@link MessageEncoder} and {@link MessageDecoder} of a single connection.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessagingCodecBenchmark {
+
+    private static final int PREAMBLE = 0xfeedcafe;
+
+    @Param({"64", "1024", "16384"})
+    private int payloadSize;
+
+    private EmbeddedChannel encoder;
+    private EmbeddedChannel decoder;
+    private InternalMessage message;
+
+    @Setup
+    public void setUp() {
+        encoder = new EmbeddedChannel(new MessageEncoder(PREAMBLE));
+        decoder = new EmbeddedChannel(new MessageDecoder(PREAMBLE));
+        Endpoint sender = new Endpoint(IpAddress.valueOf("10.0.0.1"), 9876);
+        message = new InternalMessage(1L, sender, "onos-benchmark-message", new byte[payloadSize]);
+    }
+
+    @TearDown
+    public void tearDown() {
+        encoder.finish();
+        decoder.finish();
+    }
+
+    @Benchmark
+    public InternalMessage roundTrip() {
+        encoder.writeOutbound(message);
+        ByteBuf buffer = (ByteBuf) encoder.readOutbound();
+        decoder.writeInbound(buffer);
+        return (InternalMessage) decoder.readInbound();
+    }
+}
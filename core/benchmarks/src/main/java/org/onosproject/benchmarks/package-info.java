@@ -0,0 +1,27 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * JMH microbenchmarks of core serialization, messaging and store hot paths.
+ * <p>
+ * The build produces a self-contained {@code target/benchmarks.jar}; run all
+ * benchmarks with {@code java -jar core/benchmarks/target/benchmarks.jar},
+ * or a subset by passing a regular expression matching the benchmark names.
+ * Comparing the results of two builds on the same host catches throughput
+ * regressions before a rolling upgrade.
+ * </p>
+ */
+package org.onosproject.benchmarks;
@@ -18,14 +18,20 @@ package org.onosproject.common;
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.ImmutableSetMultimap.Builder;
-import org.onlab.graph.DijkstraGraphSearch;
+import org.onlab.graph.CompressedSparseRowGraph;
 import org.onlab.graph.DisjointPathPair;
 import org.onlab.graph.GraphPathSearch;
 import org.onlab.graph.GraphPathSearch.Result;
+import org.onlab.graph.IndexedDijkstraGraphSearch;
 import org.onlab.graph.SrlgGraphSearch;
 import org.onlab.graph.SuurballeGraphSearch;
 import org.onlab.graph.TarjanGraphSearch;
@@ -50,9 +56,16 @@ import org.onosproject.net.topology.TopologyEdge;
 import org.onosproject.net.topology.TopologyGraph;
 import org.onosproject.net.topology.TopologyVertex;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -71,25 +84,49 @@ import static org.onosproject.net.Link.Type.INDIRECT;
  */
 public class DefaultTopology extends AbstractModel implements Topology {
 
-    private static final DijkstraGraphSearch<TopologyVertex, TopologyEdge> DIJKSTRA = new DijkstraGraphSearch<>();
+    private static final IndexedDijkstraGraphSearch<TopologyVertex, TopologyEdge> DIJKSTRA =
+            new IndexedDijkstraGraphSearch<>();
     private static final TarjanGraphSearch<TopologyVertex, TopologyEdge> TARJAN = new TarjanGraphSearch<>();
     private static final SuurballeGraphSearch<TopologyVertex, TopologyEdge> SUURBALLE =
             new SuurballeGraphSearch<>();
 
+    private static final int MAX_CACHED_PATHS = 10_000;
+    private static final int MAX_CACHED_HOP_COUNTS = 1_000;
+    private static final LinkWeight NO_INDIRECT_LINKS = new NoIndirectLinksWeight();
+
 
     private final long time;
     private final long creationTime;
     private final long computeCost;
     private final TopologyGraph graph;
+    private final Supplier<CompressedSparseRowGraph<TopologyVertex, TopologyEdge>> indexedGraph;
+    private final Supplier<InboundEdges> inboundEdges;
+    // Hop-counts towards a vertex, keyed by vertex index
+    private final LoadingCache<Integer, int[]> hopCounts;
 
     private final LinkWeight weight;
-    private final Supplier<SccResult<TopologyVertex, TopologyEdge>> clusterResults;
+    private final Supplier<ClusterResults> clusterResults;
     private final Supplier<ImmutableMap<ClusterId, TopologyCluster>> clusters;
     private final Supplier<ImmutableSet<ConnectPoint>> infrastructurePoints;
     private final Supplier<ImmutableSetMultimap<ClusterId, ConnectPoint>> broadcastSets;
     private final Function<ConnectPoint, Boolean> broadcastFunction;
     private final Supplier<ClusterIndexes> clusterIndexes;
 
+    // Broadcast sets carried over from the previous topology, keyed by the
+    // index of the unchanged cluster they belong to
+    private final ImmutableMap<Integer, Set<ConnectPoint>> inheritedBroadcastSets;
+
+    // Shortest paths computed on demand with the default weight, keyed by
+    // end-points
+    private final Cache<PathKey, Set<Path>> pathCache;
+    // Statistics of the path caches of all previous topologies
+    private final CacheStats priorPathCacheStats;
+
+    // Whether the lazily computed results are available for reuse by the
+    // next topology
+    private volatile boolean clustersComputed = false;
+    private volatile boolean broadcastSetsComputed = false;
+
     /**
      * Creates a topology descriptor attributed to the specified provider.
      *
@@ -99,6 +136,32 @@ public class DefaultTopology extends AbstractModel implements Topology {
      */
     public DefaultTopology(ProviderId providerId, GraphDescription description,
                            Function<ConnectPoint, Boolean> broadcastFunction) {
+        this(providerId, description, broadcastFunction, null);
+    }
+
+    /**
+     * Creates a topology descriptor attributed to the specified provider,
+     * deriving its clusters incrementally from the previous topology.
+     * <p>
+     * Clusters untouched by the device and link changes since the previous
+     * topology are carried over along with their broadcast sets, and SCC
+     * search is re-run only for clusters that may have been split. If the
+     * changes may merge clusters, or the previous topology has not computed
+     * its clusters, the clusters are computed from scratch.
+     * </p>
+     * <p>
+     * Cached shortest paths which avoid the links removed since the previous
+     * topology are carried over as well, provided no links were added.
+     * </p>
+     *
+     * @param providerId        identity of the provider
+     * @param description       data describing the new topology
+     * @param broadcastFunction broadcast point function
+     * @param previous          previous topology; null to compute from scratch
+     */
+    public DefaultTopology(ProviderId providerId, GraphDescription description,
+                           Function<ConnectPoint, Boolean> broadcastFunction,
+                           DefaultTopology previous) {
         super(providerId);
         this.broadcastFunction = broadcastFunction;
         this.time = description.timestamp();
@@ -108,11 +171,45 @@ public class DefaultTopology extends AbstractModel implements Topology {
         this.graph = new DefaultTopologyGraph(description.vertexes(),
                                               description.edges());
 
-        this.clusterResults = Suppliers.memoize(() -> searchForClusters());
+        // Derive the clusters and carry over the cached paths from the
+        // previous topology if possible; this is done eagerly so that no
+        // reference to the previous topology is retained.
+        this.pathCache = CacheBuilder.newBuilder()
+                .maximumSize(MAX_CACHED_PATHS)
+                .recordStats()
+                .build();
+        ClusterResults derived = null;
+        Map<Integer, Set<ConnectPoint>> inherited = new HashMap<>();
+        if (previous != null) {
+            List<TopologyEdge> addedEdges = new ArrayList<>();
+            List<TopologyEdge> removedEdges = new ArrayList<>();
+            diffEdges(previous.graph, addedEdges, removedEdges);
+            if (previous.clustersComputed) {
+                derived = deriveClusters(previous, addedEdges, removedEdges, inherited);
+            }
+            inheritPaths(previous, addedEdges, removedEdges);
+            this.priorPathCacheStats = previous.pathCacheStats();
+        } else {
+            this.priorPathCacheStats = new CacheStats(0, 0, 0, 0, 0, 0);
+        }
+
+        if (derived != null) {
+            this.clusterResults = Suppliers.ofInstance(derived);
+            this.clustersComputed = true;
+            this.inheritedBroadcastSets = ImmutableMap.copyOf(inherited);
+        } else {
+            this.clusterResults = Suppliers.memoize(() -> searchForClusters());
+            this.inheritedBroadcastSets = ImmutableMap.of();
+        }
         this.clusters = Suppliers.memoize(() -> buildTopologyClusters());
 
         this.clusterIndexes = Suppliers.memoize(() -> buildIndexes());
 
+        this.indexedGraph = Suppliers.memoize(() -> CompressedSparseRowGraph.copyOf(graph));
+        this.inboundEdges = Suppliers.memoize(() -> new InboundEdges(indexedGraph.get()));
+        this.hopCounts = CacheBuilder.newBuilder()
+                .maximumSize(MAX_CACHED_HOP_COUNTS)
+                .build(CacheLoader.from(this::hopCountsTo));
         this.weight = new HopCountLinkWeight(graph.getVertexes().size());
         this.broadcastSets = Suppliers.memoize(() -> buildBroadcastSets());
         this.infrastructurePoints = Suppliers.memoize(() -> findInfrastructurePoints());
@@ -299,7 +396,9 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     /**
      * Computes on-demand the set of shortest paths between source and
-     * destination devices.
+     * destination devices. Results for the default weight are cached for the
+     * lifetime of the topology; those for other weights are not, since these
+     * may depend on more than the topology, e.g. on resource availability.
      *
      * @param src    source device
      * @param dst    destination device
@@ -315,8 +414,21 @@ public class DefaultTopology extends AbstractModel implements Topology {
             return ImmutableSet.of();
         }
 
+        if (weight != null) {
+            return searchPaths(srcV, dstV, weight);
+        }
+        PathKey key = new PathKey(src, dst);
+        Set<Path> paths = pathCache.getIfPresent(key);
+        if (paths == null) {
+            paths = searchPaths(srcV, dstV, null);
+            pathCache.put(key, paths);
+        }
+        return paths;
+    }
+
+    private Set<Path> searchPaths(TopologyVertex srcV, TopologyVertex dstV, LinkWeight weight) {
         GraphPathSearch.Result<TopologyVertex, TopologyEdge> result =
-                DIJKSTRA.search(graph, srcV, dstV, weight, ALL_PATHS);
+                DIJKSTRA.search(indexedGraph.get(), srcV, dstV, weight, ALL_PATHS);
         ImmutableSet.Builder<Path> builder = ImmutableSet.builder();
         for (org.onlab.graph.Path<TopologyVertex, TopologyEdge> path : result.paths()) {
             builder.add(networkPath(path));
@@ -324,6 +436,52 @@ public class DefaultTopology extends AbstractModel implements Topology {
         return builder.build();
     }
 
+    /**
+     * Returns the set of links leading out of the source device along any of
+     * the shortest paths, in terms of hop-count, towards the destination
+     * device. Only active, direct links are considered. The hop-counts of all
+     * devices towards the destination are computed on the first call for
+     * that destination and shared by subsequent calls.
+     *
+     * @param src source device
+     * @param dst destination device
+     * @return set of ECMP next hop links
+     */
+    public Set<Link> getEcmpNextHops(DeviceId src, DeviceId dst) {
+        CompressedSparseRowGraph<TopologyVertex, TopologyEdge> indexed = indexedGraph.get();
+        int srcIndex = indexed.indexOf(new DefaultTopologyVertex(src));
+        int dstIndex = indexed.indexOf(new DefaultTopologyVertex(dst));
+        if (srcIndex < 0 || dstIndex < 0) {
+            // src or dst not part of the current graph
+            return ImmutableSet.of();
+        }
+
+        int[] counts = hopCounts.getUnchecked(dstIndex);
+        int hops = counts[srcIndex];
+        if (hops <= 0) {
+            return ImmutableSet.of();
+        }
+
+        // Next hops are those neighbours one hop closer to the destination.
+        ImmutableSet.Builder<Link> builder = ImmutableSet.builder();
+        for (int e = indexed.firstEdgeFrom(srcIndex), end = indexed.endEdgeFrom(srcIndex); e < end; e++) {
+            if (counts[indexed.edgeTarget(e)] == hops - 1 && isTraversable(indexed.edge(e))) {
+                builder.add(indexed.edge(e).link());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the statistics of the shortest path cache, accumulated over
+     * this topology and all the topologies it was derived from.
+     *
+     * @return path cache statistics
+     */
+    public CacheStats pathCacheStats() {
+        return priorPathCacheStats.plus(pathCache.stats());
+    }
+
     /**
      * /**
      * Returns the set of pre-computed shortest disjoint path pairs between source and
@@ -455,19 +613,227 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     // Searches for SCC clusters in the network topology graph using Tarjan
     // algorithm.
-    private SccResult<TopologyVertex, TopologyEdge> searchForClusters() {
-        return TARJAN.search(graph, new NoIndirectLinksWeight());
+    private ClusterResults searchForClusters() {
+        SccResult<TopologyVertex, TopologyEdge> results =
+                TARJAN.search(graph, new NoIndirectLinksWeight());
+        clustersComputed = true;
+        return new ClusterResults(results.clusterVertexes(), results.clusterEdges());
+    }
+
+    // Derives the SCC clusters from those of the previous topology by
+    // examining the vertex and edge delta between the two graphs. Clusters
+    // whose vertexes and edges are unchanged are reused as-is, along with
+    // their broadcast sets if known, and only the clusters which may have
+    // been split are searched again. Returns null if the delta may merge
+    // clusters, in which case the full search must be used instead.
+    private ClusterResults deriveClusters(DefaultTopology previous,
+                                          List<TopologyEdge> addedEdges,
+                                          List<TopologyEdge> removedEdges,
+                                          Map<Integer, Set<ConnectPoint>> inheritedSets) {
+        TopologyGraph priorGraph = previous.graph;
+        ClusterResults prior = previous.clusterResults.get();
+
+        Set<Integer> splitCandidates = new HashSet<>();
+        Set<Integer> changedEdgeSets = new HashSet<>();
+        List<TopologyEdge> removedClusterEdges = new ArrayList<>();
+
+        // Clusters losing a vertex may split.
+        for (TopologyVertex vertex : priorGraph.getVertexes()) {
+            if (!graph.getVertexes().contains(vertex)) {
+                splitCandidates.add(prior.clusterOf(vertex));
+            }
+        }
+
+        // Edges which are new, or whose link changed, may only join vertexes
+        // that are already within the same cluster.
+        for (TopologyEdge edge : addedEdges) {
+            TopologyEdge priorEdge = findEdge(priorGraph, edge);
+            Integer src = prior.clusterOf(edge.src());
+            Integer dst = prior.clusterOf(edge.dst());
+            boolean newClusterEdge = isClusterEdge(edge) &&
+                    (priorEdge == null || !isClusterEdge(priorEdge));
+            if (newClusterEdge && (src == null || !src.equals(dst))) {
+                return null;
+            }
+            if (src != null && src.equals(dst)) {
+                changedEdgeSets.add(src);
+            }
+        }
+
+        // Edges which are gone, or no longer traversable, may split clusters.
+        for (TopologyEdge priorEdge : removedEdges) {
+            TopologyEdge edge = findEdge(graph, priorEdge);
+            Integer src = prior.clusterOf(priorEdge.src());
+            if (!src.equals(prior.clusterOf(priorEdge.dst()))) {
+                continue;
+            }
+            changedEdgeSets.add(src);
+            if (isClusterEdge(priorEdge) && (edge == null || !isClusterEdge(edge))) {
+                removedClusterEdges.add(priorEdge);
+            }
+        }
+
+        // A cluster survives the loss of an edge if the edge source can still
+        // reach the edge destination within the cluster.
+        for (TopologyEdge priorEdge : removedClusterEdges) {
+            int index = prior.clusterOf(priorEdge.src());
+            if (!splitCandidates.contains(index) &&
+                    !isReachable(priorEdge.src(), priorEdge.dst(),
+                                 prior.clusterVertexes.get(index))) {
+                splitCandidates.add(index);
+            }
+        }
+
+        List<Set<TopologyVertex>> clusterVertexes = new ArrayList<>();
+        List<Set<TopologyEdge>> clusterEdges = new ArrayList<>();
+        List<Set<TopologyVertex>> splitVertexes = new ArrayList<>();
+        boolean reuseBroadcastSets = previous.broadcastSetsComputed;
+
+        for (int i = 0, n = prior.clusterCount(); i < n; i++) {
+            Set<TopologyVertex> vertexSet = prior.clusterVertexes.get(i);
+            if (splitCandidates.contains(i)) {
+                Set<TopologyVertex> remaining = vertexSet.stream()
+                        .filter(graph.getVertexes()::contains)
+                        .collect(Collectors.toSet());
+                if (!remaining.isEmpty()) {
+                    splitVertexes.add(remaining);
+                }
+            } else if (changedEdgeSets.contains(i)) {
+                clusterVertexes.add(vertexSet);
+                clusterEdges.add(findClusterEdges(vertexSet));
+            } else {
+                if (reuseBroadcastSets) {
+                    inheritedSets.put(clusterVertexes.size(),
+                                      previous.broadcastPoints(ClusterId.clusterId(i)));
+                }
+                clusterVertexes.add(vertexSet);
+                clusterEdges.add(prior.clusterEdges.get(i));
+            }
+        }
+
+        // Search again only the remainders of clusters that may have split.
+        for (Set<TopologyVertex> remaining : splitVertexes) {
+            TopologyGraph subgraph = new DefaultTopologyGraph(remaining, findClusterEdges(remaining));
+            SccResult<TopologyVertex, TopologyEdge> results =
+                    TARJAN.search(subgraph, new NoIndirectLinksWeight());
+            clusterVertexes.addAll(results.clusterVertexes());
+            clusterEdges.addAll(results.clusterEdges());
+        }
+
+        // New vertexes with no traversable edges form clusters of their own.
+        for (TopologyVertex vertex : graph.getVertexes()) {
+            if (prior.clusterOf(vertex) == null) {
+                Set<TopologyVertex> vertexSet = ImmutableSet.of(vertex);
+                clusterVertexes.add(vertexSet);
+                clusterEdges.add(findClusterEdges(vertexSet));
+            }
+        }
+        return new ClusterResults(clusterVertexes, clusterEdges);
+    }
+
+    // Collects the edges of the graph that are not present, with the same
+    // link, in the prior graph and vice versa.
+    private void diffEdges(TopologyGraph priorGraph, List<TopologyEdge> addedEdges,
+                           List<TopologyEdge> removedEdges) {
+        for (TopologyEdge edge : graph.getEdges()) {
+            TopologyEdge priorEdge = findEdge(priorGraph, edge);
+            if (priorEdge == null || priorEdge.link() != edge.link()) {
+                addedEdges.add(edge);
+            }
+        }
+        for (TopologyEdge priorEdge : priorGraph.getEdges()) {
+            TopologyEdge edge = findEdge(graph, priorEdge);
+            if (edge == null || priorEdge.link() != edge.link()) {
+                removedEdges.add(priorEdge);
+            }
+        }
+    }
+
+    // Carries over the cached paths of the previous topology which remain
+    // valid. Removing links cannot shorten any path, so cached paths that
+    // avoid the removed links are still the shortest ones; any added or
+    // changed link invalidates all of them.
+    private void inheritPaths(DefaultTopology previous, List<TopologyEdge> addedEdges,
+                              List<TopologyEdge> removedEdges) {
+        if (!addedEdges.isEmpty()) {
+            return;
+        }
+        Set<Link> removedLinks = removedEdges.stream()
+                .map(TopologyEdge::link)
+                .collect(Collectors.toSet());
+        Set<TopologyVertex> vertexes = graph.getVertexes();
+        previous.pathCache.asMap().forEach((key, paths) -> {
+            if (vertexes.contains(new DefaultTopologyVertex(key.src)) &&
+                    vertexes.contains(new DefaultTopologyVertex(key.dst)) &&
+                    paths.stream().noneMatch(path -> path.links().stream()
+                            .anyMatch(removedLinks::contains))) {
+                pathCache.put(key, paths);
+            }
+        });
+    }
+
+    // Returns the edge of the graph equal to the given edge, if any.
+    private static TopologyEdge findEdge(TopologyGraph graph, TopologyEdge edge) {
+        for (TopologyEdge candidate : graph.getEdgesFrom(edge.src())) {
+            if (candidate.equals(edge)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    // Indicates whether the edge is traversed by the SCC search.
+    private static boolean isClusterEdge(TopologyEdge edge) {
+        return new NoIndirectLinksWeight().weight(edge) >= 0;
+    }
+
+    // Indicates whether the destination can be reached from the source by
+    // traversing only cluster edges between the given vertexes.
+    private boolean isReachable(TopologyVertex src, TopologyVertex dst,
+                                Set<TopologyVertex> vertexes) {
+        Set<TopologyVertex> visited = new HashSet<>();
+        Deque<TopologyVertex> pending = new ArrayDeque<>();
+        visited.add(src);
+        pending.add(src);
+        while (!pending.isEmpty()) {
+            for (TopologyEdge edge : graph.getEdgesFrom(pending.poll())) {
+                TopologyVertex next = edge.dst();
+                if (!isClusterEdge(edge) || !vertexes.contains(next)) {
+                    continue;
+                }
+                if (next.equals(dst)) {
+                    return true;
+                }
+                if (visited.add(next)) {
+                    pending.add(next);
+                }
+            }
+        }
+        return false;
+    }
+
+    // Finds all edges of the graph linking the given vertexes.
+    private Set<TopologyEdge> findClusterEdges(Set<TopologyVertex> vertexes) {
+        Set<TopologyEdge> edges = new HashSet<>();
+        for (TopologyVertex vertex : vertexes) {
+            for (TopologyEdge edge : graph.getEdgesFrom(vertex)) {
+                if (vertexes.contains(edge.dst())) {
+                    edges.add(edge);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(edges);
     }
 
     // Builds the topology clusters and returns the id-cluster bindings.
     private ImmutableMap<ClusterId, TopologyCluster> buildTopologyClusters() {
         ImmutableMap.Builder<ClusterId, TopologyCluster> clusterBuilder = ImmutableMap.builder();
-        SccResult<TopologyVertex, TopologyEdge> results = clusterResults.get();
+        ClusterResults results = clusterResults.get();
 
         // Extract both vertexes and edges from the results; the lists form
         // pairs along the same index.
-        List<Set<TopologyVertex>> clusterVertexes = results.clusterVertexes();
-        List<Set<TopologyEdge>> clusterEdges = results.clusterEdges();
+        List<Set<TopologyVertex>> clusterVertexes = results.clusterVertexes;
+        List<Set<TopologyEdge>> clusterEdges = results.clusterEdges;
 
         // Scan over the lists and create a cluster from the results.
         for (int i = 0, n = results.clusterCount(); i < n; i++) {
@@ -502,8 +868,14 @@ public class DefaultTopology extends AbstractModel implements Topology {
         Builder<ClusterId, ConnectPoint> builder = ImmutableSetMultimap
                 .builder();
         for (TopologyCluster cluster : clusters.get().values()) {
-            addClusterBroadcastSet(cluster, builder);
+            Set<ConnectPoint> inherited = inheritedBroadcastSets.get(cluster.id().index());
+            if (inherited != null) {
+                builder.putAll(cluster.id(), inherited);
+            } else {
+                addClusterBroadcastSet(cluster, builder);
+            }
         }
+        broadcastSetsComputed = true;
         return builder.build();
     }
 
@@ -512,7 +884,8 @@ public class DefaultTopology extends AbstractModel implements Topology {
     // all other devices within the cluster.
     private void addClusterBroadcastSet(TopologyCluster cluster, Builder<ClusterId, ConnectPoint> builder) {
         // Use the graph root search results to build the broadcast set.
-        Result<TopologyVertex, TopologyEdge> result = DIJKSTRA.search(graph, cluster.root(), null, weight, 1);
+        Result<TopologyVertex, TopologyEdge> result =
+                DIJKSTRA.search(indexedGraph.get(), cluster.root(), null, weight, 1);
         for (Map.Entry<TopologyVertex, Set<TopologyEdge>> entry : result.parents().entrySet()) {
             TopologyVertex vertex = entry.getKey();
 
@@ -535,6 +908,37 @@ public class DefaultTopology extends AbstractModel implements Topology {
         }
     }
 
+    // Returns true if paths may traverse the edge, i.e. if its link is both
+    // active and direct.
+    private static boolean isTraversable(TopologyEdge edge) {
+        return NO_INDIRECT_LINKS.weight(edge) >= 0;
+    }
+
+    // Computes the hop-counts from all vertexes to the vertex with the given
+    // index, by a breadth-first search along the inbound edges; -1 for the
+    // vertexes from which it cannot be reached.
+    private int[] hopCountsTo(int dst) {
+        InboundEdges inbound = inboundEdges.get();
+        int[] counts = new int[inbound.offsets.length - 1];
+        Arrays.fill(counts, -1);
+        int[] queue = new int[counts.length];
+        int head = 0;
+        int tail = 0;
+        counts[dst] = 0;
+        queue[tail++] = dst;
+        while (head < tail) {
+            int vertex = queue[head++];
+            for (int i = inbound.offsets[vertex], end = inbound.offsets[vertex + 1]; i < end; i++) {
+                int previous = inbound.sources[i];
+                if (counts[previous] < 0) {
+                    counts[previous] = counts[vertex] + 1;
+                    queue[tail++] = previous;
+                }
+            }
+        }
+        return counts;
+    }
+
     // Collects and returns an set of all infrastructure link end-points.
     private ImmutableSet<ConnectPoint> findInfrastructurePoints() {
         ImmutableSet.Builder<ConnectPoint> builder = ImmutableSet.builder();
@@ -560,13 +964,13 @@ public class DefaultTopology extends AbstractModel implements Topology {
             int i = cluster.id().index();
 
             // Scan through all the cluster vertexes.
-            for (TopologyVertex vertex : clusterResults.get().clusterVertexes().get(i)) {
+            for (TopologyVertex vertex : clusterResults.get().clusterVertexes.get(i)) {
                 devicesBuilder.put(cluster, vertex.deviceId());
                 clusterBuilder.put(vertex.deviceId(), cluster);
             }
 
             // Scan through all the cluster edges.
-            for (TopologyEdge edge : clusterResults.get().clusterEdges().get(i)) {
+            for (TopologyEdge edge : clusterResults.get().clusterEdges.get(i)) {
                 linksBuilder.put(cluster, edge.link());
             }
         }
@@ -605,6 +1009,94 @@ public class DefaultTopology extends AbstractModel implements Topology {
         }
     }
 
+    // Sources of the traversable edges leading into each vertex of the indexed
+    // graph; those of the edges into vertex v are held in
+    // sources[offsets[v]] up to, but excluding, sources[offsets[v + 1]].
+    private static final class InboundEdges {
+        final int[] offsets;
+        final int[] sources;
+
+        InboundEdges(CompressedSparseRowGraph<TopologyVertex, TopologyEdge> indexed) {
+            int count = indexed.vertexCount();
+            offsets = new int[count + 1];
+            for (int v = 0; v < count; v++) {
+                for (int e = indexed.firstEdgeFrom(v), end = indexed.endEdgeFrom(v); e < end; e++) {
+                    if (isTraversable(indexed.edge(e))) {
+                        offsets[indexed.edgeTarget(e) + 1]++;
+                    }
+                }
+            }
+            for (int v = 0; v < count; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            sources = new int[offsets[count]];
+            int[] next = Arrays.copyOf(offsets, count);
+            for (int v = 0; v < count; v++) {
+                for (int e = indexed.firstEdgeFrom(v), end = indexed.endEdgeFrom(v); e < end; e++) {
+                    if (isTraversable(indexed.edge(e))) {
+                        sources[next[indexed.edgeTarget(e)]++] = v;
+                    }
+                }
+            }
+        }
+    }
+
+    // SCC clusters of the graph, along with the vertex-cluster bindings.
+    private static final class ClusterResults {
+        final List<Set<TopologyVertex>> clusterVertexes;
+        final List<Set<TopologyEdge>> clusterEdges;
+        final Map<TopologyVertex, Integer> vertexClusters = new HashMap<>();
+
+        ClusterResults(List<Set<TopologyVertex>> clusterVertexes,
+                       List<Set<TopologyEdge>> clusterEdges) {
+            this.clusterVertexes = Collections.unmodifiableList(clusterVertexes);
+            this.clusterEdges = Collections.unmodifiableList(clusterEdges);
+            for (int i = 0; i < clusterVertexes.size(); i++) {
+                for (TopologyVertex vertex : clusterVertexes.get(i)) {
+                    vertexClusters.put(vertex, i);
+                }
+            }
+        }
+
+        int clusterCount() {
+            return clusterVertexes.size();
+        }
+
+        // Returns the index of the cluster containing the vertex, or null.
+        Integer clusterOf(TopologyVertex vertex) {
+            return vertexClusters.get(vertex);
+        }
+    }
+
+    // Key of the path cache.
+    private static final class PathKey {
+        private final DeviceId src;
+        private final DeviceId dst;
+
+        PathKey(DeviceId src, DeviceId dst) {
+            this.src = src;
+            this.dst = dst;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(src, dst);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof PathKey) {
+                final PathKey other = (PathKey) obj;
+                return Objects.equals(this.src, other.src) &&
+                        Objects.equals(this.dst, other.dst);
+            }
+            return false;
+        }
+    }
+
     static final class ClusterIndexes {
         final ImmutableMap<DeviceId, TopologyCluster> clustersByDevice;
         final ImmutableSetMultimap<TopologyCluster, DeviceId> devicesByCluster;
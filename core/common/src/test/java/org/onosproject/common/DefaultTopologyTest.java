@@ -15,6 +15,7 @@
  */
 package org.onosproject.common;
 
+import com.google.common.collect.ImmutableSet;
 import org.junit.Before;
 import org.junit.Test;
 import org.onlab.packet.ChassisId;
@@ -32,8 +33,10 @@ import org.onosproject.net.topology.DefaultGraphDescription;
 import org.onosproject.net.topology.GraphDescription;
 import org.onosproject.net.topology.LinkWeight;
 import org.onosproject.net.topology.TopologyCluster;
+import org.onosproject.net.topology.TopologyEdge;
 
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static com.google.common.collect.ImmutableSet.of;
 import static org.junit.Assert.*;
@@ -100,6 +103,28 @@ public class DefaultTopologyTest {
         assertEquals("incorrect path count", 1, paths.size());
     }
 
+    @Test
+    public void ecmpNextHops() {
+        assertEquals("incorrect next hops", of(link("1", 1, "2", 1), link("1", 3, "4", 3)),
+                     dt.getEcmpNextHops(D1, D3));
+        assertEquals("incorrect next hops", of(link("2", 2, "3", 2)),
+                     dt.getEcmpNextHops(D2, D3));
+        assertTrue("no next hops expected", dt.getEcmpNextHops(D1, D1).isEmpty());
+        assertTrue("no next hops expected", dt.getEcmpNextHops(D1, D5).isEmpty());
+    }
+
+    @Test
+    public void ecmpNextHopsAvoidUnusableLinks() {
+        Link indirect = new DefaultLink(PID, new ConnectPoint(D1, portNumber(5)),
+                                        new ConnectPoint(D3, portNumber(5)), Link.Type.INDIRECT);
+        Link inactive = new DefaultLink(PID, new ConnectPoint(D1, portNumber(6)),
+                                        new ConnectPoint(D3, portNumber(6)), Link.Type.DIRECT,
+                                        Link.State.INACTIVE, false);
+        DefaultTopology topology = topology(null, link("1", 1, "2", 1), link("2", 2, "3", 2),
+                                            indirect, inactive);
+        assertEquals("incorrect next hops", of(link("1", 1, "2", 1)), topology.getEcmpNextHops(D1, D3));
+    }
+
     @Test
     public void pointRelated() {
         assertTrue("should be infrastructure point",
@@ -120,6 +145,118 @@ public class DefaultTopologyTest {
         assertFalse("cluster should not contain D5", devs.contains(D5));
     }
 
+    @Test
+    public void incrementalLinkRemoval() {
+        dt.getClusters();
+        dt.broadcastPoints(ClusterId.clusterId(0));
+
+        // Losing one direction of the 1-4 link keeps 1-2-3-4 connected.
+        DefaultTopology next = topology(dt, link("1", 1, "2", 1), link("2", 1, "1", 1),
+                                        link("3", 2, "2", 2), link("2", 2, "3", 2),
+                                        link("4", 3, "1", 3),
+                                        link("3", 4, "4", 4), link("4", 4, "3", 4));
+        assertSameClusters(next);
+        assertEquals("incorrect cluster link count", 7,
+                     next.getClusterLinks(next.getCluster(D1)).size());
+
+        // Losing the 3-4 link as well cuts off device 4.
+        next = topology(next, link("1", 1, "2", 1), link("2", 1, "1", 1),
+                        link("3", 2, "2", 2), link("2", 2, "3", 2),
+                        link("4", 3, "1", 3));
+        assertSameClusters(next);
+        assertEquals("incorrect cluster count", 3, next.clusterCount());
+        assertEquals("incorrect cluster device count", 3,
+                     next.getClusterDevices(next.getCluster(D1)).size());
+    }
+
+    @Test
+    public void incrementalLinkAddition() {
+        dt.getClusters();
+
+        // Linking device 5 merges the clusters, requiring a full search.
+        DefaultTopology next = topology(dt, link("1", 1, "2", 1), link("2", 1, "1", 1),
+                                        link("3", 2, "2", 2), link("2", 2, "3", 2),
+                                        link("1", 3, "4", 3), link("4", 3, "1", 3),
+                                        link("3", 4, "4", 4), link("4", 4, "3", 4),
+                                        link("4", 5, "5", 5), link("5", 5, "4", 5));
+        assertSameClusters(next);
+        assertEquals("incorrect cluster count", 1, next.clusterCount());
+    }
+
+    @Test
+    public void pathCache() {
+        Link l12 = link("1", 1, "2", 1), l21 = link("2", 1, "1", 1);
+        Link l32 = link("3", 2, "2", 2), l23 = link("2", 2, "3", 2);
+        Link l14 = link("1", 3, "4", 3), l41 = link("4", 3, "1", 3);
+        Link l34 = link("3", 4, "4", 4), l43 = link("4", 4, "3", 4);
+        DefaultTopology first = topology(null, l12, l21, l32, l23, l14, l41, l34, l43);
+
+        Set<Path> paths = first.getPaths(D1, D2);
+        assertSame("paths should be cached", paths, first.getPaths(D1, D2));
+        first.getPaths(D1, D3);
+        assertEquals("incorrect hit count", 1, first.pathCacheStats().hitCount());
+        assertEquals("incorrect miss count", 2, first.pathCacheStats().missCount());
+
+        // Paths for other weights are not cached.
+        first.getPaths(D1, D3, WEIGHT);
+        first.getPaths(D1, D3, WEIGHT);
+        assertEquals("incorrect hit count", 1, first.pathCacheStats().hitCount());
+        assertEquals("incorrect miss count", 2, first.pathCacheStats().missCount());
+
+        // Paths avoiding the removed link are carried over; others are not.
+        DefaultTopology next = topology(first, l12, l21, l32, l23, l14, l41, l34);
+        assertSame("paths should be carried over", paths, next.getPaths(D1, D2));
+        assertEquals("incorrect path count", 1, next.getPaths(D1, D3).size());
+        assertEquals("incorrect hit count", 2, next.pathCacheStats().hitCount());
+        assertEquals("incorrect miss count", 3, next.pathCacheStats().missCount());
+
+        // Added links invalidate all paths.
+        next = topology(next, l12, l21, l32, l23, l14, l41, l34, l43);
+        assertNotSame("paths should be recomputed", paths, next.getPaths(D1, D2));
+        assertEquals("incorrect path count", 2, next.getPaths(D1, D3).size());
+    }
+
+    // Derives a topology of all five devices and the given links from the
+    // previous one.
+    private DefaultTopology topology(DefaultTopology previous, Link... links) {
+        GraphDescription graphDescription =
+                new DefaultGraphDescription(System.nanoTime(), System.currentTimeMillis(),
+                                            of(device("1"), device("2"), device("3"),
+                                               device("4"), device("5")),
+                                            ImmutableSet.copyOf(links));
+        return new DefaultTopology(PID, graphDescription, null, previous);
+    }
+
+    // Asserts the topology clusters match those computed from scratch.
+    private void assertSameClusters(DefaultTopology topology) {
+        DefaultTopology full = new DefaultTopology(PID, new DefaultGraphDescription(
+                0L, 0L, devices(topology), links(topology)));
+        assertEquals("incorrect cluster count", full.clusterCount(), topology.clusterCount());
+        for (TopologyCluster cluster : full.getClusters()) {
+            DeviceId device = full.getClusterDevices(cluster).iterator().next();
+            TopologyCluster derived = topology.getCluster(device);
+            assertEquals("incorrect cluster devices", full.getClusterDevices(cluster),
+                         topology.getClusterDevices(derived));
+            assertEquals("incorrect cluster links", full.getClusterLinks(cluster),
+                         topology.getClusterLinks(derived));
+            assertEquals("incorrect broadcast set size",
+                         full.broadcastSetSize(cluster.id()),
+                         topology.broadcastSetSize(derived.id()));
+        }
+    }
+
+    private static Set<Device> devices(DefaultTopology topology) {
+        return topology.getGraph().getVertexes().stream()
+                .map(v -> device(v.deviceId().toString().substring(3)))
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<Link> links(DefaultTopology topology) {
+        return topology.getGraph().getEdges().stream()
+                .map(TopologyEdge::link)
+                .collect(Collectors.toSet());
+    }
+
     // Short-hand for creating a link.
     public static Link link(String src, int sp, String dst, int dp) {
         return new DefaultLink(PID, new ConnectPoint(did(src), portNumber(sp)),
@@ -115,6 +115,11 @@ public class SimpleTopologyStore
         return defaultTopology(topology).getPaths(src, dst, weight);
     }
 
+    @Override
+    public Set<Link> getEcmpNextHops(Topology topology, DeviceId src, DeviceId dst) {
+        return defaultTopology(topology).getEcmpNextHops(src, dst);
+    }
+
     @Override
     public Set<DisjointPath> getDisjointPaths(Topology topology, DeviceId src, DeviceId dst) {
         return defaultTopology(topology).getDisjointPaths(src, dst);
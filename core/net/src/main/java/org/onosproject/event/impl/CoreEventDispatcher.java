@@ -15,36 +15,71 @@
  */
 package org.onosproject.event.impl;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.SharedExecutors;
+import org.onosproject.core.MetricsHelper;
 import org.onosproject.event.AbstractEvent;
 import org.onosproject.event.DefaultEventSinkRegistry;
 import org.onosproject.event.Event;
 import org.onosproject.event.EventDeliveryService;
+import org.onosproject.event.EventListener;
 import org.onosproject.event.EventSink;
+import org.onosproject.event.ListenerRegistry;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.link.LinkEvent;
 import org.slf4j.Logger;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.TimerTask;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Simple implementation of an event dispatching service.
+ * <p>
+ * Events destined to a {@link ListenerRegistry} are handed off to a bounded
+ * queue per listener and delivered to each listener in batches by a bounded
+ * pool of threads, so that a slow listener only delays its own events. While
+ * queued, an event superseded by a newer event of the same type for the same
+ * subject is replaced by it; events for the same subject are always
+ * delivered in the order in which they were posted.
+ * </p>
+ * <p>
+ * Dispatching never waits for a listener. A listener whose queue is full is
+ * ejected from its registries, as it would otherwise miss events; listeners
+ * which exceed the dispatch time limit are reported, but left undisturbed.
+ * </p>
  */
 @Component(immediate = true)
 @Service
 public class CoreEventDispatcher extends DefaultEventSinkRegistry
-        implements EventDeliveryService {
+        implements EventDeliveryService, MetricsHelper {
 
     private final Logger log = getLogger(getClass());
 
@@ -52,11 +87,26 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
     private static final long DEFAULT_EXECUTE_MS = 5_000; // ms
     private static final long WATCHDOG_MS = 250; // ms
 
+    // Maximum number of events queued for, and delivered at once to, a listener
+    private static final int LISTENER_QUEUE_CAPACITY = 10_000;
+    private static final int BATCH_SIZE = 128;
+    private static final int LISTENER_THREADS = 16;
+
+    private static final String METRICS_COMPONENT = "EventDispatcher";
+
     private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
 
     private final ExecutorService executor =
             newSingleThreadExecutor(groupedThreads("onos/event", "dispatch-%d"));
 
+    private final ExecutorService listenerExecutor =
+            newFixedThreadPool(LISTENER_THREADS, groupedThreads("onos/event", "listener-%d"));
+
+    private final Map<EventListener, ListenerQueue> listenerQueues = new ConcurrentHashMap<>();
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     @SuppressWarnings("unchecked")
     private static final Event KILL_PILL = new AbstractEvent(null, 0) {
     };
@@ -91,6 +141,8 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         dispatchLoop.stop();
         watchdog.cancel();
         post(KILL_PILL);
+        listenerQueues.values().forEach(ListenerQueue::cancel);
+        listenerQueues.clear();
         log.info("Stopped");
     }
 
@@ -106,6 +158,36 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         return maxProcessMillis;
     }
 
+    @Override
+    public MetricsService metricsService() {
+        return metricsService;
+    }
+
+    // Returns true if the newer event renders the older one, queued for the
+    // same subject, redundant.
+    private static boolean supersedes(Event newer, Event older) {
+        if (newer.getClass() != older.getClass() || newer.type() != older.type()) {
+            return false;
+        }
+        if (newer instanceof DeviceEvent) {
+            DeviceEvent event = (DeviceEvent) newer;
+            DeviceEvent prior = (DeviceEvent) older;
+            switch (event.type()) {
+                case DEVICE_UPDATED:
+                case PORT_STATS_UPDATED:
+                    return true;
+                case PORT_UPDATED:
+                    // Only attribute refreshes; a change of port state is
+                    // always delivered.
+                    return event.port().number().equals(prior.port().number()) &&
+                            event.port().isEnabled() == prior.port().isEnabled();
+                default:
+                    return false;
+            }
+        }
+        return newer instanceof LinkEvent && newer.type() == LinkEvent.Type.LINK_UPDATED;
+    }
+
     // Auxiliary event dispatching loop that feeds off the events queue.
     private class DispatchLoop implements Runnable {
         private volatile boolean stopped;
@@ -131,11 +213,18 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
             log.info("Dispatch loop terminated");
         }
 
-        // Locate the sink for the event class and use it to process the event
+        // Locate the sink for the event class and use it to process the event;
+        // listener registries get the event queued for each of their listeners
         @SuppressWarnings("unchecked")
         private void process(Event event) {
             EventSink sink = getSink(event.getClass());
-            if (sink != null) {
+            if (sink instanceof ListenerRegistry) {
+                ListenerRegistry registry = (ListenerRegistry) sink;
+                for (Object listener : registry.getListeners()) {
+                    listenerQueues.computeIfAbsent((EventListener) listener, ListenerQueue::new)
+                            .enqueue(registry, event);
+                }
+            } else if (sink != null) {
                 lastSink = sink;
                 lastStart = System.currentTimeMillis();
                 sink.process(event);
@@ -151,10 +240,30 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         }
     }
 
-    // Monitors event sinks to make sure none take too long to execute.
+    // Monitors event sinks and listeners to make sure none take too long to
+    // execute.
     private class Watchdog extends TimerTask {
         @Override
         public void run() {
+            checkListeners();
+            checkSink();
+        }
+
+        // Reports listeners which exceeded the time limit and discards the
+        // queues of listeners which are no longer registered.
+        private void checkListeners() {
+            long now = System.currentTimeMillis();
+            for (ListenerQueue queue : listenerQueues.values()) {
+                long start = queue.deliveryStart;
+                if (start > 0 && now - start > maxProcessMillis) {
+                    queue.reportOverrun(start, now);
+                } else if (start == 0 && !queue.isRegistered()) {
+                    queue.discard();
+                }
+            }
+        }
+
+        private void checkSink() {
             long delta = System.currentTimeMillis() - lastStart;
             if (lastStart > 0 && delta > maxProcessMillis) {
                 lastStart = 0;
@@ -172,4 +281,170 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
             }
         }
     }
+
+    // Event queued for delivery to a listener.
+    private static final class Entry {
+        private final ListenerRegistry registry;
+        private final Object subjectKey;
+        private final long enqueued = System.nanoTime();
+        private Event event;
+
+        private Entry(ListenerRegistry registry, Object subjectKey, Event event) {
+            this.registry = registry;
+            this.subjectKey = subjectKey;
+            this.event = event;
+        }
+    }
+
+    // Bounded queue of events awaiting delivery to a single listener, drained
+    // in batches by at most one listener thread at a time.
+    private final class ListenerQueue implements Runnable {
+        private final EventListener listener;
+        private final Set<ListenerRegistry> registries = Sets.newConcurrentHashSet();
+
+        // Queued entries and the last queued entry for each subject
+        private final Deque<Entry> entries = new ArrayDeque<>();
+        private final Map<Object, Entry> lastEntries = new HashMap<>();
+        private boolean scheduled;
+        private boolean ejected;
+        private long reportedStart;
+
+        private volatile long deliveryStart = 0;
+
+        private final Timer latency;
+        private final Counter backlog;
+        private final Counter coalesced;
+
+        private ListenerQueue(EventListener listener) {
+            this.listener = listener;
+            String feature = listener.getClass().getName();
+            this.latency = createTimer(METRICS_COMPONENT, feature, "latency");
+            this.backlog = createCounter(METRICS_COMPONENT, feature, "backlog");
+            this.coalesced = createCounter(METRICS_COMPONENT, feature, "coalesced");
+        }
+
+        // Queues the event, unless it supersedes the last event queued for
+        // the same subject, in which case it takes that event's place; ejects
+        // the listener if its queue is full.
+        private void enqueue(ListenerRegistry registry, Event event) {
+            registries.add(registry);
+            Object subjectKey = Arrays.asList(event.getClass(), event.subject());
+            synchronized (this) {
+                if (ejected) {
+                    return;
+                }
+                Entry last = lastEntries.get(subjectKey);
+                if (last != null && supersedes(event, last.event)) {
+                    last.event = event;
+                    increment(coalesced, 1);
+                    return;
+                }
+                if (entries.size() >= LISTENER_QUEUE_CAPACITY) {
+                    eject();
+                    return;
+                }
+                Entry entry = new Entry(registry, subjectKey, event);
+                entries.add(entry);
+                lastEntries.put(subjectKey, entry);
+                increment(backlog, 1);
+                if (!scheduled) {
+                    scheduled = true;
+                    listenerExecutor.execute(this);
+                }
+            }
+        }
+
+        // Removes the listener from its registries and discards its queued
+        // events; any delivery in progress is left to complete.
+        @SuppressWarnings("unchecked")
+        private void eject() {
+            ejected = true;
+            log.error("Listener {} exceeded event backlog limit: {} events; ejected",
+                      listener.getClass().getName(), LISTENER_QUEUE_CAPACITY);
+            registries.forEach(r -> r.removeListener(listener));
+            increment(backlog, -entries.size());
+            entries.clear();
+            lastEntries.clear();
+            listenerQueues.remove(listener, this);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void run() {
+            List<Entry> batch = Lists.newArrayListWithCapacity(BATCH_SIZE);
+            if (nextBatch(batch)) {
+                for (Entry entry : batch) {
+                    deliveryStart = System.currentTimeMillis();
+                    entry.registry.deliver(entry.event, listener);
+                    if (latency != null) {
+                        latency.update(System.nanoTime() - entry.enqueued, TimeUnit.NANOSECONDS);
+                    }
+                }
+                deliveryStart = 0;
+            }
+            reschedule();
+        }
+
+        // Moves the next batch of entries into the given list; returns false
+        // if there are none.
+        private synchronized boolean nextBatch(List<Entry> batch) {
+            while (batch.size() < BATCH_SIZE && !entries.isEmpty()) {
+                Entry entry = entries.poll();
+                lastEntries.remove(entry.subjectKey, entry);
+                batch.add(entry);
+            }
+            if (batch.isEmpty()) {
+                return false;
+            }
+            increment(backlog, -batch.size());
+            return true;
+        }
+
+        // Hands the queue back to the pool if more entries are queued, so
+        // that busy listeners take turns at the listener threads; otherwise
+        // marks it as idle.
+        private synchronized void reschedule() {
+            if (entries.isEmpty()) {
+                scheduled = false;
+            } else {
+                listenerExecutor.execute(this);
+            }
+        }
+
+        // Reports the delivery started at the given time, once; the listener
+        // only holds up its own events, so it is left to complete.
+        private synchronized void reportOverrun(long start, long now) {
+            if (reportedStart != start && deliveryStart == start) {
+                reportedStart = start;
+                log.warn("Listener {} exceeded execution time limit: {} ms; backlog {} events",
+                         listener.getClass().getName(), now - start, entries.size());
+            }
+        }
+
+        // Returns true if the listener is still registered with any registry.
+        private boolean isRegistered() {
+            return registries.stream().anyMatch(r -> r.getListeners().contains(listener));
+        }
+
+        // Discards the queue, provided it is idle.
+        private synchronized void discard() {
+            if (!scheduled) {
+                listenerQueues.remove(listener, this);
+            }
+        }
+
+        // Drops all queued events; any delivery in progress is left to
+        // complete.
+        private synchronized void cancel() {
+            increment(backlog, -entries.size());
+            entries.clear();
+            lastEntries.clear();
+        }
+
+        private void increment(Counter counter, long delta) {
+            if (counter != null) {
+                counter.inc(delta);
+            }
+        }
+    }
 }
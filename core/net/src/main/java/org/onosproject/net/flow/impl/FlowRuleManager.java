@@ -64,7 +64,9 @@ import org.onosproject.net.provider.AbstractProviderService;
 import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Dictionary;
 import java.util.List;
 import java.util.Map;
@@ -78,6 +80,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.flow.FlowRuleEvent.Type.RULE_ADD_REQUESTED;
 import static org.onosproject.net.flow.FlowRuleEvent.Type.RULE_REMOVE_REQUESTED;
+import static org.onosproject.net.flow.FlowRuleEvent.Type.RULE_STATS_UPDATED;
+import static org.onosproject.net.flow.FlowRuleEvent.Type.RULE_UPDATED;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.slf4j.LoggerFactory.getLogger;
 import static org.onosproject.security.AppPermission.Type.*;
@@ -101,6 +105,13 @@ public class FlowRuleManager
             label = "Allow flow rules in switch not installed by ONOS")
     private boolean allowExtraneousRules = ALLOW_EXTRANEOUS_RULES;
 
+    private static final boolean AGGREGATE_STATS_EVENTS = false;
+
+    @Property(name = "aggregateStatsEvents", boolValue = AGGREGATE_STATS_EVENTS,
+            label = "Post one RULE_STATS_UPDATED event per device statistics poll " +
+                    "instead of a RULE_UPDATED event per flow")
+    private boolean aggregateStatsEvents = AGGREGATE_STATS_EVENTS;
+
     private final Logger log = getLogger(getClass());
 
     private final FlowRuleStoreDelegate delegate = new InternalStoreDelegate();
@@ -164,6 +175,13 @@ public class FlowRuleManager
         if (allowExtraneousRules) {
             log.info("Allowing flow rules not installed by ONOS");
         }
+
+        s = Tools.get(properties, "aggregateStatsEvents");
+        aggregateStatsEvents = Strings.isNullOrEmpty(s) ? AGGREGATE_STATS_EVENTS : Boolean.valueOf(s);
+
+        if (aggregateStatsEvents) {
+            log.info("Aggregating flow statistics events per device");
+        }
     }
 
     @Override
@@ -336,26 +354,6 @@ public class FlowRuleManager
         }
 
 
-        private void flowAdded(FlowEntry flowEntry) {
-            checkNotNull(flowEntry, FLOW_RULE_NULL);
-            checkValidity();
-
-            if (checkRuleLiveness(flowEntry, store.getFlowEntry(flowEntry))) {
-
-                FlowRuleEvent event = store.addOrUpdateFlowRule(flowEntry);
-                if (event == null) {
-                    log.debug("No flow store event generated.");
-                } else {
-                    log.trace("Flow {} {}", flowEntry, event.type());
-                    post(event);
-                }
-            } else {
-                log.debug("Removing flow rules....");
-                removeFlowRules(flowEntry);
-            }
-
-        }
-
         private boolean checkRuleLiveness(FlowEntry swRule, FlowEntry storedRule) {
             if (storedRule == null) {
                 return false;
@@ -400,37 +398,62 @@ public class FlowRuleManager
 
         private void pushFlowMetricsInternal(DeviceId deviceId, Iterable<FlowEntry> flowEntries,
                                              boolean useMissingFlow) {
-            Map<FlowEntry, FlowEntry> storedRules = Maps.newHashMap();
-            store.getFlowEntries(deviceId).forEach(f -> storedRules.put(f, f));
-
-            for (FlowEntry rule : flowEntries) {
-                try {
-                    FlowEntry storedRule = storedRules.remove(rule);
-                    if (storedRule != null) {
-                        if (storedRule.exactMatch(rule)) {
-                            // we both have the rule, let's update some info then.
-                            flowAdded(rule);
-                        } else {
-                            // the two rules are not an exact match - remove the
-                            // switch's rule and install our rule
-                            extraneousFlow(rule);
-                            flowMissing(storedRule);
-                        }
-                    } else {
-                        // the device has a rule the store does not have
-                        if (!allowExtraneousRules) {
-                            extraneousFlow(rule);
-                        }
+            checkValidity();
+
+            // Pair the device's entries with the stored ones in a single pass
+            // over both, sorted by flow id
+            List<FlowEntry> storedRules = sortedById(store.getFlowEntries(deviceId));
+            List<FlowEntry> rules = sortedById(flowEntries);
+            List<FlowEntry> updated = new ArrayList<>(storedRules.size());
+
+            // Entries without a counterpart of the same id are matched by
+            // FlowRule equality, as a rule may be on the device under a stale
+            // cookie
+            List<FlowEntry> unpairedRules = new ArrayList<>();
+            Map<FlowEntry, FlowEntry> unpairedStoredRules = Maps.newHashMap();
+
+            int i = 0;
+            int j = 0;
+            while (i < rules.size() || j < storedRules.size()) {
+                FlowEntry rule = i < rules.size() ? rules.get(i) : null;
+                FlowEntry storedRule = j < storedRules.size() ? storedRules.get(j) : null;
+                int order = rule == null ? 1 : storedRule == null ? -1
+                        : Long.compare(rule.id().value(), storedRule.id().value());
+                if (order == 0 && storedRule.equals(rule)) {
+                    reconcile(rule, storedRule, updated);
+                    i++;
+                    j++;
+                } else if (order <= 0) {
+                    unpairedRules.add(rule);
+                    i++;
+                } else {
+                    unpairedStoredRules.put(storedRule, storedRule);
+                    j++;
+                }
+            }
+
+            for (FlowEntry rule : unpairedRules) {
+                FlowEntry storedRule = unpairedStoredRules.remove(rule);
+                if (storedRule != null) {
+                    reconcile(rule, storedRule, updated);
+                } else if (!allowExtraneousRules) {
+                    // the device has a rule the store does not have
+                    try {
+                        extraneousFlow(rule);
+                    } catch (Exception e) {
+                        log.debug("Can't process extra rule {}", e.getMessage());
                     }
-                } catch (Exception e) {
-                    log.debug("Can't process added or extra rule {}", e.getMessage());
-                    continue;
                 }
             }
 
+            // we both have these rules, let's update their info at once then.
+            if (!updated.isEmpty()) {
+                store.updateFlowStatistics(deviceId, updated).forEach(this::postStatsEvent);
+            }
+
             // DO NOT reinstall
             if (useMissingFlow) {
-                for (FlowEntry rule : storedRules.keySet()) {
+                for (FlowEntry rule : unpairedStoredRules.keySet()) {
                     try {
                         // there are rules in the store that aren't on the switch
                         log.debug("Adding rule in store, but not on switch {}", rule);
@@ -443,6 +466,46 @@ public class FlowRuleManager
             }
         }
 
+        // Reconciles a device's rule with the stored rule it matches; live
+        // exact matches are added to the given list of updated entries.
+        private void reconcile(FlowEntry rule, FlowEntry storedRule, List<FlowEntry> updated) {
+            try {
+                if (storedRule.exactMatch(rule)) {
+                    if (checkRuleLiveness(rule, storedRule)) {
+                        updated.add(rule);
+                    } else {
+                        log.debug("Removing flow rules....");
+                        removeFlowRules(rule);
+                    }
+                } else {
+                    // the two rules are not an exact match - remove the
+                    // switch's rule and install our rule
+                    extraneousFlow(rule);
+                    flowMissing(storedRule);
+                }
+            } catch (Exception e) {
+                log.debug("Can't process added or extra rule {}", e.getMessage());
+            }
+        }
+
+        private List<FlowEntry> sortedById(Iterable<FlowEntry> entries) {
+            List<FlowEntry> sorted = Lists.newArrayList(entries);
+            sorted.sort(Comparator.comparingLong(entry -> entry.id().value()));
+            return sorted;
+        }
+
+        // Posts an event resulting from a statistics update; aggregated
+        // updates are split into one RULE_UPDATED event per flow unless
+        // aggregation is enabled.
+        private void postStatsEvent(FlowRuleEvent event) {
+            log.trace("Flow {} {}", event.subject(), event.type());
+            if (event.type() == RULE_STATS_UPDATED && !aggregateStatsEvents) {
+                event.entries().forEach(entry -> post(new FlowRuleEvent(RULE_UPDATED, entry)));
+            } else {
+                post(event);
+            }
+        }
+
         @Override
         public void batchOperationCompleted(long batchId, CompletedBatchOperation operation) {
             store.batchOperationComplete(FlowRuleBatchEvent.completed(
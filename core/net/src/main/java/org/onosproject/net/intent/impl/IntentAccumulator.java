@@ -25,10 +25,15 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Timer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
 
 /**
- * An accumulator for building batches of intent operations. Only one batch should
- * be in process per instance at a time.
+ * An accumulator for building batches of intent operations. Up to a given number
+ * of batches may be in process per instance at a time; while that many are
+ * outstanding, operations keep accumulating until the delegate signals that one
+ * of the batches has completed.
  */
 public class IntentAccumulator extends AbstractAccumulator<IntentData> {
 
@@ -41,24 +46,36 @@ public class IntentAccumulator extends AbstractAccumulator<IntentData> {
     private static final Timer TIMER = new Timer("onos-intent-op-batching");
 
     private final IntentBatchDelegate delegate;
+    private final int maxInFlight;
 
-    private volatile boolean ready;
+    private final AtomicInteger inFlight = new AtomicInteger();
 
     /**
-     * Creates an intent operation accumulator.
+     * Creates an intent operation accumulator that allows a single batch
+     * in process at a time.
      *
      * @param delegate the intent batch delegate
      */
     protected IntentAccumulator(IntentBatchDelegate delegate) {
+        this(delegate, 1);
+    }
+
+    /**
+     * Creates an intent operation accumulator.
+     *
+     * @param delegate    the intent batch delegate
+     * @param maxInFlight maximum number of batches in process at a time
+     */
+    protected IntentAccumulator(IntentBatchDelegate delegate, int maxInFlight) {
         super(TIMER, DEFAULT_MAX_EVENTS, DEFAULT_MAX_BATCH_MS, DEFAULT_MAX_IDLE_MS);
+        checkArgument(maxInFlight > 0, "Maximum number of batches in flight must be positive");
         this.delegate = delegate;
-        // Assume that the delegate is ready for work at the start
-        ready = true; //TODO validate the assumption that delegate is ready
+        this.maxInFlight = maxInFlight;
     }
 
     @Override
     public void processItems(List<IntentData> items) {
-        ready = false;
+        inFlight.incrementAndGet();
         delegate.execute(reduce(items));
     }
 
@@ -73,10 +90,13 @@ public class IntentAccumulator extends AbstractAccumulator<IntentData> {
 
     @Override
     public boolean isReady() {
-        return ready;
+        return inFlight.get() < maxInFlight;
     }
 
+    /**
+     * Signals that a batch handed to the delegate has completed.
+     */
     public void ready() {
-        ready = true;
+        inFlight.updateAndGet(n -> Math.max(n - 1, 0));
     }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.intent.impl;
+
+import org.onosproject.net.intent.Key;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Concurrent index of intent keys by the resources the intents use.
+ * <p>
+ * Updates of the keys of a resource are serialized by the lock of the map
+ * bin holding it, so updates and lookups of different resources rarely
+ * contend with each other, and lookups never block. Resources left without
+ * any keys are dropped from the index.
+ * </p>
+ *
+ * @param <R> type of the indexed resources
+ */
+final class IntentKeyIndex<R> {
+
+    private final ConcurrentMap<R, Set<Key>> keys = new ConcurrentHashMap<>();
+
+    /**
+     * Adds an intent key to the keys of a resource.
+     *
+     * @param resource  indexed resource
+     * @param intentKey intent key
+     */
+    void add(R resource, Key intentKey) {
+        keys.compute(resource, (r, set) -> {
+            Set<Key> updated = set != null ? set : ConcurrentHashMap.newKeySet();
+            updated.add(intentKey);
+            return updated;
+        });
+    }
+
+    /**
+     * Removes an intent key from the keys of a resource.
+     *
+     * @param resource  indexed resource
+     * @param intentKey intent key
+     */
+    void remove(R resource, Key intentKey) {
+        keys.computeIfPresent(resource, (r, set) -> {
+            set.remove(intentKey);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /**
+     * Adds the intent keys of a resource to the given collection.
+     *
+     * @param resource indexed resource
+     * @param sink     collection receiving the keys
+     * @return number of keys of the resource
+     */
+    int collect(R resource, Collection<Key> sink) {
+        Set<Key> set = keys.get(resource);
+        if (set == null) {
+            return 0;
+        }
+        sink.addAll(set);
+        return set.size();
+    }
+
+    /**
+     * Returns whether any resource is used by the given intent. This scans
+     * the whole index.
+     *
+     * @param intentKey intent key
+     * @return true if the intent key is indexed
+     */
+    boolean containsKey(Key intentKey) {
+        return keys.values().stream().anyMatch(set -> set.contains(intentKey));
+    }
+}
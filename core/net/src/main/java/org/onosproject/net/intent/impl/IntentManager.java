@@ -15,7 +15,6 @@
  */
 package org.onosproject.net.intent.impl;
 
-import com.google.common.collect.ImmutableList;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -51,10 +50,12 @@ import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -84,6 +85,7 @@ public class IntentManager
     public static final String INTENT_ID_NULL = "Intent key cannot be null";
 
     private static final int NUM_THREADS = 12;
+    private static final int MAX_IN_FLIGHT_BATCHES = 4;
 
     private static final EnumSet<IntentState> RECOMPILE
             = EnumSet.of(INSTALL_REQ, FAILED, WITHDRAW_REQ);
@@ -112,7 +114,11 @@ public class IntentManager
     private final IntentBatchDelegate batchDelegate = new InternalBatchDelegate();
     private IdGenerator idGenerator;
 
-    private final IntentAccumulator accumulator = new IntentAccumulator(batchDelegate);
+    private final IntentAccumulator accumulator =
+            new IntentAccumulator(batchDelegate, MAX_IN_FLIGHT_BATCHES);
+
+    // Completion of the store write of the latest in-flight batch operating on each key
+    private final ConcurrentMap<Key, CompletableFuture<Void>> pendingWrites = new ConcurrentHashMap<>();
 
     @Activate
     public void activate() {
@@ -287,65 +293,87 @@ public class IntentManager
         }
     }
 
-    private Future<FinalIntentProcessPhase> submitIntentData(IntentData data) {
+    private FinalIntentProcessPhase processIntentData(IntentData data) {
         IntentData current = store.getIntentData(data.key());
         IntentProcessPhase initial = newInitialPhase(processor, data, current);
-        return workerExecutor.submit(new IntentWorker(initial));
+        return new IntentWorker(initial).call();
     }
 
-    private class IntentBatchProcess implements Runnable {
+    /**
+     * Processing of a batch of intent operations. Each operation is handed to
+     * the workers as soon as the store has recorded the outcome of any earlier
+     * batch operating on the same key, so that batches overlap while the
+     * operations on a key are still processed in order. Once all operations
+     * have completed, their outcome is written to the store in one go.
+     */
+    private class IntentBatchProcess {
 
         protected final Collection<IntentData> data;
 
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+
         IntentBatchProcess(Collection<IntentData> data) {
             this.data = checkNotNull(data);
         }
 
-        @Override
-        public void run() {
+        void start() {
+            /*
+             1. hand each intentdata to the workers once its key is free
+             2. when all of the work completes
+             3. accumulate results and submit batch write of IntentData to store
+                (we can also try to update these individually)
+             */
             try {
-                /*
-                 1. wrap each intentdata in a runnable and submit
-                 2. wait for completion of all the work
-                 3. accumulate results and submit batch write of IntentData to store
-                    (we can also try to update these individually)
-                 */
-                submitUpdates(waitForFutures(createIntentUpdates()));
-            } catch (Exception e) {
-                log.error("Error submitting batches:", e);
-                // FIXME incomplete Intents should be cleaned up
-                //       (transition to FAILED, etc.)
-
-                // the batch has failed
-                // TODO: maybe we should do more?
-                log.error("Walk the plank, matey...");
-                //FIXME
-//            batchService.removeIntentOperations(data);
+                List<CompletableFuture<FinalIntentProcessPhase>> futures = createIntentUpdates();
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]))
+                        .thenRunAsync(() -> submitUpdates(futures), batchExecutor)
+                        .whenComplete((result, error) -> {
+                            if (error != null) {
+                                log.error("Error submitting batches:", error);
+                                // FIXME incomplete Intents should be cleaned up
+                                //       (transition to FAILED, etc.)
+                            }
+                            finish();
+                        });
+            } catch (RuntimeException e) {
+                log.error("Error starting batch:", e);
+                finish();
             }
-            accumulator.ready();
         }
 
-        private List<Future<FinalIntentProcessPhase>> createIntentUpdates() {
+        // Frees the keys of the batch and lets the accumulator hand out the
+        // next batch, which must happen however the batch ended
+        private void finish() {
+            try {
+                data.forEach(op -> pendingWrites.remove(op.key(), written));
+                written.complete(null);
+            } finally {
+                accumulator.ready();
+            }
+        }
+
+        private List<CompletableFuture<FinalIntentProcessPhase>> createIntentUpdates() {
             return data.stream()
-                    .map(IntentManager.this::submitIntentData)
+                    .map(this::submitIntentData)
                     .collect(Collectors.toList());
         }
 
-        private List<FinalIntentProcessPhase> waitForFutures(List<Future<FinalIntentProcessPhase>> futures) {
-            ImmutableList.Builder<FinalIntentProcessPhase> updateBuilder = ImmutableList.builder();
-            for (Future<FinalIntentProcessPhase> future : futures) {
-                try {
-                    updateBuilder.add(future.get());
-                } catch (InterruptedException | ExecutionException e) {
-                    //FIXME
-                    log.warn("Future failed: {}", e);
-                }
-            }
-            return updateBuilder.build();
+        private CompletableFuture<FinalIntentProcessPhase> submitIntentData(IntentData op) {
+            CompletableFuture<Void> previous = pendingWrites.put(op.key(), written);
+            CompletableFuture<Void> keyReady = previous != null ? previous : CompletableFuture.completedFuture(null);
+            return keyReady
+                    .thenApplyAsync(v -> processIntentData(op), workerExecutor)
+                    .exceptionally(e -> {
+                        //FIXME
+                        log.warn("Future failed: {}", e);
+                        return null;
+                    });
         }
 
-        private void submitUpdates(List<FinalIntentProcessPhase> updates) {
+        private void submitUpdates(List<CompletableFuture<FinalIntentProcessPhase>> updates) {
             store.batchWrite(updates.stream()
+                                     .map(CompletableFuture::join)
+                                     .filter(Objects::nonNull)
                                      .map(FinalIntentProcessPhase::data)
                                      .collect(Collectors.toList()));
         }
@@ -357,8 +385,8 @@ public class IntentManager
             log.debug("Execute {} operation(s).", operations.size());
             log.trace("Execute operations: {}", operations);
 
-            // batchExecutor is single-threaded, so only one batch is in flight at a time
-            batchExecutor.execute(new IntentBatchProcess(operations));
+            // the accumulator holds back further batches while too many are in flight
+            new IntentBatchProcess(operations).start();
         }
     }
 
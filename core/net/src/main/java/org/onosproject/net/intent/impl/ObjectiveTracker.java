@@ -15,10 +15,7 @@
  */
 package org.onosproject.net.intent.impl;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
-import com.google.common.collect.SetMultimap;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -61,7 +58,9 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -70,7 +69,6 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.Multimaps.synchronizedSetMultimap;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onlab.util.Tools.isNullOrEmpty;
@@ -91,12 +89,13 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
 
     private final Logger log = getLogger(getClass());
 
-    private final SetMultimap<LinkKey, Key> intentsByLink =
-            //TODO this could be slow as a point of synchronization
-            synchronizedSetMultimap(HashMultimap.<LinkKey, Key>create());
+    private final IntentKeyIndex<LinkKey> intentsByLink = new IntentKeyIndex<>();
 
-    private final SetMultimap<ElementId, Key> intentsByDevice =
-            synchronizedSetMultimap(HashMultimap.<ElementId, Key>create());
+    private final IntentKeyIndex<ElementId> intentsByDevice = new IntentKeyIndex<>();
+
+    // Topology events waiting to have their impact analysed
+    private final Queue<TopologyEvent> pendingTopologyEvents = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean topologyChangeScheduled = new AtomicBoolean(false);
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected TopologyService topologyService;
@@ -182,9 +181,9 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
                                     Collection<NetworkResource> resources) {
         for (NetworkResource resource : resources) {
             if (resource instanceof Link) {
-                intentsByLink.put(linkKey((Link) resource), intentKey);
+                intentsByLink.add(linkKey((Link) resource), intentKey);
             } else if (resource instanceof ElementId) {
-                intentsByDevice.put((ElementId) resource, intentKey);
+                intentsByDevice.add((ElementId) resource, intentKey);
             }
         }
     }
@@ -196,7 +195,7 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
             if (resource instanceof Link) {
                 intentsByLink.remove(linkKey((Link) resource), intentKey);
             } else if (resource instanceof ElementId) {
-                intentsByDevice.remove(resource, intentKey);
+                intentsByDevice.remove((ElementId) resource, intentKey);
             }
         }
     }
@@ -217,7 +216,7 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
         if (log.isTraceEnabled()) {
             log.trace("intent {}, old: {}, new: {}, installableCount: {}, resourceCount: {}",
                       key,
-                      intentsByDevice.values().contains(key),
+                      intentsByDevice.containsKey(key),
                       isLocal && isInstalled,
                       installables.size(),
                       intent.resources().size() +
@@ -249,32 +248,41 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
     private class InternalTopologyListener implements TopologyListener {
         @Override
         public void event(TopologyEvent event) {
-            executorService.execute(new TopologyChangeHandler(event));
+            pendingTopologyEvents.add(event);
+            if (topologyChangeScheduled.compareAndSet(false, true)) {
+                executorService.execute(new TopologyChangeHandler());
+            }
         }
     }
 
-    // Re-dispatcher of topology change events.
+    // Re-dispatcher of topology change events. All events queued by the time
+    // it runs are analysed together, so that a burst of events results in a
+    // single request to recompile the union of the affected intents.
     private class TopologyChangeHandler implements Runnable {
 
-        private final TopologyEvent event;
-
-        TopologyChangeHandler(TopologyEvent event) {
-            this.event = event;
-        }
-
         @Override
         public void run() {
+            topologyChangeScheduled.set(false);
+            List<TopologyEvent> events = Lists.newArrayList();
+            for (TopologyEvent event = pendingTopologyEvents.poll(); event != null;
+                    event = pendingTopologyEvents.poll()) {
+                events.add(event);
+            }
+
             // If there is no delegate, why bother? Just bail.
-            if (delegate == null) {
+            if (delegate == null || events.isEmpty()) {
                 return;
             }
 
-            if (event.reasons() == null || event.reasons().isEmpty()) {
-                delegate.triggerCompile(Collections.emptySet(), true);
+            Set<Key> intentsToRecompile = new HashSet<>();
+            Set<LinkKey> linksSeen = new HashSet<>();
+            boolean dontRecompileAllFailedIntents = true;
 
-            } else {
-                Set<Key> intentsToRecompile = new HashSet<>();
-                boolean dontRecompileAllFailedIntents = true;
+            for (TopologyEvent event : events) {
+                if (event.reasons() == null || event.reasons().isEmpty()) {
+                    dontRecompileAllFailedIntents = false;
+                    continue;
+                }
 
                 // Scan through the list of reasons and keep accruing all
                 // intents that need to be recompiled.
@@ -282,11 +290,10 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
                     if (reason instanceof LinkEvent) {
                         LinkEvent linkEvent = (LinkEvent) reason;
                         final LinkKey linkKey = linkKey(linkEvent.subject());
-                        synchronized (intentsByLink) {
-                            Set<Key> intentKeys = intentsByLink.get(linkKey);
-                            log.debug("recompile triggered by LinkEvent {} ({}) for {}",
-                                    linkKey, linkEvent.type(), intentKeys);
-                            intentsToRecompile.addAll(intentKeys);
+                        if (linksSeen.add(linkKey)) {
+                            int count = intentsByLink.collect(linkKey, intentsToRecompile);
+                            log.debug("recompile triggered by LinkEvent {} ({}) for {} intent(s)",
+                                      linkKey, linkEvent.type(), count);
                         }
                         dontRecompileAllFailedIntents = dontRecompileAllFailedIntents &&
                                 (linkEvent.type() == LINK_REMOVED ||
@@ -294,8 +301,8 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
                                 linkEvent.subject().isDurable()));
                     }
                 }
-                delegate.triggerCompile(intentsToRecompile, !dontRecompileAllFailedIntents);
             }
+            delegate.triggerCompile(intentsToRecompile, !dontRecompileAllFailedIntents);
         }
     }
 
@@ -363,10 +370,8 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
 
             // TODO should we recompile on available==true?
 
-            final ImmutableSet<Key> snapshot;
-            synchronized (intentsByDevice) {
-                snapshot = ImmutableSet.copyOf(intentsByDevice.get(id));
-            }
+            Set<Key> snapshot = new HashSet<>();
+            intentsByDevice.collect(id, snapshot);
             delegate.triggerCompile(snapshot, available);
         }
     }
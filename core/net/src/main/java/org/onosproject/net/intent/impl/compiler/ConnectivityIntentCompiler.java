@@ -59,12 +59,17 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
 
     /**
      * Returns an edge-weight capable of evaluating links on the basis of the
-     * specified constraints.
+     * specified constraints. Without constraints, the default hop-count
+     * weight applies, so that the paths can be served from the topology path
+     * cache.
      *
      * @param constraints path constraints
-     * @return edge-weight function
+     * @return edge-weight function; null for the default weight
      */
     protected LinkWeight weight(List<Constraint> constraints) {
+        if (constraints == null || constraints.isEmpty()) {
+            return null;
+        }
         return new ConstraintBasedLinkWeight(constraints);
     }
 
@@ -95,7 +100,9 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
      */
     protected Path getPath(ConnectivityIntent intent,
                            ElementId one, ElementId two) {
-        Set<Path> paths = pathService.getPaths(one, two, weight(intent.constraints()));
+        LinkWeight weight = weight(intent.constraints());
+        Set<Path> paths = weight == null ? pathService.getPaths(one, two) :
+                pathService.getPaths(one, two, weight);
         final List<Constraint> constraints = intent.constraints();
         ImmutableList<Path> filtered = FluentIterable.from(paths)
                 .filter(path -> checkPath(path, constraints))
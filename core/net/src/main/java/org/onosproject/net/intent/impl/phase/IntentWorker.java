@@ -38,7 +38,7 @@ public final class IntentWorker implements Callable<FinalIntentProcessPhase> {
     }
 
     @Override
-    public FinalIntentProcessPhase call() throws Exception {
+    public FinalIntentProcessPhase call() {
         IntentProcessPhase update = initial;
         Optional<IntentProcessPhase> currentPhase = Optional.of(update);
         IntentProcessPhase previousPhase = update;
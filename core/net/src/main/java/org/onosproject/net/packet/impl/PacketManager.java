@@ -16,6 +16,7 @@
 package org.onosproject.net.packet.impl;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
@@ -23,15 +24,24 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.EthernetView;
+import org.onlab.packet.IPv4;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.core.CoreService;
 import org.onosproject.net.Device;
 import org.onosproject.net.device.DeviceEvent;
 import org.onosproject.net.device.DeviceListener;
 import org.onosproject.net.device.DeviceService;
+import org.onosproject.net.flow.DefaultTrafficSelector;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
 import org.onosproject.net.flow.FlowRuleService;
 import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.flow.criteria.Criterion;
+import org.onosproject.net.flow.criteria.EthTypeCriterion;
+import org.onosproject.net.flow.criteria.IPProtocolCriterion;
+import org.onosproject.net.flow.criteria.TcpPortCriterion;
+import org.onosproject.net.flow.criteria.UdpPortCriterion;
 import org.onosproject.net.flowobjective.DefaultForwardingObjective;
 import org.onosproject.net.flowobjective.FlowObjectiveService;
 import org.onosproject.net.flowobjective.ForwardingObjective;
@@ -39,6 +49,7 @@ import org.onosproject.net.flowobjective.Objective;
 import org.onosproject.net.flowobjective.ObjectiveContext;
 import org.onosproject.net.flowobjective.ObjectiveError;
 import org.onosproject.net.packet.DefaultPacketRequest;
+import org.onosproject.net.packet.InboundPacket;
 import org.onosproject.net.packet.OutboundPacket;
 import org.onosproject.net.packet.PacketContext;
 import org.onosproject.net.packet.PacketEvent;
@@ -57,9 +68,13 @@ import org.onosproject.net.provider.AbstractProviderService;
 import org.slf4j.Logger;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.security.AppGuard.checkPermission;
@@ -103,6 +118,7 @@ public class PacketManager
     private final DeviceListener deviceListener = new InternalDeviceListener();
 
     private final List<ProcessorEntry> processors = Lists.newCopyOnWriteArrayList();
+    private volatile DispatchIndex dispatchIndex = new DispatchIndex(ImmutableList.of());
 
     private ApplicationId appId;
 
@@ -127,18 +143,28 @@ public class PacketManager
 
     @Override
     public void addProcessor(PacketProcessor processor, int priority) {
+        addProcessor(processor, priority, DefaultTrafficSelector.emptySelector());
+    }
+
+    @Override
+    public void addProcessor(PacketProcessor processor, int priority,
+                             TrafficSelector selector) {
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, "Processor cannot be null");
-        ProcessorEntry entry = new ProcessorEntry(processor, priority);
-
-        // Insert the new processor according to its priority.
-        int i = 0;
-        for (; i < processors.size(); i++) {
-            if (priority < processors.get(i).priority()) {
-                break;
+        checkNotNull(selector, "Selector cannot be null");
+        ProcessorEntry entry = new ProcessorEntry(processor, priority, selector);
+
+        synchronized (processors) {
+            // Insert the new processor according to its priority.
+            int i = 0;
+            for (; i < processors.size(); i++) {
+                if (priority < processors.get(i).priority()) {
+                    break;
+                }
             }
+            processors.add(i, entry);
+            dispatchIndex = new DispatchIndex(processors);
         }
-        processors.add(i, entry);
     }
 
     @Override
@@ -146,12 +172,15 @@ public class PacketManager
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, "Processor cannot be null");
 
-        // Remove the processor entry.
-        for (int i = 0; i < processors.size(); i++) {
-            if (processors.get(i).processor() == processor) {
-                processors.remove(i);
-                break;
+        synchronized (processors) {
+            // Remove the processor entry.
+            for (int i = 0; i < processors.size(); i++) {
+                if (processors.get(i).processor() == processor) {
+                    processors.remove(i);
+                    break;
+                }
             }
+            dispatchIndex = new DispatchIndex(processors);
         }
     }
 
@@ -310,8 +339,14 @@ public class PacketManager
 
         @Override
         public void processPacket(PacketContext context) {
-            // TODO filter packets sent to processors based on registrations
-            for (ProcessorEntry entry : processors) {
+            // Classify the packet by peeking at its headers and visit only
+            // the processors interested in it.
+            InboundPacket pkt = context.inPacket();
+            EthernetView headers = pkt == null || pkt.unparsed() == null ? null : pkt.headers();
+            for (ProcessorEntry entry : dispatchIndex.candidates(headers)) {
+                if (headers != null && !entry.matches(headers)) {
+                    continue;
+                }
                 try {
                     long start = System.nanoTime();
                     entry.processor().process(context);
@@ -370,6 +405,53 @@ public class PacketManager
         }
     }
 
+    /**
+     * Index of the packet processors, in priority order, by the ethertype
+     * of the packets they are interested in.
+     */
+    private static final class DispatchIndex {
+        private final List<ProcessorEntry> all;
+        private final List<ProcessorEntry> anyEthType;
+        private final Map<Short, List<ProcessorEntry>> byEthType;
+
+        private DispatchIndex(List<ProcessorEntry> entries) {
+            this.all = ImmutableList.copyOf(entries);
+
+            ImmutableList.Builder<ProcessorEntry> anyBuilder = ImmutableList.builder();
+            all.stream().filter(e -> e.ethType == null).forEach(anyBuilder::add);
+            this.anyEthType = anyBuilder.build();
+
+            // Each ethertype gets its own list of processors so that
+            // dispatching a packet needs no further ethertype checks.
+            ImmutableMap.Builder<Short, List<ProcessorEntry>> mapBuilder = ImmutableMap.builder();
+            Set<Short> ethTypes = all.stream().filter(e -> e.ethType != null)
+                    .map(e -> e.ethType).collect(Collectors.toSet());
+            for (Short ethType : ethTypes) {
+                ImmutableList.Builder<ProcessorEntry> builder = ImmutableList.builder();
+                all.stream().filter(e -> e.ethType == null || e.ethType.equals(ethType))
+                        .forEach(builder::add);
+                mapBuilder.put(ethType, builder.build());
+            }
+            this.byEthType = mapBuilder.build();
+        }
+
+        /**
+         * Returns the processors which may be interested in a packet.
+         *
+         * @param headers packet headers; null if the packet is unavailable
+         * @return processors in priority order
+         */
+        private List<ProcessorEntry> candidates(EthernetView headers) {
+            if (headers == null) {
+                return all;
+            }
+            if (!headers.isValid()) {
+                return anyEthType;
+            }
+            return byEthType.getOrDefault(headers.etherType(), anyEthType);
+        }
+    }
+
     /**
      * Entity for tracking stats for a packet processor.
      */
@@ -379,9 +461,84 @@ public class PacketManager
         private long invocations = 0;
         private long nanos = 0;
 
-        public ProcessorEntry(PacketProcessor processor, int priority) {
+        // Packet header values the processor registered for; null if any
+        private final Short ethType;
+        private final Short ipProtocol;
+        private final Integer srcPort;
+        private final Integer dstPort;
+
+        public ProcessorEntry(PacketProcessor processor, int priority,
+                              TrafficSelector selector) {
             this.processor = processor;
             this.priority = priority;
+
+            Short eth = null;
+            Short proto = null;
+            Integer src = null;
+            Integer dst = null;
+            for (Criterion criterion : selector.criteria()) {
+                switch (criterion.type()) {
+                    case ETH_TYPE:
+                        eth = ((EthTypeCriterion) criterion).ethType().toShort();
+                        break;
+                    case IP_PROTO:
+                        proto = ((IPProtocolCriterion) criterion).protocol();
+                        break;
+                    case TCP_SRC:
+                        src = ((TcpPortCriterion) criterion).tcpPort().toInt();
+                        proto = checkProtocol(proto, IPv4.PROTOCOL_TCP);
+                        break;
+                    case TCP_DST:
+                        dst = ((TcpPortCriterion) criterion).tcpPort().toInt();
+                        proto = checkProtocol(proto, IPv4.PROTOCOL_TCP);
+                        break;
+                    case UDP_SRC:
+                        src = ((UdpPortCriterion) criterion).udpPort().toInt();
+                        proto = checkProtocol(proto, IPv4.PROTOCOL_UDP);
+                        break;
+                    case UDP_DST:
+                        dst = ((UdpPortCriterion) criterion).udpPort().toInt();
+                        proto = checkProtocol(proto, IPv4.PROTOCOL_UDP);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(
+                                "Unsupported packet processor criterion " + criterion.type());
+                }
+            }
+            checkArgument(proto == null || (eth != null && eth == Ethernet.TYPE_IPV4),
+                          "IP protocol and ports may only be matched for IPv4");
+            this.ethType = eth;
+            this.ipProtocol = proto;
+            this.srcPort = src;
+            this.dstPort = dst;
+        }
+
+        private Short checkProtocol(Short proto, byte expected) {
+            checkArgument(proto == null || proto == expected,
+                          "Conflicting IP protocol criteria");
+            return (short) expected;
+        }
+
+        /**
+         * Returns whether the packet headers beyond the ethertype match
+         * those the processor registered for.
+         *
+         * @param headers packet headers
+         * @return true if the processor is interested in the packet
+         */
+        boolean matches(EthernetView headers) {
+            if (ipProtocol == null) {
+                return true;
+            }
+            if (!headers.isIpv4() || (headers.ipProtocol() & 0xff) != ipProtocol) {
+                return false;
+            }
+            if (srcPort == null && dstPort == null) {
+                return true;
+            }
+            return headers.hasTransportPorts() &&
+                    (srcPort == null || srcPort == headers.sourcePort()) &&
+                    (dstPort == null || dstPort == headers.destinationPort());
         }
 
         @Override
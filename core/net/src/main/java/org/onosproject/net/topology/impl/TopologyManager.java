@@ -164,6 +164,15 @@ public class TopologyManager
         return store.getPaths(topology, src, dst, weight);
     }
 
+    @Override
+    public Set<Link> getEcmpNextHops(Topology topology, DeviceId src, DeviceId dst) {
+        checkPermission(TOPOLOGY_READ);
+        checkNotNull(topology, TOPOLOGY_NULL);
+        checkNotNull(src, DEVICE_ID_NULL);
+        checkNotNull(dst, DEVICE_ID_NULL);
+        return store.getEcmpNextHops(topology, src, dst);
+    }
+
     @Override
     public Set<DisjointPath> getDisjointPaths(Topology topology, DeviceId src, DeviceId dst) {
         checkNotNull(topology, TOPOLOGY_NULL);
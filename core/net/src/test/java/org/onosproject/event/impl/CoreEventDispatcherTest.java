@@ -15,18 +15,35 @@
  */
 package org.onosproject.event.impl;
 
+import com.google.common.collect.ImmutableList;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.packet.ChassisId;
 import org.onosproject.event.AbstractEvent;
 import org.onosproject.event.EventSink;
+import org.onosproject.event.ListenerRegistry;
+import org.onosproject.net.DefaultDevice;
+import org.onosproject.net.DefaultPort;
+import org.onosproject.net.Device;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.device.DeviceListener;
+import org.onosproject.net.provider.ProviderId;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.DeviceId.deviceId;
+import static org.onosproject.net.PortNumber.portNumber;
+import static org.onosproject.net.device.DeviceEvent.Type.DEVICE_ADDED;
+import static org.onosproject.net.device.DeviceEvent.Type.PORT_STATS_UPDATED;
+import static org.onosproject.net.device.DeviceEvent.Type.PORT_UPDATED;
 
 /**
  * Test of the even dispatcher mechanism.
@@ -36,16 +53,24 @@ public class CoreEventDispatcherTest {
     private final CoreEventDispatcher dispatcher = new CoreEventDispatcher();
     private final PrickleSink prickleSink = new PrickleSink();
     private final GooSink gooSink = new GooSink();
+    private final ListenerRegistry<DeviceEvent, DeviceListener> deviceRegistry =
+            new ListenerRegistry<>();
+
+    private static final ProviderId PID = new ProviderId("of", "foo");
+    private static final Device DEV1 = device("of:1");
+    private static final Device DEV2 = device("of:2");
 
     @Before
     public void setUp() {
         dispatcher.activate();
         dispatcher.addSink(Prickle.class, prickleSink);
         dispatcher.addSink(Goo.class, gooSink);
+        dispatcher.addSink(DeviceEvent.class, deviceRegistry);
     }
 
     @After
     public void tearDown() {
+        dispatcher.removeSink(DeviceEvent.class);
         dispatcher.removeSink(Goo.class);
         dispatcher.removeSink(Prickle.class);
         dispatcher.deactivate();
@@ -76,6 +101,109 @@ public class CoreEventDispatcherTest {
         validate(prickleSink);
     }
 
+    @Test
+    public void slowListener() throws Exception {
+        TestListener slow = new TestListener(3);
+        TestListener fast = new TestListener(3);
+        fast.release.countDown();
+        deviceRegistry.addListener(slow);
+        deviceRegistry.addListener(fast);
+
+        DeviceEvent e1 = new DeviceEvent(DEVICE_ADDED, DEV1);
+        DeviceEvent e2 = new DeviceEvent(DEVICE_ADDED, DEV2);
+        DeviceEvent e3 = new DeviceEvent(PORT_UPDATED, DEV2, new DefaultPort(DEV2, portNumber(1), true));
+        dispatcher.post(e1);
+        dispatcher.post(e2);
+        dispatcher.post(e3);
+
+        assertTrue("fast listener held up", fast.done.await(1, TimeUnit.SECONDS));
+        assertEquals("incorrect events", ImmutableList.of(e1, e2, e3), fast.events);
+        assertEquals("slow listener not blocked", ImmutableList.of(e1), slow.events);
+
+        slow.release.countDown();
+        assertTrue("slow listener starved", slow.done.await(1, TimeUnit.SECONDS));
+        assertEquals("incorrect events", ImmutableList.of(e1, e2, e3), slow.events);
+    }
+
+    @Test
+    public void coalesceSupersededEvents() throws Exception {
+        TestListener listener = new TestListener(5);
+        deviceRegistry.addListener(listener);
+
+        DeviceEvent added = new DeviceEvent(DEVICE_ADDED, DEV1);
+        dispatcher.post(added);
+        assertTrue("listener not started", listener.started.await(1, TimeUnit.SECONDS));
+
+        DeviceEvent stats1 = new DeviceEvent(PORT_STATS_UPDATED, DEV2);
+        DeviceEvent stats2 = new DeviceEvent(PORT_STATS_UPDATED, DEV2);
+        DeviceEvent up1 = new DeviceEvent(PORT_UPDATED, DEV2, new DefaultPort(DEV2, portNumber(1), true));
+        DeviceEvent up2 = new DeviceEvent(PORT_UPDATED, DEV2, new DefaultPort(DEV2, portNumber(1), true));
+        DeviceEvent down = new DeviceEvent(PORT_UPDATED, DEV2, new DefaultPort(DEV2, portNumber(1), false));
+        DeviceEvent stats3 = new DeviceEvent(PORT_STATS_UPDATED, DEV2);
+        for (DeviceEvent event : ImmutableList.of(stats1, stats2, up1, up2, down, stats3)) {
+            dispatcher.post(event);
+        }
+
+        // Events are dispatched in order, so once a later event reaches its
+        // sink, the device events have all been queued for the listener
+        prickleSink.latch = new CountDownLatch(1);
+        dispatcher.post(new Prickle("marker"));
+        assertTrue("events not dispatched", prickleSink.latch.await(1, TimeUnit.SECONDS));
+        listener.release.countDown();
+        assertTrue("listener starved", listener.done.await(1, TimeUnit.SECONDS));
+        assertEquals("incorrect events", ImmutableList.of(added, stats2, up2, down, stats3), listener.events);
+    }
+
+    @Test
+    public void overrunningListenerKept() throws Exception {
+        dispatcher.setDispatchTimeLimit(250);
+        TestListener listener = new TestListener(2);
+        deviceRegistry.addListener(listener);
+
+        DeviceEvent e1 = new DeviceEvent(DEVICE_ADDED, DEV1);
+        DeviceEvent e2 = new DeviceEvent(DEVICE_ADDED, DEV2);
+        dispatcher.post(e1);
+        assertTrue("listener not started", listener.started.await(1, TimeUnit.SECONDS));
+        Thread.sleep(750);
+        assertEquals("listener interrupted", 1, listener.interrupted.getCount());
+        assertTrue("listener ejected", deviceRegistry.getListeners().contains(listener));
+
+        listener.release.countDown();
+        dispatcher.post(e2);
+        assertTrue("listener starved", listener.done.await(1, TimeUnit.SECONDS));
+        assertEquals("incorrect events", ImmutableList.of(e1, e2), listener.events);
+    }
+
+    @Test
+    public void backloggedListenerEjected() throws Exception {
+        int count = 10_002;
+        TestListener slow = new TestListener(1);
+        TestListener fast = new TestListener(count);
+        fast.release.countDown();
+        deviceRegistry.addListener(slow);
+        deviceRegistry.addListener(fast);
+
+        // One event held by the blocked delivery and a full queue behind it
+        dispatcher.post(new DeviceEvent(DEVICE_ADDED, DEV1));
+        assertTrue("slow listener not started", slow.started.await(1, TimeUnit.SECONDS));
+        for (int i = 1; i < count; i++) {
+            dispatcher.post(new DeviceEvent(DEVICE_ADDED, DEV1));
+        }
+
+        assertTrue("fast listener held up", fast.done.await(5, TimeUnit.SECONDS));
+        assertFalse("slow listener not ejected", deviceRegistry.getListeners().contains(slow));
+        assertTrue("fast listener ejected", deviceRegistry.getListeners().contains(fast));
+
+        slow.release.countDown();
+        assertTrue("slow listener not completed", slow.done.await(1, TimeUnit.SECONDS));
+        assertEquals("ejected listener sent events", 1, slow.events.size());
+    }
+
+    private static Device device(String id) {
+        return new DefaultDevice(PID, deviceId(id), Device.Type.SWITCH,
+                                 "m", "h", "s", "n", new ChassisId());
+    }
+
     private void validate(Sink sink, String... strings) {
         int i = 0;
         assertEquals("incorrect event count", strings.length, sink.subjects.size());
@@ -129,4 +257,30 @@ public class CoreEventDispatcherTest {
         }
     }
 
+    // Device listener recording events; blocks on the first event until released
+    private static class TestListener implements DeviceListener {
+        final List<DeviceEvent> events = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final CountDownLatch done;
+
+        TestListener(int expected) {
+            done = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void event(DeviceEvent event) {
+            events.add(event);
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                Thread.currentThread().interrupt();
+            }
+            done.countDown();
+        }
+    }
+
 }
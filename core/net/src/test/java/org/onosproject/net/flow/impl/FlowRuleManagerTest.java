@@ -17,6 +17,7 @@ package org.onosproject.net.flow.impl;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -25,6 +26,8 @@ import com.google.common.util.concurrent.MoreExecutors;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.junit.TestUtils;
+import org.onlab.junit.TestUtils.TestUtilsException;
 import org.onosproject.cfg.ComponentConfigAdapter;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.core.CoreServiceAdapter;
@@ -85,6 +88,7 @@ import static org.onosproject.net.flow.FlowRuleEvent.Type.RULE_ADDED;
 import static org.onosproject.net.flow.FlowRuleEvent.Type.RULE_ADD_REQUESTED;
 import static org.onosproject.net.flow.FlowRuleEvent.Type.RULE_REMOVED;
 import static org.onosproject.net.flow.FlowRuleEvent.Type.RULE_REMOVE_REQUESTED;
+import static org.onosproject.net.flow.FlowRuleEvent.Type.RULE_STATS_UPDATED;
 import static org.onosproject.net.flow.FlowRuleEvent.Type.RULE_UPDATED;
 
 /**
@@ -209,6 +213,64 @@ public class FlowRuleManagerTest {
         validateEvents(RULE_UPDATED);
     }
 
+    @Test
+    public void batchedStatsUpdate() {
+        FlowRule f1 = addFlowRule(1);
+        FlowRule f2 = addFlowRule(2);
+        FlowRule f3 = addFlowRule(3);
+        FlowEntry fe1 = new DefaultFlowEntry(f1);
+        FlowEntry fe2 = new DefaultFlowEntry(f2);
+        FlowEntry fe3 = new DefaultFlowEntry(f3);
+
+        providerService.pushFlowMetrics(DID, ImmutableList.of(fe3, fe1, fe2));
+        validateEvents(RULE_ADD_REQUESTED, RULE_ADD_REQUESTED, RULE_ADD_REQUESTED,
+                       RULE_ADDED, RULE_ADDED, RULE_ADDED);
+
+        // statistics of flows already added are still reported flow by flow
+        providerService.pushFlowMetrics(DID, ImmutableList.of(fe2, fe3, fe1));
+        validateEvents(RULE_UPDATED, RULE_UPDATED, RULE_UPDATED);
+    }
+
+    @Test
+    public void aggregatedStatsUpdate() throws TestUtilsException {
+        TestUtils.setField(mgr, "aggregateStatsEvents", true);
+        FlowRule f1 = addFlowRule(1);
+        FlowRule f2 = addFlowRule(2);
+        FlowEntry fe1 = new DefaultFlowEntry(f1);
+        FlowEntry fe2 = new DefaultFlowEntry(f2);
+
+        providerService.pushFlowMetrics(DID, ImmutableList.of(fe2, fe1));
+        validateEvents(RULE_ADD_REQUESTED, RULE_ADD_REQUESTED, RULE_ADDED, RULE_ADDED);
+
+        // statistics of flows already added are reported in a single event
+        providerService.pushFlowMetrics(DID, ImmutableList.of(fe2, fe1));
+        FlowRuleEvent event = listener.events.get(0);
+        validateEvents(RULE_STATS_UPDATED);
+        assertEquals("incorrect entries", ImmutableSet.of(fe1, fe2), ImmutableSet.copyOf(event.entries()));
+    }
+
+    @Test
+    public void replaceMismatchedRule() {
+        FlowRule f1 = addFlowRule(1);
+        FlowRule stale = DefaultFlowRule.builder()
+                .forDevice(DID)
+                .withSelector(f1.selector())
+                .withTreatment(f1.treatment())
+                .withPriority(f1.priority())
+                .withCookie(f1.id().value() + 1)
+                .makeTemporary(TIMEOUT)
+                .build();
+        validateEvents(RULE_ADD_REQUESTED);
+
+        // the device rule has the same match but another cookie, so it must
+        // be removed before the stored rule is installed again
+        providerService.pushFlowMetrics(DID, ImmutableList.of(new DefaultFlowEntry(stale)));
+        assertEquals("incorrect provider calls",
+                     ImmutableList.of("remove " + stale.id(), "apply " + f1.id()),
+                     provider.calls);
+        validateEvents();
+    }
+
     private boolean validateState(Map<FlowRule, FlowEntryState> expected) {
         Map<FlowRule, FlowEntryState> expectedToCheck = new HashMap<>(expected);
         Iterable<FlowEntry> rules = service.getFlowEntries(DID);
@@ -461,16 +523,24 @@ public class FlowRuleManagerTest {
 
     private class TestProvider extends AbstractProvider implements FlowRuleProvider {
 
+        final List<String> calls = new ArrayList<>();
+
         protected TestProvider(ProviderId id) {
             super(PID);
         }
 
         @Override
         public void applyFlowRule(FlowRule... flowRules) {
+            for (FlowRule rule : flowRules) {
+                calls.add("apply " + rule.id());
+            }
         }
 
         @Override
         public void removeFlowRule(FlowRule... flowRules) {
+            for (FlowRule rule : flowRules) {
+                calls.add("remove " + rule.id());
+            }
         }
 
         @Override
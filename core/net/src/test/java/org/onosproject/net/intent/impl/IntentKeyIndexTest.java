@@ -0,0 +1,76 @@
+/*
+ * Copyright 2014-2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.intent.impl;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.onosproject.net.intent.Key;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.onosproject.net.NetTestTools.APP_ID;
+
+/**
+ * Unit tests for the intent key index.
+ */
+public class IntentKeyIndexTest {
+
+    private final IntentKeyIndex<String> index = new IntentKeyIndex<>();
+    private final Key key1 = Key.of(1L, APP_ID);
+    private final Key key2 = Key.of(2L, APP_ID);
+
+    /**
+     * Tests that keys are collected per resource and merged into the sink.
+     */
+    @Test
+    public void testCollect() {
+        index.add("a", key1);
+        index.add("a", key2);
+        index.add("b", key1);
+
+        Set<Key> keys = new HashSet<>();
+        assertThat(index.collect("a", keys), is(2));
+        assertThat(index.collect("b", keys), is(1));
+        assertThat(index.collect("c", keys), is(0));
+        assertThat(keys, containsInAnyOrder(key1, key2));
+    }
+
+    /**
+     * Tests removal of keys.
+     */
+    @Test
+    public void testRemove() {
+        index.add("a", key1);
+        index.add("a", key2);
+        index.remove("a", key1);
+        index.remove("b", key1);
+
+        Set<Key> keys = new HashSet<>();
+        index.collect("a", keys);
+        assertThat(keys, containsInAnyOrder(key2));
+        assertThat(index.containsKey(key1), is(false));
+        assertThat(index.containsKey(key2), is(true));
+
+        index.remove("a", key2);
+        keys.clear();
+        assertThat(index.collect("a", keys), is(0));
+        assertThat(keys, is(empty()));
+    }
+}
@@ -15,12 +15,16 @@
  */
 package org.onosproject.net.intent.impl.compiler;
 
+import com.google.common.collect.ImmutableSet;
 import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.onlab.util.Bandwidth;
 import org.onosproject.TestApplicationId;
+import org.onosproject.common.DefaultTopology;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.ElementId;
 import org.onosproject.net.IndexedLambda;
 import org.onosproject.net.Link;
 import org.onosproject.net.Path;
@@ -36,9 +40,12 @@ import org.onosproject.net.intent.constraint.BandwidthConstraint;
 import org.onosproject.net.intent.constraint.LambdaConstraint;
 import org.onosproject.net.intent.impl.PathNotFoundException;
 import org.onosproject.net.resource.link.LinkResourceService;
+import org.onosproject.net.topology.DefaultGraphDescription;
+import org.onosproject.net.topology.PathServiceAdapter;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -49,7 +56,10 @@ import static org.junit.Assert.fail;
 import static org.onosproject.net.DefaultEdgeLink.createEdgeLink;
 import static org.onosproject.net.DeviceId.deviceId;
 import static org.onosproject.net.NetTestTools.APP_ID;
+import static org.onosproject.net.NetTestTools.PID;
 import static org.onosproject.net.NetTestTools.connectPoint;
+import static org.onosproject.net.NetTestTools.device;
+import static org.onosproject.net.NetTestTools.link;
 import static org.onosproject.net.PortNumber.portNumber;
 import static org.onosproject.net.intent.LinksHaveEntryWithSourceDestinationPairMatcher.linksHasPath;
 
@@ -127,6 +137,32 @@ public class PointToPointIntentCompilerTest extends AbstractIntentTest {
         return compiler;
     }
 
+    /**
+     * Tests that compiling the same intent twice reuses the shortest paths
+     * cached by the topology.
+     */
+    @Test
+    public void testPathCacheHit() {
+        long now = System.currentTimeMillis();
+        DefaultTopology topology = new DefaultTopology(PID, new DefaultGraphDescription(
+                now, now, ImmutableSet.of(device("d1"), device("d2"), device("d3")),
+                ImmutableSet.of(link("d1", 2, "d2", 1), link("d2", 2, "d3", 2))));
+        PointToPointIntentCompiler compiler = new PointToPointIntentCompiler();
+        compiler.pathService = new PathServiceAdapter() {
+            @Override
+            public Set<Path> getPaths(ElementId src, ElementId dst) {
+                return topology.getPaths((DeviceId) src, (DeviceId) dst);
+            }
+        };
+
+        PointToPointIntent intent = makeIntent("d1", "d3");
+        List<Intent> first = compiler.compile(intent, null, null);
+        List<Intent> second = compiler.compile(intent, null, null);
+        assertThat(((PathIntent) second.get(0)).path(), is(((PathIntent) first.get(0)).path()));
+        assertThat(topology.pathCacheStats().missCount(), is(1L));
+        assertThat(topology.pathCacheStats().hitCount(), is(1L));
+    }
+
     /**
      * Tests a pair of devices in an 8 hop path, forward direction.
      */
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.packet.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.Data;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.TpPort;
+import org.onlab.packet.UDP;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.packet.DefaultInboundPacket;
+import org.onosproject.net.packet.DefaultPacketContext;
+import org.onosproject.net.packet.OutboundPacket;
+import org.onosproject.net.packet.PacketContext;
+import org.onosproject.net.packet.PacketProcessor;
+import org.onosproject.net.packet.PacketProvider;
+import org.onosproject.net.packet.PacketProviderService;
+import org.onosproject.net.provider.AbstractProvider;
+import org.onosproject.net.provider.ProviderId;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.onosproject.net.NetTestTools.connectPoint;
+
+/**
+ * Test codifying the packet processor dispatch of the packet manager.
+ */
+public class PacketManagerTest {
+
+    private static final ProviderId PID = new ProviderId("of", "foo");
+
+    private PacketManager mgr;
+    private PacketProviderService providerService;
+    private final List<String> visits = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        mgr = new PacketManager();
+        providerService = mgr.register(new TestProvider());
+    }
+
+    @After
+    public void tearDown() {
+        mgr.unregister(new TestProvider());
+    }
+
+    private PacketProcessor processor(String name) {
+        return context -> visits.add(name);
+    }
+
+    private static PacketContext context(short etherType, byte protocol, int dstPort) {
+        UDP udp = new UDP();
+        udp.setSourcePort(1000);
+        udp.setDestinationPort(dstPort);
+        udp.setPayload(new Data(new byte[8]));
+
+        IPv4 ip = new IPv4();
+        ip.setSourceAddress("10.0.0.1");
+        ip.setDestinationAddress("10.0.0.2");
+        ip.setProtocol(protocol);
+        ip.setPayload(udp);
+
+        Ethernet eth = new Ethernet();
+        eth.setSourceMACAddress("00:00:00:00:00:01");
+        eth.setDestinationMACAddress("00:00:00:00:00:02");
+        eth.setEtherType(etherType);
+        eth.setPayload(ip);
+
+        ByteBuffer data = ByteBuffer.wrap(eth.serialize());
+        return new TestPacketContext(new DefaultInboundPacket(connectPoint("d1", 1), data));
+    }
+
+    /**
+     * Tests that processors only see the packets their selectors match,
+     * in priority order.
+     */
+    @Test
+    public void selectiveDispatch() {
+        mgr.addProcessor(processor("all"), PacketProcessor.advisor(1));
+        mgr.addProcessor(processor("arp"), PacketProcessor.director(1),
+                         DefaultTrafficSelector.builder().matchEthType(Ethernet.TYPE_ARP).build());
+        mgr.addProcessor(processor("ipv4"), PacketProcessor.director(0),
+                         DefaultTrafficSelector.builder().matchEthType(Ethernet.TYPE_IPV4).build());
+        mgr.addProcessor(processor("dhcp"), PacketProcessor.director(2),
+                         DefaultTrafficSelector.builder()
+                                 .matchEthType(Ethernet.TYPE_IPV4)
+                                 .matchIPProtocol(IPv4.PROTOCOL_UDP)
+                                 .matchUdpDst(TpPort.tpPort(UDP.DHCP_SERVER_PORT))
+                                 .build());
+
+        providerService.processPacket(context(Ethernet.TYPE_IPV4, IPv4.PROTOCOL_UDP,
+                                              UDP.DHCP_SERVER_PORT));
+        assertEquals("incorrect visits", "[all, ipv4, dhcp]", visits.toString());
+
+        visits.clear();
+        providerService.processPacket(context(Ethernet.TYPE_IPV4, IPv4.PROTOCOL_UDP, 53));
+        assertEquals("incorrect visits", "[all, ipv4]", visits.toString());
+
+        visits.clear();
+        providerService.processPacket(context(Ethernet.TYPE_LLDP, IPv4.PROTOCOL_UDP, 53));
+        assertEquals("incorrect visits", "[all]", visits.toString());
+    }
+
+    /**
+     * Tests that a removed processor is no longer dispatched to.
+     */
+    @Test
+    public void removeProcessor() {
+        PacketProcessor ipv4 = processor("ipv4");
+        mgr.addProcessor(ipv4, PacketProcessor.director(0),
+                         DefaultTrafficSelector.builder().matchEthType(Ethernet.TYPE_IPV4).build());
+        mgr.removeProcessor(ipv4);
+        providerService.processPacket(context(Ethernet.TYPE_IPV4, IPv4.PROTOCOL_UDP, 53));
+        assertEquals("incorrect visits", "[]", visits.toString());
+        assertEquals("incorrect processors", 0, mgr.getProcessors().size());
+    }
+
+    /**
+     * Tests that selectors the dispatch cannot honour are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedSelector() {
+        mgr.addProcessor(processor("udp"), PacketProcessor.director(0),
+                         DefaultTrafficSelector.builder().matchIPProtocol(IPv4.PROTOCOL_UDP).build());
+    }
+
+    private static class TestProvider extends AbstractProvider implements PacketProvider {
+        TestProvider() {
+            super(PID);
+        }
+
+        @Override
+        public void emit(OutboundPacket packet) {
+        }
+    }
+
+    private static class TestPacketContext extends DefaultPacketContext {
+        TestPacketContext(DefaultInboundPacket inPkt) {
+            super(System.currentTimeMillis(), inPkt, null, false);
+        }
+
+        @Override
+        public void send() {
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.onosproject.store.cluster.messaging.impl;
 
+import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 
 import org.apache.felix.scr.annotations.Activate;
@@ -26,6 +27,7 @@ import org.apache.felix.scr.annotations.Service;
 import org.onlab.netty.NettyMessaging;
 import org.onosproject.cluster.ClusterMetadataService;
 import org.onosproject.cluster.ControllerNode;
+import org.onosproject.store.cluster.impl.DistributedClusterStore;
 import org.onosproject.store.cluster.messaging.Endpoint;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +42,9 @@ public class NettyMessagingManager extends NettyMessaging {
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private static final short MIN_KS_LENGTH = 6;
+    private static final String CHANNELS_PER_ENDPOINT = "onosMessagingChannelsPerEndpoint";
+    private static final String CONTROL_MESSAGE_TYPES = "onosControlMessageTypes";
+    private static final String INTERN_MESSAGE_TYPES = "onosMessagingInternTypes";
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ClusterMetadataService clusterMetadataService;
@@ -48,6 +53,7 @@ public class NettyMessagingManager extends NettyMessaging {
     public void activate() throws Exception {
         ControllerNode localNode = clusterMetadataService.getLocalNode();
         getTlsParameters();
+        getChannelParameters();
         super.start(clusterMetadataService.getClusterMetadata().getName().hashCode(),
                     new Endpoint(localNode.ip(), localNode.tcpPort()));
         log.info("Started");
@@ -59,6 +65,33 @@ public class NettyMessagingManager extends NettyMessaging {
         log.info("Stopped");
     }
 
+    private void getChannelParameters() {
+        String tempString = System.getProperty(CHANNELS_PER_ENDPOINT);
+        if (!Strings.isNullOrEmpty(tempString)) {
+            try {
+                channelsPerEndpoint = Math.max(Integer.parseInt(tempString.trim()), 1);
+            } catch (NumberFormatException e) {
+                log.warn("Invalid {} value {}; using {}", CHANNELS_PER_ENDPOINT,
+                         tempString, DEFAULT_CHANNELS_PER_ENDPOINT);
+                channelsPerEndpoint = DEFAULT_CHANNELS_PER_ENDPOINT;
+            }
+        }
+        log.info("{} = {}", CHANNELS_PER_ENDPOINT, channelsPerEndpoint);
+
+        // Interned message types are only understood by upgraded peers
+        tempString = System.getProperty(INTERN_MESSAGE_TYPES);
+        internMessageTypes = Strings.isNullOrEmpty(tempString) ?
+                INTERN_TYPES_DISABLED : Boolean.parseBoolean(tempString.trim());
+        log.info("{} = {}", INTERN_MESSAGE_TYPES, internMessageTypes);
+
+        registerControlMessageType(DistributedClusterStore.HEARTBEAT_MESSAGE);
+        tempString = System.getProperty(CONTROL_MESSAGE_TYPES);
+        if (!Strings.isNullOrEmpty(tempString)) {
+            Splitter.on(',').trimResults().omitEmptyStrings().split(tempString)
+                    .forEach(this::registerControlMessageType);
+        }
+    }
+
     private void getTlsParameters() {
         String tempString = System.getProperty("enableNettyTLS");
         enableNettyTls = Strings.isNullOrEmpty(tempString) ? TLS_DISABLED : Boolean.parseBoolean(tempString);
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.consistent.impl;
+
+import org.onlab.util.HexString;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Serialized form of a consistent map key.
+ * <p>
+ * Keys are compared by content, and ordered lexicographically by their
+ * unsigned bytes so that entries can be paged through in a stable order.
+ * The wrapped array must not be modified once the key is created.
+ * </p>
+ */
+public final class BinaryKey implements Comparable<BinaryKey> {
+
+    private final byte[] bytes;
+    private final int hash;
+
+    private BinaryKey(byte[] bytes) {
+        this.bytes = checkNotNull(bytes, "Key bytes cannot be null");
+        this.hash = Arrays.hashCode(bytes);
+    }
+
+    /**
+     * Returns a key wrapping the specified bytes, without copying them.
+     *
+     * @param bytes serialized key
+     * @return binary key
+     */
+    public static BinaryKey wrap(byte[] bytes) {
+        return new BinaryKey(bytes);
+    }
+
+    /**
+     * Returns the serialized key. The returned array must not be modified.
+     *
+     * @return key bytes
+     */
+    public byte[] bytes() {
+        return bytes;
+    }
+
+    @Override
+    public int compareTo(BinaryKey that) {
+        int length = Math.min(bytes.length, that.bytes.length);
+        for (int i = 0; i < length; i++) {
+            int diff = (bytes[i] & 0xff) - (that.bytes[i] & 0xff);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return bytes.length - that.bytes.length;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof BinaryKey) {
+            BinaryKey that = (BinaryKey) obj;
+            return hash == that.hash && Arrays.equals(bytes, that.bytes);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        // HexString does not cope with empty arrays
+        return bytes.length == 0 ? "" : HexString.toHexString(bytes);
+    }
+}
@@ -28,9 +28,9 @@ import com.google.common.collect.ImmutableList;
 public final class CommitResponse {
 
     private boolean success;
-    private List<UpdateResult<String, byte[]>> updates;
+    private List<UpdateResult<BinaryKey, byte[]>> updates;
 
-    public static CommitResponse success(List<UpdateResult<String, byte[]>> updates) {
+    public static CommitResponse success(List<UpdateResult<BinaryKey, byte[]>> updates) {
         return new CommitResponse(true, updates);
     }
 
@@ -38,7 +38,7 @@ public final class CommitResponse {
         return new CommitResponse(false, Collections.emptyList());
     }
 
-    private CommitResponse(boolean success, List<UpdateResult<String, byte[]>> updates) {
+    private CommitResponse(boolean success, List<UpdateResult<BinaryKey, byte[]>> updates) {
         this.success = success;
         this.updates = ImmutableList.copyOf(updates);
     }
@@ -47,7 +47,7 @@ public final class CommitResponse {
         return success;
     }
 
-    public List<UpdateResult<String, byte[]>> updates() {
+    public List<UpdateResult<BinaryKey, byte[]>> updates() {
         return updates;
     }
 
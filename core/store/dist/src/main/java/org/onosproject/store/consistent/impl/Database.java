@@ -28,7 +28,7 @@ import net.kuujo.copycat.resource.Resource;
 /**
  * Database.
  */
-public interface Database extends DatabaseProxy<String, byte[]>, Resource<Database> {
+public interface Database extends DatabaseProxy<BinaryKey, byte[]>, Resource<Database> {
 
   /**
    * Creates a new database with the default cluster configuration.<p>
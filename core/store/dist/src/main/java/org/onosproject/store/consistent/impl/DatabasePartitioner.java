@@ -29,7 +29,7 @@ import com.google.common.hash.Hashing;
  * By default a md5 hash of the hash key (key or map name) is used to pick a
  * partition.
  */
-public abstract class DatabasePartitioner implements Partitioner<String> {
+public abstract class DatabasePartitioner implements Partitioner<BinaryKey> {
     // Database partitions sorted by their partition name.
     protected final List<Database> partitions;
 
@@ -39,7 +39,15 @@ public abstract class DatabasePartitioner implements Partitioner<String> {
     }
 
     protected int hash(String key) {
-        return Math.abs(Hashing.md5().newHasher().putBytes(key.getBytes(Charsets.UTF_8)).hash().asInt());
+        return hash(key.getBytes(Charsets.UTF_8));
+    }
+
+    protected int hash(BinaryKey key) {
+        return hash(key.bytes());
+    }
+
+    private int hash(byte[] bytes) {
+        return Math.abs(Hashing.md5().newHasher().putBytes(bytes).hash().asInt());
     }
 
 }
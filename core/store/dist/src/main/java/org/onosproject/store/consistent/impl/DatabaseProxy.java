@@ -20,6 +20,7 @@ import org.onosproject.store.service.Transaction;
 import org.onosproject.store.service.Versioned;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -86,6 +87,15 @@ public interface DatabaseProxy<K, V> {
      */
     CompletableFuture<Versioned<V>> mapGet(String mapName, K key);
 
+    /**
+     * Gets the values of several keys from the map.
+     *
+     * @param mapName map name
+     * @param keys    The keys to get.
+     * @return A completable future to be completed with the values of the keys present in the map.
+     */
+    CompletableFuture<Map<K, Versioned<V>>> mapGetAll(String mapName, Collection<K> keys);
+
     /**
      * Updates the map.
      *
@@ -99,6 +109,16 @@ public interface DatabaseProxy<K, V> {
     CompletableFuture<Result<UpdateResult<K, V>>> mapUpdate(
             String mapName, K key, Match<V> valueMatch, Match<Long> versionMatch, V value);
 
+    /**
+     * Unconditionally puts several entries into the map. Either all or none
+     * of the entries are put.
+     *
+     * @param mapName map name
+     * @param entries entries to put
+     * @return A completable future to be completed with the result once complete
+     */
+    CompletableFuture<Result<List<UpdateResult<K, V>>>> mapPutAll(String mapName, Map<K, V> entries);
+
     /**
      * Clears the map.
      *
@@ -131,6 +151,17 @@ public interface DatabaseProxy<K, V> {
      */
     CompletableFuture<Set<Map.Entry<K, Versioned<V>>>> mapEntrySet(String mapName);
 
+    /**
+     * Gets a page of entries in the map. Entries are returned in a stable
+     * order, so that the last key of a page can be used to fetch the next one.
+     *
+     * @param mapName map name
+     * @param fromKey key after which the page starts; null to start from the first entry
+     * @param limit   maximum number of entries in the page
+     * @return A completable future to be completed with the result once complete.
+     */
+    CompletableFuture<List<Map.Entry<K, Versioned<V>>>> mapEntries(String mapName, K fromKey, int limit);
+
     /**
      * Atomically add the given value to current value of the specified counter.
      *
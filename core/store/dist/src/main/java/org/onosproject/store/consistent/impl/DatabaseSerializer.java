@@ -17,6 +17,7 @@
 package org.onosproject.store.consistent.impl;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import org.onlab.util.KryoNamespace;
 import org.onosproject.cluster.NodeId;
@@ -67,6 +68,8 @@ public class DatabaseSerializer extends SerializerConfig {
 
     private static final KryoNamespace ONOS_STORE = KryoNamespace.newBuilder()
             .nextId(KryoNamespace.FLOATING_ID)
+            .register(new BinaryKeySerializer(), BinaryKey.class)
+            .register(ConcurrentSkipListMap.class)
             .register(Versioned.class)
             .register(DatabaseUpdate.class)
             .register(DatabaseUpdate.Type.class)
@@ -24,6 +24,7 @@ import org.onosproject.store.service.Transaction;
 import org.onosproject.store.service.Versioned;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -63,9 +64,15 @@ public interface DatabaseState<K, V> {
   @Query
   Versioned<V> mapGet(String mapName, K key);
 
+  @Query
+  Map<K, Versioned<V>> mapGetAll(String mapName, Collection<K> keys);
+
   @Command
   Result<UpdateResult<K, V>> mapUpdate(String mapName, K key, Match<V> valueMatch, Match<Long> versionMatch, V value);
 
+  @Command
+  Result<List<UpdateResult<K, V>>> mapPutAll(String mapName, Map<K, V> entries);
+
   @Command
   Result<Void> mapClear(String mapName);
 
@@ -78,6 +85,9 @@ public interface DatabaseState<K, V> {
   @Query
   Set<Entry<K, Versioned<V>>> mapEntrySet(String mapName);
 
+  @Query
+  List<Entry<K, Versioned<V>>> mapEntries(String mapName, K fromKey, int limit);
+
   @Command
   Long counterAddAndGet(String counterName, long delta);
 
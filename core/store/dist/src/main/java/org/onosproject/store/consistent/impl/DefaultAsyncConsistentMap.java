@@ -20,7 +20,6 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Maps;
-import org.onlab.util.HexString;
 import org.onlab.util.SharedExecutors;
 import org.onlab.util.Tools;
 import org.onosproject.core.ApplicationId;
@@ -33,6 +32,7 @@ import org.onosproject.store.service.Versioned;
 import org.slf4j.Logger;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -46,6 +46,7 @@ import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.onosproject.store.consistent.impl.StateMachineUpdate.Target.MAP_PUT_ALL;
 import static org.onosproject.store.consistent.impl.StateMachineUpdate.Target.MAP_UPDATE;
 import static org.onosproject.store.consistent.impl.StateMachineUpdate.Target.TX_COMMIT;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -72,15 +73,18 @@ public class DefaultAsyncConsistentMap<K, V>  implements AsyncConsistentMap<K, V
     private static final String CONTAINS_KEY = "containsKey";
     private static final String CONTAINS_VALUE = "containsValue";
     private static final String GET = "get";
+    private static final String GET_ALL = "getAll";
     private static final String COMPUTE_IF = "computeIf";
     private static final String PUT = "put";
     private static final String PUT_AND_GET = "putAndGet";
+    private static final String PUT_ALL = "putAll";
     private static final String PUT_IF_ABSENT = "putIfAbsent";
     private static final String REMOVE = "remove";
     private static final String CLEAR = "clear";
     private static final String KEY_SET = "keySet";
     private static final String VALUES = "values";
     private static final String ENTRY_SET = "entrySet";
+    private static final String ENTRIES = "entries";
     private static final String REPLACE = "replace";
     private static final String COMPUTE_IF_ABSENT = "computeIfAbsent";
 
@@ -92,18 +96,18 @@ public class DefaultAsyncConsistentMap<K, V>  implements AsyncConsistentMap<K, V
     private static final String ERROR_NULL_KEY = "Key cannot be null";
     private static final String ERROR_NULL_VALUE = "Null values are not allowed";
 
-    private final LoadingCache<K, String> keyCache = CacheBuilder.newBuilder()
+    private final LoadingCache<K, BinaryKey> keyCache = CacheBuilder.newBuilder()
             .softValues()
-            .build(new CacheLoader<K, String>() {
+            .build(new CacheLoader<K, BinaryKey>() {
 
                 @Override
-                public String load(K key) {
-                    return HexString.toHexString(serializer.encode(key));
+                public BinaryKey load(K key) {
+                    return BinaryKey.wrap(serializer.encode(key));
                 }
             });
 
-    protected K dK(String key) {
-        return serializer.decode(HexString.fromHexString(key));
+    protected K dK(BinaryKey key) {
+        return serializer.decode(key.bytes());
     }
 
     public DefaultAsyncConsistentMap(String name,
@@ -126,7 +130,7 @@ public class DefaultAsyncConsistentMap<K, V>  implements AsyncConsistentMap<K, V
                 }
                 try {
                     if (update.target() == MAP_UPDATE) {
-                        Result<UpdateResult<String, byte[]>> result = update.output();
+                        Result<UpdateResult<BinaryKey, byte[]>> result = update.output();
                         if (result.success() && result.value().mapName().equals(name)) {
                             MapEvent<K, V> mapEvent = result.value()
                                                             .<K, V>map(this::dK,
@@ -134,6 +138,17 @@ public class DefaultAsyncConsistentMap<K, V>  implements AsyncConsistentMap<K, V
                                                             .toMapEvent();
                             notifyListeners(mapEvent);
                         }
+                    } else if (update.target() == MAP_PUT_ALL) {
+                        Result<List<UpdateResult<BinaryKey, byte[]>>> result = update.output();
+                        if (result.success()) {
+                            result.value().forEach(u -> {
+                                if (u.mapName().equals(name)) {
+                                    notifyListeners(u.<K, V>map(this::dK,
+                                                                v -> serializer.decode(Tools.copyOf(v)))
+                                                     .toMapEvent());
+                                }
+                            });
+                        }
                     } else if (update.target() == TX_COMMIT) {
                         CommitResponse response = update.output();
                         if (response.success()) {
@@ -228,6 +243,22 @@ public class DefaultAsyncConsistentMap<K, V>  implements AsyncConsistentMap<K, V
                 .thenApply(v -> v != null ? v.map(serializer::decode) : null);
     }
 
+    @Override
+    public CompletableFuture<Map<K, Versioned<V>>> getAll(Collection<K> keys) {
+        checkNotNull(keys, "Keys cannot be null");
+        final MeteringAgent.Context timer = monitor.startTimer(GET_ALL);
+        List<BinaryKey> rawKeys = keys.stream()
+                .map(key -> keyCache.getUnchecked(checkNotNull(key, ERROR_NULL_KEY)))
+                .collect(Collectors.toList());
+        return database.mapGetAll(name, rawKeys)
+                .whenComplete((r, e) -> timer.stop(e))
+                .thenApply(m -> {
+                    Map<K, Versioned<V>> values = Maps.newHashMapWithExpectedSize(m.size());
+                    m.forEach((k, v) -> values.put(dK(k), v.map(serializer::decode)));
+                    return values;
+                });
+    }
+
     @Override
     public CompletableFuture<Versioned<V>> computeIfAbsent(K key,
                                                            Function<? super K, ? extends V> mappingFunction) {
@@ -308,6 +339,23 @@ public class DefaultAsyncConsistentMap<K, V>  implements AsyncConsistentMap<K, V
                 .whenComplete((r, e) -> timer.stop(e));
     }
 
+    @Override
+    public CompletableFuture<Void> putAll(Map<K, V> entries) {
+        checkNotNull(entries, "Entries cannot be null");
+        final MeteringAgent.Context timer = monitor.startTimer(PUT_ALL);
+        Map<BinaryKey, byte[]> rawEntries = Maps.newHashMapWithExpectedSize(entries.size());
+        entries.forEach((key, value) -> {
+            checkNotNull(key, ERROR_NULL_KEY);
+            checkNotNull(value, ERROR_NULL_VALUE);
+            beforeUpdate(key);
+            rawEntries.put(keyCache.getUnchecked(key), serializer.encode(value));
+        });
+        return database.mapPutAll(name, rawEntries)
+                .thenApply(this::unwrapResult)
+                .whenComplete((r, e) -> timer.stop(e))
+                .thenApply(r -> null);
+    }
+
     @Override
     public CompletableFuture<Versioned<V>> remove(K key) {
         checkNotNull(key, ERROR_NULL_KEY);
@@ -357,6 +405,23 @@ public class DefaultAsyncConsistentMap<K, V>  implements AsyncConsistentMap<K, V
                         .collect(Collectors.toSet()));
     }
 
+    /**
+     * Returns a page of entries contained in this map. Pages are fetched one
+     * partition at a time; iterating through the map a page at a time, each
+     * starting after the last key of the previous one, visits every entry
+     * present throughout the iteration exactly once.
+     *
+     * @param fromKey serialized key after which the page starts; null to
+     *                start from the first entry
+     * @param limit   maximum number of entries in the page
+     * @return a future for the page of entries, keyed by their serialized keys
+     */
+    CompletableFuture<List<Entry<BinaryKey, Versioned<byte[]>>>> entries(BinaryKey fromKey, int limit) {
+        final MeteringAgent.Context timer = monitor.startTimer(ENTRIES);
+        return database.mapEntries(name, fromKey, limit)
+                .whenComplete((r, e) -> timer.stop(e));
+    }
+
     @Override
     public CompletableFuture<Versioned<V>> putIfAbsent(K key, V value) {
         checkNotNull(key, ERROR_NULL_KEY);
@@ -413,7 +478,13 @@ public class DefaultAsyncConsistentMap<K, V>  implements AsyncConsistentMap<K, V
         checkIfUnmodifiable();
     }
 
-    private Map.Entry<K, Versioned<V>> mapRawEntry(Map.Entry<String, Versioned<byte[]>> e) {
+    /**
+     * Decodes an entry keyed by its serialized key.
+     *
+     * @param e entry with serialized key and value
+     * @return decoded entry
+     */
+    Map.Entry<K, Versioned<V>> mapRawEntry(Map.Entry<BinaryKey, Versioned<byte[]>> e) {
         return Maps.immutableEntry(dK(e.getKey()), e.getValue().<V>map(serializer::decode));
     }
 
@@ -17,8 +17,11 @@
 package org.onosproject.store.consistent.impl;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -43,6 +46,7 @@ import org.onosproject.store.service.Versioned;
 public class DefaultConsistentMap<K, V> implements ConsistentMap<K, V> {
 
     private static final int OPERATION_TIMEOUT_MILLIS = 5000;
+    private static final int ENTRY_PAGE_SIZE = 500;
 
     private final DefaultAsyncConsistentMap<K, V> asyncMap;
     private Map<K, V> javaMap;
@@ -140,6 +144,21 @@ public class DefaultConsistentMap<K, V> implements ConsistentMap<K, V> {
         return complete(asyncMap.entrySet());
     }
 
+    @Override
+    public Iterator<Entry<K, Versioned<V>>> entryIterator() {
+        return new PagedEntryIterator();
+    }
+
+    @Override
+    public Map<K, Versioned<V>> getAll(Collection<K> keys) {
+        return complete(asyncMap.getAll(keys));
+    }
+
+    @Override
+    public void putAll(Map<K, V> entries) {
+        complete(asyncMap.putAll(entries));
+    }
+
     @Override
     public Versioned<V> putIfAbsent(K key, V value) {
         return complete(asyncMap.putIfAbsent(key, value));
@@ -201,4 +220,30 @@ public class DefaultConsistentMap<K, V> implements ConsistentMap<K, V> {
         }
         return javaMap;
     }
+
+    // Iterator fetching the entries of the map a page at a time.
+    private class PagedEntryIterator implements Iterator<Entry<K, Versioned<V>>> {
+        private List<Entry<BinaryKey, Versioned<byte[]>>> page;
+        private int next;
+        private boolean last;
+
+        @Override
+        public boolean hasNext() {
+            if (page == null || (next == page.size() && !last)) {
+                BinaryKey fromKey = page == null || page.isEmpty() ? null : page.get(page.size() - 1).getKey();
+                page = complete(asyncMap.entries(fromKey, ENTRY_PAGE_SIZE));
+                next = 0;
+                last = page.size() < ENTRY_PAGE_SIZE;
+            }
+            return next < page.size();
+        }
+
+        @Override
+        public Entry<K, Versioned<V>> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return asyncMap.mapRawEntry(page.get(next++));
+        }
+    }
 }
\ No newline at end of file
@@ -27,6 +27,7 @@ import org.onosproject.store.service.Transaction;
 import org.onosproject.store.service.Versioned;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -37,8 +38,8 @@ import java.util.function.Supplier;
  * Default database.
  */
 public class DefaultDatabase extends AbstractResource<Database> implements Database {
-    private final StateMachine<DatabaseState<String, byte[]>> stateMachine;
-    private DatabaseProxy<String, byte[]> proxy;
+    private final StateMachine<DatabaseState<BinaryKey, byte[]>> stateMachine;
+    private DatabaseProxy<BinaryKey, byte[]> proxy;
     private final Set<Consumer<StateMachineUpdate>> consumers = Sets.newCopyOnWriteArraySet();
     private final TriConsumer<String, Object, Object> watcher = new InternalStateMachineWatcher();
 
@@ -95,7 +96,7 @@ public class DefaultDatabase extends AbstractResource<Database> implements Datab
     }
 
     @Override
-    public CompletableFuture<Boolean> mapContainsKey(String mapName, String key) {
+    public CompletableFuture<Boolean> mapContainsKey(String mapName, BinaryKey key) {
         return checkOpen(() -> proxy.mapContainsKey(mapName, key));
     }
 
@@ -105,23 +106,35 @@ public class DefaultDatabase extends AbstractResource<Database> implements Datab
     }
 
     @Override
-    public CompletableFuture<Versioned<byte[]>> mapGet(String mapName, String key) {
+    public CompletableFuture<Versioned<byte[]>> mapGet(String mapName, BinaryKey key) {
         return checkOpen(() -> proxy.mapGet(mapName, key));
     }
 
     @Override
-    public CompletableFuture<Result<UpdateResult<String, byte[]>>> mapUpdate(
-            String mapName, String key, Match<byte[]> valueMatch, Match<Long> versionMatch, byte[] value) {
+    public CompletableFuture<Map<BinaryKey, Versioned<byte[]>>> mapGetAll(String mapName,
+                                                                        Collection<BinaryKey> keys) {
+        return checkOpen(() -> proxy.mapGetAll(mapName, keys));
+    }
+
+    @Override
+    public CompletableFuture<Result<UpdateResult<BinaryKey, byte[]>>> mapUpdate(
+            String mapName, BinaryKey key, Match<byte[]> valueMatch, Match<Long> versionMatch, byte[] value) {
         return checkOpen(() -> proxy.mapUpdate(mapName, key, valueMatch, versionMatch, value));
     }
 
+    @Override
+    public CompletableFuture<Result<List<UpdateResult<BinaryKey, byte[]>>>> mapPutAll(
+            String mapName, Map<BinaryKey, byte[]> entries) {
+        return checkOpen(() -> proxy.mapPutAll(mapName, entries));
+    }
+
     @Override
     public CompletableFuture<Result<Void>> mapClear(String mapName) {
         return checkOpen(() -> proxy.mapClear(mapName));
     }
 
     @Override
-    public CompletableFuture<Set<String>> mapKeySet(String mapName) {
+    public CompletableFuture<Set<BinaryKey>> mapKeySet(String mapName) {
         return checkOpen(() -> proxy.mapKeySet(mapName));
     }
 
@@ -131,10 +144,16 @@ public class DefaultDatabase extends AbstractResource<Database> implements Datab
     }
 
     @Override
-    public CompletableFuture<Set<Map.Entry<String, Versioned<byte[]>>>> mapEntrySet(String mapName) {
+    public CompletableFuture<Set<Map.Entry<BinaryKey, Versioned<byte[]>>>> mapEntrySet(String mapName) {
         return checkOpen(() -> proxy.mapEntrySet(mapName));
     }
 
+    @Override
+    public CompletableFuture<List<Map.Entry<BinaryKey, Versioned<byte[]>>>> mapEntries(
+            String mapName, BinaryKey fromKey, int limit) {
+        return checkOpen(() -> proxy.mapEntries(mapName, fromKey, limit));
+    }
+
     @Override
     public CompletableFuture<Long> counterGet(String counterName) {
         return checkOpen(() -> proxy.counterGet(counterName));
@@ -30,20 +30,27 @@ import org.onosproject.store.service.Versioned;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
  * Default database state.
+ * <p>
+ * Map entries are kept sorted by their binary keys, so that they can be paged
+ * through in a stable order.
+ * </p>
  */
-public class DefaultDatabaseState implements DatabaseState<String, byte[]> {
+public class DefaultDatabaseState implements DatabaseState<BinaryKey, byte[]> {
     private Long nextVersion;
     private Map<String, AtomicLong> counters;
-    private Map<String, Map<String, Versioned<byte[]>>> maps;
+    private Map<String, ConcurrentNavigableMap<BinaryKey, Versioned<byte[]>>> maps;
     private Map<String, Queue<byte[]>> queues;
 
     /**
@@ -56,11 +63,11 @@ public class DefaultDatabaseState implements DatabaseState<String, byte[]> {
      * The presence of a entry in this map indicates that element is
      * participating in a transaction and is currently locked for updates.
      */
-    private Map<String, Map<String, Update>> locks;
+    private Map<String, Map<BinaryKey, Update>> locks;
 
     @Initializer
     @Override
-    public void init(StateContext<DatabaseState<String, byte[]>> context) {
+    public void init(StateContext<DatabaseState<BinaryKey, byte[]>> context) {
         counters = context.get("counters");
         if (counters == null) {
             counters = Maps.newConcurrentMap();
@@ -111,7 +118,7 @@ public class DefaultDatabaseState implements DatabaseState<String, byte[]> {
     }
 
     @Override
-    public boolean mapContainsKey(String mapName, String key) {
+    public boolean mapContainsKey(String mapName, BinaryKey key) {
         return getMap(mapName).containsKey(key);
     }
 
@@ -121,15 +128,27 @@ public class DefaultDatabaseState implements DatabaseState<String, byte[]> {
     }
 
     @Override
-    public Versioned<byte[]> mapGet(String mapName, String key) {
+    public Versioned<byte[]> mapGet(String mapName, BinaryKey key) {
         return getMap(mapName).get(key);
     }
 
+    @Override
+    public Map<BinaryKey, Versioned<byte[]>> mapGetAll(String mapName, Collection<BinaryKey> keys) {
+        Map<BinaryKey, Versioned<byte[]>> map = getMap(mapName);
+        Map<BinaryKey, Versioned<byte[]>> values = Maps.newHashMapWithExpectedSize(keys.size());
+        for (BinaryKey key : keys) {
+            Versioned<byte[]> value = map.get(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
 
     @Override
-    public Result<UpdateResult<String, byte[]>> mapUpdate(
+    public Result<UpdateResult<BinaryKey, byte[]>> mapUpdate(
             String mapName,
-            String key,
+            BinaryKey key,
             Match<byte[]> valueMatch,
             Match<Long> versionMatch,
             byte[] value) {
@@ -155,6 +174,18 @@ public class DefaultDatabaseState implements DatabaseState<String, byte[]> {
         }
     }
 
+    @Override
+    public Result<List<UpdateResult<BinaryKey, byte[]>>> mapPutAll(String mapName,
+                                                                   Map<BinaryKey, byte[]> entries) {
+        if (entries.keySet().stream().anyMatch(key -> isLockedForUpdates(mapName, key))) {
+            return Result.locked();
+        }
+        List<UpdateResult<BinaryKey, byte[]>> results = Lists.newArrayListWithCapacity(entries.size());
+        entries.forEach((key, value) ->
+                results.add(mapUpdate(mapName, key, Match.any(), Match.any(), value).value()));
+        return Result.ok(results);
+    }
+
     @Override
     public Result<Void> mapClear(String mapName) {
         if (areTransactionsInProgress(mapName)) {
@@ -165,7 +196,7 @@ public class DefaultDatabaseState implements DatabaseState<String, byte[]> {
     }
 
     @Override
-    public Set<String> mapKeySet(String mapName) {
+    public Set<BinaryKey> mapKeySet(String mapName) {
         return ImmutableSet.copyOf(getMap(mapName).keySet());
     }
 
@@ -175,7 +206,7 @@ public class DefaultDatabaseState implements DatabaseState<String, byte[]> {
     }
 
     @Override
-    public Set<Entry<String, Versioned<byte[]>>> mapEntrySet(String mapName) {
+    public Set<Entry<BinaryKey, Versioned<byte[]>>> mapEntrySet(String mapName) {
         return ImmutableSet.copyOf(getMap(mapName)
                 .entrySet()
                 .stream()
@@ -183,6 +214,20 @@ public class DefaultDatabaseState implements DatabaseState<String, byte[]> {
                 .collect(Collectors.toSet()));
     }
 
+    @Override
+    public List<Entry<BinaryKey, Versioned<byte[]>>> mapEntries(String mapName, BinaryKey fromKey, int limit) {
+        ConcurrentNavigableMap<BinaryKey, Versioned<byte[]>> map = getMap(mapName);
+        Map<BinaryKey, Versioned<byte[]>> tail = fromKey == null ? map : map.tailMap(fromKey, false);
+        List<Entry<BinaryKey, Versioned<byte[]>>> page = Lists.newArrayList();
+        for (Entry<BinaryKey, Versioned<byte[]>> entry : tail.entrySet()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.add(Maps.immutableEntry(entry.getKey(), entry.getValue()));
+        }
+        return page;
+    }
+
     @Override
     public Long counterAddAndGet(String counterName, long delta) {
         return getCounter(counterName).addAndGet(delta);
@@ -235,7 +280,7 @@ public class DefaultDatabaseState implements DatabaseState<String, byte[]> {
     public boolean prepare(Transaction transaction) {
         if (transaction.updates().stream().anyMatch(update ->
                     isLockedByAnotherTransaction(update.mapName(),
-                                                 update.key(),
+                                                 BinaryKey.wrap(update.key()),
                                                  transaction.id()))) {
             return false;
         }
@@ -259,11 +304,11 @@ public class DefaultDatabaseState implements DatabaseState<String, byte[]> {
         return true;
     }
 
-    private Map<String, Versioned<byte[]>> getMap(String mapName) {
-        return maps.computeIfAbsent(mapName, name -> Maps.newConcurrentMap());
+    private ConcurrentNavigableMap<BinaryKey, Versioned<byte[]>> getMap(String mapName) {
+        return maps.computeIfAbsent(mapName, name -> new ConcurrentSkipListMap<>());
     }
 
-    private Map<String, Update> getLockMap(String mapName) {
+    private Map<BinaryKey, Update> getLockMap(String mapName) {
         return locks.computeIfAbsent(mapName, name -> Maps.newConcurrentMap());
     }
 
@@ -276,7 +321,7 @@ public class DefaultDatabaseState implements DatabaseState<String, byte[]> {
     }
 
     private boolean isUpdatePossible(DatabaseUpdate update) {
-        Versioned<byte[]> existingEntry = mapGet(update.mapName(), update.key());
+        Versioned<byte[]> existingEntry = mapGet(update.mapName(), BinaryKey.wrap(update.key()));
         switch (update.type()) {
         case PUT:
         case REMOVE:
@@ -297,27 +342,28 @@ public class DefaultDatabaseState implements DatabaseState<String, byte[]> {
     }
 
     private void doProvisionalUpdate(DatabaseUpdate update, long transactionId) {
-        Map<String, Update> lockMap = getLockMap(update.mapName());
+        Map<BinaryKey, Update> lockMap = getLockMap(update.mapName());
+        BinaryKey key = BinaryKey.wrap(update.key());
         switch (update.type()) {
         case PUT:
         case PUT_IF_ABSENT:
         case PUT_IF_VERSION_MATCH:
         case PUT_IF_VALUE_MATCH:
-            lockMap.put(update.key(), new Update(transactionId, update.value()));
+            lockMap.put(key, new Update(transactionId, update.value()));
             break;
         case REMOVE:
         case REMOVE_IF_VERSION_MATCH:
         case REMOVE_IF_VALUE_MATCH:
-            lockMap.put(update.key(), new Update(transactionId, null));
+            lockMap.put(key, new Update(transactionId, null));
             break;
         default:
             throw new IllegalStateException("Unsupported type: " + update.type());
         }
     }
 
-    private UpdateResult<String, byte[]> commitProvisionalUpdate(DatabaseUpdate update, long transactionId) {
+    private UpdateResult<BinaryKey, byte[]> commitProvisionalUpdate(DatabaseUpdate update, long transactionId) {
         String mapName = update.mapName();
-        String key = update.key();
+        BinaryKey key = BinaryKey.wrap(update.key());
         Update provisionalUpdate = getLockMap(mapName).get(key);
         if (Objects.equal(transactionId, provisionalUpdate.transactionId()))  {
             getLockMap(mapName).remove(key);
@@ -329,7 +375,7 @@ public class DefaultDatabaseState implements DatabaseState<String, byte[]> {
 
     private void undoProvisionalUpdate(DatabaseUpdate update, long transactionId) {
         String mapName = update.mapName();
-        String key = update.key();
+        BinaryKey key = BinaryKey.wrap(update.key());
         Update provisionalUpdate = getLockMap(mapName).get(key);
         if (provisionalUpdate == null) {
             return;
@@ -339,12 +385,12 @@ public class DefaultDatabaseState implements DatabaseState<String, byte[]> {
         }
     }
 
-    private boolean isLockedByAnotherTransaction(String mapName, String key, long transactionId) {
+    private boolean isLockedByAnotherTransaction(String mapName, BinaryKey key, long transactionId) {
         Update update = getLockMap(mapName).get(key);
         return update != null && !Objects.equal(transactionId, update.transactionId());
     }
 
-    private boolean isLockedForUpdates(String mapName, String key) {
+    private boolean isLockedForUpdates(String mapName, BinaryKey key) {
         return getLockMap(mapName).containsKey(key);
     }
 
@@ -20,7 +20,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import org.onlab.util.HexString;
 import org.onosproject.store.service.ConsistentMap;
 import org.onosproject.store.service.DatabaseUpdate;
 import org.onosproject.store.service.Serializer;
@@ -59,18 +58,18 @@ public class DefaultTransactionalMap<K, V> implements TransactionalMap<K, V> {
     private static final String ERROR_NULL_VALUE = "Null values are not allowed";
     private static final String ERROR_NULL_KEY = "Null key is not allowed";
 
-    private final LoadingCache<K, String> keyCache = CacheBuilder.newBuilder()
+    private final LoadingCache<K, byte[]> keyCache = CacheBuilder.newBuilder()
             .softValues()
-            .build(new CacheLoader<K, String>() {
+            .build(new CacheLoader<K, byte[]>() {
 
                 @Override
-                public String load(K key) {
-                    return HexString.toHexString(serializer.encode(key));
+                public byte[] load(K key) {
+                    return serializer.encode(key);
                 }
             });
 
-    protected K dK(String key) {
-        return serializer.decode(HexString.fromHexString(key));
+    protected K dK(byte[] key) {
+        return serializer.decode(key);
     }
 
     public DefaultTransactionalMap(
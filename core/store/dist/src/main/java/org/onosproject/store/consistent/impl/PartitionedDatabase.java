@@ -16,6 +16,7 @@
 
 package org.onosproject.store.consistent.impl;
 
+import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -27,6 +28,7 @@ import org.onosproject.store.service.DatabaseUpdate;
 import org.onosproject.store.service.Transaction;
 import org.onosproject.store.service.Versioned;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -47,7 +49,7 @@ import static com.google.common.base.Preconditions.checkState;
 public class PartitionedDatabase implements Database {
 
     private final String name;
-    private final Partitioner<String> partitioner;
+    private final Partitioner<BinaryKey> partitioner;
     private final List<Database> partitions;
     private final AtomicBoolean isOpen = new AtomicBoolean(false);
     private static final String DB_NOT_OPEN = "Partitioned Database is not open";
@@ -121,11 +123,17 @@ public class PartitionedDatabase implements Database {
     @Override
     public CompletableFuture<Boolean> mapIsEmpty(String mapName) {
         checkState(isOpen.get(), DB_NOT_OPEN);
-        return mapSize(mapName).thenApply(size -> size == 0);
+        AtomicBoolean isEmpty = new AtomicBoolean(true);
+        return CompletableFuture.allOf(partitions
+                                               .stream()
+                                               .map(p -> p.mapIsEmpty(mapName)
+                                                       .thenApply(v -> isEmpty.compareAndSet(true, v)))
+                                               .toArray(CompletableFuture[]::new))
+                .thenApply(v -> isEmpty.get());
     }
 
     @Override
-    public CompletableFuture<Boolean> mapContainsKey(String mapName, String key) {
+    public CompletableFuture<Boolean> mapContainsKey(String mapName, BinaryKey key) {
         checkState(isOpen.get(), DB_NOT_OPEN);
         return partitioner.getPartition(mapName, key).mapContainsKey(mapName, key);
     }
@@ -143,19 +151,65 @@ public class PartitionedDatabase implements Database {
     }
 
     @Override
-    public CompletableFuture<Versioned<byte[]>> mapGet(String mapName, String key) {
+    public CompletableFuture<Versioned<byte[]>> mapGet(String mapName, BinaryKey key) {
         checkState(isOpen.get(), DB_NOT_OPEN);
         return partitioner.getPartition(mapName, key).mapGet(mapName, key);
     }
 
     @Override
-    public CompletableFuture<Result<UpdateResult<String, byte[]>>> mapUpdate(
-            String mapName, String key, Match<byte[]> valueMatch,
+    public CompletableFuture<Map<BinaryKey, Versioned<byte[]>>> mapGetAll(String mapName,
+                                                                        Collection<BinaryKey> keys) {
+        checkState(isOpen.get(), DB_NOT_OPEN);
+        Map<BinaryKey, Versioned<byte[]>> values = Maps.newConcurrentMap();
+        Map<Database, List<BinaryKey>> perPartitionKeys = Maps.newHashMap();
+        keys.forEach(key -> perPartitionKeys.computeIfAbsent(partitioner.getPartition(mapName, key),
+                                                             k -> new ArrayList<>()).add(key));
+        return CompletableFuture.allOf(perPartitionKeys.entrySet()
+                                               .stream()
+                                               .map(e -> e.getKey().mapGetAll(mapName, e.getValue())
+                                                       .thenAccept(values::putAll))
+                                               .toArray(CompletableFuture[]::new))
+                .thenApply(v -> values);
+    }
+
+    @Override
+    public CompletableFuture<Result<UpdateResult<BinaryKey, byte[]>>> mapUpdate(
+            String mapName, BinaryKey key, Match<byte[]> valueMatch,
             Match<Long> versionMatch, byte[] value) {
         return partitioner.getPartition(mapName, key).mapUpdate(mapName, key, valueMatch, versionMatch, value);
 
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Entries are put into each partition atomically; entries of different
+     * partitions are put independently of one another.
+     * </p>
+     */
+    @Override
+    public CompletableFuture<Result<List<UpdateResult<BinaryKey, byte[]>>>> mapPutAll(
+            String mapName, Map<BinaryKey, byte[]> entries) {
+        checkState(isOpen.get(), DB_NOT_OPEN);
+        Map<Database, Map<BinaryKey, byte[]>> perPartitionEntries = Maps.newHashMap();
+        entries.forEach((key, value) -> perPartitionEntries.computeIfAbsent(partitioner.getPartition(mapName, key),
+                                                                            k -> Maps.newHashMap()).put(key, value));
+        AtomicBoolean isLocked = new AtomicBoolean(false);
+        List<UpdateResult<BinaryKey, byte[]>> results = new CopyOnWriteArrayList<>();
+        return CompletableFuture.allOf(perPartitionEntries.entrySet()
+                                               .stream()
+                                               .map(e -> e.getKey().mapPutAll(mapName, e.getValue())
+                                                       .thenAccept(r -> {
+                                                           if (r.status() == Result.Status.LOCKED) {
+                                                               isLocked.set(true);
+                                                           } else {
+                                                               results.addAll(r.value());
+                                                           }
+                                                       }))
+                                               .toArray(CompletableFuture[]::new))
+                .thenApply(v -> isLocked.get() ? Result.locked() : Result.ok(ImmutableList.copyOf(results)));
+    }
+
     @Override
     public CompletableFuture<Result<Void>> mapClear(String mapName) {
         AtomicBoolean isLocked = new AtomicBoolean(false);
@@ -169,9 +223,9 @@ public class PartitionedDatabase implements Database {
     }
 
     @Override
-    public CompletableFuture<Set<String>> mapKeySet(String mapName) {
+    public CompletableFuture<Set<BinaryKey>> mapKeySet(String mapName) {
         checkState(isOpen.get(), DB_NOT_OPEN);
-        Set<String> keySet = Sets.newConcurrentHashSet();
+        Set<BinaryKey> keySet = Sets.newConcurrentHashSet();
         return CompletableFuture.allOf(partitions
                     .stream()
                     .map(p -> p.mapKeySet(mapName).thenApply(keySet::addAll))
@@ -191,9 +245,9 @@ public class PartitionedDatabase implements Database {
     }
 
     @Override
-    public CompletableFuture<Set<Entry<String, Versioned<byte[]>>>> mapEntrySet(String mapName) {
+    public CompletableFuture<Set<Entry<BinaryKey, Versioned<byte[]>>>> mapEntrySet(String mapName) {
         checkState(isOpen.get(), DB_NOT_OPEN);
-        Set<Entry<String, Versioned<byte[]>>> entrySet = Sets.newConcurrentHashSet();
+        Set<Entry<BinaryKey, Versioned<byte[]>>> entrySet = Sets.newConcurrentHashSet();
         return CompletableFuture.allOf(partitions
                                                .stream()
                                                .map(p -> p.mapEntrySet(mapName).thenApply(entrySet::addAll))
@@ -201,34 +255,62 @@ public class PartitionedDatabase implements Database {
                 .thenApply(v -> entrySet);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Partitions are visited one after the other; the partition holding the
+     * key a page starts from is the one the page is first fetched from.
+     * </p>
+     */
+    @Override
+    public CompletableFuture<List<Entry<BinaryKey, Versioned<byte[]>>>> mapEntries(
+            String mapName, BinaryKey fromKey, int limit) {
+        checkState(isOpen.get(), DB_NOT_OPEN);
+        int partition = fromKey == null ? 0 : partitions.indexOf(partitioner.getPartition(mapName, fromKey));
+        return mapEntries(mapName, partition, fromKey, limit, new ArrayList<>());
+    }
+
+    private CompletableFuture<List<Entry<BinaryKey, Versioned<byte[]>>>> mapEntries(
+            String mapName, int partition, BinaryKey fromKey, int limit,
+            List<Entry<BinaryKey, Versioned<byte[]>>> page) {
+        if (partition >= partitions.size() || page.size() >= limit) {
+            return CompletableFuture.completedFuture(page);
+        }
+        return partitions.get(partition).mapEntries(mapName, fromKey, limit - page.size())
+                .thenCompose(entries -> {
+                    page.addAll(entries);
+                    return mapEntries(mapName, partition + 1, null, limit, page);
+                });
+    }
+
     @Override
     public CompletableFuture<Long> counterGet(String counterName) {
         checkState(isOpen.get(), DB_NOT_OPEN);
-        return partitioner.getPartition(counterName, counterName).counterGet(counterName);
+        return partitionOf(counterName).counterGet(counterName);
     }
 
     @Override
     public CompletableFuture<Long> counterAddAndGet(String counterName, long delta) {
         checkState(isOpen.get(), DB_NOT_OPEN);
-        return partitioner.getPartition(counterName, counterName).counterAddAndGet(counterName, delta);
+        return partitionOf(counterName).counterAddAndGet(counterName, delta);
     }
 
     @Override
     public CompletableFuture<Long> counterGetAndAdd(String counterName, long delta) {
         checkState(isOpen.get(), DB_NOT_OPEN);
-        return partitioner.getPartition(counterName, counterName).counterGetAndAdd(counterName, delta);
+        return partitionOf(counterName).counterGetAndAdd(counterName, delta);
     }
 
     @Override
     public CompletableFuture<Void> counterSet(String counterName, long value) {
         checkState(isOpen.get(), DB_NOT_OPEN);
-        return partitioner.getPartition(counterName, counterName).counterSet(counterName, value);
+        return partitionOf(counterName).counterSet(counterName, value);
     }
 
     @Override
     public CompletableFuture<Boolean> counterCompareAndSet(String counterName, long expectedValue, long updateValue) {
         checkState(isOpen.get(), DB_NOT_OPEN);
-        return partitioner.getPartition(counterName, counterName).
+        return partitionOf(counterName).
                 counterCompareAndSet(counterName, expectedValue, updateValue);
 
     }
@@ -236,25 +318,25 @@ public class PartitionedDatabase implements Database {
     @Override
     public CompletableFuture<Long> queueSize(String queueName) {
         checkState(isOpen.get(), DB_NOT_OPEN);
-        return partitioner.getPartition(queueName, queueName).queueSize(queueName);
+        return partitionOf(queueName).queueSize(queueName);
     }
 
     @Override
     public CompletableFuture<Void> queuePush(String queueName, byte[] entry) {
         checkState(isOpen.get(), DB_NOT_OPEN);
-        return partitioner.getPartition(queueName, queueName).queuePush(queueName, entry);
+        return partitionOf(queueName).queuePush(queueName, entry);
     }
 
     @Override
     public CompletableFuture<byte[]> queuePop(String queueName) {
         checkState(isOpen.get(), DB_NOT_OPEN);
-        return partitioner.getPartition(queueName, queueName).queuePop(queueName);
+        return partitionOf(queueName).queuePop(queueName);
     }
 
     @Override
     public CompletableFuture<byte[]> queuePeek(String queueName) {
         checkState(isOpen.get(), DB_NOT_OPEN);
-        return partitioner.getPartition(queueName, queueName).queuePeek(queueName);
+        return partitionOf(queueName).queuePeek(queueName);
     }
 
     @Override
@@ -292,7 +374,7 @@ public class PartitionedDatabase implements Database {
     public CompletableFuture<CommitResponse> commit(Transaction transaction) {
         Map<Database, Transaction> subTransactions = createSubTransactions(transaction);
         AtomicBoolean success = new AtomicBoolean(true);
-        List<UpdateResult<String, byte[]>> allUpdates = Lists.newArrayList();
+        List<UpdateResult<BinaryKey, byte[]>> allUpdates = Lists.newArrayList();
         return CompletableFuture.allOf(subTransactions.entrySet()
                                                .stream()
                                                .map(entry -> entry.getKey().commit(entry.getValue())
@@ -368,11 +450,15 @@ public class PartitionedDatabase implements Database {
         throw new UnsupportedOperationException();
     }
 
+    private Database partitionOf(String name) {
+        return partitioner.getPartition(name, BinaryKey.wrap(name.getBytes(Charsets.UTF_8)));
+    }
+
     private Map<Database, Transaction> createSubTransactions(
             Transaction transaction) {
         Map<Database, List<DatabaseUpdate>> perPartitionUpdates = Maps.newHashMap();
         for (DatabaseUpdate update : transaction.updates()) {
-            Database partition = partitioner.getPartition(update.mapName(), update.key());
+            Database partition = partitioner.getPartition(update.mapName(), BinaryKey.wrap(update.key()));
             List<DatabaseUpdate> partitionUpdates =
                     perPartitionUpdates.computeIfAbsent(partition, k -> Lists.newLinkedList());
             partitionUpdates.add(update);
@@ -33,7 +33,7 @@ public class SimpleTableHashPartitioner extends DatabasePartitioner {
     }
 
     @Override
-    public Database getPartition(String mapName, String key) {
+    public Database getPartition(String mapName, BinaryKey key) {
         return partitions.get(hash(mapName) % partitions.size());
     }
 }
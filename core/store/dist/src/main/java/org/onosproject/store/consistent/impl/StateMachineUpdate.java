@@ -31,6 +31,11 @@ public class StateMachineUpdate {
          */
         MAP_UPDATE,
 
+        /**
+         * Update is a batch of map puts.
+         */
+        MAP_PUT_ALL,
+
         /**
          * Update is a transaction commit.
          */
@@ -61,6 +66,8 @@ public class StateMachineUpdate {
         // FIXME: This check is brittle
         if (operationName.contains("mapUpdate")) {
             return Target.MAP_UPDATE;
+        } else if (operationName.contains("mapPutAll")) {
+            return Target.MAP_PUT_ALL;
         } else if (operationName.contains("commit") || operationName.contains("prepareAndCommit")) {
             return Target.TX_COMMIT;
         } else if (operationName.contains("queuePush")) {
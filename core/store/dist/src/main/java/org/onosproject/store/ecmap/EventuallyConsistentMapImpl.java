@@ -89,6 +89,7 @@ public class EventuallyConsistentMapImpl<K, V>
 
     private final MessageSubject updateMessageSubject;
     private final MessageSubject antiEntropyAdvertisementSubject;
+    private final MessageSubject hashTreeAdvertisementSubject;
 
     private final Set<EventuallyConsistentMapListener<K, V>> listeners
             = Sets.newCopyOnWriteArraySet();
@@ -112,6 +113,7 @@ public class EventuallyConsistentMapImpl<K, V>
     private final long initialDelaySec = 5;
     private final boolean lightweightAntiEntropy;
     private final boolean tombstonesDisabled;
+    private final HashTree<K> hashTree;
 
     private static final int WINDOW_SIZE = 5;
     private static final int HIGH_LOAD_THRESHOLD = 0;
@@ -149,7 +151,12 @@ public class EventuallyConsistentMapImpl<K, V>
      * @param antiEntropyTimeUnit   time unit for anti-entropy period
      * @param convergeFaster        make anti-entropy try to converge faster
      * @param persistent            persist data to disk
+     * @param persistenceService    persistence service
+     * @param hashTreeAntiEntropy   descend hash trees to the divergent buckets
+     *                              before exchanging per-key digests during
+     *                              anti-entropy
      */
+    // CHECKSTYLE IGNORE ParameterNumber FOR NEXT 1 LINES
     EventuallyConsistentMapImpl(String mapName,
                                 ClusterService clusterService,
                                 ClusterCommunicationService clusterCommunicator,
@@ -164,7 +171,8 @@ public class EventuallyConsistentMapImpl<K, V>
                                 TimeUnit antiEntropyTimeUnit,
                                 boolean convergeFaster,
                                 boolean persistent,
-                                PersistenceService persistenceService) {
+                                PersistenceService persistenceService,
+                                boolean hashTreeAntiEntropy) {
         this.mapName = mapName;
         this.serializer = createSerializer(serializerBuilder);
         this.persistenceService = persistenceService;
@@ -249,6 +257,18 @@ public class EventuallyConsistentMapImpl<K, V>
                                           this::handleAntiEntropyAdvertisement,
                                           this.backgroundExecutor);
 
+        hashTreeAdvertisementSubject = new MessageSubject("ecm-" + mapName + "-hash-tree-anti-entropy");
+        if (hashTreeAntiEntropy) {
+            hashTree = new HashTree<>(serializer::encode);
+            items.forEach((key, value) -> hashTree.update(key, null, value));
+            clusterCommunicator.addSubscriber(hashTreeAdvertisementSubject,
+                                              serializer::decode,
+                                              this::handleHashTreeAdvertisement,
+                                              this.backgroundExecutor);
+        } else {
+            hashTree = null;
+        }
+
         this.tombstonesDisabled = tombstonesDisabled;
         this.lightweightAntiEntropy = !convergeFaster;
     }
@@ -267,6 +287,9 @@ public class EventuallyConsistentMapImpl<K, V>
                         .register(UpdateEntry.class)
                         .register(MapValue.class)
                         .register(MapValue.Digest.class)
+                        .register(HashTreeAdvertisement.class)
+                        .register(long[].class)
+                        .register(int[].class)
                         .build();
             }
         };
@@ -380,6 +403,7 @@ public class EventuallyConsistentMapImpl<K, V>
             }
             if (updated.get()) {
                 previousValue.set(existing);
+                updateHashTree(k, existing, tombstone.orElse(null));
                 return tombstone.orElse(null);
             } else {
                 return existing;
@@ -402,6 +426,7 @@ public class EventuallyConsistentMapImpl<K, V>
             MapValue<V> newValue = new MapValue<>(newRawValue, timestampProvider.apply(key, newRawValue));
             if (mv == null || newValue.isNewerThan(mv)) {
                 updated.set(true);
+                updateHashTree(k, mv, newValue);
                 return newValue;
             } else {
                 return mv;
@@ -470,9 +495,12 @@ public class EventuallyConsistentMapImpl<K, V>
         checkState(newValue.isAlive());
         counter.incrementCount();
         AtomicBoolean updated = new AtomicBoolean(false);
+        AtomicReference<MapValue<V>> previousValue = new AtomicReference<>();
         items.compute(key, (k, existing) -> {
             if (existing == null || newValue.isNewerThan(existing)) {
                 updated.set(true);
+                previousValue.set(existing);
+                updateHashTree(k, existing, newValue);
                 return newValue;
             }
             return existing;
@@ -480,6 +508,14 @@ public class EventuallyConsistentMapImpl<K, V>
         return updated.get();
     }
 
+    // Called while the entry of the key is being computed, so that the
+    // updates of a key reach the hash tree in order
+    private void updateHashTree(K key, MapValue<V> oldValue, MapValue<V> newValue) {
+        if (hashTree != null) {
+            hashTree.update(key, oldValue, newValue);
+        }
+    }
+
     @Override
     public void addListener(EventuallyConsistentMapListener<K, V> listener) {
         checkState(!destroyed, destroyedMessage);
@@ -506,6 +542,9 @@ public class EventuallyConsistentMapImpl<K, V>
 
         clusterCommunicator.removeSubscriber(updateMessageSubject);
         clusterCommunicator.removeSubscriber(antiEntropyAdvertisementSubject);
+        if (hashTree != null) {
+            clusterCommunicator.removeSubscriber(hashTreeAdvertisementSubject);
+        }
     }
 
     private void notifyListeners(EventuallyConsistentMapEvent<K, V> event) {
@@ -554,6 +593,10 @@ public class EventuallyConsistentMapImpl<K, V>
     }
 
     private void sendAdvertisementToPeer(NodeId peer) {
+        if (hashTree != null) {
+            sendHashTreeAdvertisementToPeer(peer);
+            return;
+        }
         clusterCommunicator.unicast(createAdvertisement(),
                 antiEntropyAdvertisementSubject,
                 serializer::encode,
@@ -570,6 +613,74 @@ public class EventuallyConsistentMapImpl<K, V>
                 ImmutableMap.copyOf(Maps.transformValues(items, MapValue::digest)));
     }
 
+    private void sendHashTreeAdvertisementToPeer(NodeId peer) {
+        int[] root = {0};
+        sendHashTreeAdvertisementToPeer(peer, new HashTreeAdvertisement(localNodeId, 0, root,
+                                                                        hashTree.nodeHashes(0, root)));
+    }
+
+    private void sendHashTreeAdvertisementToPeer(NodeId peer, HashTreeAdvertisement ad) {
+        clusterCommunicator.unicast(ad,
+                hashTreeAdvertisementSubject,
+                serializer::encode,
+                peer)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        log.debug("Failed to send hash tree advertisement to {}", peer, error);
+                    }
+                });
+    }
+
+    /**
+     * Processes a hash tree advertisement from a peer. The hashes of the
+     * children of the nodes that differ from the local ones are advertised
+     * back to the peer, which compares them in turn. Once the divergent
+     * nodes are buckets, the per-key digests of those buckets are advertised
+     * back instead, and the peer then reconciles just those buckets.
+     *
+     * @param ad hash tree advertisement
+     */
+    private void handleHashTreeAdvertisement(HashTreeAdvertisement ad) {
+        if (destroyed || underHighLoad()) {
+            return;
+        }
+        try {
+            Set<Integer> divergentNodes = hashTree.divergentNodes(ad.level(), ad.nodes(), ad.hashes());
+            if (log.isTraceEnabled()) {
+                log.trace("Received hash tree advertisement for {} from {} with {} divergent nodes at level {}",
+                        mapName, ad.sender(), divergentNodes.size(), ad.level());
+            }
+            if (divergentNodes.isEmpty()) {
+                return;
+            }
+            if (ad.level() < HashTree.LEAF_LEVEL) {
+                int level = ad.level() + 1;
+                int[] children = HashTree.children(divergentNodes);
+                sendHashTreeAdvertisementToPeer(ad.sender(),
+                        new HashTreeAdvertisement(localNodeId, level, children, hashTree.nodeHashes(level, children)));
+                return;
+            }
+            Map<K, MapValue.Digest> digest = Maps.newHashMap();
+            divergentNodes.forEach(bucket -> hashTree.keysOf(bucket).forEach(key -> {
+                MapValue<V> value = items.get(key);
+                if (value != null) {
+                    digest.put(key, value.digest());
+                }
+            }));
+            clusterCommunicator.unicast(new AntiEntropyAdvertisement<>(localNodeId, digest, divergentNodes),
+                    antiEntropyAdvertisementSubject,
+                    serializer::encode,
+                    ad.sender())
+                    .whenComplete((result, error) -> {
+                        if (error != null) {
+                            log.debug("Failed to send anti-entropy advertisement to {}", ad.sender(), error);
+                        }
+                    });
+        } catch (Exception e) {
+            log.warn("Error handling hash tree advertisement", e);
+        }
+    }
+
     private void handleAntiEntropyAdvertisement(AntiEntropyAdvertisement<K> ad) {
         if (destroyed || underHighLoad()) {
             return;
@@ -603,28 +714,41 @@ public class EventuallyConsistentMapImpl<K, V>
     private List<EventuallyConsistentMapEvent<K, V>> antiEntropyCheckLocalItems(
             AntiEntropyAdvertisement<K> ad) {
         final List<EventuallyConsistentMapEvent<K, V>> externalEvents = Lists.newLinkedList();
-        final NodeId sender = ad.sender();
-        items.forEach((key, localValue) -> {
-            MapValue.Digest remoteValueDigest = ad.digest().get(key);
-            if (remoteValueDigest == null || localValue.isNewerThan(remoteValueDigest.timestamp())) {
-                // local value is more recent, push to sender
-                queueUpdate(new UpdateEntry<>(key, localValue), ImmutableList.of(sender));
-            }
-            if (remoteValueDigest != null
-                    && remoteValueDigest.isNewerThan(localValue.digest())
-                    && remoteValueDigest.isTombstone()) {
-                MapValue<V> tombstone = MapValue.tombstone(remoteValueDigest.timestamp());
-                MapValue<V> previousValue = removeInternal(key,
-                                                           Optional.empty(),
-                                                           Optional.of(tombstone));
-                if (previousValue != null && previousValue.isAlive()) {
-                    externalEvents.add(new EventuallyConsistentMapEvent<>(mapName, REMOVE, key, previousValue.get()));
+        final Set<Integer> buckets = hashTree != null ? ad.buckets() : Collections.emptySet();
+        if (buckets.isEmpty()) {
+            items.forEach((key, localValue) -> antiEntropyCheckLocalItem(ad, key, localValue, externalEvents));
+        } else {
+            // only the entries in the range covered by the advertisement
+            buckets.forEach(bucket -> hashTree.keysOf(bucket).forEach(key -> {
+                MapValue<V> localValue = items.get(key);
+                if (localValue != null) {
+                    antiEntropyCheckLocalItem(ad, key, localValue, externalEvents);
                 }
-            }
-        });
+            }));
+        }
         return externalEvents;
     }
 
+    private void antiEntropyCheckLocalItem(AntiEntropyAdvertisement<K> ad, K key, MapValue<V> localValue,
+                                           List<EventuallyConsistentMapEvent<K, V>> externalEvents) {
+        MapValue.Digest remoteValueDigest = ad.digest().get(key);
+        if (remoteValueDigest == null || localValue.isNewerThan(remoteValueDigest.timestamp())) {
+            // local value is more recent, push to sender
+            queueUpdate(new UpdateEntry<>(key, localValue), ImmutableList.of(ad.sender()));
+        }
+        if (remoteValueDigest != null
+                && remoteValueDigest.isNewerThan(localValue.digest())
+                && remoteValueDigest.isTombstone()) {
+            MapValue<V> tombstone = MapValue.tombstone(remoteValueDigest.timestamp());
+            MapValue<V> previousValue = removeInternal(key,
+                                                       Optional.empty(),
+                                                       Optional.of(tombstone));
+            if (previousValue != null && previousValue.isAlive()) {
+                externalEvents.add(new EventuallyConsistentMapEvent<>(mapName, REMOVE, key, previousValue.get()));
+            }
+        }
+    }
+
     private void processUpdates(Collection<UpdateEntry<K, V>> updates) {
         if (destroyed) {
             return;
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.ecmap;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Hash tree summarizing the contents of an eventually consistent map.
+ * <p>
+ * Keys are assigned to a fixed number of buckets based on the hash of their
+ * serialized form. The hash of a bucket is the XOR of the hashes of its
+ * entries, each derived from the key hash, timestamp and tombstone flag.
+ * Because XOR is its own inverse, bucket hashes are maintained
+ * incrementally as entries are updated, and two replicas holding the same
+ * entries in a bucket compute the same bucket hash.
+ * </p>
+ * <p>
+ * The buckets are the leaves of a tree with a fixed fan-out. The hash of an
+ * interior node is the XOR of the hashes of its children, so it is updated
+ * along with the bucket. Level 0 holds the root and the leaves sit at
+ * {@link #LEAF_LEVEL}; node {@code i} of a level is the parent of nodes
+ * {@code i * FANOUT} to {@code (i + 1) * FANOUT - 1} of the level below.
+ * Replicas compare the root first and only descend into divergent nodes.
+ * </p>
+ * <p>
+ * The tree also indexes the keys by bucket, so that the entries of a bucket
+ * are found without hashing every key of the map again. Keys are only
+ * serialized the first time they are seen.
+ * </p>
+ *
+ * @param <K> key type
+ */
+final class HashTree<K> {
+
+    /**
+     * Number of children of each interior node.
+     */
+    static final int FANOUT = 32;
+
+    /**
+     * Level of the leaf buckets; the root is at level 0.
+     */
+    static final int LEAF_LEVEL = 2;
+
+    /**
+     * Number of leaf buckets in the tree.
+     */
+    static final int NUM_BUCKETS = (int) Math.pow(FANOUT, LEAF_LEVEL);
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final AtomicLongArray[] levels = IntStream.rangeClosed(0, LEAF_LEVEL)
+            .mapToObj(level -> new AtomicLongArray((int) Math.pow(FANOUT, level)))
+            .toArray(AtomicLongArray[]::new);
+    private final Map<K, Long> keyHashes = Maps.newConcurrentMap();
+    private final List<Set<K>> bucketKeys = IntStream.range(0, NUM_BUCKETS)
+            .mapToObj(i -> Sets.<K>newConcurrentHashSet())
+            .collect(Collectors.toList());
+    private final Function<Object, byte[]> encoder;
+
+    /**
+     * Creates a new hash tree.
+     *
+     * @param encoder function used to serialize keys and timestamps
+     */
+    HashTree(Function<Object, byte[]> encoder) {
+        this.encoder = checkNotNull(encoder);
+    }
+
+    /**
+     * Returns the bucket a key belongs to.
+     *
+     * @param key key
+     * @return bucket index
+     */
+    int bucketOf(K key) {
+        Long keyHash = keyHashes.get(key);
+        return bucketOf(keyHash != null ? keyHash : hashKey(key));
+    }
+
+    /**
+     * Returns the keys currently held in a bucket.
+     *
+     * @param bucket bucket index
+     * @return keys of the bucket
+     */
+    Set<K> keysOf(int bucket) {
+        return Collections.unmodifiableSet(bucketKeys.get(bucket));
+    }
+
+    /**
+     * Records that the value of a key changed. Updates of the same key are
+     * expected not to run concurrently.
+     *
+     * @param key      key
+     * @param oldValue previous value, or null if the key was absent
+     * @param newValue new value, or null if the key was removed
+     */
+    void update(K key, MapValue<?> oldValue, MapValue<?> newValue) {
+        if (oldValue == newValue) {
+            return;
+        }
+        long keyHash = keyHashes.computeIfAbsent(key, this::hashKey);
+        int bucket = bucketOf(keyHash);
+        long delta = entryHash(keyHash, oldValue) ^ entryHash(keyHash, newValue);
+        if (delta != 0) {
+            int node = bucket;
+            for (int level = LEAF_LEVEL; level >= 0; level--) {
+                levels[level].accumulateAndGet(node, delta, (a, b) -> a ^ b);
+                node /= FANOUT;
+            }
+        }
+        if (newValue == null) {
+            bucketKeys.get(bucket).remove(key);
+            keyHashes.remove(key);
+        } else {
+            bucketKeys.get(bucket).add(key);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the bucket hashes.
+     *
+     * @return bucket hashes indexed by bucket
+     */
+    long[] bucketHashes() {
+        long[] hashes = new long[NUM_BUCKETS];
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            hashes[i] = levels[LEAF_LEVEL].get(i);
+        }
+        return hashes;
+    }
+
+    /**
+     * Returns the hashes of some nodes of a level.
+     *
+     * @param level level of the nodes
+     * @param nodes indexes of the nodes within the level
+     * @return node hashes, in the order of the nodes
+     */
+    long[] nodeHashes(int level, int[] nodes) {
+        checkArgument(level >= 0 && level <= LEAF_LEVEL, "Unexpected level");
+        return IntStream.of(nodes).mapToLong(levels[level]::get).toArray();
+    }
+
+    /**
+     * Returns the nodes of a level whose hash differs from the given remote
+     * hashes.
+     *
+     * @param level        level of the nodes
+     * @param nodes        indexes of the nodes within the level
+     * @param remoteHashes hashes of the nodes on a remote replica
+     * @return indexes of divergent nodes
+     */
+    Set<Integer> divergentNodes(int level, int[] nodes, long[] remoteHashes) {
+        checkArgument(level >= 0 && level <= LEAF_LEVEL, "Unexpected level");
+        checkArgument(nodes.length == remoteHashes.length, "Unexpected number of hashes");
+        ImmutableSet.Builder<Integer> divergent = ImmutableSet.builder();
+        for (int i = 0; i < nodes.length; i++) {
+            checkArgument(nodes[i] >= 0 && nodes[i] < levels[level].length(), "Unexpected node");
+            if (levels[level].get(nodes[i]) != remoteHashes[i]) {
+                divergent.add(nodes[i]);
+            }
+        }
+        return divergent.build();
+    }
+
+    /**
+     * Returns the children of some nodes, on the level below theirs.
+     *
+     * @param nodes indexes of the parent nodes within their level
+     * @return indexes of the children in ascending order
+     */
+    static int[] children(Set<Integer> nodes) {
+        return nodes.stream()
+                .sorted()
+                .flatMapToInt(node -> IntStream.range(node * FANOUT, (node + 1) * FANOUT))
+                .toArray();
+    }
+
+    private long hashKey(Object key) {
+        return HASH_FUNCTION.hashBytes(encoder.apply(key)).asLong();
+    }
+
+    private int bucketOf(long keyHash) {
+        return (int) Math.floorMod(keyHash, (long) NUM_BUCKETS);
+    }
+
+    private long entryHash(long keyHash, MapValue<?> value) {
+        if (value == null) {
+            return 0;
+        }
+        return HASH_FUNCTION.newHasher()
+                .putLong(keyHash)
+                .putBytes(encoder.apply(value.timestamp()))
+                .putBoolean(value.isTombstone())
+                .hash()
+                .asLong();
+    }
+}
\ No newline at end of file
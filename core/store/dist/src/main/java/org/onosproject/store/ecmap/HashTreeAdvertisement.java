@@ -0,0 +1,95 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.ecmap;
+
+import com.google.common.base.MoreObjects;
+import org.onosproject.cluster.NodeId;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Anti-entropy advertisement carrying the hashes of some nodes of one level
+ * of an eventually consistent map's hash tree instead of per-key digests.
+ */
+public class HashTreeAdvertisement {
+
+    private final NodeId sender;
+    private final int level;
+    private final int[] nodes;
+    private final long[] hashes;
+
+    /**
+     * Creates a new hash tree advertisement message.
+     *
+     * @param sender the sender's node ID
+     * @param level  level of the advertised nodes
+     * @param nodes  indexes of the advertised nodes within the level
+     * @param hashes hashes of the advertised nodes, in the order of the nodes
+     */
+    public HashTreeAdvertisement(NodeId sender, int level, int[] nodes, long[] hashes) {
+        this.sender = checkNotNull(sender);
+        this.level = level;
+        this.nodes = checkNotNull(nodes);
+        this.hashes = checkNotNull(hashes);
+        checkArgument(nodes.length == hashes.length, "Each node must have a hash");
+    }
+
+    /**
+     * Returns the sender's node ID.
+     *
+     * @return the sender's node ID
+     */
+    public NodeId sender() {
+        return sender;
+    }
+
+    /**
+     * Returns the level of the advertised nodes.
+     *
+     * @return hash tree level
+     */
+    public int level() {
+        return level;
+    }
+
+    /**
+     * Returns the indexes of the advertised nodes.
+     *
+     * @return node indexes within the level
+     */
+    public int[] nodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the hashes of the advertised nodes.
+     *
+     * @return node hashes, in the order of the nodes
+     */
+    public long[] hashes() {
+        return hashes;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("sender", sender)
+                .add("level", level)
+                .add("nodes", nodes.length)
+                .toString();
+    }
+}
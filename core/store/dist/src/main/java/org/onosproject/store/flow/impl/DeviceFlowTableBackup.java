@@ -0,0 +1,185 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Backup of the flow table of a single device.
+ * <p>
+ * A backup is either a full snapshot of the flow table, or a delta holding
+ * only the flow entries changed or removed since the version previously
+ * acknowledged by the backup node. Each backup is tagged with the node that
+ * produced it and a version number that increases per device, so that the
+ * backup node can detect a delta that does not apply on top of its copy.
+ * </p>
+ */
+final class DeviceFlowTableBackup {
+
+    private final NodeId origin;
+    private final DeviceId deviceId;
+    private final boolean full;
+    private final long baseVersion;
+    private final long version;
+    private final Map<FlowId, Set<StoredFlowEntry>> entries;
+    private final Set<FlowId> removed;
+
+    private DeviceFlowTableBackup(NodeId origin, DeviceId deviceId, boolean full,
+                                  long baseVersion, long version,
+                                  Map<FlowId, Set<StoredFlowEntry>> entries,
+                                  Set<FlowId> removed) {
+        this.origin = checkNotNull(origin);
+        this.deviceId = checkNotNull(deviceId);
+        this.full = full;
+        this.baseVersion = baseVersion;
+        this.version = version;
+        this.entries = ImmutableMap.copyOf(checkNotNull(entries));
+        this.removed = ImmutableSet.copyOf(checkNotNull(removed));
+    }
+
+    /**
+     * Creates a full snapshot backup.
+     *
+     * @param origin   node producing the backup
+     * @param deviceId device identifier
+     * @param version  version of the snapshot
+     * @param entries  complete flow table of the device
+     * @return flow table backup
+     */
+    static DeviceFlowTableBackup snapshot(NodeId origin, DeviceId deviceId, long version,
+                                          Map<FlowId, Set<StoredFlowEntry>> entries) {
+        return new DeviceFlowTableBackup(origin, deviceId, true, version, version,
+                                         entries, ImmutableSet.of());
+    }
+
+    /**
+     * Creates a delta backup.
+     *
+     * @param origin      node producing the backup
+     * @param deviceId    device identifier
+     * @param baseVersion version the delta applies on top of
+     * @param version     version resulting from applying the delta
+     * @param entries     flow entries changed since the base version
+     * @param removed     flow ids removed since the base version
+     * @return flow table backup
+     */
+    static DeviceFlowTableBackup delta(NodeId origin, DeviceId deviceId,
+                                       long baseVersion, long version,
+                                       Map<FlowId, Set<StoredFlowEntry>> entries,
+                                       Set<FlowId> removed) {
+        return new DeviceFlowTableBackup(origin, deviceId, false, baseVersion, version,
+                                         entries, removed);
+    }
+
+    /**
+     * Returns the node that produced this backup.
+     *
+     * @return node identifier
+     */
+    NodeId origin() {
+        return origin;
+    }
+
+    /**
+     * Returns the device whose flow table is backed up.
+     *
+     * @return device identifier
+     */
+    DeviceId deviceId() {
+        return deviceId;
+    }
+
+    /**
+     * Returns whether this backup is a full snapshot.
+     *
+     * @return true for a full snapshot, false for a delta
+     */
+    boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Returns the version a delta applies on top of.
+     *
+     * @return base version
+     */
+    long baseVersion() {
+        return baseVersion;
+    }
+
+    /**
+     * Returns the version of the flow table once this backup is applied.
+     *
+     * @return version
+     */
+    long version() {
+        return version;
+    }
+
+    /**
+     * Returns the flow entries carried by this backup.
+     *
+     * @return flow entries keyed by flow id
+     */
+    Map<FlowId, Set<StoredFlowEntry>> entries() {
+        return entries;
+    }
+
+    /**
+     * Returns the flow ids removed since the base version.
+     *
+     * @return removed flow ids; always empty for a full snapshot
+     */
+    Set<FlowId> removed() {
+        return removed;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("origin", origin)
+                .add("deviceId", deviceId)
+                .add("full", full)
+                .add("baseVersion", baseVersion)
+                .add("version", version)
+                .add("entries", entries.size())
+                .add("removed", removed.size())
+                .toString();
+    }
+
+    // for serializer
+    @SuppressWarnings("unused")
+    private DeviceFlowTableBackup() {
+        this.origin = null;
+        this.deviceId = null;
+        this.full = false;
+        this.baseVersion = 0;
+        this.version = 0;
+        this.entries = null;
+        this.removed = null;
+    }
+}
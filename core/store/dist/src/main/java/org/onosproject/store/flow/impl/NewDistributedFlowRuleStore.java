@@ -15,9 +15,9 @@
  */
 package org.onosproject.store.flow.impl;
 
+import com.codahale.metrics.Counter;
 import com.google.common.base.Objects;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -31,6 +31,9 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.KryoNamespace;
 import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
@@ -81,6 +84,7 @@ import org.onosproject.store.service.WallClockTimestamp;
 import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashSet;
@@ -93,6 +97,8 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
@@ -120,6 +126,7 @@ public class NewDistributedFlowRuleStore
     private static final long FLOW_RULE_STORE_TIMEOUT_MILLIS = 5000;
     // number of devices whose flow entries will be backed up in one communication round
     private static final int FLOW_TABLE_BACKUP_BATCH_SIZE = 1;
+    private static final int DEFAULT_FULL_BACKUP_INTERVAL = 30;
 
     @Property(name = "msgHandlerPoolSize", intValue = MESSAGE_HANDLER_THREAD_POOL_SIZE,
             label = "Number of threads in the message handler pool")
@@ -132,6 +139,11 @@ public class NewDistributedFlowRuleStore
     @Property(name = "backupPeriod", intValue = DEFAULT_BACKUP_PERIOD_MILLIS,
             label = "Delay in ms between successive backup runs")
     private int backupPeriod = DEFAULT_BACKUP_PERIOD_MILLIS;
+
+    @Property(name = "fullBackupInterval", intValue = DEFAULT_FULL_BACKUP_INTERVAL,
+            label = "Number of delta backups of a device between two full flow table snapshots")
+    private int fullBackupInterval = DEFAULT_FULL_BACKUP_INTERVAL;
+
     @Property(name = "persistenceEnabled", boolValue = false,
             label = "Indicates whether or not changes in the flow table should be persisted to disk.")
     private boolean persistenceEnabled = DEFAULT_PERSISTENCE_ENABLED;
@@ -162,6 +174,14 @@ public class NewDistributedFlowRuleStore
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected PersistenceService persistenceService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
+    private Counter backupBytesSent;
+    private Counter backupBytesSaved;
+    private Counter fullBackups;
+    private Counter deltaBackups;
+
     private Map<Long, NodeId> pendingResponses = Maps.newConcurrentMap();
     private ExecutorService messageHandlingExecutor;
 
@@ -182,6 +202,7 @@ public class NewDistributedFlowRuleStore
             serializerPool = KryoNamespace.newBuilder()
                     .register(DistributedStoreSerializers.STORE_COMMON)
                     .nextId(DistributedStoreSerializers.STORE_CUSTOM_BEGIN)
+                    .register(DeviceFlowTableBackup.class)
                     .build();
         }
     };
@@ -202,6 +223,13 @@ public class NewDistributedFlowRuleStore
 
         local = clusterService.getLocalNode().id();
 
+        MetricsComponent component = metricsService.registerComponent("FlowRuleStore");
+        MetricsFeature feature = component.registerFeature("backup");
+        backupBytesSent = metricsService.createCounter(component, feature, "bytesSent");
+        backupBytesSaved = metricsService.createCounter(component, feature, "bytesSaved");
+        fullBackups = metricsService.createCounter(component, feature, "fullBackups");
+        deltaBackups = metricsService.createCounter(component, feature, "deltaBackups");
+
         messageHandlingExecutor = Executors.newFixedThreadPool(
                 msgHandlerPoolSize, groupedThreads("onos/store/flow", "message-handlers"));
 
@@ -256,6 +284,7 @@ public class NewDistributedFlowRuleStore
         int newPoolSize;
         boolean newBackupEnabled;
         int newBackupPeriod;
+        int newFullBackupInterval;
         try {
             String s = get(properties, "msgHandlerPoolSize");
             newPoolSize = isNullOrEmpty(s) ? msgHandlerPoolSize : Integer.parseInt(s.trim());
@@ -266,10 +295,14 @@ public class NewDistributedFlowRuleStore
             s = get(properties, "backupPeriod");
             newBackupPeriod = isNullOrEmpty(s) ? backupPeriod : Integer.parseInt(s.trim());
 
+            s = get(properties, "fullBackupInterval");
+            newFullBackupInterval = isNullOrEmpty(s) ? fullBackupInterval : Integer.parseInt(s.trim());
+
         } catch (NumberFormatException | ClassCastException e) {
             newPoolSize = MESSAGE_HANDLER_THREAD_POOL_SIZE;
             newBackupEnabled = DEFAULT_BACKUP_ENABLED;
             newBackupPeriod = DEFAULT_BACKUP_PERIOD_MILLIS;
+            newFullBackupInterval = DEFAULT_FULL_BACKUP_INTERVAL;
         }
 
         boolean restartBackupTask = false;
@@ -290,6 +323,7 @@ public class NewDistributedFlowRuleStore
             backupPeriod = newBackupPeriod;
             restartBackupTask = backupEnabled;
         }
+        fullBackupInterval = Math.max(newFullBackupInterval, 0);
         if (restartBackupTask) {
             if (backupTask != null) {
                 // cancel previously running task
@@ -341,8 +375,8 @@ public class NewDistributedFlowRuleStore
     }
 
     private void logConfig(String prefix) {
-        log.info("{} with msgHandlerPoolSize = {}; backupEnabled = {}, backupPeriod = {}",
-                 prefix, msgHandlerPoolSize, backupEnabled, backupPeriod);
+        log.info("{} with msgHandlerPoolSize = {}; backupEnabled = {}, backupPeriod = {}, fullBackupInterval = {}",
+                 prefix, msgHandlerPoolSize, backupEnabled, backupPeriod, fullBackupInterval);
     }
 
     // This is not a efficient operation on a distributed sharded
@@ -499,6 +533,7 @@ public class NewDistributedFlowRuleStore
                             entry = flowTable.getFlowEntry(op.target());
                             if (entry != null) {
                                 entry.setState(FlowEntryState.PENDING_REMOVE);
+                                flowTable.markChanged(entry.deviceId(), entry.id());
                                 return op;
                             }
                             break;
@@ -535,6 +570,34 @@ public class NewDistributedFlowRuleStore
         return null;
     }
 
+    @Override
+    public List<FlowRuleEvent> updateFlowStatistics(DeviceId deviceId, List<FlowEntry> entries) {
+        NodeId master = mastershipService.getMasterFor(deviceId);
+        if (!Objects.equal(local, master)) {
+            log.warn("Tried to update statistics of {} flows of {},"
+                             + " while the Node was not the master.", entries.size(), deviceId);
+            return Collections.emptyList();
+        }
+
+        List<FlowRuleEvent> events = new ArrayList<>();
+        List<FlowEntry> updated = new ArrayList<>(entries.size());
+        for (FlowEntry entry : entries) {
+            FlowRuleEvent event = addOrUpdateFlowRuleInternal(entry);
+            if (event == null) {
+                continue;
+            }
+            if (event.type() == Type.RULE_UPDATED) {
+                updated.add(entry);
+            } else {
+                events.add(event);
+            }
+        }
+        if (!updated.isEmpty()) {
+            events.add(new FlowRuleEvent(updated));
+        }
+        return events;
+    }
+
     private FlowRuleEvent addOrUpdateFlowRuleInternal(FlowEntry rule) {
         // check if this new rule is an update to an existing entry
         StoredFlowEntry stored = flowTable.getFlowEntry(rule);
@@ -544,6 +607,7 @@ public class NewDistributedFlowRuleStore
             stored.setPackets(rule.packets());
             if (stored.state() == FlowEntryState.PENDING_ADD) {
                 stored.setState(FlowEntryState.ADDED);
+                flowTable.markChanged(stored.deviceId(), stored.id());
                 return new FlowRuleEvent(Type.RULE_ADDED, rule);
             }
             return new FlowRuleEvent(Type.RULE_UPDATED, rule);
@@ -642,6 +706,21 @@ public class NewDistributedFlowRuleStore
         private final Map<DeviceId, Long> lastUpdateTimes = Maps.newConcurrentMap();
         private final Map<DeviceId, NodeId> lastBackupNodes = Maps.newConcurrentMap();
 
+        // flow ids changed since the last backup sent for each device
+        private final Map<DeviceId, Set<FlowId>> changedFlowIds = Maps.newConcurrentMap();
+        // version of the last backup acknowledged by the backup node of each device
+        private final Map<DeviceId, Long> ackedBackupVersions = Maps.newConcurrentMap();
+        // devices with a backup awaiting acknowledgement; no other backup is
+        // built for them until it completes, so that deltas never overlap
+        private final Set<DeviceId> backupsInFlight = Sets.newConcurrentHashSet();
+        private final Map<DeviceId, Integer> deltasSinceFullBackup = Maps.newConcurrentMap();
+        private final Map<DeviceId, Long> lastFullBackupSizes = Maps.newConcurrentMap();
+        private final AtomicLong backupVersionGenerator = new AtomicLong();
+
+        // origin and version of the backup copies held by this node
+        private final Map<DeviceId, NodeId> receivedBackupOrigins = Maps.newConcurrentMap();
+        private final Map<DeviceId, Long> receivedBackupVersions = Maps.newConcurrentMap();
+
         @Override
         public void event(ReplicaInfoEvent event) {
             if (!backupEnabled) {
@@ -669,6 +748,7 @@ public class NewDistributedFlowRuleStore
                             + "Flows can be lost if the master goes down", currentBackupNode, deviceId);
                     lastBackupNodes.remove(deviceId);
                     lastBackupTimes.remove(deviceId);
+                    ackedBackupVersions.remove(deviceId);
                     return;
                     // TODO: Pick any available node as backup and ensure hand-off occurs when
                     // a new master is elected.
@@ -688,36 +768,155 @@ public class NewDistributedFlowRuleStore
         }
 
         private void backupFlowEntries(NodeId nodeId, Set<DeviceId> deviceIds) {
-            if (deviceIds.isEmpty()) {
+            Set<DeviceId> devices = deviceIds.stream()
+                    .filter(backupsInFlight::add)
+                    .collect(Collectors.toSet());
+            if (devices.isEmpty()) {
                 return;
             }
-            log.debug("Sending flowEntries for devices {} to {} as backup.", deviceIds, nodeId);
-            Map<DeviceId, Map<FlowId, Set<StoredFlowEntry>>> deviceFlowEntries =
-                    Maps.newConcurrentMap();
-            deviceIds.forEach(id -> deviceFlowEntries.put(id, ImmutableMap.copyOf(getFlowTable(id))));
-            clusterCommunicator.<Map<DeviceId, Map<FlowId, Set<StoredFlowEntry>>>, Set<DeviceId>>sendAndReceive(
-                                        deviceFlowEntries,
+            log.debug("Sending flowEntries for devices {} to {} as backup.", devices, nodeId);
+            Map<DeviceId, Set<FlowId>> drained = Maps.newHashMap();
+            List<DeviceFlowTableBackup> backups;
+            byte[] payload;
+            try {
+                backups = devices.stream()
+                        .map(id -> createBackup(nodeId, id, drained))
+                        .collect(Collectors.toList());
+                payload = SERIALIZER.encode(backups);
+            } catch (RuntimeException e) {
+                drained.forEach(this::restoreChanges);
+                backupsInFlight.removeAll(devices);
+                throw e;
+            }
+            recordBackupSize(backups, payload.length);
+            clusterCommunicator.<byte[], Set<DeviceId>>sendAndReceive(
+                                        payload,
                                         FLOW_TABLE_BACKUP,
-                                        SERIALIZER::encode,
+                                        Function.identity(),
                                         SERIALIZER::decode,
                                         nodeId)
                                .whenComplete((backedupDevices, error) -> {
                                    Set<DeviceId> devicesNotBackedup = error != null ?
-                                           deviceFlowEntries.keySet() :
-                                           Sets.difference(deviceFlowEntries.keySet(), backedupDevices);
+                                           devices :
+                                           Sets.difference(devices, backedupDevices);
                                    if (devicesNotBackedup.size() > 0) {
                                        log.warn("Failed to backup devices: {}. Reason: {}",
-                                               devicesNotBackedup, error.getMessage());
+                                               devicesNotBackedup, error != null ? error.getMessage() : "rejected");
                                    }
-                                   if (backedupDevices != null) {
-                                       backedupDevices.forEach(id -> {
+                                   backups.forEach(backup -> {
+                                       DeviceId id = backup.deviceId();
+                                       if (backedupDevices != null && backedupDevices.contains(id)) {
                                            lastBackupTimes.put(id, System.currentTimeMillis());
                                            lastBackupNodes.put(id, nodeId);
-                                       });
-                                   }
+                                           ackedBackupVersions.merge(id, backup.version(), Math::max);
+                                       } else {
+                                           // resend the complete flow table next time around, and
+                                           // keep the changes for the deltas that follow it
+                                           restoreChanges(id, drained.get(id));
+                                           ackedBackupVersions.remove(id);
+                                           lastBackupTimes.remove(id);
+                                       }
+                                       backupsInFlight.remove(id);
+                                   });
                                });
         }
 
+        // Returns flow ids drained into a backup that did not make it back
+        // into the change log of the device.
+        private void restoreChanges(DeviceId deviceId, Set<FlowId> flowIds) {
+            if (flowIds != null && !flowIds.isEmpty()) {
+                changedFlowIds.computeIfAbsent(deviceId, id -> Sets.newConcurrentHashSet()).addAll(flowIds);
+            }
+        }
+
+        /**
+         * Creates the backup of a device flow table to be sent to the given node.
+         * A delta is produced when the node holds an acknowledged copy of the
+         * flow table; a full snapshot is produced otherwise, and after every
+         * fullBackupInterval consecutive deltas.
+         *
+         * @param nodeId   backup node
+         * @param deviceId device identifier
+         * @param drained  map to record the flow ids drained from the change log in
+         * @return flow table backup
+         */
+        private DeviceFlowTableBackup createBackup(NodeId nodeId, DeviceId deviceId,
+                                                   Map<DeviceId, Set<FlowId>> drained) {
+            // drain change log before reading the flow table, so that concurrent
+            // updates are either captured here or recorded for the next round
+            Set<FlowId> changed = changedFlowIds.remove(deviceId);
+            if (changed != null) {
+                drained.put(deviceId, changed);
+            }
+            Long baseVersion = ackedBackupVersions.get(deviceId);
+            int deltas = deltasSinceFullBackup.getOrDefault(deviceId, 0);
+            long version = backupVersionGenerator.incrementAndGet();
+            Map<FlowId, Set<StoredFlowEntry>> flowTable = getFlowTable(deviceId);
+
+            if (baseVersion == null || deltas >= fullBackupInterval
+                    || !Objects.equal(nodeId, lastBackupNodes.get(deviceId))) {
+                deltasSinceFullBackup.put(deviceId, 0);
+                return DeviceFlowTableBackup.snapshot(local, deviceId, version, flowTable);
+            }
+
+            Map<FlowId, Set<StoredFlowEntry>> entries = Maps.newHashMap();
+            Set<FlowId> removed = Sets.newHashSet();
+            if (changed != null) {
+                changed.forEach(flowId -> {
+                    Set<StoredFlowEntry> flowEntries = flowTable.get(flowId);
+                    if (flowEntries == null || flowEntries.isEmpty()) {
+                        removed.add(flowId);
+                    } else {
+                        entries.put(flowId, flowEntries);
+                    }
+                });
+            }
+            deltasSinceFullBackup.put(deviceId, deltas + 1);
+            return DeviceFlowTableBackup.delta(local, deviceId, baseVersion, version, entries, removed);
+        }
+
+        private void recordBackupSize(List<DeviceFlowTableBackup> backups, int size) {
+            backupBytesSent.inc(size);
+            if (backups.stream().allMatch(DeviceFlowTableBackup::isFull)) {
+                fullBackups.inc(backups.size());
+                backups.forEach(backup -> lastFullBackupSizes.put(backup.deviceId(),
+                                                                  (long) size / backups.size()));
+            } else {
+                deltaBackups.inc(backups.size());
+                long fullSize = backups.stream()
+                        .mapToLong(backup -> lastFullBackupSizes.getOrDefault(backup.deviceId(), 0L))
+                        .sum();
+                if (fullSize > size) {
+                    backupBytesSaved.inc(fullSize - size);
+                }
+            }
+        }
+
+        /**
+         * Records a change of the flow entries with the given id, so that it
+         * is included in the next delta backup of the device. With persistence
+         * enabled, the entries are also put back into the persistent flow
+         * table, which only writes the entries it is given.
+         *
+         * @param deviceId device identifier
+         * @param flowId   flow identifier
+         */
+        private void markChanged(DeviceId deviceId, FlowId flowId) {
+            changedFlowIds.computeIfAbsent(deviceId, id -> Sets.newConcurrentHashSet()).add(flowId);
+            if (persistenceEnabled) {
+                Map<FlowId, Set<StoredFlowEntry>> flowTable = getFlowTable(deviceId);
+                Set<StoredFlowEntry> entries = flowTable.get(flowId);
+                if (entries != null) {
+                    flowTable.put(flowId, entries);
+                }
+            }
+        }
+
+        private boolean hasChanges(DeviceId deviceId) {
+            Set<FlowId> changed = changedFlowIds.get(deviceId);
+            return changed != null && !changed.isEmpty();
+        }
+
         /**
          * Returns the flow table for specified device.
          *
@@ -774,6 +973,7 @@ public class NewDistributedFlowRuleStore
 
         public void add(FlowEntry rule) {
             getFlowEntriesInternal(rule.deviceId(), rule.id()).add((StoredFlowEntry) rule);
+            markChanged(rule.deviceId(), rule.id());
             lastUpdateTimes.put(rule.deviceId(), System.currentTimeMillis());
         }
 
@@ -781,6 +981,7 @@ public class NewDistributedFlowRuleStore
             try {
                 return getFlowEntriesInternal(deviceId, rule.id()).remove(rule);
             } finally {
+                markChanged(deviceId, rule.id());
                 lastUpdateTimes.put(deviceId, System.currentTimeMillis());
             }
         }
@@ -806,7 +1007,8 @@ public class NewDistributedFlowRuleStore
                                 NodeId newBackupNode = getBackupNode(deviceId);
                                 return lastBackupTime == null
                                         ||  !Objects.equal(lastBackupNode, newBackupNode)
-                                        || (lastUpdateTime != null && lastUpdateTime > lastBackupTime);
+                                        || (lastUpdateTime != null && lastUpdateTime > lastBackupTime)
+                                        || hasChanges(deviceId);
                             })
                             .collect(Collectors.toSet());
 
@@ -826,18 +1028,33 @@ public class NewDistributedFlowRuleStore
             }
         }
 
-        private Set<DeviceId> onBackupReceipt(Map<DeviceId, Map<FlowId, Set<StoredFlowEntry>>> flowTables) {
-            log.debug("Received flowEntries for {} to backup", flowTables.keySet());
+        private Set<DeviceId> onBackupReceipt(List<DeviceFlowTableBackup> backups) {
+            log.debug("Received flowEntries for {} to backup", backups);
             Set<DeviceId> backedupDevices = Sets.newHashSet();
             try {
-                flowTables.forEach((deviceId, deviceFlowTable) -> {
+                backups.forEach(backup -> {
+                    DeviceId deviceId = backup.deviceId();
                     // Only process those devices are that not managed by the local node.
-                    if (!Objects.equal(local, mastershipService.getMasterFor(deviceId))) {
-                        Map<FlowId, Set<StoredFlowEntry>> backupFlowTable = getFlowTable(deviceId);
+                    if (Objects.equal(local, mastershipService.getMasterFor(deviceId))) {
+                        return;
+                    }
+                    Map<FlowId, Set<StoredFlowEntry>> backupFlowTable = getFlowTable(deviceId);
+                    if (backup.isFull()) {
                         backupFlowTable.clear();
-                        backupFlowTable.putAll(deviceFlowTable);
-                        backedupDevices.add(deviceId);
+                        backupFlowTable.putAll(backup.entries());
+                    } else if (Objects.equal(backup.origin(), receivedBackupOrigins.get(deviceId))
+                            && Objects.equal(backup.baseVersion(), receivedBackupVersions.get(deviceId))) {
+                        backup.removed().forEach(backupFlowTable::remove);
+                        backupFlowTable.putAll(backup.entries());
+                    } else {
+                        // our copy diverged from the one the delta is based on;
+                        // leave it unacknowledged so that a full snapshot follows.
+                        log.debug("Ignoring flow table delta {} for {}", backup, deviceId);
+                        return;
                     }
+                    receivedBackupOrigins.put(deviceId, backup.origin());
+                    receivedBackupVersions.put(deviceId, backup.version());
+                    backedupDevices.add(deviceId);
                 });
             } catch (Exception e) {
                 log.warn("Failure processing backup request", e);
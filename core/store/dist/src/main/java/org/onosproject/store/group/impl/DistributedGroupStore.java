@@ -16,7 +16,12 @@
 package org.onosproject.store.group.impl;
 
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Multimaps;
+import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 
 import org.apache.felix.scr.annotations.Activate;
@@ -73,7 +78,6 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
@@ -117,13 +121,21 @@ public class DistributedGroupStore
         StoredGroupEntry> auditPendingReqQueue = null;
     private final ConcurrentMap<DeviceId, ConcurrentMap<GroupId, Group>>
             extraneousGroupEntriesById = new ConcurrentHashMap<>();
+    // Per device index of the keys in the group key table, maintained by
+    // the key map listener
+    private final ConcurrentMap<DeviceId, Set<GroupStoreKeyMapKey>>
+            groupKeysByDevice = new ConcurrentHashMap<>();
+    // Per device index of the extraneous groups by their set of buckets
+    private final ConcurrentMap<DeviceId, SetMultimap<Set<GroupBucket>, GroupId>>
+            extraneousGroupIdsByBuckets = new ConcurrentHashMap<>();
+    // Per device group identifier allocators
+    private final ConcurrentMap<DeviceId, GroupIdAllocator>
+            groupIdAllocators = new ConcurrentHashMap<>();
     private ExecutorService messageHandlingExecutor;
     private static final int MESSAGE_HANDLER_THREAD_POOL_SIZE = 1;
 
     private final HashMap<DeviceId, Boolean> deviceAuditStatus = new HashMap<>();
 
-    private final AtomicInteger groupIdGen = new AtomicInteger();
-
     private KryoNamespace.Builder kryoBuilder = null;
 
     private final AtomicLong sequenceNumber = new AtomicLong(0);
@@ -256,6 +268,42 @@ public class DistributedGroupStore
                                        lazyEmptyExtraneousGroupIdTable());
     }
 
+    /**
+     * Returns the keys of the groups of the specified device.
+     *
+     * @param deviceId identifier of the device
+     * @return set of group keys of the given device
+     */
+    private Set<GroupStoreKeyMapKey> getGroupKeys(DeviceId deviceId) {
+        return groupKeysByDevice.computeIfAbsent(deviceId, d -> ConcurrentHashMap.newKeySet());
+    }
+
+    /**
+     * Returns the extraneous group bucket index for specified device.
+     *
+     * @param deviceId identifier of the device
+     * @return extraneous group ids of given device keyed by their buckets
+     */
+    private SetMultimap<Set<GroupBucket>, GroupId>
+    getExtraneousBucketIndex(DeviceId deviceId) {
+        return extraneousGroupIdsByBuckets.computeIfAbsent(deviceId,
+                d -> Multimaps.synchronizedSetMultimap(HashMultimap.create()));
+    }
+
+    /**
+     * Returns the group identifier allocator for specified device.
+     *
+     * @param deviceId identifier of the device
+     * @return group identifier allocator of given device
+     */
+    private GroupIdAllocator getGroupIdAllocator(DeviceId deviceId) {
+        return groupIdAllocators.computeIfAbsent(deviceId, d -> new GroupIdAllocator());
+    }
+
+    private static Set<GroupBucket> bucketSet(GroupBuckets buckets) {
+        return ImmutableSet.copyOf(buckets.buckets());
+    }
+
     /**
      * Returns the number of groups for the specified device in the store.
      *
@@ -277,15 +325,19 @@ public class DistributedGroupStore
     @Override
     public Iterable<Group> getGroups(DeviceId deviceId) {
         // flatten and make iterator unmodifiable
-        return FluentIterable.from(getGroupStoreKeyMap().values())
-                .filter(input -> input.deviceId().equals(deviceId))
+        return FluentIterable.from(getStoredGroups(deviceId))
                 .transform(input -> input);
     }
 
     private Iterable<StoredGroupEntry> getStoredGroups(DeviceId deviceId) {
+        Set<GroupStoreKeyMapKey> keys = groupKeysByDevice.get(deviceId);
+        if (keys == null) {
+            return ImmutableList.of();
+        }
         // flatten and make iterator unmodifiable
-        return FluentIterable.from(getGroupStoreKeyMap().values())
-                .filter(input -> input.deviceId().equals(deviceId));
+        return FluentIterable.from(keys)
+                .transform(key -> getGroupStoreKeyMap().get(key))
+                .filter(Objects::nonNull);
     }
 
     /**
@@ -318,27 +370,27 @@ public class DistributedGroupStore
     }
 
     private int getFreeGroupIdValue(DeviceId deviceId) {
-        int freeId = groupIdGen.incrementAndGet();
-
-        while (true) {
-            Group existing = getGroup(deviceId, new DefaultGroupId(freeId));
-            if (existing == null) {
-                existing = (
-                        extraneousGroupEntriesById.get(deviceId) != null) ?
-                        extraneousGroupEntriesById.get(deviceId).
-                                get(new DefaultGroupId(freeId)) :
-                        null;
-            }
-            if (existing != null) {
-                freeId = groupIdGen.incrementAndGet();
-            } else {
-                break;
-            }
-        }
+        int freeId = getGroupIdAllocator(deviceId).allocate(id -> isGroupIdInUse(deviceId, id));
         log.debug("getFreeGroupIdValue: Next Free ID is {}", freeId);
         return freeId;
     }
 
+    private boolean isGroupIdInUse(DeviceId deviceId, int id) {
+        GroupId groupId = new DefaultGroupId(id);
+        if (getGroupIdTable(deviceId).containsKey(groupId)) {
+            return true;
+        }
+        ConcurrentMap<GroupId, Group> extraneousMap =
+                extraneousGroupEntriesById.get(deviceId);
+        return extraneousMap != null && extraneousMap.containsKey(groupId);
+    }
+
+    private void releaseGroupId(DeviceId deviceId, GroupId groupId) {
+        if (!isGroupIdInUse(deviceId, groupId.id())) {
+            getGroupIdAllocator(deviceId).release(groupId.id());
+        }
+    }
+
     /**
      * Stores a new group entry using the information from group description.
      *
@@ -408,12 +460,19 @@ public class DistributedGroupStore
                                                       GroupBuckets buckets) {
         ConcurrentMap<GroupId, Group> extraneousMap =
                 extraneousGroupEntriesById.get(deviceId);
-        if (extraneousMap == null) {
+        SetMultimap<Set<GroupBucket>, GroupId> bucketIndex =
+                extraneousGroupIdsByBuckets.get(deviceId);
+        if (extraneousMap == null || bucketIndex == null) {
             return null;
         }
 
-        for (Group extraneousGroup:extraneousMap.values()) {
-            if (extraneousGroup.buckets().equals(buckets)) {
+        List<GroupId> candidates;
+        synchronized (bucketIndex) {
+            candidates = ImmutableList.copyOf(bucketIndex.get(bucketSet(buckets)));
+        }
+        for (GroupId candidate : candidates) {
+            Group extraneousGroup = extraneousMap.get(candidate);
+            if (extraneousGroup != null && extraneousGroup.buckets().equals(buckets)) {
                 return extraneousGroup;
             }
         }
@@ -516,6 +575,7 @@ public class DistributedGroupStore
             id = new DefaultGroupId(getFreeGroupIdValue(groupDesc.deviceId()));
         } else {
             id = new DefaultGroupId(groupDesc.givenGroupId());
+            getGroupIdAllocator(groupDesc.deviceId()).reserve(id.id());
         }
         // Create a group entry object
         StoredGroupEntry group = new DefaultGroup(id, groupDesc);
@@ -935,7 +995,16 @@ public class DistributedGroupStore
                 group.deviceId());
         ConcurrentMap<GroupId, Group> extraneousIdTable =
                 getExtraneousGroupIdTable(group.deviceId());
-        extraneousIdTable.put(group.id(), group);
+        SetMultimap<Set<GroupBucket>, GroupId> bucketIndex =
+                getExtraneousBucketIndex(group.deviceId());
+        synchronized (bucketIndex) {
+            Group previous = extraneousIdTable.put(group.id(), group);
+            if (previous != null) {
+                bucketIndex.remove(bucketSet(previous.buckets()), previous.id());
+            }
+            bucketIndex.put(bucketSet(group.buckets()), group.id());
+        }
+        getGroupIdAllocator(group.deviceId()).reserve(group.id().id());
         // Don't remove the extraneous groups, instead re-use it when
         // a group request comes with the same set of buckets
     }
@@ -947,7 +1016,15 @@ public class DistributedGroupStore
                 group.deviceId());
         ConcurrentMap<GroupId, Group> extraneousIdTable =
                 getExtraneousGroupIdTable(group.deviceId());
-        extraneousIdTable.remove(group.id());
+        SetMultimap<Set<GroupBucket>, GroupId> bucketIndex =
+                getExtraneousBucketIndex(group.deviceId());
+        synchronized (bucketIndex) {
+            Group previous = extraneousIdTable.remove(group.id());
+            if (previous != null) {
+                bucketIndex.remove(bucketSet(previous.buckets()), previous.id());
+            }
+        }
+        releaseGroupId(group.deviceId(), group.id());
     }
 
     @Override
@@ -989,8 +1066,10 @@ public class DistributedGroupStore
                       group.id(),
                       key.deviceId());
             if (mapEvent.type() == EventuallyConsistentMapEvent.Type.PUT) {
-                // Update the group ID table
+                // Update the group ID table and the device index
                 getGroupIdTable(group.deviceId()).put(group.id(), group);
+                getGroupKeys(key.deviceId()).add(key);
+                getGroupIdAllocator(group.deviceId()).reserve(group.id().id());
                 if (mapEvent.value().state() == Group.GroupState.ADDED) {
                     if (mapEvent.value().isGroupStateAddedFirstTime()) {
                         groupEvent = new GroupEvent(Type.GROUP_ADDED,
@@ -1008,8 +1087,10 @@ public class DistributedGroupStore
                 }
             } else if (mapEvent.type() == EventuallyConsistentMapEvent.Type.REMOVE) {
                 groupEvent = new GroupEvent(Type.GROUP_REMOVED, group);
-                // Remove the entry from the group ID table
+                // Remove the entry from the group ID table and the device index
                 getGroupIdTable(group.deviceId()).remove(group.id(), group);
+                getGroupKeys(key.deviceId()).remove(key);
+                releaseGroupId(group.deviceId(), group.id());
             }
 
             if (groupEvent != null) {
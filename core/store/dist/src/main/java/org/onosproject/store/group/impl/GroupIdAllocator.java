@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.group.impl;
+
+import java.util.BitSet;
+import java.util.function.IntPredicate;
+
+/**
+ * Allocator of group identifiers for a single device.
+ * <p>
+ * Identifiers from 1 up to {@link #MAX_ID} are tracked in a bitmap, so that
+ * finding a free one skips whole runs of identifiers in use instead of
+ * probing them one at a time. The lowest free identifier is handed out
+ * first, which keeps the identifiers of a device compact. Identifiers
+ * outside of that range, which can only be given explicitly, are not
+ * tracked.
+ * </p>
+ */
+final class GroupIdAllocator {
+
+    /**
+     * Largest identifier handed out by the allocator.
+     */
+    static final int MAX_ID = (1 << 24) - 1;
+
+    private final BitSet used = new BitSet();
+
+    /**
+     * Marks an identifier as being in use.
+     *
+     * @param id group identifier
+     */
+    synchronized void reserve(int id) {
+        if (inRange(id)) {
+            used.set(id);
+        }
+    }
+
+    /**
+     * Marks an identifier as free.
+     *
+     * @param id group identifier
+     */
+    synchronized void release(int id) {
+        if (inRange(id)) {
+            used.clear(id);
+        }
+    }
+
+    /**
+     * Hands out the lowest free identifier and marks it as being in use.
+     *
+     * @param inUse tells whether an identifier not yet reserved with this
+     *              allocator is nonetheless in use
+     * @return group identifier
+     * @throws IllegalStateException if all identifiers are in use
+     */
+    synchronized int allocate(IntPredicate inUse) {
+        for (int id = used.nextClearBit(1); id <= MAX_ID; id = used.nextClearBit(id + 1)) {
+            // identifiers found in use are remembered
+            used.set(id);
+            if (!inUse.test(id)) {
+                return id;
+            }
+        }
+        throw new IllegalStateException("No free group identifier");
+    }
+
+    private static boolean inRange(int id) {
+        return id > 0 && id <= MAX_ID;
+    }
+}
@@ -17,6 +17,7 @@ package org.onosproject.store.host.impl;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
+import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.DefaultAnnotations.merge;
 import static org.onosproject.net.host.HostEvent.Type.HOST_ADDED;
 import static org.onosproject.net.host.HostEvent.Type.HOST_MOVED;
@@ -26,12 +27,16 @@ import static org.onosproject.store.service.EventuallyConsistentMapEvent.Type.PU
 import static org.onosproject.store.service.EventuallyConsistentMapEvent.Type.REMOVE;
 import static org.slf4j.LoggerFactory.getLogger;
 
-import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -81,6 +86,8 @@ public class ECHostStore
 
     private final Logger log = getLogger(getClass());
 
+    private static final long INDEX_CHECK_PERIOD_MIN = 5;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected StorageService storageService;
 
@@ -92,9 +99,18 @@ public class ECHostStore
     private final ConcurrentHashMap<HostId, DefaultHost> prevHosts =
             new ConcurrentHashMap<>();
 
+    // Secondary indexes of host identifiers, derived from prevHosts
+    private final Map<IpAddress, Set<HostId>> hostsByIp = new ConcurrentHashMap<>();
+    private final Map<MacAddress, Set<HostId>> hostsByMac = new ConcurrentHashMap<>();
+    private final Map<VlanId, Set<HostId>> hostsByVlan = new ConcurrentHashMap<>();
+    private final Map<ConnectPoint, Set<HostId>> hostsByLocation = new ConcurrentHashMap<>();
+    private final Map<DeviceId, Set<HostId>> hostsByDevice = new ConcurrentHashMap<>();
+
     private EventuallyConsistentMapListener<HostId, DefaultHost> hostLocationTracker =
             new HostLocationTracker();
 
+    private ScheduledExecutorService indexChecker;
+
     @Activate
     public void activate() {
         KryoNamespace.Builder hostSerializer = KryoNamespace.newBuilder()
@@ -104,18 +120,28 @@ public class ECHostStore
                 .withName("onos-hosts")
                 .withSerializer(hostSerializer)
                 .withTimestampProvider((k, v) -> clockService.getTimestamp())
+                .withHashTreeAntiEntropy()
                 .build();
 
         hosts.addListener(hostLocationTracker);
 
+        indexChecker = Executors.newSingleThreadScheduledExecutor(
+                groupedThreads("onos/store/host", "index-checker"));
+        indexChecker.scheduleWithFixedDelay(this::checkIndexes, INDEX_CHECK_PERIOD_MIN,
+                                            INDEX_CHECK_PERIOD_MIN, TimeUnit.MINUTES);
+
         log.info("Started");
     }
 
     @Deactivate
     public void deactivate() {
+        indexChecker.shutdownNow();
         hosts.removeListener(hostLocationTracker);
         hosts.destroy();
-        prevHosts.clear();
+        synchronized (hostLocationTracker) {
+            prevHosts.clear();
+            clearIndexes();
+        }
 
         log.info("Stopped");
     }
@@ -214,58 +240,170 @@ public class ECHostStore
 
     @Override
     public Set<Host> getHosts(VlanId vlanId) {
-        return filter(hosts.values(), host -> Objects.equals(host.vlan(), vlanId));
+        return lookup(hostsByVlan, vlanId, host -> Objects.equals(host.vlan(), vlanId));
     }
 
     @Override
     public Set<Host> getHosts(MacAddress mac) {
-        return filter(hosts.values(), host -> Objects.equals(host.mac(), mac));
+        return lookup(hostsByMac, mac, host -> Objects.equals(host.mac(), mac));
     }
 
     @Override
     public Set<Host> getHosts(IpAddress ip) {
-        return filter(hosts.values(), host -> host.ipAddresses().contains(ip));
+        return lookup(hostsByIp, ip, host -> host.ipAddresses().contains(ip));
     }
 
     @Override
     public Set<Host> getConnectedHosts(ConnectPoint connectPoint) {
-        Set<Host> filtered = hosts.entrySet().stream()
-                .filter(entry -> entry.getValue().location().equals(connectPoint))
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toSet());
-        return ImmutableSet.copyOf(filtered);
+        return lookup(hostsByLocation, connectPoint, host -> host.location().equals(connectPoint));
     }
 
     @Override
     public Set<Host> getConnectedHosts(DeviceId deviceId) {
-        Set<Host> filtered = hosts.entrySet().stream()
-                .filter(entry -> entry.getValue().location().deviceId().equals(deviceId))
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toSet());
-        return ImmutableSet.copyOf(filtered);
+        return lookup(hostsByDevice, deviceId, host -> host.location().deviceId().equals(deviceId));
+    }
+
+    // Returns the current hosts indexed under the given key; the predicate
+    // guards against returning a host updated since it was indexed.
+    private <K> Set<Host> lookup(Map<K, Set<HostId>> index, K key, Predicate<Host> predicate) {
+        Set<HostId> hostIds = index.get(key);
+        if (hostIds == null) {
+            return ImmutableSet.of();
+        }
+        ImmutableSet.Builder<Host> builder = ImmutableSet.builder();
+        for (HostId hostId : hostIds) {
+            Host host = hosts.get(hostId);
+            if (host != null && predicate.test(host)) {
+                builder.add(host);
+            }
+        }
+        return builder.build();
+    }
+
+    // Moves the host between index entries as it changes from the previous
+    // to the new host; either may be null.
+    private void updateIndexes(Host prevHost, Host host) {
+        Set<IpAddress> prevIps = prevHost == null ? ImmutableSet.of() : prevHost.ipAddresses();
+        Set<IpAddress> ips = host == null ? ImmutableSet.of() : host.ipAddresses();
+        for (IpAddress ip : Sets.difference(prevIps, ips)) {
+            unindex(hostsByIp, ip, prevHost.id());
+        }
+        for (IpAddress ip : Sets.difference(ips, prevIps)) {
+            index(hostsByIp, ip, host.id());
+        }
+        updateIndex(hostsByMac, prevHost, host, Host::mac);
+        updateIndex(hostsByVlan, prevHost, host, Host::vlan);
+        updateIndex(hostsByLocation, prevHost, host, Host::location);
+        updateIndex(hostsByDevice, prevHost, host, h -> h.location().deviceId());
+    }
+
+    private <K> void updateIndex(Map<K, Set<HostId>> index, Host prevHost, Host host,
+                                 Function<Host, K> keyFunction) {
+        K prevKey = prevHost == null ? null : keyFunction.apply(prevHost);
+        K key = host == null ? null : keyFunction.apply(host);
+        if (Objects.equals(prevKey, key)) {
+            return;
+        }
+        if (prevKey != null) {
+            unindex(index, prevKey, prevHost.id());
+        }
+        if (key != null) {
+            index(index, key, host.id());
+        }
     }
 
-    private Set<Host> filter(Collection<DefaultHost> collection, Predicate<DefaultHost> predicate) {
-        return collection.stream().filter(predicate).collect(Collectors.toSet());
+    private static <K> void index(Map<K, Set<HostId>> index, K key, HostId hostId) {
+        index.computeIfAbsent(key, k -> Sets.newConcurrentHashSet()).add(hostId);
+    }
+
+    private static <K> void unindex(Map<K, Set<HostId>> index, K key, HostId hostId) {
+        index.computeIfPresent(key, (k, hostIds) -> {
+            hostIds.remove(hostId);
+            return hostIds.isEmpty() ? null : hostIds;
+        });
+    }
+
+    private void clearIndexes() {
+        hostsByIp.clear();
+        hostsByMac.clear();
+        hostsByVlan.clear();
+        hostsByLocation.clear();
+        hostsByDevice.clear();
+    }
+
+    /**
+     * Verifies that the hosts tracked by this store, and the secondary indexes
+     * derived from them, agree with the hosts map. Updates missed by the
+     * tracker are applied, with the events they would have yielded, and the
+     * indexes are rebuilt if they do not.
+     *
+     * @return true if the tracked hosts and indexes were consistent
+     */
+    boolean checkIndexes() {
+        synchronized (hostLocationTracker) {
+            Map<HostId, DefaultHost> current = new HashMap<>();
+            hosts.entrySet().forEach(entry -> current.put(entry.getKey(), entry.getValue()));
+
+            Map<IpAddress, Set<HostId>> byIp = new HashMap<>();
+            Map<MacAddress, Set<HostId>> byMac = new HashMap<>();
+            Map<VlanId, Set<HostId>> byVlan = new HashMap<>();
+            Map<ConnectPoint, Set<HostId>> byLocation = new HashMap<>();
+            Map<DeviceId, Set<HostId>> byDevice = new HashMap<>();
+            for (Host host : current.values()) {
+                host.ipAddresses().forEach(ip -> index(byIp, ip, host.id()));
+                index(byMac, host.mac(), host.id());
+                index(byVlan, host.vlan(), host.id());
+                index(byLocation, host.location(), host.id());
+                index(byDevice, host.location().deviceId(), host.id());
+            }
+            if (current.equals(prevHosts) &&
+                    byIp.equals(hostsByIp) && byMac.equals(hostsByMac) && byVlan.equals(hostsByVlan) &&
+                    byLocation.equals(hostsByLocation) && byDevice.equals(hostsByDevice)) {
+                return true;
+            }
+            log.warn("Tracked hosts or host indexes inconsistent with {} hosts; resynchronizing",
+                     current.size());
+            prevHosts.values().stream()
+                    .filter(host -> !current.containsKey(host.id()))
+                    .collect(Collectors.toList())
+                    .forEach(this::hostRemoved);
+            current.values().forEach(this::hostUpdated);
+            clearIndexes();
+            prevHosts.values().forEach(host -> updateIndexes(null, host));
+            return false;
+        }
+    }
+
+    // Tracks an added or updated host; must be called with the tracker locked.
+    private void hostUpdated(DefaultHost host) {
+        Host prevHost = prevHosts.put(host.id(), host);
+        updateIndexes(prevHost, host);
+        if (prevHost == null) {
+            notifyDelegate(new HostEvent(HOST_ADDED, host));
+        } else if (!Objects.equals(prevHost.location(), host.location())) {
+            notifyDelegate(new HostEvent(HOST_MOVED, host, prevHost));
+        } else if (!Objects.equals(prevHost, host)) {
+            notifyDelegate(new HostEvent(HOST_UPDATED, host, prevHost));
+        }
+    }
+
+    // Tracks a removed host; must be called with the tracker locked.
+    private void hostRemoved(DefaultHost host) {
+        Host prevHost = prevHosts.remove(host.id());
+        if (prevHost != null) {
+            updateIndexes(prevHost, null);
+            notifyDelegate(new HostEvent(HOST_REMOVED, host));
+        }
     }
 
     private class HostLocationTracker implements EventuallyConsistentMapListener<HostId, DefaultHost> {
         @Override
-        public void event(EventuallyConsistentMapEvent<HostId, DefaultHost> event) {
+        public synchronized void event(EventuallyConsistentMapEvent<HostId, DefaultHost> event) {
             DefaultHost host = checkNotNull(event.value());
             if (event.type() == PUT) {
-                Host prevHost = prevHosts.put(host.id(), host);
-                if (prevHost == null) {
-                    notifyDelegate(new HostEvent(HOST_ADDED, host));
-                } else if (!Objects.equals(prevHost.location(), host.location())) {
-                    notifyDelegate(new HostEvent(HOST_MOVED, host, prevHost));
-                } else if (!Objects.equals(prevHost, host)) {
-                    notifyDelegate(new HostEvent(HOST_UPDATED, host, prevHost));
-                }
+                hostUpdated(host);
             } else if (event.type() == REMOVE) {
-                if (prevHosts.remove(host.id()) != null) {
-                    notifyDelegate(new HostEvent(HOST_REMOVED, host));
-                }
+                hostRemoved(host);
             }
         }
     }
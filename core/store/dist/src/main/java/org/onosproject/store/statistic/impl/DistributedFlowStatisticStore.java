@@ -17,20 +17,26 @@
 package org.onosproject.store.statistic.impl;
 
 import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
 import org.onlab.util.KryoNamespace;
 import org.onlab.util.Tools;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.mastership.MastershipService;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.DefaultFlowEntry;
 import org.onosproject.net.flow.FlowEntry;
 import org.onosproject.net.flow.FlowRule;
 import org.onosproject.net.flow.instructions.Instruction;
@@ -39,26 +45,39 @@ import org.onosproject.net.statistic.FlowStatisticStore;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
 import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.serializers.KryoSerializer;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Dictionary;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.onlab.util.Tools.get;
 import static org.onlab.util.Tools.groupedThreads;
-import static org.onosproject.store.statistic.impl.StatisticStoreMessageSubjects.GET_CURRENT;
-import static org.onosproject.store.statistic.impl.StatisticStoreMessageSubjects.GET_PREVIOUS;
+import static org.onosproject.store.statistic.impl.FlowDeltaHistory.NONE;
+import static org.onosproject.store.statistic.impl.StatisticStoreMessageSubjects.GET_CURRENT_FLOW_STATISTIC;
+import static org.onosproject.store.statistic.impl.StatisticStoreMessageSubjects.GET_PREVIOUS_FLOW_STATISTIC;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Maintains flow statistics using RPC calls to collect stats from remote instances
  * on demand.
+ * <p>
+ * Only the latest observation of each flow is kept as a flow entry. The byte
+ * and packet count deltas between successive observations are kept in a
+ * bounded {@link FlowDeltaHistory}, from which the previous observations are
+ * derived.
+ * </p>
  */
 @Component(immediate = true)
 @Service
@@ -68,6 +87,17 @@ public class DistributedFlowStatisticStore implements FlowStatisticStore {
     // TODO: Make configurable.
     private static final int MESSAGE_HANDLER_THREAD_POOL_SIZE = 4;
 
+    private static final int DEFAULT_MAX_TRACKED_FLOWS = 65536;
+    private static final int DEFAULT_HISTORY_DEPTH = 4;
+
+    @Property(name = "maxTrackedFlows", intValue = DEFAULT_MAX_TRACKED_FLOWS,
+            label = "Maximum number of flows whose byte and packet count deltas are tracked")
+    private int maxTrackedFlows = DEFAULT_MAX_TRACKED_FLOWS;
+
+    @Property(name = "historyDepth", intValue = DEFAULT_HISTORY_DEPTH,
+            label = "Number of byte and packet count deltas retained per flow")
+    private int historyDepth = DEFAULT_HISTORY_DEPTH;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected MastershipService mastershipService;
 
@@ -77,11 +107,13 @@ public class DistributedFlowStatisticStore implements FlowStatisticStore {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ClusterService clusterService;
 
-    private Map<ConnectPoint, Set<FlowEntry>> previous =
-            new ConcurrentHashMap<>();
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService configService;
+
+    private final Map<ConnectPoint, Map<FlowRule, TrackedFlow>> flows = new HashMap<>();
 
-    private Map<ConnectPoint, Set<FlowEntry>> current =
-            new ConcurrentHashMap<>();
+    private FlowDeltaHistory history = new FlowDeltaHistory(maxTrackedFlows, historyDepth);
+    private boolean historyFull = false;
 
     protected static final KryoSerializer SERIALIZER = new KryoSerializer() {
         @Override
@@ -100,7 +132,10 @@ public class DistributedFlowStatisticStore implements FlowStatisticStore {
     private static final long STATISTIC_STORE_TIMEOUT_MILLIS = 3000;
 
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
+        configService.registerProperties(getClass());
+        modified(context);
+
         local = clusterService.getLocalNode().id();
 
         messageHandlingExecutor = Executors.newFixedThreadPool(
@@ -108,24 +143,66 @@ public class DistributedFlowStatisticStore implements FlowStatisticStore {
                 groupedThreads("onos/store/statistic", "message-handlers"));
 
         clusterCommunicator.addSubscriber(
-                GET_CURRENT, SERIALIZER::decode, this::getCurrentStatisticInternal, SERIALIZER::encode,
-                messageHandlingExecutor);
+                GET_CURRENT_FLOW_STATISTIC, SERIALIZER::decode, this::getCurrentStatisticInternal,
+                SERIALIZER::encode, messageHandlingExecutor);
 
         clusterCommunicator.addSubscriber(
-                GET_CURRENT, SERIALIZER::decode, this::getPreviousStatisticInternal, SERIALIZER::encode,
-                messageHandlingExecutor);
+                GET_PREVIOUS_FLOW_STATISTIC, SERIALIZER::decode, this::getPreviousStatisticInternal,
+                SERIALIZER::encode, messageHandlingExecutor);
 
         log.info("Started");
     }
 
     @Deactivate
     public void deactivate() {
-        clusterCommunicator.removeSubscriber(GET_PREVIOUS);
-        clusterCommunicator.removeSubscriber(GET_CURRENT);
+        configService.unregisterProperties(getClass(), false);
+        clusterCommunicator.removeSubscriber(GET_PREVIOUS_FLOW_STATISTIC);
+        clusterCommunicator.removeSubscriber(GET_CURRENT_FLOW_STATISTIC);
         messageHandlingExecutor.shutdown();
         log.info("Stopped");
     }
 
+    @SuppressWarnings("rawtypes")
+    @Modified
+    public synchronized void modified(ComponentContext context) {
+        if (context == null) {
+            log.info("Default config; maxTrackedFlows={}, historyDepth={}", maxTrackedFlows, historyDepth);
+            return;
+        }
+
+        Dictionary properties = context.getProperties();
+        int newMaxTrackedFlows;
+        int newHistoryDepth;
+        try {
+            String s = get(properties, "maxTrackedFlows");
+            newMaxTrackedFlows = isNullOrEmpty(s) ? maxTrackedFlows : Integer.parseInt(s.trim());
+
+            s = get(properties, "historyDepth");
+            newHistoryDepth = isNullOrEmpty(s) ? historyDepth : Integer.parseInt(s.trim());
+        } catch (NumberFormatException | ClassCastException e) {
+            newMaxTrackedFlows = DEFAULT_MAX_TRACKED_FLOWS;
+            newHistoryDepth = DEFAULT_HISTORY_DEPTH;
+        }
+        newMaxTrackedFlows = Math.max(newMaxTrackedFlows, 1);
+        newHistoryDepth = Math.max(newHistoryDepth, 1);
+
+        if (newMaxTrackedFlows != maxTrackedFlows || newHistoryDepth != historyDepth) {
+            maxTrackedFlows = newMaxTrackedFlows;
+            historyDepth = newHistoryDepth;
+
+            // Start over with an empty history; flows get new slots as
+            // they are next updated.
+            history = new FlowDeltaHistory(maxTrackedFlows, historyDepth);
+            historyFull = false;
+            for (Map<FlowRule, TrackedFlow> flowsAtPort : flows.values()) {
+                for (TrackedFlow tracked : flowsAtPort.values()) {
+                    tracked.slot = NONE;
+                }
+            }
+        }
+        log.info("Settings: maxTrackedFlows={}, historyDepth={}", maxTrackedFlows, historyDepth);
+    }
+
     @Override
     public synchronized void removeFlowStatistic(FlowRule rule) {
         ConnectPoint cp = buildConnectPoint(rule);
@@ -133,11 +210,14 @@ public class DistributedFlowStatisticStore implements FlowStatisticStore {
             return;
         }
 
-        // remove this rule if present from current map
-        current.computeIfPresent(cp, (c, e) -> { e.remove(rule); return e;  });
-
-        // remove this on if present from previous map
-        previous.computeIfPresent(cp, (c, e) -> { e.remove(rule); return e; });
+        Map<FlowRule, TrackedFlow> flowsAtPort = flows.get(cp);
+        if (flowsAtPort == null) {
+            return;
+        }
+        release(flowsAtPort.remove(rule));
+        if (flowsAtPort.isEmpty()) {
+            flows.remove(cp);
+        }
     }
 
     @Override
@@ -147,63 +227,58 @@ public class DistributedFlowStatisticStore implements FlowStatisticStore {
             return;
         }
 
-        // create one if absent and add this rule
-        current.putIfAbsent(cp, new HashSet<>());
-        current.computeIfPresent(cp, (c, e) -> { e.add(rule); return e; });
-
-        // remove previous one if present
-        previous.computeIfPresent(cp, (c, e) -> { e.remove(rule); return e; });
+        // replace the flow, forgetting about its previous observations
+        Map<FlowRule, TrackedFlow> flowsAtPort = flows.computeIfAbsent(cp, c -> new HashMap<>());
+        release(flowsAtPort.remove(rule));
+        flowsAtPort.put(rule, new TrackedFlow(rule));
     }
 
+    @Override
     public synchronized void updateFlowStatistic(FlowEntry rule) {
         ConnectPoint cp = buildConnectPoint(rule);
         if (cp == null) {
             return;
         }
 
-        Set<FlowEntry> curr = current.get(cp);
-        if (curr == null) {
+        Map<FlowRule, TrackedFlow> flowsAtPort = flows.get(cp);
+        TrackedFlow tracked = flowsAtPort == null ? null : flowsAtPort.get(rule);
+        if (tracked == null) {
             addFlowStatistic(rule);
-        } else {
-            Optional<FlowEntry> f = curr.stream().filter(c -> rule.equals(c)).
-                    findAny();
-            if (f.isPresent() && rule.bytes() < f.get().bytes()) {
-                log.debug("DistributedFlowStatisticStore:updateFlowStatistic():" +
-                        " Invalid Flow Update! Will be removed!!" +
-                        " curr flowId=" + Long.toHexString(rule.id().value()) +
-                        ", prev flowId=" + Long.toHexString(f.get().id().value()) +
-                        ", curr bytes=" + rule.bytes() + ", prev bytes=" + f.get().bytes() +
-                        ", curr life=" + rule.life() + ", prev life=" + f.get().life() +
-                        ", curr lastSeen=" + rule.lastSeen() + ", prev lastSeen=" + f.get().lastSeen());
-                // something is wrong! invalid flow entry, so delete it
-                removeFlowStatistic(rule);
-                return;
-            }
-            Set<FlowEntry> prev = previous.get(cp);
-            if (prev == null) {
-                prev = new HashSet<>();
-                previous.put(cp, prev);
-            }
+            return;
+        }
 
-            // previous one is exist
-            if (f.isPresent()) {
-                // remove old one and add new one
-                prev.remove(rule);
-                if (!prev.add(f.get())) {
-                    log.debug("DistributedFlowStatisticStore:updateFlowStatistic():" +
-                                    " flowId={}, add failed into previous.",
-                            Long.toHexString(rule.id().value()));
-                }
-            }
+        FlowEntry last = tracked.entry;
+        if (rule.bytes() < last.bytes()) {
+            log.debug("DistributedFlowStatisticStore:updateFlowStatistic():" +
+                    " Invalid Flow Update! Will be removed!!" +
+                    " curr flowId=" + Long.toHexString(rule.id().value()) +
+                    ", prev flowId=" + Long.toHexString(last.id().value()) +
+                    ", curr bytes=" + rule.bytes() + ", prev bytes=" + last.bytes() +
+                    ", curr life=" + rule.life() + ", prev life=" + last.life() +
+                    ", curr lastSeen=" + rule.lastSeen() + ", prev lastSeen=" + last.lastSeen());
+            // something is wrong! invalid flow entry, so delete it
+            removeFlowStatistic(rule);
+            return;
+        }
 
-            // remove old one and add new one
-            curr.remove(rule);
-            if (!curr.add(rule)) {
-                log.debug("DistributedFlowStatisticStore:updateFlowStatistic():" +
-                                " flowId={}, add failed into current.",
-                        Long.toHexString(rule.id().value()));
+        if (tracked.slot == NONE) {
+            tracked.slot = history.allocate();
+            if (tracked.slot == NONE) {
+                if (!historyFull) {
+                    log.warn("Flow statistic history is full; deltas of further flows " +
+                                     "will not be tracked until maxTrackedFlows={} is raised",
+                             maxTrackedFlows);
+                }
+                historyFull = true;
+            } else {
+                historyFull = false;
             }
         }
+        if (tracked.slot != NONE) {
+            history.record(tracked.slot, rule.bytes() - last.bytes(), rule.packets() - last.packets());
+        }
+        tracked.previousLife = last.life();
+        tracked.entry = rule;
     }
 
     @Override
@@ -221,7 +296,7 @@ public class DistributedFlowStatisticStore implements FlowStatisticStore {
         } else {
             return Tools.futureGetOrElse(clusterCommunicator.sendAndReceive(
                             connectPoint,
-                            GET_CURRENT,
+                            GET_CURRENT_FLOW_STATISTIC,
                             SERIALIZER::encode,
                             SERIALIZER::decode,
                             master),
@@ -232,7 +307,13 @@ public class DistributedFlowStatisticStore implements FlowStatisticStore {
     }
 
     private synchronized Set<FlowEntry> getCurrentStatisticInternal(ConnectPoint connectPoint) {
-        return current.get(connectPoint);
+        Map<FlowRule, TrackedFlow> flowsAtPort = flows.get(connectPoint);
+        if (flowsAtPort == null) {
+            return null;
+        }
+        Set<FlowEntry> entries = new HashSet<>(flowsAtPort.size());
+        flowsAtPort.values().forEach(t -> entries.add(t.entry));
+        return entries;
     }
 
     @Override
@@ -250,7 +331,7 @@ public class DistributedFlowStatisticStore implements FlowStatisticStore {
         } else {
             return Tools.futureGetOrElse(clusterCommunicator.sendAndReceive(
                             connectPoint,
-                            GET_PREVIOUS,
+                            GET_PREVIOUS_FLOW_STATISTIC,
                             SERIALIZER::encode,
                             SERIALIZER::decode,
                             master),
@@ -261,7 +342,65 @@ public class DistributedFlowStatisticStore implements FlowStatisticStore {
     }
 
     private synchronized Set<FlowEntry> getPreviousStatisticInternal(ConnectPoint connectPoint) {
-        return previous.get(connectPoint);
+        Map<FlowRule, TrackedFlow> flowsAtPort = flows.get(connectPoint);
+        if (flowsAtPort == null) {
+            return null;
+        }
+        // previous observations are the current ones less the newest deltas
+        Set<FlowEntry> entries = new HashSet<>(flowsAtPort.size());
+        for (TrackedFlow tracked : flowsAtPort.values()) {
+            if (tracked.slot != NONE && history.count(tracked.slot) > 0) {
+                FlowEntry entry = tracked.entry;
+                entries.add(new DefaultFlowEntry(entry, entry.state(), tracked.previousLife,
+                                                 entry.packets() - history.packets(tracked.slot, 0),
+                                                 entry.bytes() - history.bytes(tracked.slot, 0)));
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public List<FlowEntry> getTopFlowStatistic(ConnectPoint connectPoint, int topn) {
+        NodeId master = mastershipService.getMasterFor(connectPoint.deviceId());
+        if (!Objects.equal(local, master)) {
+            return FlowStatisticStore.super.getTopFlowStatistic(connectPoint, topn);
+        }
+        return getTopStatisticInternal(connectPoint, topn);
+    }
+
+    private synchronized List<FlowEntry> getTopStatisticInternal(ConnectPoint connectPoint, int topn) {
+        Map<FlowRule, TrackedFlow> flowsAtPort = flows.get(connectPoint);
+        if (flowsAtPort == null || topn <= 0) {
+            return ImmutableList.of();
+        }
+
+        // keep the topn flows with the largest newest byte deltas in a
+        // min heap, so that the least of them is evicted first
+        Comparator<TrackedFlow> byBytesDelta =
+                Comparator.comparingLong(t -> history.bytes(t.slot, 0));
+        PriorityQueue<TrackedFlow> top = new PriorityQueue<>(Math.min(topn, flowsAtPort.size()) + 1,
+                                                             byBytesDelta);
+        for (TrackedFlow tracked : flowsAtPort.values()) {
+            if (tracked.slot == NONE || history.count(tracked.slot) == 0) {
+                continue;
+            }
+            top.add(tracked);
+            if (top.size() > topn) {
+                top.poll();
+            }
+        }
+
+        List<FlowEntry> entries = Lists.newArrayListWithCapacity(top.size());
+        while (!top.isEmpty()) {
+            entries.add(top.poll().entry);
+        }
+        return Lists.reverse(entries);
+    }
+
+    private void release(TrackedFlow tracked) {
+        if (tracked != null && tracked.slot != NONE) {
+            history.release(tracked.slot);
+        }
     }
 
     private ConnectPoint buildConnectPoint(FlowRule rule) {
@@ -286,4 +425,15 @@ public class DistributedFlowStatisticStore implements FlowStatisticStore {
         }
         return null;
     }
+
+    // Latest observation of a flow and the slot holding its deltas
+    private static final class TrackedFlow {
+        private FlowEntry entry;
+        private long previousLife;
+        private int slot = NONE;
+
+        private TrackedFlow(FlowEntry entry) {
+            this.entry = entry;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.statistic.impl;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+/**
+ * Bounded history of byte and packet count deltas of flows.
+ * <p>
+ * Each tracked flow is given a slot holding a ring of the most recent
+ * deltas, newest first. The rings of all slots share a pair of primitive
+ * arrays, which grow on demand up to the configured number of slots, so the
+ * memory used is bounded by the number of slots times the history depth.
+ * This class is not thread-safe.
+ * </p>
+ */
+final class FlowDeltaHistory {
+
+    /**
+     * Slot number denoting the absence of a slot.
+     */
+    static final int NONE = -1;
+
+    private static final int INITIAL_SLOTS = 64;
+
+    private final int capacity;
+    private final int depth;
+
+    // Deltas of slot s are at [s * depth, (s + 1) * depth)
+    private long[] bytes;
+    private long[] packets;
+
+    // Position of the newest delta within each ring and the number of
+    // deltas recorded, up to the depth
+    private int[] heads;
+    private int[] counts;
+
+    // Stack of released slots; slots at or beyond the high mark were never
+    // handed out
+    private int[] free;
+    private int freeCount;
+    private int highMark;
+
+    /**
+     * Creates a new delta history.
+     *
+     * @param capacity maximum number of slots
+     * @param depth    number of deltas retained per slot
+     */
+    FlowDeltaHistory(int capacity, int depth) {
+        checkArgument(capacity > 0, "Capacity must be positive");
+        checkArgument(depth > 0, "Depth must be positive");
+        checkArgument((long) capacity * depth <= Integer.MAX_VALUE, "History too large");
+        this.capacity = capacity;
+        this.depth = depth;
+        resize(Math.min(capacity, INITIAL_SLOTS));
+    }
+
+    /**
+     * Returns the maximum number of slots.
+     *
+     * @return slot capacity
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of deltas retained per slot.
+     *
+     * @return history depth
+     */
+    int depth() {
+        return depth;
+    }
+
+    /**
+     * Returns the number of slots currently handed out.
+     *
+     * @return number of slots in use
+     */
+    int size() {
+        return highMark - freeCount;
+    }
+
+    /**
+     * Hands out an empty slot.
+     *
+     * @return slot number; {@link #NONE} if all slots are in use
+     */
+    int allocate() {
+        int slot;
+        if (freeCount > 0) {
+            slot = free[--freeCount];
+        } else if (highMark < capacity) {
+            if (highMark == heads.length) {
+                resize((int) Math.min((long) capacity, 2L * heads.length));
+            }
+            slot = highMark++;
+        } else {
+            return NONE;
+        }
+        heads[slot] = 0;
+        counts[slot] = 0;
+        return slot;
+    }
+
+    /**
+     * Returns a slot so that it can be handed out again.
+     *
+     * @param slot slot number
+     */
+    void release(int slot) {
+        checkElementIndex(slot, highMark);
+        free[freeCount++] = slot;
+    }
+
+    /**
+     * Records the newest deltas of a slot, evicting the oldest ones if the
+     * ring is full.
+     *
+     * @param slot         slot number
+     * @param bytesDelta   byte count delta
+     * @param packetsDelta packet count delta
+     */
+    void record(int slot, long bytesDelta, long packetsDelta) {
+        checkElementIndex(slot, highMark);
+        int head = counts[slot] == 0 ? 0 : (heads[slot] + 1) % depth;
+        heads[slot] = head;
+        if (counts[slot] < depth) {
+            counts[slot]++;
+        }
+        bytes[slot * depth + head] = bytesDelta;
+        packets[slot * depth + head] = packetsDelta;
+    }
+
+    /**
+     * Returns the number of deltas recorded in a slot, up to the depth.
+     *
+     * @param slot slot number
+     * @return number of deltas available
+     */
+    int count(int slot) {
+        checkElementIndex(slot, highMark);
+        return counts[slot];
+    }
+
+    /**
+     * Returns a byte count delta of a slot.
+     *
+     * @param slot slot number
+     * @param age  0 for the newest delta, 1 for the one before it and so on
+     * @return byte count delta
+     */
+    long bytes(int slot, int age) {
+        return bytes[index(slot, age)];
+    }
+
+    /**
+     * Returns a packet count delta of a slot.
+     *
+     * @param slot slot number
+     * @param age  0 for the newest delta, 1 for the one before it and so on
+     * @return packet count delta
+     */
+    long packets(int slot, int age) {
+        return packets[index(slot, age)];
+    }
+
+    private int index(int slot, int age) {
+        checkElementIndex(slot, highMark);
+        checkElementIndex(age, counts[slot]);
+        return slot * depth + Math.floorMod(heads[slot] - age, depth);
+    }
+
+    private void resize(int slots) {
+        bytes = bytes == null ? new long[slots * depth] : Arrays.copyOf(bytes, slots * depth);
+        packets = packets == null ? new long[slots * depth] : Arrays.copyOf(packets, slots * depth);
+        heads = heads == null ? new int[slots] : Arrays.copyOf(heads, slots);
+        counts = counts == null ? new int[slots] : Arrays.copyOf(counts, slots);
+        free = free == null ? new int[slots] : Arrays.copyOf(free, slots);
+    }
+}
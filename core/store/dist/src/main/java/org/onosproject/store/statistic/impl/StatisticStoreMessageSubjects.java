@@ -26,5 +26,9 @@ public final class StatisticStoreMessageSubjects {
                 new MessageSubject("peer-return-current");
         public static final MessageSubject GET_PREVIOUS =
             new MessageSubject("peer-return-previous");
+        public static final MessageSubject GET_CURRENT_FLOW_STATISTIC =
+                new MessageSubject("peer-return-current-flow-statistic");
+        public static final MessageSubject GET_PREVIOUS_FLOW_STATISTIC =
+                new MessageSubject("peer-return-previous-flow-statistic");
 
 }
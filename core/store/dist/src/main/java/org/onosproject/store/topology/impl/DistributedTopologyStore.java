@@ -26,12 +26,16 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import com.codahale.metrics.Gauge;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.KryoNamespace;
 import org.onosproject.common.DefaultTopology;
 import org.onosproject.event.Event;
@@ -91,6 +95,12 @@ public class DistributedTopologyStore
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected MastershipService mastershipService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
+    private MetricsComponent metricsComponent;
+    private MetricsFeature pathCacheFeature;
+
     // Cluster root to broadcast points bindings to allow convergence to
     // a shared broadcast tree; node that is the master of the cluster root
     // is the primary.
@@ -110,6 +120,15 @@ public class DistributedTopologyStore
                 .withTimestampProvider((k, v) -> clockService.getTimestamp())
                 .build();
         broadcastPoints.addListener(listener);
+
+        metricsComponent = metricsService.registerComponent("TopologyStore");
+        pathCacheFeature = metricsComponent.registerFeature("pathCache");
+        metricsService.registerMetric(metricsComponent, pathCacheFeature, "hits",
+                                      (Gauge<Long>) () -> current.pathCacheStats().hitCount());
+        metricsService.registerMetric(metricsComponent, pathCacheFeature, "misses",
+                                      (Gauge<Long>) () -> current.pathCacheStats().missCount());
+        metricsService.registerMetric(metricsComponent, pathCacheFeature, "evictions",
+                                      (Gauge<Long>) () -> current.pathCacheStats().evictionCount());
         log.info("Started");
     }
 
@@ -117,6 +136,9 @@ public class DistributedTopologyStore
     public void deactivate() {
         broadcastPoints.removeListener(listener);
         broadcastPoints.destroy();
+        metricsService.removeMetric(metricsComponent, pathCacheFeature, "hits");
+        metricsService.removeMetric(metricsComponent, pathCacheFeature, "misses");
+        metricsService.removeMetric(metricsComponent, pathCacheFeature, "evictions");
         log.info("Stopped");
     }
 
@@ -167,6 +189,11 @@ public class DistributedTopologyStore
         return defaultTopology(topology).getPaths(src, dst, weight);
     }
 
+    @Override
+    public Set<Link> getEcmpNextHops(Topology topology, DeviceId src, DeviceId dst) {
+        return defaultTopology(topology).getEcmpNextHops(src, dst);
+    }
+
     @Override
     public Set<DisjointPath> getDisjointPaths(Topology topology, DeviceId src, DeviceId dst) {
         return defaultTopology(topology).getDisjointPaths(src, dst);
@@ -226,9 +253,10 @@ public class DistributedTopologyStore
             return null;
         }
 
-        // Have the default topology construct self from the description data.
+        // Have the default topology construct self from the description data,
+        // reusing whatever it can from the current topology.
         DefaultTopology newTopology =
-                new DefaultTopology(providerId, graphDescription, this::isBroadcastPoint);
+                new DefaultTopology(providerId, graphDescription, this::isBroadcastPoint, current);
         updateBroadcastPoints(newTopology);
 
         // Promote the new topology to current and return a ready-to-send event.
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.consistent.impl;
+
+import com.google.common.testing.EqualsTester;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for BinaryKey.
+ */
+public class BinaryKeyTest {
+
+    @Test
+    public void testEquals() {
+        new EqualsTester()
+                .addEqualityGroup(BinaryKey.wrap(new byte[]{1, 2}), BinaryKey.wrap(new byte[]{1, 2}))
+                .addEqualityGroup(BinaryKey.wrap(new byte[]{1, 2, 0}))
+                .addEqualityGroup(BinaryKey.wrap(new byte[]{}))
+                .testEquals();
+    }
+
+    @Test
+    public void testOrdering() {
+        BinaryKey empty = BinaryKey.wrap(new byte[]{});
+        BinaryKey low = BinaryKey.wrap(new byte[]{1});
+        BinaryKey longer = BinaryKey.wrap(new byte[]{1, 0});
+        BinaryKey high = BinaryKey.wrap(new byte[]{(byte) 0xff});
+
+        assertTrue(empty.compareTo(low) < 0);
+        assertTrue(low.compareTo(longer) < 0);
+        // bytes compare as unsigned
+        assertTrue(longer.compareTo(high) < 0);
+        assertTrue(high.compareTo(low) > 0);
+        assertTrue(low.compareTo(BinaryKey.wrap(new byte[]{1})) == 0);
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.consistent.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import net.kuujo.copycat.cluster.Cluster;
+import net.kuujo.copycat.state.StateContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.store.service.DatabaseUpdate;
+import org.onosproject.store.service.Versioned;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the map operations of DefaultDatabaseState.
+ */
+public class DefaultDatabaseStateTest {
+
+    private static final String MAP = "map";
+
+    private final DefaultDatabaseState state = new DefaultDatabaseState();
+
+    @Before
+    public void setUp() {
+        state.init(new TestStateContext());
+    }
+
+    private static BinaryKey key(int i) {
+        return BinaryKey.wrap(new byte[]{(byte) i});
+    }
+
+    private static byte[] value(int i) {
+        return new byte[]{(byte) i, (byte) i};
+    }
+
+    @Test
+    public void testPutAllAndGetAll() {
+        Result<List<UpdateResult<BinaryKey, byte[]>>> result =
+                state.mapPutAll(MAP, ImmutableMap.of(key(1), value(1), key(2), value(2)));
+        assertTrue(result.success());
+        assertEquals(2, result.value().size());
+        result.value().forEach(u -> assertTrue(u.updated()));
+
+        Map<BinaryKey, Versioned<byte[]>> values = state.mapGetAll(MAP, ImmutableList.of(key(1), key(3)));
+        assertEquals(1, values.size());
+        assertArrayEquals(value(1), values.get(key(1)).value());
+        assertEquals(2, state.mapSize(MAP));
+    }
+
+    @Test
+    public void testPutAllLocked() {
+        DatabaseUpdate update = DatabaseUpdate.newBuilder()
+                .withMapName(MAP)
+                .withType(DatabaseUpdate.Type.PUT)
+                .withKey(key(1).bytes())
+                .withValue(value(1))
+                .build();
+        assertTrue(state.prepare(new DefaultTransaction(1, ImmutableList.of(update))));
+
+        Result<List<UpdateResult<BinaryKey, byte[]>>> result =
+                state.mapPutAll(MAP, ImmutableMap.of(key(1), value(2), key(2), value(2)));
+        assertEquals(Result.Status.LOCKED, result.status());
+        assertFalse(state.mapContainsKey(MAP, key(2)));
+    }
+
+    @Test
+    public void testEntriesPaging() {
+        Map<BinaryKey, byte[]> entries = Maps.newHashMap();
+        for (int i = 9; i >= 0; i--) {
+            entries.put(key(i), value(i));
+        }
+        state.mapPutAll(MAP, entries);
+
+        List<BinaryKey> visited = Lists.newArrayList();
+        BinaryKey fromKey = null;
+        List<Entry<BinaryKey, Versioned<byte[]>>> page;
+        do {
+            page = state.mapEntries(MAP, fromKey, 4);
+            assertTrue(page.size() <= 4);
+            page.forEach(e -> visited.add(e.getKey()));
+            fromKey = page.isEmpty() ? null : page.get(page.size() - 1).getKey();
+        } while (page.size() == 4);
+
+        assertEquals(10, visited.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(key(i), visited.get(i));
+        }
+    }
+
+    // State context backed by a plain map.
+    private static class TestStateContext implements StateContext<DatabaseState<BinaryKey, byte[]>> {
+        private final Map<String, Object> values = Maps.newHashMap();
+
+        @Override
+        public Cluster cluster() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public DatabaseState<BinaryKey, byte[]> state() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public StateContext<DatabaseState<BinaryKey, byte[]>> put(String key, Object value) {
+            values.put(key, value);
+            return this;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <U> U get(String key) {
+            return (U) values.get(key);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <U> U remove(String key) {
+            return (U) values.remove(key);
+        }
+
+        @Override
+        public StateContext<DatabaseState<BinaryKey, byte[]>> clear() {
+            values.clear();
+            return this;
+        }
+
+        @Override
+        public StateContext<DatabaseState<BinaryKey, byte[]>> transition(DatabaseState<BinaryKey, byte[]> state) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
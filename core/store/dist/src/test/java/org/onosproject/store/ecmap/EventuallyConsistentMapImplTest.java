@@ -26,8 +26,10 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -35,9 +37,12 @@ import java.util.function.Function;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.junit.TestUtils;
+import org.onlab.metrics.MetricsManager;
 import org.onlab.packet.IpAddress;
 import org.onlab.util.KryoNamespace;
 import org.onosproject.cluster.ClusterService;
+import org.onosproject.cluster.ClusterServiceAdapter;
 import org.onosproject.cluster.ControllerNode;
 import org.onosproject.cluster.DefaultControllerNode;
 import org.onosproject.cluster.NodeId;
@@ -57,7 +62,9 @@ import org.onosproject.store.service.WallClockTimestamp;
 
 import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.MoreExecutors;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -70,10 +77,12 @@ import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.reset;
 import static org.easymock.EasyMock.verify;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.onlab.junit.TestTools.assertAfter;
 
 /**
  * Unit tests for EventuallyConsistentMapImpl.
@@ -139,6 +148,7 @@ public class EventuallyConsistentMapImplTest {
         clusterCommunicator = createMock(ClusterCommunicationService.class);
 
         persistenceService = new PersistenceManager();
+        TestUtils.setField(persistenceService, "metricsService", new MetricsManager());
         persistenceService.activate();
         // Add expectation for adding cluster message subscribers which
         // delegate to our ClusterCommunicationService implementation. This
@@ -170,9 +180,13 @@ public class EventuallyConsistentMapImplTest {
     }
 
     @After
-    public void tearDown() {
+    public void tearDown() throws Exception {
         reset(clusterCommunicator);
         ecMap.destroy();
+        // leave nothing persisted for the next test
+        Map<String, ?> items = TestUtils.getField(ecMap, "items");
+        items.clear();
+        persistenceService.deactivate();
     }
 
     @SuppressWarnings("unchecked")
@@ -674,6 +688,86 @@ public class EventuallyConsistentMapImplTest {
         }
     }
 
+    /**
+     * Tests that two maps which diverged converge again through the exchange
+     * of hash trees, only comparing the entries of the divergent buckets, and
+     * that maps in sync only compare their root hashes.
+     */
+    @Test
+    public void testHashTreeAntiEntropy() throws Exception {
+        NodeId nodeA = new NodeId("a");
+        NodeId nodeB = new NodeId("b");
+        TestNetwork network = new TestNetwork();
+        AtomicBoolean propagate = new AtomicBoolean(true);
+        EventuallyConsistentMap<String, String> mapA = hashTreeMap(network, nodeA, nodeB, propagate);
+        EventuallyConsistentMap<String, String> mapB = hashTreeMap(network, nodeB, nodeA, propagate);
+        try {
+            for (int i = 0; i < 100; i++) {
+                mapA.put("key" + i, "value" + i);
+            }
+            assertAfter(5000, () -> assertEquals("initial updates not received", 100, mapB.size()));
+
+            // let the maps diverge
+            propagate.set(false);
+            mapA.put("key1", "newValue");
+            mapA.remove("key2");
+            mapA.put("keyA", "valueA");
+            mapB.put("keyB", "valueB");
+            network.digestSizes.clear();
+
+            assertAfter(15000, () -> {
+                advertise(mapA, nodeB);
+                advertise(mapB, nodeA);
+                assertEquals("maps did not converge", mapA.entrySet(), mapB.entrySet());
+                assertEquals("incorrect value", "newValue", mapB.get("key1"));
+                assertNull("removed value found", mapB.get("key2"));
+                assertEquals("incorrect value", "valueA", mapB.get("keyA"));
+                assertEquals("incorrect value", "valueB", mapA.get("keyB"));
+            });
+            assertArrayEquals("hash trees differ", bucketHashes(mapA), bucketHashes(mapB));
+            assertFalse("no digest exchanged", network.digestSizes.isEmpty());
+            network.digestSizes.forEach(size -> assertTrue("digest not limited to divergent buckets", size < 10));
+
+            // replicas in sync only exchange the root hash
+            network.digestSizes.clear();
+            network.hashTreeSizes.clear();
+            advertise(mapA, nodeB);
+            assertEquals("more than the root exchanged", ImmutableList.of(1), network.hashTreeSizes);
+            assertTrue("digest exchanged", network.digestSizes.isEmpty());
+        } finally {
+            mapA.destroy();
+            mapB.destroy();
+        }
+    }
+
+    private EventuallyConsistentMap<String, String> hashTreeMap(TestNetwork network, NodeId local, NodeId peer,
+                                                                AtomicBoolean propagate) {
+        AtomicLong clock = network.clock;
+        return new EventuallyConsistentMapBuilderImpl<String, String>(
+                        new TestClusterService(local, peer), network.communicator(local), persistenceService)
+                .withName(MAP_NAME)
+                .withSerializer(KryoNamespace.newBuilder().register(KryoNamespaces.API))
+                .withTimestampProvider((k, v) -> new LogicalTimestamp(clock.incrementAndGet()))
+                .withPeerUpdateFunction((k, v) -> propagate.get() ? ImmutableList.of(peer) : ImmutableList.of())
+                .withCommunicationExecutor(MoreExecutors.newDirectExecutorService())
+                .withHashTreeAntiEntropy()
+                .build();
+    }
+
+    // Makes the map advertise its hash tree to the specified peer right away
+    private void advertise(EventuallyConsistentMap<String, String> map, NodeId peer) {
+        try {
+            TestUtils.callMethod(map, "sendAdvertisementToPeer", NodeId.class, peer);
+        } catch (TestUtils.TestUtilsException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long[] bucketHashes(EventuallyConsistentMap<String, String> map) throws Exception {
+        HashTree<String> hashTree = TestUtils.getField(map, "hashTree");
+        return hashTree.bucketHashes();
+    }
+
     private UpdateEntry<String, String> generatePutMessage(String key, String value, Timestamp timestamp) {
         return new UpdateEntry<>(key, new MapValue<>(value, timestamp));
     }
@@ -806,6 +900,81 @@ public class EventuallyConsistentMapImplTest {
         }
     }
 
+    /**
+     * Cluster of two nodes, both active.
+     */
+    private static final class TestClusterService extends ClusterServiceAdapter {
+
+        private final ControllerNode local;
+        private final ControllerNode peer;
+
+        private TestClusterService(NodeId local, NodeId peer) {
+            this.local = new DefaultControllerNode(local, IpAddress.valueOf(1));
+            this.peer = new DefaultControllerNode(peer, IpAddress.valueOf(2));
+        }
+
+        @Override
+        public ControllerNode getLocalNode() {
+            return local;
+        }
+
+        @Override
+        public Set<ControllerNode> getNodes() {
+            return ImmutableSet.of(local, peer);
+        }
+
+        @Override
+        public ControllerNode.State getState(NodeId nodeId) {
+            return ControllerNode.State.ACTIVE;
+        }
+    }
+
+    /**
+     * Network delivering the messages unicast by a node to the subscribers of
+     * the destination node, on the sending thread. The sizes of the
+     * anti-entropy digests sent are recorded.
+     */
+    private static final class TestNetwork {
+
+        private final AtomicLong clock = new AtomicLong();
+        private final Map<NodeId, Map<MessageSubject, Consumer<byte[]>>> subscribers = Maps.newConcurrentMap();
+        private final List<Integer> digestSizes = new CopyOnWriteArrayList<>();
+        private final List<Integer> hashTreeSizes = new CopyOnWriteArrayList<>();
+
+        private ClusterCommunicationService communicator(NodeId nodeId) {
+            Map<MessageSubject, Consumer<byte[]>> local =
+                    subscribers.computeIfAbsent(nodeId, id -> Maps.newConcurrentMap());
+            return new ClusterCommunicationServiceAdapter() {
+                @Override
+                public <M> void addSubscriber(MessageSubject subject, Function<byte[], M> decoder,
+                                              Consumer<M> handler, Executor executor) {
+                    local.put(subject, bytes -> handler.accept(decoder.apply(bytes)));
+                }
+
+                @Override
+                public void removeSubscriber(MessageSubject subject) {
+                    local.remove(subject);
+                }
+
+                @Override
+                public <M> CompletableFuture<Void> unicast(M message, MessageSubject subject,
+                                                           Function<M, byte[]> encoder, NodeId toNodeId) {
+                    if (message instanceof AntiEntropyAdvertisement) {
+                        digestSizes.add(((AntiEntropyAdvertisement<?>) message).digest().size());
+                    } else if (message instanceof HashTreeAdvertisement) {
+                        hashTreeSizes.add(((HashTreeAdvertisement) message).nodes().length);
+                    }
+                    Consumer<byte[]> subscriber = subscribers.getOrDefault(toNodeId, ImmutableMap.of())
+                            .get(subject);
+                    if (subscriber != null) {
+                        subscriber.accept(encoder.apply(message));
+                    }
+                    return CompletableFuture.completedFuture(null);
+                }
+            };
+        }
+    }
+
     /**
      * ClockService implementation that gives out timestamps based on a
      * sequential counter. This clock service enables more control over the
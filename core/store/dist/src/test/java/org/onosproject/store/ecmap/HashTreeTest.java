@@ -0,0 +1,134 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.ecmap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.store.impl.LogicalTimestamp;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.serializers.KryoSerializer;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Unit tests for HashTree.
+ */
+public class HashTreeTest {
+
+    private static final KryoSerializer SERIALIZER = new KryoSerializer() {
+        @Override
+        protected void setupKryoPool() {
+            serializerPool = KryoNamespace.newBuilder()
+                    .register(KryoNamespaces.BASIC)
+                    .register(LogicalTimestamp.class)
+                    .build();
+        }
+    };
+
+    private final MapValue<String> foo1 = new MapValue<>("foo", new LogicalTimestamp(1));
+    private final MapValue<String> foo2 = new MapValue<>("foo", new LogicalTimestamp(2));
+    private final MapValue<String> bar1 = new MapValue<>("bar", new LogicalTimestamp(1));
+
+    @Test
+    public void testOrderIndependence() {
+        HashTree<String> tree1 = new HashTree<>(SERIALIZER::encode);
+        HashTree<String> tree2 = new HashTree<>(SERIALIZER::encode);
+
+        tree1.update("a", null, foo1);
+        tree1.update("b", null, bar1);
+        tree2.update("b", null, bar1);
+        tree2.update("a", null, foo1);
+
+        assertArrayEquals(tree1.bucketHashes(), tree2.bucketHashes());
+        assertTrue(divergentBuckets(tree1, tree2).isEmpty());
+    }
+
+    @Test
+    public void testDivergence() {
+        HashTree<String> tree1 = new HashTree<>(SERIALIZER::encode);
+        HashTree<String> tree2 = new HashTree<>(SERIALIZER::encode);
+
+        tree1.update("a", null, foo1);
+        tree1.update("b", null, bar1);
+        tree2.update("a", null, foo1);
+        tree2.update("b", null, bar1);
+        tree2.update("a", foo1, foo2);
+
+        assertEquals(ImmutableSet.of(tree1.bucketOf("a")),
+                     divergentBuckets(tree1, tree2));
+
+        tree1.update("a", foo1, foo2);
+        assertTrue(divergentBuckets(tree1, tree2).isEmpty());
+    }
+
+    @Test
+    public void testRemoval() {
+        HashTree<String> tree = new HashTree<>(SERIALIZER::encode);
+        long[] empty = tree.bucketHashes();
+
+        tree.update("a", null, foo1);
+        tree.update("a", foo1, MapValue.tombstone(new LogicalTimestamp(2)));
+        assertEquals(1, divergentBuckets(tree, empty).size());
+
+        tree.update("a", MapValue.tombstone(new LogicalTimestamp(2)), null);
+        assertArrayEquals(empty, tree.bucketHashes());
+    }
+
+    @Test
+    public void testDescent() {
+        HashTree<String> tree1 = new HashTree<>(SERIALIZER::encode);
+        HashTree<String> tree2 = new HashTree<>(SERIALIZER::encode);
+        int[] root = {0};
+
+        tree1.update("a", null, foo1);
+        tree1.update("b", null, bar1);
+        tree2.update("a", null, foo1);
+        tree2.update("b", null, bar1);
+        assertTrue(tree1.divergentNodes(0, root, tree2.nodeHashes(0, root)).isEmpty());
+
+        tree2.update("a", foo1, foo2);
+        Set<Integer> divergent = tree1.divergentNodes(0, root, tree2.nodeHashes(0, root));
+        assertEquals(ImmutableSet.of(0), divergent);
+
+        // Descend one level at a time down to the bucket of the updated key
+        for (int level = 1; level <= HashTree.LEAF_LEVEL; level++) {
+            int[] children = HashTree.children(divergent);
+            assertEquals(divergent.size() * HashTree.FANOUT, children.length);
+            divergent = tree1.divergentNodes(level, children, tree2.nodeHashes(level, children));
+            assertEquals(1, divergent.size());
+        }
+        assertEquals(ImmutableSet.of(tree1.bucketOf("a")), divergent);
+
+        tree1.update("a", foo1, foo2);
+        assertTrue(tree1.divergentNodes(0, root, tree2.nodeHashes(0, root)).isEmpty());
+    }
+
+    private static Set<Integer> divergentBuckets(HashTree<String> tree, long[] remoteHashes) {
+        return tree.divergentNodes(HashTree.LEAF_LEVEL, IntStream.range(0, HashTree.NUM_BUCKETS).toArray(),
+                                   remoteHashes);
+    }
+
+    private static Set<Integer> divergentBuckets(HashTree<String> tree, HashTree<String> remote) {
+        return divergentBuckets(tree, remote.bucketHashes());
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.junit.TestUtils;
+import org.onlab.metrics.MetricsManager;
+import org.onosproject.cfg.ComponentConfigAdapter;
+import org.onosproject.cluster.ClusterServiceAdapter;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.core.CoreServiceAdapter;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.mastership.MastershipServiceAdapter;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowEntry.FlowEntryState;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.FlowRuleBatchEntry;
+import org.onosproject.net.flow.FlowRuleBatchEntry.FlowRuleOperation;
+import org.onosproject.net.flow.FlowRuleBatchOperation;
+import org.onosproject.net.flow.StoredFlowEntry;
+import org.onosproject.store.cluster.messaging.ClusterCommunicationServiceAdapter;
+import org.onosproject.store.cluster.messaging.MessageSubject;
+import org.onosproject.store.flow.ReplicaInfo;
+import org.onosproject.store.flow.ReplicaInfoEventListener;
+import org.onosproject.store.flow.ReplicaInfoService;
+import org.onosproject.store.service.TestStorageService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.DeviceId.deviceId;
+
+/**
+ * Tests of the backups sent by the distributed flow rule store.
+ */
+public class NewDistributedFlowRuleStoreTest {
+
+    private static final DeviceId DID = deviceId("of:1");
+    private static final NodeId LOCAL = new ClusterServiceAdapter().getLocalNode().id();
+    private static final NodeId BACKUP = new NodeId("backup");
+
+    private final FlowRule rule = DefaultFlowRule.builder()
+            .forDevice(DID)
+            .withSelector(DefaultTrafficSelector.emptySelector())
+            .withTreatment(DefaultTrafficTreatment.emptyTreatment())
+            .withPriority(100)
+            .fromApp(new DefaultApplicationId(1, "test"))
+            .makePermanent()
+            .build();
+
+    private final FlowRule otherRule = DefaultFlowRule.builder()
+            .forDevice(DID)
+            .withSelector(DefaultTrafficSelector.emptySelector())
+            .withTreatment(DefaultTrafficTreatment.emptyTreatment())
+            .withPriority(200)
+            .fromApp(new DefaultApplicationId(1, "test"))
+            .makePermanent()
+            .build();
+
+    private final List<DeviceFlowTableBackup> backups = new ArrayList<>();
+    private final List<CompletableFuture<Set<DeviceId>>> pendingAcks = new ArrayList<>();
+    private boolean deferAcks = false;
+    private NewDistributedFlowRuleStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        store = new NewDistributedFlowRuleStore();
+        store.replicaInfoManager = new TestReplicaInfoService();
+        store.clusterCommunicator = new BackupRecorder();
+        store.clusterService = new ClusterServiceAdapter();
+        store.coreService = new CoreServiceAdapter();
+        store.configService = new ComponentConfigAdapter();
+        store.mastershipService = new MasterOfAll();
+        store.metricsService = new MetricsManager();
+        store.storageService = new TestStorageService();
+        // backups are triggered by the test rather than on a timer
+        TestUtils.setField(store, "backupEnabled", false);
+        store.activate(null);
+        TestUtils.setField(store, "backupEnabled", true);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        TestUtils.setField(store, "backupEnabled", false);
+        store.deactivate(null);
+    }
+
+    private void backup() throws Exception {
+        Object flowTable = TestUtils.getField(store, "flowTable");
+        TestUtils.callMethod(flowTable, "backup", new Class<?>[]{});
+    }
+
+    private void apply(FlowRuleOperation operation) {
+        apply(operation, rule);
+    }
+
+    private void apply(FlowRuleOperation operation, FlowRule flowRule) {
+        store.storeBatch(new FlowRuleBatchOperation(
+                ImmutableList.of(new FlowRuleBatchEntry(operation, flowRule)), DID, 1));
+    }
+
+    /**
+     * Tests that marking a flow rule for removal is carried by the next
+     * delta backup.
+     */
+    @Test
+    public void pendingRemoveInDelta() throws Exception {
+        apply(FlowRuleOperation.ADD);
+        backup();
+        assertEquals("one backup expected", 1, backups.size());
+        assertTrue("full backup expected", backups.get(0).isFull());
+
+        apply(FlowRuleOperation.REMOVE);
+        backup();
+        assertEquals("two backups expected", 2, backups.size());
+        DeviceFlowTableBackup delta = backups.get(1);
+        assertFalse("delta backup expected", delta.isFull());
+        Set<StoredFlowEntry> entries = delta.entries().get(rule.id());
+        assertEquals("flow entry missing from delta", 1, entries.size());
+        assertEquals("incorrect flow entry state", FlowEntryState.PENDING_REMOVE,
+                     entries.iterator().next().state());
+    }
+
+    /**
+     * Tests that no backup is built for a device while an earlier one is
+     * unacknowledged, and that a rejected delta is followed by a full backup.
+     */
+    @Test
+    public void rejectedDeltaResent() throws Exception {
+        apply(FlowRuleOperation.ADD);
+        backup();
+        assertTrue("full backup expected", backups.get(0).isFull());
+
+        deferAcks = true;
+        apply(FlowRuleOperation.REMOVE);
+        backup();
+        assertEquals("two backups expected", 2, backups.size());
+        assertFalse("delta backup expected", backups.get(1).isFull());
+
+        apply(FlowRuleOperation.ADD, otherRule);
+        backup();
+        assertEquals("backup sent while another is in flight", 2, backups.size());
+
+        deferAcks = false;
+        pendingAcks.remove(0).complete(ImmutableSet.of());
+        backup();
+        assertEquals("three backups expected", 3, backups.size());
+        assertTrue("full backup expected after rejection", backups.get(2).isFull());
+        assertEquals("incorrect backup", ImmutableSet.of(rule.id(), otherRule.id()),
+                     backups.get(2).entries().keySet());
+
+        // nothing is left to send once the full backup is acknowledged
+        backup();
+        assertEquals("no further backup expected", 3, backups.size());
+    }
+
+    private static class MasterOfAll extends MastershipServiceAdapter {
+        @Override
+        public NodeId getMasterFor(DeviceId deviceId) {
+            return LOCAL;
+        }
+
+        @Override
+        public Set<DeviceId> getDevicesOf(NodeId nodeId) {
+            return ImmutableSet.of(DID);
+        }
+    }
+
+    private static class TestReplicaInfoService implements ReplicaInfoService {
+        @Override
+        public ReplicaInfo getReplicaInfoFor(DeviceId deviceId) {
+            return new ReplicaInfo(LOCAL, ImmutableList.of(BACKUP));
+        }
+
+        @Override
+        public void addListener(ReplicaInfoEventListener listener) {
+        }
+
+        @Override
+        public void removeListener(ReplicaInfoEventListener listener) {
+        }
+    }
+
+    // Records the backups sent and acknowledges them all
+    private class BackupRecorder extends ClusterCommunicationServiceAdapter {
+        @Override
+        public <M, R> CompletableFuture<R> sendAndReceive(M message, MessageSubject subject,
+                                                          Function<M, byte[]> encoder,
+                                                          Function<byte[], R> decoder, NodeId toNodeId) {
+            List<DeviceFlowTableBackup> sent =
+                    NewDistributedFlowRuleStore.SERIALIZER.decode(encoder.apply(message));
+            backups.addAll(sent);
+            CompletableFuture<Set<DeviceId>> ack = new CompletableFuture<>();
+            if (deferAcks) {
+                pendingAcks.add(ack);
+            } else {
+                ack.complete(ImmutableSet.of(DID));
+            }
+            return ack.thenApply(acked -> decoder.apply(NewDistributedFlowRuleStore.SERIALIZER.encode(acked)));
+        }
+    }
+}
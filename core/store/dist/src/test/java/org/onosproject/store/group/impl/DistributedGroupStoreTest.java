@@ -341,6 +341,42 @@ public class DistributedGroupStoreTest {
         assertThat(extraneous, hasSize(0));
     }
 
+    /**
+     * Tests that an extraneous group with matching buckets is reused and
+     * that generated group identifiers are unique per device.
+     */
+    @Test
+    public void testExtraneousGroupReuse() {
+        groupStore.deviceInitialAuditCompleted(deviceId1, true);
+
+        Group extraneousGroup = new DefaultGroup(new DefaultGroupId(7), groupDescription1);
+        groupStore.addOrUpdateExtraneousGroupEntry(extraneousGroup);
+
+        GroupDescription matching = new DefaultGroupDescription(
+                deviceId1,
+                GroupDescription.Type.INDIRECT,
+                buckets,
+                groupKey2,
+                null,
+                APP_ID);
+        groupStore.storeGroupDescription(matching);
+        assertThat(groupStore.getGroup(deviceId1, groupKey2).id().id(), is(7));
+        assertThat(Lists.newArrayList(groupStore.getExtraneousGroups(deviceId1)), hasSize(0));
+
+        GroupDescription other = new DefaultGroupDescription(
+                deviceId1,
+                GroupDescription.Type.INDIRECT,
+                new GroupBuckets(ImmutableList.of(failoverGroupBucket)),
+                groupKey1,
+                null,
+                APP_ID);
+        groupStore.storeGroupDescription(other);
+        Group generated = groupStore.getGroup(deviceId1, groupKey1);
+        assertThat(generated.id().id(), is(1));
+        assertThat(groupStore.getGroupCount(deviceId1), is(2));
+        assertThat(groupStore.getGroupCount(deviceId2), is(0));
+    }
+
     /**
      * Tests updating of group descriptions.
      */
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.group.impl;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit tests for GroupIdAllocator.
+ */
+public class GroupIdAllocatorTest {
+
+    private final GroupIdAllocator allocator = new GroupIdAllocator();
+
+    @Test
+    public void testSequentialAllocation() {
+        assertThat(allocator.allocate(id -> false), is(1));
+        assertThat(allocator.allocate(id -> false), is(2));
+        assertThat(allocator.allocate(id -> false), is(3));
+    }
+
+    @Test
+    public void testSkipsReservedRuns() {
+        for (int id = 1; id <= 1000; id++) {
+            allocator.reserve(id);
+        }
+        allocator.reserve(1002);
+        assertThat(allocator.allocate(id -> false), is(1001));
+        assertThat(allocator.allocate(id -> false), is(1003));
+    }
+
+    @Test
+    public void testSkipsIdsInUse() {
+        assertThat(allocator.allocate(id -> id < 5), is(5));
+        // identifiers found in use are remembered
+        assertThat(allocator.allocate(id -> id == 6), is(7));
+        allocator.release(7);
+        allocator.release(6);
+        assertThat(allocator.allocate(id -> false), is(6));
+    }
+
+    @Test
+    public void testLowestReleasedIdReused() {
+        assertThat(allocator.allocate(id -> false), is(1));
+        assertThat(allocator.allocate(id -> false), is(2));
+        assertThat(allocator.allocate(id -> false), is(3));
+        allocator.release(3);
+        allocator.release(1);
+        assertThat(allocator.allocate(id -> false), is(1));
+        assertThat(allocator.allocate(id -> false), is(3));
+        assertThat(allocator.allocate(id -> false), is(4));
+    }
+
+    @Test
+    public void testLastId() {
+        for (int id = 1; id < GroupIdAllocator.MAX_ID; id++) {
+            allocator.reserve(id);
+        }
+        assertThat(allocator.allocate(id -> false), is(GroupIdAllocator.MAX_ID));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testExhausted() {
+        allocator.allocate(id -> true);
+    }
+}
@@ -19,8 +19,13 @@ import junit.framework.TestCase;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.junit.TestUtils;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.MacAddress;
+import org.onlab.packet.VlanId;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DefaultHost;
+import org.onosproject.net.DeviceId;
 import org.onosproject.net.Host;
 import org.onosproject.net.HostId;
 import org.onosproject.net.HostLocation;
@@ -28,12 +33,18 @@ import org.onosproject.net.host.DefaultHostDescription;
 import org.onosproject.net.host.HostDescription;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.store.Timestamp;
+import org.onosproject.store.service.EventuallyConsistentMap;
+import org.onosproject.store.service.EventuallyConsistentMapListener;
 import org.onosproject.store.service.LogicalClockService;
 import org.onosproject.store.service.TestStorageService;
 
+import com.google.common.collect.ImmutableSet;
+
 import java.util.HashSet;
 import java.util.Set;
 
+import static org.onosproject.net.PortNumber.portNumber;
+
 /**
  * Tests for the ECHostStore.
  */
@@ -48,6 +59,11 @@ public class ECHostStoreTest extends TestCase {
 
     private static final ProviderId PID = new ProviderId("of", "foo");
 
+    private static final DeviceId DID1 = DeviceId.deviceId("of:1");
+    private static final DeviceId DID2 = DeviceId.deviceId("of:2");
+    private static final HostLocation LOC1 = new HostLocation(DID1, portNumber(1), 0);
+    private static final HostLocation LOC2 = new HostLocation(DID2, portNumber(2), 0);
+
     @Before
     public void setUp() {
         ecXHostStore = new ECHostStore();
@@ -83,6 +99,65 @@ public class ECHostStoreTest extends TestCase {
         assertTrue(host.ipAddresses().contains(IP2));
     }
 
+    /**
+     * Tests that lookups by IP, MAC, VLAN and location follow host updates.
+     */
+    @Test
+    public void testIndexedLookups() {
+        HostDescription description = new DefaultHostDescription(HOSTID.mac(), HOSTID.vlanId(),
+                                                                 LOC1, ImmutableSet.of(IP1, IP2));
+        ecXHostStore.createOrUpdateHost(PID, HOSTID, description, false);
+        Host host = ecXHostStore.getHost(HOSTID);
+
+        assertEquals(ImmutableSet.of(host), ecXHostStore.getHosts(IP1));
+        assertEquals(ImmutableSet.of(host), ecXHostStore.getHosts(HOSTID.mac()));
+        assertEquals(ImmutableSet.of(host), ecXHostStore.getHosts(VlanId.NONE));
+        assertEquals(ImmutableSet.of(host), ecXHostStore.getConnectedHosts(new ConnectPoint(DID1, portNumber(1))));
+        assertEquals(ImmutableSet.of(host), ecXHostStore.getConnectedHosts(DID1));
+
+        description = new DefaultHostDescription(HOSTID.mac(), HOSTID.vlanId(), LOC2, ImmutableSet.of(IP2));
+        ecXHostStore.createOrUpdateHost(PID, HOSTID, description, true);
+        host = ecXHostStore.getHost(HOSTID);
+
+        assertTrue(ecXHostStore.getHosts(IP1).isEmpty());
+        assertEquals(ImmutableSet.of(host), ecXHostStore.getHosts(IP2));
+        assertTrue(ecXHostStore.getConnectedHosts(LOC1).isEmpty());
+        assertTrue(ecXHostStore.getConnectedHosts(DID1).isEmpty());
+        assertEquals(ImmutableSet.of(host), ecXHostStore.getConnectedHosts(LOC2));
+        assertEquals(ImmutableSet.of(host), ecXHostStore.getConnectedHosts(DID2));
+        assertTrue(ecXHostStore.checkIndexes());
+
+        ecXHostStore.removeHost(HOSTID);
+        assertTrue(ecXHostStore.getHosts(IP2).isEmpty());
+        assertTrue(ecXHostStore.getHosts(HOSTID.mac()).isEmpty());
+        assertTrue(ecXHostStore.getHosts(VlanId.NONE).isEmpty());
+        assertTrue(ecXHostStore.getConnectedHosts(DID2).isEmpty());
+        assertTrue(ecXHostStore.checkIndexes());
+    }
+
+    /**
+     * Tests that hosts whose updates were missed are found again once the
+     * tracked hosts are checked against the hosts map.
+     */
+    @Test
+    public void testMissedUpdateResynchronized() throws Exception {
+        EventuallyConsistentMap<HostId, DefaultHost> hosts = TestUtils.getField(ecXHostStore, "hosts");
+        EventuallyConsistentMapListener<HostId, DefaultHost> tracker =
+                TestUtils.getField(ecXHostStore, "hostLocationTracker");
+        hosts.removeListener(tracker);
+        HostDescription description = new DefaultHostDescription(HOSTID.mac(), HOSTID.vlanId(),
+                                                                 LOC1, ImmutableSet.of(IP1));
+        ecXHostStore.createOrUpdateHost(PID, HOSTID, description, false);
+        hosts.addListener(tracker);
+        assertTrue(ecXHostStore.getHosts(IP1).isEmpty());
+
+        assertFalse(ecXHostStore.checkIndexes());
+        Host host = ecXHostStore.getHost(HOSTID);
+        assertEquals(ImmutableSet.of(host), ecXHostStore.getHosts(IP1));
+        assertEquals(ImmutableSet.of(host), ecXHostStore.getConnectedHosts(DID1));
+        assertTrue(ecXHostStore.checkIndexes());
+    }
+
     /**
      * Mocks the LogicalClockService class.
      */
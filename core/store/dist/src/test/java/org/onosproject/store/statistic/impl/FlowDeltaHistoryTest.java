@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.statistic.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.onosproject.store.statistic.impl.FlowDeltaHistory.NONE;
+
+/**
+ * Unit tests for FlowDeltaHistory.
+ */
+public class FlowDeltaHistoryTest {
+
+    @Test
+    public void testRingEviction() {
+        FlowDeltaHistory history = new FlowDeltaHistory(4, 3);
+        int slot = history.allocate();
+        assertEquals(0, history.count(slot));
+
+        for (int i = 1; i <= 5; i++) {
+            history.record(slot, 100 * i, i);
+        }
+        assertEquals(3, history.count(slot));
+        assertEquals(500, history.bytes(slot, 0));
+        assertEquals(400, history.bytes(slot, 1));
+        assertEquals(300, history.bytes(slot, 2));
+        assertEquals(5, history.packets(slot, 0));
+        assertEquals(3, history.packets(slot, 2));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testAgeBeyondCount() {
+        FlowDeltaHistory history = new FlowDeltaHistory(4, 3);
+        int slot = history.allocate();
+        history.record(slot, 1, 1);
+        history.bytes(slot, 1);
+    }
+
+    @Test
+    public void testCapacityAndReuse() {
+        FlowDeltaHistory history = new FlowDeltaHistory(100, 2);
+        int[] slots = new int[100];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = history.allocate();
+            assertNotEquals(NONE, slots[i]);
+            history.record(slots[i], i, i);
+        }
+        assertEquals(100, history.size());
+        assertEquals(NONE, history.allocate());
+
+        // deltas survive the growth of the backing arrays
+        for (int i = 0; i < slots.length; i++) {
+            assertEquals(i, history.bytes(slots[i], 0));
+        }
+
+        history.release(slots[42]);
+        assertEquals(99, history.size());
+        int slot = history.allocate();
+        assertEquals(slots[42], slot);
+        assertEquals(0, history.count(slot));
+    }
+}
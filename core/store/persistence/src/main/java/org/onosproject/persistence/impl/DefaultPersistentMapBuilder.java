@@ -21,6 +21,7 @@ import org.onosproject.persistence.PersistentMapBuilder;
 import org.onosproject.store.service.Serializer;
 
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -32,14 +33,17 @@ public class DefaultPersistentMapBuilder<K, V> implements PersistentMapBuilder<K
 
     private final DB localDB;
 
+    private final ConcurrentMap<String, PersistentMap<?, ?>> maps;
+
     private String name = null;
 
     private Serializer serializer = null;
 
 
-    public DefaultPersistentMapBuilder(DB localDB) {
+    public DefaultPersistentMapBuilder(DB localDB, ConcurrentMap<String, PersistentMap<?, ?>> maps) {
         checkNotNull(localDB, "The local database cannot be null.");
         this.localDB = localDB;
+        this.maps = checkNotNull(maps);
     }
 
     public PersistentMapBuilder<K, V> withName(String name) {
@@ -54,10 +58,12 @@ public class DefaultPersistentMapBuilder<K, V> implements PersistentMapBuilder<K
         return this;
     }
 
+    @SuppressWarnings("unchecked")
     public Map<K, V> build() {
         checkNotNull(name, "The name must be assigned.");
         checkNotNull(serializer, "The key serializer must be assigned.");
 
-        return new PersistentMap<K, V>(serializer, localDB, name);
+        // maps built with the same name share their in-memory contents
+        return (Map<K, V>) maps.computeIfAbsent(name, n -> new PersistentMap<K, V>(serializer, localDB, n));
     }
 }
\ No newline at end of file
@@ -16,12 +16,20 @@
 
 package org.onosproject.persistence.impl;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.Maps;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
 import org.mapdb.DB;
 import org.mapdb.DBMaker;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.persistence.PersistenceService;
 import org.onosproject.persistence.PersistentMapBuilder;
 import org.onosproject.persistence.PersistentSetBuilder;
@@ -33,14 +41,19 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Map;
 import java.util.Set;
-import java.util.Timer;
-import java.util.TimerTask;
-
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
+import static org.onlab.util.Tools.groupedThreads;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Service that maintains local disk backed maps and sets.  This implementation automatically deletes empty structures
- * on shutdown.
+ * on shutdown.  Updates of the maps are written behind and committed together periodically.
  */
 @Component(immediate = true)
 @Service
@@ -60,13 +73,19 @@ public class PersistenceManager implements PersistenceService {
 
     private static final int FLUSH_FREQUENCY_MILLIS = 3000;
 
-    private Timer timer;
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
+    private ScheduledExecutorService commitExecutor;
+
+    private final ConcurrentMap<String, PersistentMap<?, ?>> maps = Maps.newConcurrentMap();
 
-    private final CommitTask commitTask = new CommitTask();
+    private MetricsComponent metricsComponent;
+    private MetricsFeature localDbFeature;
+    private Timer flushTimer;
 
     @Activate
     public void activate() {
-        timer = new Timer();
         Path dbPath = Paths.get(DATABASE_PATH);
         Path dbFolderPath = Paths.get(ENCLOSING_FOLDER);
         //Make sure the directory exists, if it does not, make it.
@@ -91,13 +110,33 @@ public class PersistenceManager implements PersistenceService {
                 .asyncWriteEnable()
                 .closeOnJvmShutdown()
                 .make();
-        timer.schedule(commitTask, FLUSH_FREQUENCY_MILLIS, FLUSH_FREQUENCY_MILLIS);
+        metricsComponent = metricsService.registerComponent("Persistence");
+        localDbFeature = metricsComponent.registerFeature("localDB");
+        metricsService.registerMetric(metricsComponent, localDbFeature, "pendingUpdates",
+                                      (Gauge<Integer>) this::pendingUpdates);
+        flushTimer = metricsService.createTimer(metricsComponent, localDbFeature, "flush");
+
+        commitExecutor = Executors.newSingleThreadScheduledExecutor(groupedThreads("onos/persistence", "commit"));
+        commitExecutor.scheduleWithFixedDelay(this::commit, FLUSH_FREQUENCY_MILLIS, FLUSH_FREQUENCY_MILLIS,
+                                              TimeUnit.MILLISECONDS);
         log.info("Started");
     }
 
     @Deactivate
     public void deactivate() {
-        timer.cancel();
+        commitExecutor.shutdown();
+        try {
+            // the final flush must not race with a periodic commit
+            if (!commitExecutor.awaitTermination(FLUSH_FREQUENCY_MILLIS, TimeUnit.MILLISECONDS)) {
+                log.warn("Timed out waiting for the local database commit to complete");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for the local database commit to complete");
+        }
+        metricsService.removeMetric(metricsComponent, localDbFeature, "pendingUpdates");
+        metricsService.removeMetric(metricsComponent, localDbFeature, "flush");
+        maps.values().forEach(PersistentMap::flush);
         for (Map.Entry<String, Object> entry : localDB.getAll().entrySet()) {
             String key = entry.getKey();
             Object value = entry.getValue();
@@ -123,18 +162,28 @@ public class PersistenceManager implements PersistenceService {
     }
 
     public <K, V> PersistentMapBuilder<K, V> persistentMapBuilder() {
-        return new DefaultPersistentMapBuilder<>(localDB);
+        return new DefaultPersistentMapBuilder<>(localDB, maps);
     }
 
     public <E> PersistentSetBuilder<E> persistentSetBuilder() {
         return new DefaultPersistentSetBuilder<>(localDB);
     }
 
-    private class CommitTask extends TimerTask {
+    // Returns the number of map entries waiting to be written to the database
+    private int pendingUpdates() {
+        return maps.values().stream().mapToInt(PersistentMap::pending).sum();
+    }
 
-        @Override
-        public void run() {
+    // Writes the pending updates of all maps and commits them at once
+    private void commit() {
+        Timer.Context context = startTimer(flushTimer);
+        try {
+            maps.values().forEach(PersistentMap::flush);
             localDB.commit();
+        } catch (Exception e) {
+            log.warn("Unable to commit the local database", e);
+        } finally {
+            stopTimer(context);
         }
     }
 }
\ No newline at end of file
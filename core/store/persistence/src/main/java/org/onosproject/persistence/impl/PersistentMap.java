@@ -16,6 +16,7 @@
 
 package org.onosproject.persistence.impl;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.mapdb.DB;
@@ -23,17 +24,39 @@ import org.mapdb.Hasher;
 import org.onosproject.store.service.Serializer;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 
 /**
  * A map implementation that stores and receives all data from a serialized internal map.
+ * <p>
+ * The map is served from memory and written behind: updated keys are only
+ * tracked as pending until the map is flushed, writing the latest value of
+ * each of them to the database at once. Flushes happen along with the
+ * periodic commits of the database, or right away when too many keys are
+ * pending.
+ * </p>
+ * <p>
+ * Only the keys passed to {@code put}, {@code putAll}, {@code compute},
+ * {@code computeIfAbsent} or {@code remove} are written. A value changed in
+ * place, such as a collection obtained through {@code get}, is not written
+ * until its key is put again.
+ * </p>
  */
 public class PersistentMap<K, V> implements Map<K, V> {
 
+    /**
+     * Number of pending keys past which updates flush the map themselves.
+     */
+    static final int MAX_PENDING = 10_000;
+
     private final Serializer serializer;
 
     private final org.mapdb.DB database;
@@ -42,6 +65,10 @@ public class PersistentMap<K, V> implements Map<K, V> {
 
     private final String name;
 
+    private final Map<K, V> cache = Maps.newConcurrentMap();
+
+    private final Set<K> pending = Sets.newConcurrentHashSet();
+
     public PersistentMap(Serializer serializer, DB database, String name) {
         this.serializer = checkNotNull(serializer);
         this.database = checkNotNull(database);
@@ -53,6 +80,10 @@ public class PersistentMap<K, V> implements Map<K, V> {
                 .valueSerializer(org.mapdb.Serializer.BYTE_ARRAY)
                 .hasher(Hasher.BYTE_ARRAY)
                 .makeOrGet();
+
+        // entries are decoded in parallel, as large maps are slow to load
+        items.entrySet().parallelStream()
+                .forEach(e -> cache.put(serializer.decode(e.getKey()), serializer.decode(e.getValue())));
     }
 
     /**
@@ -61,108 +92,146 @@ public class PersistentMap<K, V> implements Map<K, V> {
      * @param items the map to be populated
      */
     public void readInto(Map<K, V> items) {
-        this.items.forEach((keyBytes, valueBytes) ->
-                                   items.put(serializer.decode(keyBytes),
-                                             serializer.decode(valueBytes)));
+        items.putAll(cache);
+    }
+
+    /**
+     * Returns the number of keys updated but not yet written to the database.
+     *
+     * @return number of pending keys
+     */
+    public int pending() {
+        return pending.size();
+    }
+
+    /**
+     * Writes the latest value of every pending key to the database. The
+     * written entries still need to be committed.
+     *
+     * @return number of entries written
+     */
+    public synchronized int flush() {
+        int count = 0;
+        for (Iterator<K> it = pending.iterator(); it.hasNext();) {
+            K key = it.next();
+            // the key is no longer pending before its value is read, so an
+            // update racing with the write is flushed again next time
+            it.remove();
+            V value = cache.get(key);
+            if (value == null) {
+                items.remove(serializer.encode(key));
+            } else {
+                items.put(serializer.encode(key), serializer.encode(value));
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private void updated(K key) {
+        pending.add(key);
+        if (pending.size() >= MAX_PENDING) {
+            flush();
+        }
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public V remove(Object key) {
         checkNotNull(key, "Key can not be null.");
-        V removed = get(key);
-        items.remove(serializer.encode(key));
+        V removed = cache.remove(key);
+        if (removed != null) {
+            updated((K) key);
+        }
         return removed;
     }
 
     @Override
     public int size() {
-        return items.size();
+        return cache.size();
     }
 
     @Override
     public boolean isEmpty() {
-        return items.isEmpty();
+        return cache.isEmpty();
     }
 
     @Override
     public boolean containsKey(Object key) {
         checkNotNull(key, "Key cannot be null.");
-        return items.containsKey(serializer.encode(key));
+        return cache.containsKey(key);
     }
 
     @Override
     public boolean containsValue(Object value) {
         checkNotNull(value, "Value cannot be null.");
-        byte[] serialized = serializer.encode(value);
-        for (byte[] compareValue : items.values()) {
-            boolean same = true;
-            if (compareValue == null) {
-                same = false;
-            } else if (compareValue.length != serialized.length) {
-                same = false;
-            } else {
-                for (int i = 0; i < serialized.length; i++) {
-                    if (serialized[i] != compareValue[i]) {
-                        same = false;
-                        break;
-                    }
-                }
-            }
-            if (same) {
-                return true;
-            }
-        }
-        return false;
+        return cache.containsValue(value);
     }
 
     @Override
     public V get(Object key) {
         checkNotNull(key, "Key cannot be null.");
-        return serializer.decode(items.get(serializer.encode(key)));
+        return cache.get(key);
     }
 
     @Override
     public V put(K key, V value) {
         checkNotNull(key, "Key cannot be null.");
         checkNotNull(value, "Value cannot be null.");
-        byte[] prevVal = items.put(serializer.encode(key), serializer.encode(value));
-        if (prevVal == null) {
-            return null;
-        }
-        return serializer.decode(prevVal);
+        V prevVal = cache.put(key, value);
+        updated(key);
+        return prevVal;
     }
 
     @Override
     public void putAll(Map<? extends K, ? extends V> m) {
         checkNotNull(m, "The passed in map cannot be null.");
-        m.forEach((k, v) -> items.put(serializer.encode(k), serializer.encode(v)));
+        m.forEach(this::put);
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        checkNotNull(key, "Key cannot be null.");
+        V value = cache.compute(key, remappingFunction);
+        updated(key);
+        return value;
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        checkNotNull(key, "Key cannot be null.");
+        V value = cache.get(key);
+        if (value == null) {
+            value = cache.computeIfAbsent(key, mappingFunction);
+            updated(key);
+        }
+        return value;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        cache.forEach(action);
     }
 
     @Override
     public void clear() {
-        items.clear();
+        cache.keySet().forEach(this::remove);
     }
 
     @Override
     public Set<K> keySet() {
-        Set<K> keys = Sets.newHashSet();
-        items.keySet().forEach(k -> keys.add(serializer.decode(k)));
-        return keys;
+        return Sets.newHashSet(cache.keySet());
     }
 
     @Override
     public Collection<V> values() {
-        Collection<V> values = Sets.newHashSet();
-        items.values().forEach(v -> values.add(serializer.decode(v)));
-        return values;
+        return Lists.newArrayList(cache.values());
     }
 
     @Override
     public Set<Entry<K, V>> entrySet() {
         Set<Entry<K, V>> entries = Sets.newHashSet();
-        items.entrySet().
-                forEach(e -> entries.add(Maps.immutableEntry(serializer.decode(e.getKey()),
-                                                             serializer.decode(e.getValue()))));
+        cache.forEach((k, v) -> entries.add(Maps.immutableEntry(k, v)));
         return entries;
     }
 
@@ -189,4 +258,4 @@ public class PersistentMap<K, V> implements Map<K, V> {
     public int hashCode() {
         return super.hashCode();
     }
-}
\ No newline at end of file
+}
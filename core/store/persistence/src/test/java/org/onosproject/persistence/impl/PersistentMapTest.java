@@ -0,0 +1,126 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.persistence.impl;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.store.service.Serializer;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the written behind persistent map.
+ */
+public class PersistentMapTest {
+
+    private static final String NAME = "map:test";
+
+    private final KryoNamespace kryo = KryoNamespace.newBuilder()
+            .register(Integer.class, String.class)
+            .build();
+
+    private final Serializer serializer = new Serializer() {
+        @Override
+        public <T> byte[] encode(T object) {
+            return kryo.serialize(object);
+        }
+
+        @Override
+        public <T> T decode(byte[] bytes) {
+            return kryo.deserialize(bytes);
+        }
+    };
+
+    private DB database;
+    private PersistentMap<Integer, String> map;
+
+    @Before
+    public void setUp() {
+        database = DBMaker.newMemoryDB().make();
+        map = new PersistentMap<>(serializer, database, NAME);
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    // Returns the contents of the map as read back from the database
+    private Map<Integer, String> stored() {
+        Map<Integer, String> stored = Maps.newHashMap();
+        new PersistentMap<Integer, String>(serializer, database, NAME).readInto(stored);
+        return stored;
+    }
+
+    /**
+     * Tests that updates are only written to the database when flushed.
+     */
+    @Test
+    public void writeBehind() {
+        map.put(1, "one");
+        map.put(2, "two");
+        map.put(2, "deux");
+        assertEquals("incorrect value", "deux", map.get(2));
+        assertEquals("incorrect pending count", 2, map.pending());
+        assertTrue("nothing should be written yet", stored().isEmpty());
+
+        assertEquals("incorrect number of writes", 2, map.flush());
+        assertEquals("incorrect pending count", 0, map.pending());
+        assertEquals("incorrect stored entries", ImmutableMap.of(1, "one", 2, "deux"), stored());
+    }
+
+    /**
+     * Tests that removals and computations are written when flushed.
+     */
+    @Test
+    public void removeAndCompute() {
+        map.put(1, "one");
+        map.put(2, "two");
+        map.flush();
+
+        map.remove(1);
+        map.compute(2, (k, v) -> v + "!");
+        map.computeIfAbsent(3, k -> "three");
+        assertNull("removed value found", map.get(1));
+        assertEquals("incorrect pending count", 3, map.pending());
+
+        map.flush();
+        assertEquals("incorrect stored entries", ImmutableMap.of(2, "two!", 3, "three"), stored());
+    }
+
+    /**
+     * Tests that too many pending updates are flushed right away.
+     */
+    @Test
+    public void boundedBacklog() {
+        for (int i = 0; i < PersistentMap.MAX_PENDING; i++) {
+            map.put(i, "value");
+        }
+        assertEquals("backlog should have been flushed", 0, map.pending());
+        assertEquals("incorrect number of stored entries", PersistentMap.MAX_PENDING, stored().size());
+    }
+}
@@ -46,6 +46,9 @@ public final class DefaultOpenFlowPacketContext implements OpenFlowPacketContext
     private final OpenFlowSwitch sw;
     private final OFPacketIn pktin;
     private OFPacketOut pktout = null;
+    // Frame parsed on first request and shared by all packet listeners
+    private volatile Ethernet parsed;
+    private volatile boolean isParsed = false;
 
     private final boolean isBuffered;
 
@@ -99,6 +102,18 @@ public final class DefaultOpenFlowPacketContext implements OpenFlowPacketContext
     public Ethernet parsed() {
         checkPermission(PACKET_READ);
 
+        if (!isParsed) {
+            synchronized (this) {
+                if (!isParsed) {
+                    parsed = parse();
+                    isParsed = true;
+                }
+            }
+        }
+        return parsed;
+    }
+
+    private Ethernet parse() {
         try {
             return Ethernet.deserializer().deserialize(pktin.getData(), 0, pktin.getData().length);
         } catch (BufferUnderflowException | NullPointerException |
@@ -130,6 +130,17 @@ public interface OpenFlowSwitch {
      */
     boolean isConnected();
 
+    /**
+     * Checks if the switch can take more messages without them piling up
+     * in the outbound buffers. Callers sending messages in bulk may use
+     * this to pace themselves.
+     *
+     * @return whether the switch channel is writable
+     */
+    default boolean isWritable() {
+        return isConnected();
+    }
+
     /**
      * Disconnects the switch by closing the TCP connection. Results in a call
      * to the channel handler's channelDisconnected method for cleanup
@@ -17,7 +17,7 @@
 package org.onosproject.openflow.controller.driver;
 
 import com.google.common.collect.Lists;
-import org.jboss.netty.channel.Channel;
+import io.netty.channel.Channel;
 import org.onlab.packet.IpAddress;
 import org.onosproject.net.Device;
 import org.onosproject.net.driver.AbstractHandlerBehaviour;
@@ -60,6 +60,7 @@ public abstract class AbstractOpenFlowSwitch extends AbstractHandlerBehaviour
     protected final Logger log = LoggerFactory.getLogger(getClass());
 
     private Channel channel;
+    private OutboundMessageQueue outbound;
     protected String channelId;
 
     private boolean connected;
@@ -144,14 +145,14 @@ public abstract class AbstractOpenFlowSwitch extends AbstractHandlerBehaviour
             } else {
                 // not transitioning to MASTER
                 log.warn("Dropping message for switch {} (role: {}, connected: {}): {}",
-                         dpid, role, channel.isConnected(), msgs);
+                         dpid, role, channel.isActive(), msgs);
             }
         }
     }
 
     private void sendMsgsOnChannel(List<OFMessage> msgs) {
-        if (channel.isConnected()) {
-            channel.write(msgs);
+        if (channel.isActive()) {
+            outbound.send(msgs);
         } else {
             log.warn("Dropping messages for switch {} because channel is not connected: {}",
                      dpid, msgs);
@@ -181,6 +182,12 @@ public abstract class AbstractOpenFlowSwitch extends AbstractHandlerBehaviour
         return this.connected;
     }
 
+    @Override
+    public final boolean isWritable() {
+        return channel != null && channel.isWritable() &&
+                outbound.pending() < OutboundMessageQueue.MAX_BATCH;
+    }
+
     @Override
     public final void setConnected(boolean connected) {
         this.connected = connected;
@@ -189,7 +196,8 @@ public abstract class AbstractOpenFlowSwitch extends AbstractHandlerBehaviour
     @Override
     public final void setChannel(Channel channel) {
         this.channel = channel;
-        final SocketAddress address = channel.getRemoteAddress();
+        this.outbound = new OutboundMessageQueue(channel);
+        final SocketAddress address = channel.remoteAddress();
         if (address instanceof InetSocketAddress) {
             final InetSocketAddress inetAddress = (InetSocketAddress) address;
             final IpAddress ipAddress = IpAddress.valueOf(inetAddress.getAddress());
@@ -487,7 +495,7 @@ public abstract class AbstractOpenFlowSwitch extends AbstractHandlerBehaviour
     @Override
     public String toString() {
         return this.getClass().getName() + " [" + ((channel != null)
-                ? channel.getRemoteAddress() : "?")
+                ? channel.remoteAddress() : "?")
                 + " DPID[" + ((getStringId() != null) ? getStringId() : "?") + "]]";
     }
 }
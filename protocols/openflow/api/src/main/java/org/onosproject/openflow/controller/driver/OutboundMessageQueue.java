@@ -0,0 +1,138 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.driver;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Queue aggregating the messages sent to a switch into batched channel
+ * writes.
+ * <p>
+ * Rather than writing each message to the channel on its own, messages are
+ * queued and written in batches, each encoded into a single buffer. A batch
+ * is written as soon as the I/O thread of the channel gets to it, carrying
+ * all messages queued by then; a flush is handed to the I/O thread right away
+ * when the queue grows past the maximum batch size or when a barrier request
+ * is queued, since the sender will be waiting for its reply.
+ * </p>
+ * <p>
+ * The queue is only ever drained and written by the I/O thread, so messages
+ * reach the wire in the order they were queued.
+ * </p>
+ */
+final class OutboundMessageQueue {
+
+    /**
+     * Maximum number of messages written to the channel at once.
+     */
+    static final int MAX_BATCH = 512;
+
+    private final Channel channel;
+    private final Queue<OFMessage> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    /**
+     * Creates an outbound message queue for the specified channel.
+     *
+     * @param channel switch channel
+     */
+    OutboundMessageQueue(Channel channel) {
+        this.channel = checkNotNull(channel);
+    }
+
+    /**
+     * Queues messages to be written to the channel.
+     *
+     * @param msgs messages to send
+     */
+    void send(List<OFMessage> msgs) {
+        boolean barrier = false;
+        int count = 0;
+        for (OFMessage msg : msgs) {
+            if (msg != null) {
+                queue.add(msg);
+                barrier |= msg.getType() == OFType.BARRIER_REQUEST;
+                count++;
+            }
+        }
+
+        // Always account for the queued messages, since every write
+        // discounts them again whatever triggered it
+        int backlog = pending.addAndGet(count);
+        if (barrier || backlog >= MAX_BATCH) {
+            flush();
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            channel.eventLoop().execute(this::scheduledFlush);
+        }
+    }
+
+    /**
+     * Returns the number of messages queued but not yet written.
+     *
+     * @return number of pending messages
+     */
+    int pending() {
+        return pending.get();
+    }
+
+    private void scheduledFlush() {
+        flushScheduled.set(false);
+        flush();
+    }
+
+    /**
+     * Writes all queued messages to the channel. When called outside of the
+     * I/O thread of the channel, the flush is handed over to it.
+     */
+    void flush() {
+        EventLoop eventLoop = channel.eventLoop();
+        if (!eventLoop.inEventLoop()) {
+            eventLoop.execute(this::flush);
+            return;
+        }
+
+        List<OFMessage> batch = new ArrayList<>();
+        for (OFMessage msg = queue.poll(); msg != null; msg = queue.poll()) {
+            batch.add(msg);
+            if (batch.size() == MAX_BATCH) {
+                write(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+        channel.flush();
+    }
+
+    private void write(List<OFMessage> batch) {
+        pending.addAndGet(-batch.size());
+        channel.write(batch);
+    }
+}
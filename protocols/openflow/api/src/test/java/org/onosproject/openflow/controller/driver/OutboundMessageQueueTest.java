@@ -0,0 +1,174 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.driver;
+
+import com.google.common.collect.ImmutableList;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import org.easymock.Capture;
+import org.easymock.CaptureType;
+import org.junit.Before;
+import org.junit.Test;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the batching of messages sent to a switch.
+ */
+public class OutboundMessageQueueTest {
+
+    private final OFFactory factory = OFFactories.getFactory(OFVersion.OF_13);
+
+    private final Capture<Object> writes = new Capture<>(CaptureType.ALL);
+    private final Capture<Runnable> flushes = new Capture<>(CaptureType.ALL);
+    private OutboundMessageQueue queue;
+    private boolean inEventLoop;
+
+    @Before
+    public void setUp() {
+        EventLoop eventLoop = createMock(EventLoop.class);
+        eventLoop.execute(capture(flushes));
+        expectLastCall().anyTimes();
+        expect(eventLoop.inEventLoop()).andAnswer(() -> inEventLoop).anyTimes();
+        Channel channel = createMock(Channel.class);
+        expect(channel.eventLoop()).andReturn(eventLoop).anyTimes();
+        expect(channel.write(capture(writes))).andReturn(null).anyTimes();
+        expect(channel.flush()).andReturn(channel).anyTimes();
+        replay(eventLoop, channel);
+        queue = new OutboundMessageQueue(channel);
+    }
+
+    // Runs the tasks handed to the event loop, in order
+    private void runEventLoop() {
+        inEventLoop = true;
+        for (int i = 0; i < flushes.getValues().size(); i++) {
+            flushes.getValues().get(i).run();
+        }
+        flushes.reset();
+        inEventLoop = false;
+    }
+
+    private List<OFMessage> echoes(int count) {
+        ImmutableList.Builder<OFMessage> builder = ImmutableList.builder();
+        for (int i = 0; i < count; i++) {
+            builder.add(factory.buildEchoRequest().setXid(i).build());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Tests that messages sent in a row are written in a single batch.
+     */
+    @Test
+    public void coalesce() {
+        queue.send(echoes(1));
+        queue.send(echoes(2));
+        assertTrue("nothing should be written yet", writes.getValues().isEmpty());
+        assertEquals("one flush expected", 1, flushes.getValues().size());
+        assertEquals("incorrect pending count", 3, queue.pending());
+
+        runEventLoop();
+        assertEquals("one write expected", 1, writes.getValues().size());
+        assertEquals("incorrect batch size", 3, ((List<?>) writes.getValue()).size());
+        assertEquals("incorrect pending count", 0, queue.pending());
+    }
+
+    /**
+     * Tests that a barrier is flushed right away, along with the messages
+     * queued before it, and only ever from the event loop.
+     */
+    @Test
+    public void barrier() {
+        queue.send(echoes(2));
+        queue.send(ImmutableList.of(factory.buildBarrierRequest().setXid(7).build()));
+        assertTrue("nothing should be written outside the event loop", writes.getValues().isEmpty());
+        assertEquals("scheduled and immediate flush expected", 2, flushes.getValues().size());
+
+        runEventLoop();
+        assertEquals("one write expected", 1, writes.getValues().size());
+        assertEquals("incorrect batch size", 3, ((List<?>) writes.getValue()).size());
+    }
+
+    /**
+     * Tests that messages reach the channel in the order they were sent,
+     * whichever flush writes them.
+     */
+    @Test
+    public void ordering() {
+        List<OFMessage> sent = new ArrayList<>();
+        sent.addAll(echoes(2));
+        sent.add(factory.buildBarrierRequest().setXid(7).build());
+        queue.send(sent.subList(0, 1));
+        queue.send(sent.subList(1, 3));
+        inEventLoop = true;
+        List<OFMessage> more = echoes(OutboundMessageQueue.MAX_BATCH);
+        sent.addAll(more);
+        queue.send(more);
+        inEventLoop = false;
+        runEventLoop();
+
+        List<Object> written = new ArrayList<>();
+        writes.getValues().forEach(batch -> written.addAll((List<?>) batch));
+        assertEquals("messages out of order", sent, written);
+    }
+
+    /**
+     * Tests that writing a barrier batch leaves the pending count intact, so
+     * that the batch size threshold keeps firing afterwards.
+     */
+    @Test
+    public void thresholdAfterBarrier() {
+        queue.send(ImmutableList.<OFMessage>builder().addAll(echoes(2))
+                           .add(factory.buildBarrierRequest().setXid(7).build()).build());
+        runEventLoop();
+        assertEquals("one write expected", 1, writes.getValues().size());
+        assertEquals("incorrect pending count", 0, queue.pending());
+
+        queue.send(echoes(OutboundMessageQueue.MAX_BATCH));
+        assertEquals("immediate flush expected", 1, flushes.getValues().size());
+        runEventLoop();
+        assertEquals("two writes expected", 2, writes.getValues().size());
+        assertEquals("incorrect batch size", OutboundMessageQueue.MAX_BATCH,
+                     ((List<?>) writes.getValues().get(1)).size());
+        assertEquals("incorrect pending count", 0, queue.pending());
+    }
+
+    /**
+     * Tests that a large backlog is written in batches of bounded size.
+     */
+    @Test
+    public void largeBacklog() {
+        queue.send(echoes(OutboundMessageQueue.MAX_BATCH + 1));
+        runEventLoop();
+        assertEquals("two writes expected", 2, writes.getValues().size());
+        assertEquals("incorrect batch size", OutboundMessageQueue.MAX_BATCH,
+                     ((List<?>) writes.getValues().get(0)).size());
+        assertEquals("incorrect batch size", 1, ((List<?>) writes.getValues().get(1)).size());
+    }
+}
@@ -16,40 +16,45 @@
 
 package org.onosproject.openflow.controller.impl;
 
-
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
 import org.jboss.netty.buffer.ChannelBuffer;
-import org.jboss.netty.channel.Channel;
-import org.jboss.netty.channel.ChannelHandlerContext;
-import org.jboss.netty.handler.codec.frame.FrameDecoder;
+import org.jboss.netty.buffer.ChannelBuffers;
 import org.projectfloodlight.openflow.protocol.OFFactories;
 import org.projectfloodlight.openflow.protocol.OFMessage;
 import org.projectfloodlight.openflow.protocol.OFMessageReader;
 
+import java.util.List;
+
 /**
- * Decode an openflow message from a Channel, for use in a netty pipeline.
+ * Decodes OpenFlow messages from the bytes received on a switch channel.
+ * <p>
+ * The openflowj message readers work on Netty 3 channel buffers, so the
+ * readable bytes of the inbound buffer are wrapped, without copying, into a
+ * channel buffer view from which all complete messages are read.
+ * </p>
  */
-public class OFMessageDecoder extends FrameDecoder {
+public class OFMessageDecoder extends ByteToMessageDecoder {
 
     @Override
-    protected Object decode(ChannelHandlerContext ctx, Channel channel,
-            ChannelBuffer buffer) throws Exception {
-        if (!channel.isConnected()) {
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in,
+                          List<Object> out) throws Exception {
+        if (!ctx.channel().isActive()) {
             // In testing, I see decode being called AFTER decode last.
             // This check avoids that from reading corrupted frames
-            return null;
+            return;
         }
 
-        // Note that a single call to decode results in reading a single
-        // OFMessage from the channel buffer, which is passed on to, and processed
-        // by, the controller (in OFChannelHandler).
-        // This is different from earlier behavior (with the original openflowj),
-        // where we parsed all the messages in the buffer, before passing on
-        // a list of the parsed messages to the controller.
-        // The performance *may or may not* not be as good as before.
         OFMessageReader<OFMessage> reader = OFFactories.getGenericReader();
-        OFMessage message = reader.readFrom(buffer);
-
-        return message;
+        ChannelBuffer buffer = ChannelBuffers.wrappedBuffer(in.nioBuffer());
+        // The reader returns null, leaving the buffer untouched, when the
+        // next message has not been received in full yet
+        for (OFMessage message = reader.readFrom(buffer); message != null;
+                message = reader.readFrom(buffer)) {
+            out.add(message);
+        }
+        in.skipBytes(buffer.readerIndex());
     }
 
 }
@@ -16,44 +16,46 @@
 
 package org.onosproject.openflow.controller.impl;
 
-import java.util.List;
-
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.buffer.ChannelBuffers;
-import org.jboss.netty.channel.Channel;
-import org.jboss.netty.channel.ChannelHandlerContext;
-import org.jboss.netty.handler.codec.oneone.OneToOneEncoder;
 import org.projectfloodlight.openflow.protocol.OFMessage;
 
 /**
- * Encode an openflow message for output into a ChannelBuffer, for use in a
- * netty pipeline.
+ * Encodes batches of OpenFlow messages written to a switch channel.
+ * <p>
+ * The openflowj messages serialize themselves into Netty 3 channel buffers,
+ * so each batch is first written into a heap scratch buffer kept per I/O
+ * thread and then copied into a buffer drawn from the channel allocator.
+ * </p>
  */
-public class OFMessageEncoder extends OneToOneEncoder {
-
-    @Override
-    protected Object encode(ChannelHandlerContext ctx, Channel channel,
-                            Object msg) throws Exception {
-        if (!(msg instanceof List)) {
-            return msg;
-        }
+public class OFMessageEncoder extends MessageToByteEncoder<Iterable<OFMessage>> {
 
-        @SuppressWarnings("unchecked")
-        List<OFMessage> msglist = (List<OFMessage>) msg;
-        /* XXX S can't get length of OFMessage in loxigen's openflowj??
-        int size = 0;
-        for (OFMessage ofm : msglist) {
-            size += ofm.getLengthU();
-        }*/
+    private static final int SCRATCH_SIZE = 64 * 1024;
+    private static final int MAX_SCRATCH_SIZE = 4 * 1024 * 1024;
 
-        ChannelBuffer buf = ChannelBuffers.dynamicBuffer();
+    private static final ThreadLocal<ChannelBuffer> SCRATCH =
+            ThreadLocal.withInitial(() -> ChannelBuffers.dynamicBuffer(SCRATCH_SIZE));
 
-        for (OFMessage ofm : msglist) {
+    @Override
+    protected void encode(ChannelHandlerContext ctx, Iterable<OFMessage> msgs,
+                          ByteBuf out) throws Exception {
+        ChannelBuffer scratch = SCRATCH.get();
+        scratch.clear();
+        for (OFMessage ofm : msgs) {
             if (ofm != null) {
-                ofm.writeTo(buf);
+                ofm.writeTo(scratch);
             }
         }
-        return buf;
+        out.writeBytes(scratch.array(), scratch.arrayOffset() + scratch.readerIndex(),
+                       scratch.readableBytes());
+
+        // Do not hold on to the memory of an unusually large batch
+        if (scratch.capacity() > MAX_SCRATCH_SIZE) {
+            SCRATCH.remove();
+        }
     }
 
 }
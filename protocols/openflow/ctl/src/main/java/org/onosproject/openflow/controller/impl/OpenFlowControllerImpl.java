@@ -16,7 +16,6 @@
 package org.onosproject.openflow.controller.impl;
 
 import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
@@ -26,6 +25,7 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.net.driver.DefaultDriverProviderService;
 import org.onosproject.net.driver.DriverService;
@@ -56,28 +56,32 @@ import org.projectfloodlight.openflow.protocol.OFGroupStatsReply;
 import org.projectfloodlight.openflow.protocol.OFMessage;
 import org.projectfloodlight.openflow.protocol.OFPacketIn;
 import org.projectfloodlight.openflow.protocol.OFPortDesc;
-import org.projectfloodlight.openflow.protocol.OFPortStatsEntry;
-import org.projectfloodlight.openflow.protocol.OFPortStatsReply;
 import org.projectfloodlight.openflow.protocol.OFPortStatus;
 import org.projectfloodlight.openflow.protocol.OFStatsReply;
 import org.projectfloodlight.openflow.protocol.OFStatsReplyFlags;
+import org.projectfloodlight.openflow.protocol.OFStatsType;
 import org.projectfloodlight.openflow.protocol.action.OFActionOutput;
 import org.projectfloodlight.openflow.protocol.instruction.OFInstruction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Dictionary;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.onlab.util.Tools.get;
 import static org.onlab.util.Tools.groupedThreads;
 
 @Component(immediate = true)
@@ -85,6 +89,9 @@ import static org.onlab.util.Tools.groupedThreads;
 public class OpenFlowControllerImpl implements OpenFlowController {
     private static final String DEFAULT_OFPORT = "6633,6653";
     private static final int DEFAULT_WORKER_THREADS = 16;
+    private static final int DEFAULT_PACKET_IN_THREADS = 8;
+    private static final int DEFAULT_PACKET_IN_QUEUE_SIZE = 1024;
+    private static final int DEFAULT_PACKET_IN_RATE_LIMIT = 0;
 
     private static final Logger log =
             LoggerFactory.getLogger(OpenFlowControllerImpl.class);
@@ -99,14 +106,29 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ComponentConfigService cfgService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     @Property(name = "openflowPorts", value = DEFAULT_OFPORT,
             label = "Port numbers (comma separated) used by OpenFlow protocol; default is 6633,6653")
     private String openflowPorts = DEFAULT_OFPORT;
 
     @Property(name = "workerThreads", intValue = DEFAULT_WORKER_THREADS,
-            label = "Number of controller worker threads; default is 16")
+            label = "Number of controller I/O threads; 0 for twice the number of cores; default is 16")
     private int workerThreads = DEFAULT_WORKER_THREADS;
 
+    @Property(name = "packetInThreads", intValue = DEFAULT_PACKET_IN_THREADS,
+            label = "Number of threads handling packet-ins; 0 to handle them on the I/O threads; default is 8")
+    private int packetInThreads = DEFAULT_PACKET_IN_THREADS;
+
+    @Property(name = "packetInQueueSize", intValue = DEFAULT_PACKET_IN_QUEUE_SIZE,
+            label = "Maximum number of packet-ins queued per switch; default is 1024")
+    private int packetInQueueSize = DEFAULT_PACKET_IN_QUEUE_SIZE;
+
+    @Property(name = "packetInRateLimit", intValue = DEFAULT_PACKET_IN_RATE_LIMIT,
+            label = "Maximum number of packet-ins per second accepted per switch; 0 for no limit; default is 0")
+    private int packetInRateLimit = DEFAULT_PACKET_IN_RATE_LIMIT;
+
     protected ExecutorService executorMsgs =
         Executors.newFixedThreadPool(32, groupedThreads("onos/of", "event-stats-%d"));
 
@@ -128,27 +150,19 @@ public class OpenFlowControllerImpl implements OpenFlowController {
 
     protected Set<OpenFlowEventListener> ofEventListener = new CopyOnWriteArraySet<>();
 
-    protected Multimap<Dpid, OFFlowStatsEntry> fullFlowStats =
-            ArrayListMultimap.create();
-
-    protected Multimap<Dpid, OFTableStatsEntry> fullTableStats =
-            ArrayListMultimap.create();
-
-    protected Multimap<Dpid, OFGroupStatsEntry> fullGroupStats =
-            ArrayListMultimap.create();
+    // Entries of multipart stats replies awaiting their last part
+    protected final ConcurrentMap<StatsKey, List<?>> partialStats = new ConcurrentHashMap<>();
 
-    protected Multimap<Dpid, OFGroupDescStatsEntry> fullGroupDescStats =
-            ArrayListMultimap.create();
-
-    protected Multimap<Dpid, OFPortStatsEntry> fullPortStats =
-            ArrayListMultimap.create();
+    protected final PacketInPipeline packetInPipeline = new PacketInPipeline(this::handlePacketIn);
 
     private final Controller ctrl = new Controller();
 
     @Activate
     public void activate(ComponentContext context) {
         cfgService.registerProperties(getClass());
-        ctrl.setConfigParams(context.getProperties());
+        Dictionary<?, ?> properties = context.getProperties();
+        ctrl.setConfigParams(properties);
+        startPacketInPipeline(properties);
         ctrl.start(agent, driverService);
     }
 
@@ -156,15 +170,31 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     public void deactivate() {
         cfgService.unregisterProperties(getClass(), false);
         ctrl.stop();
+        packetInPipeline.stop();
     }
 
     @Modified
     public void modified(ComponentContext context) {
         ctrl.stop();
-        ctrl.setConfigParams(context.getProperties());
+        packetInPipeline.stop();
+        Dictionary<?, ?> properties = context.getProperties();
+        ctrl.setConfigParams(properties);
+        startPacketInPipeline(properties);
         ctrl.start(agent, driverService);
     }
 
+    private void startPacketInPipeline(Dictionary<?, ?> properties) {
+        packetInThreads = getIntProperty(properties, "packetInThreads", packetInThreads);
+        packetInQueueSize = getIntProperty(properties, "packetInQueueSize", packetInQueueSize);
+        packetInRateLimit = getIntProperty(properties, "packetInRateLimit", packetInRateLimit);
+        packetInPipeline.start(metricsService, packetInThreads, packetInQueueSize, packetInRateLimit);
+    }
+
+    private static int getIntProperty(Dictionary<?, ?> properties, String name, int defaultValue) {
+        String value = get(properties, name);
+        return isNullOrEmpty(value) ? defaultValue : Integer.parseInt(value.trim());
+    }
+
     @Override
     public Iterable<OpenFlowSwitch> getSwitches() {
         return connectedSwitches.values();
@@ -234,11 +264,10 @@ public class OpenFlowControllerImpl implements OpenFlowController {
 
     @Override
     public void processPacket(Dpid dpid, OFMessage msg) {
-        Collection<OFFlowStatsEntry> flowStats;
-        Collection<OFTableStatsEntry> tableStats;
-        Collection<OFGroupStatsEntry> groupStats;
-        Collection<OFGroupDescStatsEntry> groupDescStats;
-        Collection<OFPortStatsEntry> portStats;
+        List<OFFlowStatsEntry> flowStats;
+        List<OFTableStatsEntry> tableStats;
+        List<OFGroupStatsEntry> groupStats;
+        List<OFGroupDescStatsEntry> groupDescStats;
 
         switch (msg.getType()) {
         case PORT_STATUS:
@@ -252,12 +281,7 @@ public class OpenFlowControllerImpl implements OpenFlowController {
             }
             break;
         case PACKET_IN:
-            OpenFlowPacketContext pktCtx = DefaultOpenFlowPacketContext
-            .packetContextFromPacketIn(this.getSwitch(dpid),
-                    (OFPacketIn) msg);
-            for (PacketListener p : ofPacketListener.values()) {
-                p.handlePacket(pktCtx);
-            }
+            packetInPipeline.submit(dpid, this.getSwitch(dpid), (OFPacketIn) msg);
             break;
         // TODO: Consider using separate threadpool for sensitive messages.
         //    ie. Back to back error could cause us to starve.
@@ -274,41 +298,41 @@ public class OpenFlowControllerImpl implements OpenFlowController {
                     }
                     break;
                 case FLOW:
-                    flowStats = publishFlowStats(dpid, (OFFlowStatsReply) reply);
+                    flowStats = reassemble(dpid, reply, ((OFFlowStatsReply) reply).getEntries());
                     if (flowStats != null) {
                         OFFlowStatsReply.Builder rep =
                                 OFFactories.getFactory(msg.getVersion()).buildFlowStatsReply();
-                        rep.setEntries(Lists.newLinkedList(flowStats));
+                        rep.setEntries(flowStats);
                         rep.setXid(reply.getXid());
                         executorMsgs.submit(new OFMessageHandler(dpid, rep.build()));
                     }
                     break;
                 case TABLE:
-                    tableStats = publishTableStats(dpid, (OFTableStatsReply) reply);
+                    tableStats = reassemble(dpid, reply, ((OFTableStatsReply) reply).getEntries());
                     if (tableStats != null) {
                         OFTableStatsReply.Builder rep =
                                 OFFactories.getFactory(msg.getVersion()).buildTableStatsReply();
-                        rep.setEntries(Lists.newLinkedList(tableStats));
+                        rep.setEntries(tableStats);
+                        rep.setXid(reply.getXid());
                         executorMsgs.submit(new OFMessageHandler(dpid, rep.build()));
                     }
                     break;
                 case GROUP:
-                    groupStats = publishGroupStats(dpid, (OFGroupStatsReply) reply);
+                    groupStats = reassemble(dpid, reply, ((OFGroupStatsReply) reply).getEntries());
                     if (groupStats != null) {
                         OFGroupStatsReply.Builder rep =
                                 OFFactories.getFactory(msg.getVersion()).buildGroupStatsReply();
-                        rep.setEntries(Lists.newLinkedList(groupStats));
+                        rep.setEntries(groupStats);
                         rep.setXid(reply.getXid());
                         executorMsgs.submit(new OFMessageHandler(dpid, rep.build()));
                     }
                     break;
                 case GROUP_DESC:
-                    groupDescStats = publishGroupDescStats(dpid,
-                            (OFGroupDescStatsReply) reply);
+                    groupDescStats = reassemble(dpid, reply, ((OFGroupDescStatsReply) reply).getEntries());
                     if (groupDescStats != null) {
                         OFGroupDescStatsReply.Builder rep =
                                 OFFactories.getFactory(msg.getVersion()).buildGroupDescStatsReply();
-                        rep.setEntries(Lists.newLinkedList(groupDescStats));
+                        rep.setEntries(groupDescStats);
                         rep.setXid(reply.getXid());
                         executorMsgs.submit(new OFMessageHandler(dpid, rep.build()));
                     }
@@ -353,12 +377,16 @@ public class OpenFlowControllerImpl implements OpenFlowController {
                             entries.add(fs);
                         }
                         fsr.setEntries(entries);
+                        fsr.setXid(reply.getXid());
+                        fsr.setFlags(reply.getFlags());
 
-                        flowStats = publishFlowStats(dpid, fsr.build());
+                        OFFlowStatsReply converted = fsr.build();
+                        flowStats = reassemble(dpid, converted, converted.getEntries());
                         if (flowStats != null) {
                             OFFlowStatsReply.Builder rep =
                                     OFFactories.getFactory(msg.getVersion()).buildFlowStatsReply();
-                            rep.setEntries(Lists.newLinkedList(flowStats));
+                            rep.setEntries(flowStats);
+                            rep.setXid(reply.getXid());
                             executorMsgs.submit(new OFMessageHandler(dpid, rep.build()));
                         }
                     } else {
@@ -400,53 +428,41 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         }
     }
 
-    private synchronized Collection<OFFlowStatsEntry> publishFlowStats(Dpid dpid,
-                                                                       OFFlowStatsReply reply) {
-        //TODO: Get rid of synchronized
-        fullFlowStats.putAll(dpid, reply.getEntries());
-        if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullFlowStats.removeAll(dpid);
+    private void handlePacketIn(OpenFlowSwitch sw, OFPacketIn msg) {
+        OpenFlowPacketContext pktCtx = DefaultOpenFlowPacketContext
+                .packetContextFromPacketIn(sw, msg);
+        for (PacketListener p : ofPacketListener.values()) {
+            p.handlePacket(pktCtx);
         }
-        return null;
     }
 
-    private synchronized Collection<OFTableStatsEntry> publishTableStats(Dpid dpid,
-                                                                       OFTableStatsReply reply) {
-        //TODO: Get rid of synchronized
-        fullTableStats.putAll(dpid, reply.getEntries());
-        if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullTableStats.removeAll(dpid);
-        }
-        return null;
-    }
-
-    private synchronized Collection<OFGroupStatsEntry> publishGroupStats(Dpid dpid,
-                                                                      OFGroupStatsReply reply) {
-        //TODO: Get rid of synchronized
-        fullGroupStats.putAll(dpid, reply.getEntries());
-        if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullGroupStats.removeAll(dpid);
-        }
-        return null;
-    }
-
-    private synchronized Collection<OFGroupDescStatsEntry> publishGroupDescStats(Dpid dpid,
-                                                                  OFGroupDescStatsReply reply) {
-        //TODO: Get rid of synchronized
-        fullGroupDescStats.putAll(dpid, reply.getEntries());
-        if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullGroupDescStats.removeAll(dpid);
+    /**
+     * Accumulates the entries of a part of a multipart stats reply. Parts of
+     * the same reply share the switch, transaction ID and stats type, and
+     * arrive in order on the channel of the switch, so only the lookup of
+     * the accumulated entries needs to be thread-safe.
+     *
+     * @param dpid    switch the reply was received from
+     * @param reply   part of a stats reply
+     * @param entries entries of the part
+     * @param <E>     type of the entries
+     * @return all entries of the reply once its last part has arrived;
+     * null while more parts are expected
+     */
+    @SuppressWarnings("unchecked")
+    private <E> List<E> reassemble(Dpid dpid, OFStatsReply reply, List<E> entries) {
+        StatsKey key = new StatsKey(dpid, reply.getXid(), reply.getStatsType());
+        if (reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
+            ((List<E>) partialStats.computeIfAbsent(key, k -> new ArrayList<>())).addAll(entries);
+            return null;
         }
-        return null;
-    }
-
-    private synchronized Collection<OFPortStatsEntry> publishPortStats(Dpid dpid,
-                                                                 OFPortStatsReply reply) {
-        fullPortStats.putAll(dpid, reply.getEntries());
-        if (!reply.getFlags().contains(OFStatsReplyFlags.REPLY_MORE)) {
-            return fullPortStats.removeAll(dpid);
+        List<E> parts = (List<E>) partialStats.remove(key);
+        if (parts == null) {
+            // Single part reply; hand its entries over as they are
+            return entries;
         }
-        return null;
+        parts.addAll(entries);
+        return parts;
     }
 
     @Override
@@ -479,6 +495,7 @@ public class OpenFlowControllerImpl implements OpenFlowController {
             } else {
                 log.info("Added switch {}", dpid);
                 connectedSwitches.put(dpid, sw);
+                packetInPipeline.addSwitch(dpid);
                 for (OpenFlowSwitchListener l : ofSwitchListener) {
                     l.switchAdded(dpid);
                 }
@@ -588,6 +605,8 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         @Override
         public void removeConnectedSwitch(Dpid dpid) {
             connectedSwitches.remove(dpid);
+            packetInPipeline.removeSwitch(dpid);
+            partialStats.keySet().removeIf(key -> key.dpid.equals(dpid));
             OpenFlowSwitch sw = activeMasterSwitches.remove(dpid);
             if (sw == null) {
                 log.debug("sw was null for {}", dpid);
@@ -630,4 +649,37 @@ public class OpenFlowControllerImpl implements OpenFlowController {
 
     }
 
+    /**
+     * Identifies the parts of a multipart stats reply.
+     */
+    protected static final class StatsKey {
+        private final Dpid dpid;
+        private final long xid;
+        private final OFStatsType type;
+
+        private StatsKey(Dpid dpid, long xid, OFStatsType type) {
+            this.dpid = dpid;
+            this.xid = xid;
+            this.type = type;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dpid, xid, type);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof StatsKey) {
+                StatsKey that = (StatsKey) obj;
+                return this.xid == that.xid && this.type == that.type &&
+                        Objects.equals(this.dpid, that.dpid);
+            }
+            return false;
+        }
+    }
+
 }
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.google.common.util.concurrent.RateLimiter;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onosproject.openflow.controller.Dpid;
+import org.onosproject.openflow.controller.OpenFlowSwitch;
+import org.projectfloodlight.openflow.protocol.OFPacketIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.onlab.util.Tools.groupedThreads;
+
+/**
+ * Pipeline handing packet-in messages over from the switch I/O threads to a
+ * pool of workers, through a bounded queue per switch.
+ * <p>
+ * The packet-ins of a switch are handled in the order in which they arrived
+ * and by at most one worker at a time. Packet-ins arriving while the queue of
+ * their switch is full, or in excess of the per-switch rate limit, are
+ * dropped, as are those of switches not added to the pipeline, which may
+ * still trickle in after a switch was removed. Until the pipeline is
+ * started, or if it is started without workers, packet-ins are handled on
+ * the calling thread.
+ * </p>
+ */
+final class PacketInPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(PacketInPipeline.class);
+
+    private static final String METRICS_COMPONENT = "OpenFlowController";
+    private static final String QUEUE_DEPTH = "packetInQueueDepth";
+    private static final String DROPS = "packetInDrops";
+
+    // Maximum number of packet-ins handled by a worker before yielding
+    private static final int BATCH_SIZE = 64;
+
+    private final BiConsumer<OpenFlowSwitch, OFPacketIn> handler;
+    private final Set<Dpid> switches = ConcurrentHashMap.newKeySet();
+    private final Map<Dpid, SwitchQueue> queues = new ConcurrentHashMap<>();
+
+    // Published before the workers, so that it is visible to any thread
+    // that sees them
+    private volatile Config config;
+    private volatile ExecutorService workers;
+
+    /**
+     * Creates a new packet-in pipeline.
+     *
+     * @param handler handler of the packet-ins received from a switch
+     */
+    PacketInPipeline(BiConsumer<OpenFlowSwitch, OFPacketIn> handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Starts handing packet-ins over to the specified number of workers.
+     *
+     * @param metricsService metrics service used to report queue depth and
+     *                       drops of each switch; may be null
+     * @param workerThreads  number of worker threads; 0 to handle packet-ins
+     *                       on the calling thread
+     * @param queueSize      maximum number of packet-ins queued per switch
+     * @param rateLimit      maximum number of packet-ins per second queued
+     *                       per switch; 0 for no limit
+     */
+    synchronized void start(MetricsService metricsService, int workerThreads,
+                            int queueSize, int rateLimit) {
+        checkArgument(workerThreads >= 0, "Number of workers cannot be negative");
+        checkArgument(queueSize > 0, "Queue size must be positive");
+        checkArgument(rateLimit >= 0, "Rate limit cannot be negative");
+        config = new Config(metricsService, queueSize, rateLimit);
+        if (workerThreads > 0) {
+            workers = Executors.newFixedThreadPool(workerThreads,
+                                                   groupedThreads("onos/of", "packet-in-%d"));
+        }
+        log.info("Started with {} workers, queue size {} and rate limit {}/s",
+                 workerThreads, queueSize, rateLimit);
+    }
+
+    /**
+     * Stops the workers, discarding all queued packet-ins. The switches
+     * added to the pipeline are kept.
+     */
+    synchronized void stop() {
+        if (workers != null) {
+            workers.shutdownNow();
+            workers = null;
+        }
+        queues.keySet().forEach(this::discardQueue);
+    }
+
+    /**
+     * Submits a packet-in received from a switch for handling.
+     *
+     * @param dpid switch dpid
+     * @param sw   switch the packet-in was received from
+     * @param msg  packet-in message
+     */
+    void submit(Dpid dpid, OpenFlowSwitch sw, OFPacketIn msg) {
+        if (workers == null) {
+            handle(sw, msg);
+            return;
+        }
+        // the check runs atomically with the creation of the queue, so a
+        // queue is never created again once the switch has been removed
+        SwitchQueue queue = queues.computeIfAbsent(dpid, d -> switches.contains(d) ? new SwitchQueue(d) : null);
+        if (queue == null) {
+            log.debug("Dropping packet-in from switch {} which is not connected", dpid);
+            return;
+        }
+        queue.offer(new PacketIn(sw, msg));
+    }
+
+    /**
+     * Adds a switch, whose packet-ins are queued from then on.
+     *
+     * @param dpid switch dpid
+     */
+    void addSwitch(Dpid dpid) {
+        switches.add(dpid);
+    }
+
+    /**
+     * Removes a switch, discarding its queue along with its metrics.
+     *
+     * @param dpid switch dpid
+     */
+    void removeSwitch(Dpid dpid) {
+        switches.remove(dpid);
+        discardQueue(dpid);
+    }
+
+    private void discardQueue(Dpid dpid) {
+        SwitchQueue queue = queues.remove(dpid);
+        if (queue != null) {
+            queue.discard();
+        }
+    }
+
+    /**
+     * Returns the number of packet-ins of a switch dropped so far.
+     *
+     * @param dpid switch dpid
+     * @return number of dropped packet-ins
+     */
+    long dropCount(Dpid dpid) {
+        SwitchQueue queue = queues.get(dpid);
+        return queue == null ? 0 : queue.drops.getCount();
+    }
+
+    private void handle(OpenFlowSwitch sw, OFPacketIn msg) {
+        try {
+            handler.accept(sw, msg);
+        } catch (Exception e) {
+            log.warn("Unable to handle packet-in from {}", sw, e);
+        }
+    }
+
+    // Settings the pipeline was started with.
+    private static final class Config {
+        private final MetricsService metricsService;
+        private final MetricsComponent metricsComponent;
+        private final int queueSize;
+        private final int rateLimit;
+
+        private Config(MetricsService metricsService, int queueSize, int rateLimit) {
+            this.metricsService = metricsService;
+            this.metricsComponent = metricsService == null ? null :
+                    metricsService.registerComponent(METRICS_COMPONENT);
+            this.queueSize = queueSize;
+            this.rateLimit = rateLimit;
+        }
+    }
+
+    // Packet-in awaiting handling.
+    private static final class PacketIn {
+        private final OpenFlowSwitch sw;
+        private final OFPacketIn msg;
+
+        private PacketIn(OpenFlowSwitch sw, OFPacketIn msg) {
+            this.sw = sw;
+            this.msg = msg;
+        }
+    }
+
+    // Bounded queue of the packet-ins of a switch, drained by one worker at
+    // a time.
+    private final class SwitchQueue implements Runnable {
+        private final Config config = PacketInPipeline.this.config;
+        private final BlockingQueue<PacketIn> packets = new ArrayBlockingQueue<>(config.queueSize);
+        private final RateLimiter rateLimiter = config.rateLimit > 0 ? RateLimiter.create(config.rateLimit) : null;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final Counter drops = new Counter();
+        private final MetricsFeature metricsFeature;
+
+        private SwitchQueue(Dpid dpid) {
+            if (config.metricsService != null) {
+                metricsFeature = config.metricsComponent.registerFeature(dpid.toString());
+                config.metricsService.registerMetric(config.metricsComponent, metricsFeature, QUEUE_DEPTH,
+                                                     (Gauge<Integer>) packets::size);
+                config.metricsService.registerMetric(config.metricsComponent, metricsFeature, DROPS, drops);
+            } else {
+                metricsFeature = null;
+            }
+        }
+
+        private void offer(PacketIn packet) {
+            if ((rateLimiter != null && !rateLimiter.tryAcquire()) || !packets.offer(packet)) {
+                drops.inc();
+                return;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            ExecutorService executor = workers;
+            if (executor != null && scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // The pipeline is being stopped
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                PacketIn packet = packets.poll();
+                if (packet == null) {
+                    break;
+                }
+                handle(packet.sw, packet.msg);
+            }
+            scheduled.set(false);
+            if (!packets.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void discard() {
+            packets.clear();
+            if (metricsFeature != null) {
+                config.metricsService.removeMetric(config.metricsComponent, metricsFeature, QUEUE_DEPTH);
+                config.metricsService.removeMetric(config.metricsComponent, metricsFeature, DROPS);
+            }
+        }
+    }
+}
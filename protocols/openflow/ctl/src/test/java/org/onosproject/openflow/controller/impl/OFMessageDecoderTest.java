@@ -16,15 +16,19 @@
 package org.onosproject.openflow.controller.impl;
 
 
-import org.jboss.netty.buffer.ChannelBuffer;
-import org.jboss.netty.buffer.ChannelBuffers;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
 import org.junit.Test;
-import org.onosproject.openflow.ChannelAdapter;
-import org.onosproject.openflow.ChannelHandlerContextAdapter;
 import org.projectfloodlight.openflow.protocol.OFHello;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 
@@ -33,19 +37,13 @@ import static org.hamcrest.Matchers.nullValue;
  */
 public class OFMessageDecoderTest {
 
-    static class ConnectedChannel extends ChannelAdapter {
-        @Override
-        public boolean isConnected() {
-            return true;
-        }
+    private byte[] getHelloMessageBytes(int xid) {
+        // OFHello, OF version 1, given xid, total of 8 bytes
+        return new byte[]{0x1, 0x0, 0x0, 0x8, 0x0, 0x0, 0x0, (byte) xid};
     }
 
-    private ChannelBuffer getHelloMessageBuffer() {
-        // OFHello, OF version 1, xid of 0, total of 8 bytes
-        byte[] messageData = {0x1, 0x0, 0x0, 0x8, 0x0, 0x0, 0x0, 0x0};
-        ChannelBuffer channelBuffer = ChannelBuffers.dynamicBuffer();
-        channelBuffer.writeBytes(messageData);
-        return channelBuffer;
+    private ByteBuf getHelloMessageBuffer() {
+        return Unpooled.wrappedBuffer(getHelloMessageBytes(0));
     }
 
     /**
@@ -56,12 +54,12 @@ public class OFMessageDecoderTest {
     @Test
     public void testDecodeNoChannel() throws Exception {
         OFMessageDecoder decoder = new OFMessageDecoder();
-        ChannelBuffer channelBuffer = getHelloMessageBuffer();
-        Object message =
-                decoder.decode(new ChannelHandlerContextAdapter(),
-                               new ChannelAdapter(),
-                               channelBuffer);
-        assertThat(message, nullValue());
+        EmbeddedChannel channel = new EmbeddedChannel(decoder);
+        channel.close();
+        List<Object> out = new ArrayList<>();
+        decoder.decode(channel.pipeline().firstContext(),
+                       getHelloMessageBuffer(), out);
+        assertThat(out, is(empty()));
     }
 
     /**
@@ -71,14 +69,37 @@ public class OFMessageDecoderTest {
      */
     @Test
     public void testDecode() throws Exception {
-        OFMessageDecoder decoder = new OFMessageDecoder();
-        ChannelBuffer channelBuffer = getHelloMessageBuffer();
-        Object message =
-                decoder.decode(new ChannelHandlerContextAdapter(),
-                               new ConnectedChannel(),
-                               channelBuffer);
+        EmbeddedChannel channel = new EmbeddedChannel(new OFMessageDecoder());
+        channel.writeInbound(getHelloMessageBuffer());
+        Object message = channel.readInbound();
         assertThat(message, notNullValue());
         assertThat(message, instanceOf(OFHello.class));
     }
 
+    /**
+     * Tests decoding messages received in fragments and several at a time.
+     *
+     * @throws Exception when an exception is thrown from the decoder
+     */
+    @Test
+    public void testDecodeFragments() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel(new OFMessageDecoder());
+        byte[] first = getHelloMessageBytes(1);
+        byte[] second = getHelloMessageBytes(2);
+        byte[] third = getHelloMessageBytes(3);
+
+        channel.writeInbound(Unpooled.wrappedBuffer(first, 0, 5));
+        assertThat(channel.readInbound(), nullValue());
+
+        channel.writeInbound(Unpooled.wrappedBuffer(Unpooled.wrappedBuffer(first, 5, 3),
+                                                    Unpooled.wrappedBuffer(second),
+                                                    Unpooled.wrappedBuffer(third, 0, 2)));
+        assertThat(((OFHello) channel.readInbound()).getXid(), is(1L));
+        assertThat(((OFHello) channel.readInbound()).getXid(), is(2L));
+        assertThat(channel.readInbound(), nullValue());
+
+        channel.writeInbound(Unpooled.wrappedBuffer(third, 2, 6));
+        assertThat(((OFHello) channel.readInbound()).getXid(), is(3L));
+    }
+
 }
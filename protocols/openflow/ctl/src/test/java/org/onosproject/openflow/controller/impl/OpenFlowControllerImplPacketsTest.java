@@ -34,14 +34,25 @@ import org.onosproject.openflow.controller.Dpid;
 import org.onosproject.openflow.controller.OpenFlowPacketContext;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.PacketListener;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFFlowStatsEntry;
+import org.projectfloodlight.openflow.protocol.OFFlowStatsReply;
 import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFStatsReplyFlags;
 import org.projectfloodlight.openflow.protocol.OFType;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.types.U64;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import static junit.framework.TestCase.fail;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 
 /**
  * Tests for packet processing in the open flow controller impl class.
@@ -164,4 +175,60 @@ public class OpenFlowControllerImplPacketsTest {
         assertThat(executorService.submittedMessages(), hasSize(1));
         assertThat(executorService.submittedMessages().get(0), is(errorPacket));
     }
+
+    /**
+     * Tests reassembly of multipart flow stats replies.
+     */
+    @Test
+    public void testFlowStatsReassembly() {
+        agent.addConnectedSwitch(dpid1, switch1);
+        OFFactory factory = OFFactories.getFactory(OFVersion.OF_13);
+        OFFlowStatsEntry entry1 = flowStatsEntry(factory, 1);
+        OFFlowStatsEntry entry2 = flowStatsEntry(factory, 2);
+        OFFlowStatsEntry entry3 = flowStatsEntry(factory, 3);
+
+        controller.processPacket(dpid1, flowStatsReply(factory, 7, true, entry1));
+        controller.processPacket(dpid1, flowStatsReply(factory, 8, false, entry3));
+        assertThat(executorService.submittedMessages(), hasSize(1));
+        controller.processPacket(dpid1, flowStatsReply(factory, 7, false, entry2));
+        assertThat(executorService.submittedMessages(), hasSize(2));
+
+        OFFlowStatsReply single = (OFFlowStatsReply) executorService.submittedMessages().get(0);
+        assertThat(single.getXid(), is(8L));
+        assertThat(single.getEntries(), is(ImmutableList.of(entry3)));
+        OFFlowStatsReply multi = (OFFlowStatsReply) executorService.submittedMessages().get(1);
+        assertThat(multi.getXid(), is(7L));
+        assertThat(multi.getEntries(), is(ImmutableList.of(entry1, entry2)));
+        assertThat(controller.partialStats.isEmpty(), is(true));
+    }
+
+    /**
+     * Tests that partial stats replies are discarded with their switch.
+     */
+    @Test
+    public void testPartialStatsDiscarded() {
+        agent.addConnectedSwitch(dpid1, switch1);
+        OFFactory factory = OFFactories.getFactory(OFVersion.OF_13);
+        controller.processPacket(dpid1, flowStatsReply(factory, 7, true, flowStatsEntry(factory, 1)));
+        assertThat(controller.partialStats.size(), is(1));
+        agent.removeConnectedSwitch(dpid1);
+        assertThat(controller.partialStats.isEmpty(), is(true));
+        assertThat(controller.getSwitch(dpid1), nullValue());
+    }
+
+    private static OFFlowStatsEntry flowStatsEntry(OFFactory factory, long cookie) {
+        return factory.buildFlowStatsEntry()
+                .setCookie(U64.of(cookie))
+                .setMatch(factory.matchWildcardAll())
+                .build();
+    }
+
+    private static OFFlowStatsReply flowStatsReply(OFFactory factory, long xid, boolean more,
+                                                   OFFlowStatsEntry... entries) {
+        return factory.buildFlowStatsReply()
+                .setXid(xid)
+                .setFlags(more ? ImmutableSet.of(OFStatsReplyFlags.REPLY_MORE) : ImmutableSet.of())
+                .setEntries(ImmutableList.copyOf(entries))
+                .build();
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import org.junit.After;
+import org.junit.Test;
+import org.onlab.junit.TestUtils;
+import org.onosproject.openflow.MockOfPacketIn;
+import org.onosproject.openflow.OpenflowSwitchDriverAdapter;
+import org.onosproject.openflow.controller.Dpid;
+import org.onosproject.openflow.controller.OpenFlowSwitch;
+import org.projectfloodlight.openflow.protocol.OFPacketIn;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the packet-in pipeline.
+ */
+public class PacketInPipelineTest {
+
+    private static final Dpid DPID1 = new Dpid(1);
+
+    private final OpenFlowSwitch sw = new OpenflowSwitchDriverAdapter();
+    private final List<OFPacketIn> handled = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch release = new CountDownLatch(1);
+    private CountDownLatch done;
+
+    private final PacketInPipeline pipeline = new PacketInPipeline((s, msg) -> {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        handled.add(msg);
+        done.countDown();
+    });
+
+    @After
+    public void tearDown() {
+        pipeline.stop();
+    }
+
+    /**
+     * Tests that packet-ins are handled inline until the pipeline is started.
+     */
+    @Test
+    public void inline() {
+        done = new CountDownLatch(1);
+        release.countDown();
+        OFPacketIn msg = new MockOfPacketIn();
+        pipeline.submit(DPID1, sw, msg);
+        assertThat(handled, contains(msg));
+    }
+
+    /**
+     * Tests that packet-ins of a switch are handled in order and that those
+     * arriving while its queue is full are dropped.
+     */
+    @Test
+    public void tailDrop() throws InterruptedException {
+        pipeline.start(null, 2, 2, 0);
+        pipeline.addSwitch(DPID1);
+        done = new CountDownLatch(3);
+        List<OFPacketIn> msgs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            msgs.add(new MockOfPacketIn());
+        }
+
+        // The first packet-in blocks the worker; two more fill the queue
+        pipeline.submit(DPID1, sw, msgs.get(0));
+        waitForDequeue();
+        msgs.subList(1, 5).forEach(msg -> pipeline.submit(DPID1, sw, msg));
+        assertThat(pipeline.dropCount(DPID1), is(2L));
+
+        release.countDown();
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertThat(handled, contains(msgs.get(0), msgs.get(1), msgs.get(2)));
+    }
+
+    /**
+     * Tests that packet-ins in excess of the rate limit are dropped.
+     */
+    @Test
+    public void rateLimit() throws InterruptedException {
+        pipeline.start(null, 1, 100, 1);
+        pipeline.addSwitch(DPID1);
+        done = new CountDownLatch(1);
+        release.countDown();
+        for (int i = 0; i < 10; i++) {
+            pipeline.submit(DPID1, sw, new MockOfPacketIn());
+        }
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertThat(handled, hasSize(1));
+        assertThat(pipeline.dropCount(DPID1), is(9L));
+    }
+
+    /**
+     * Tests that packet-ins of a switch arriving after it was removed are
+     * dropped without its queue being created again.
+     */
+    @Test
+    public void removedSwitch() throws Exception {
+        pipeline.start(null, 1, 1, 0);
+        pipeline.addSwitch(DPID1);
+        done = new CountDownLatch(1);
+        release.countDown();
+        pipeline.submit(DPID1, sw, new MockOfPacketIn());
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+
+        pipeline.removeSwitch(DPID1);
+        pipeline.submit(DPID1, sw, new MockOfPacketIn());
+        Map<Dpid, ?> queues = TestUtils.getField(pipeline, "queues");
+        assertThat(queues.isEmpty(), is(true));
+        assertThat(handled, hasSize(1));
+    }
+
+    // Waits for the worker to take the first packet-in off the queue.
+    private void waitForDequeue() throws InterruptedException {
+        Thread.sleep(100);
+    }
+}
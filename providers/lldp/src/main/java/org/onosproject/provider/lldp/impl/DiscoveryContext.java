@@ -18,6 +18,7 @@ package org.onosproject.provider.lldp.impl;
 import org.onosproject.mastership.MastershipService;
 import org.onosproject.net.LinkKey;
 import org.onosproject.net.link.LinkProviderService;
+import org.onosproject.net.link.LinkService;
 import org.onosproject.net.packet.PacketService;
 
 /**
@@ -46,6 +47,20 @@ interface DiscoveryContext {
      */
     PacketService packetService();
 
+    /**
+     * Returns the shared link service reference.
+     *
+     * @return link service
+     */
+    LinkService linkService();
+
+    /**
+     * Returns the shared probe scheduler.
+     *
+     * @return probe scheduler
+     */
+    ProbeScheduler probeScheduler();
+
     /**
      * Returns the probe rate in millis.
      *
@@ -53,6 +68,14 @@ interface DiscoveryContext {
      */
     long probeRate();
 
+    /**
+     * Returns the number of probe rounds between probes of ports with no
+     * known link.
+     *
+     * @return quiet port probe factor
+     */
+    int quietPortProbeFactor();
+
     /**
      * Indicates whether to emit BDDP.
      *
@@ -16,11 +16,9 @@
 package org.onosproject.provider.lldp.impl;
 
 import com.google.common.collect.Sets;
-import org.jboss.netty.util.Timeout;
-import org.jboss.netty.util.TimerTask;
 import org.onlab.packet.Ethernet;
+import org.onlab.packet.EthernetView;
 import org.onlab.packet.ONOSLLDP;
-import org.onlab.util.Timer;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
@@ -28,6 +26,7 @@ import org.onosproject.net.Link.Type;
 import org.onosproject.net.LinkKey;
 import org.onosproject.net.Port;
 import org.onosproject.net.PortNumber;
+import org.onosproject.net.Link;
 import org.onosproject.net.link.DefaultLinkDescription;
 import org.onosproject.net.link.LinkDescription;
 import org.onosproject.net.packet.DefaultOutboundPacket;
@@ -38,32 +37,32 @@ import org.slf4j.Logger;
 import java.nio.ByteBuffer;
 import java.util.Set;
 
-import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.onosproject.net.PortNumber.portNumber;
 import static org.onosproject.net.flow.DefaultTrafficTreatment.builder;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
- * Run discovery process from a physical switch. Ports are initially labeled as
- * slow ports. When an LLDP is successfully received, label the remote port as
- * fast. Every probeRate milliseconds, loop over all fast ports and send an
- * LLDP, send an LLDP for a single slow port. Based on FlowVisor topology
- * discovery implementation.
+ * Run discovery process from a physical switch. Ports with a known link are
+ * probed every probe round, while quiet ports, with no known link, can be
+ * configured to be probed only every few rounds. The probe frames are built
+ * once for the switch and only the port number is patched in for each port.
+ * Based on FlowVisor topology discovery implementation.
  */
-class LinkDiscovery implements TimerTask {
+class LinkDiscovery {
 
     private final Logger log = getLogger(getClass());
 
     private static final String SRC_MAC = "DE:AD:BE:EF:BA:11";
+    private static final int TLV_HEADER_LENGTH = 2;
 
     private final Device device;
     private final DiscoveryContext context;
 
-    private final ONOSLLDP lldpPacket;
-    private final Ethernet ethPacket;
-    private final Ethernet bddpEth;
+    // Serialized probe frames and the offset of the port number within them
+    private final byte[] lldpFrame;
+    private final byte[] bddpFrame;
+    private final int portOffset;
 
-    private Timeout timeout;
     private volatile boolean isStopped;
 
     // Set of ports to be probed
@@ -72,7 +71,7 @@ class LinkDiscovery implements TimerTask {
     /**
      * Instantiates discovery manager for the given physical switch. Creates a
      * generic LLDP packet that will be customized for the port it is sent out on.
-     * Starts the the timer for the discovery process.
+     * Schedules the discovery process with the probe scheduler.
      *
      * @param device  the physical switch
      * @param context discovery context
@@ -81,22 +80,33 @@ class LinkDiscovery implements TimerTask {
         this.device = device;
         this.context = context;
 
-        lldpPacket = new ONOSLLDP();
+        ONOSLLDP lldpPacket = new ONOSLLDP();
         lldpPacket.setChassisId(device.chassisId());
         lldpPacket.setDevice(device.id().toString());
 
-        ethPacket = new Ethernet();
+        Ethernet ethPacket = new Ethernet();
         ethPacket.setEtherType(Ethernet.TYPE_LLDP);
         ethPacket.setDestinationMACAddress(ONOSLLDP.LLDP_NICIRA);
-        ethPacket.setPayload(this.lldpPacket);
+        ethPacket.setPayload(lldpPacket);
         ethPacket.setPad(true);
 
-        bddpEth = new Ethernet();
+        Ethernet bddpEth = new Ethernet();
         bddpEth.setPayload(lldpPacket);
         bddpEth.setEtherType(Ethernet.TYPE_BSN);
         bddpEth.setDestinationMACAddress(ONOSLLDP.BDDP_MULTICAST);
         bddpEth.setPad(true);
 
+        lldpPacket.setPortId(0);
+        ethPacket.setSourceMACAddress(SRC_MAC);
+        bddpEth.setSourceMACAddress(SRC_MAC);
+        lldpFrame = ethPacket.serialize();
+        bddpFrame = bddpEth.serialize();
+
+        // Port ID TLV follows the chassis ID TLV; skip its header and subtype
+        portOffset = EthernetView.of(lldpFrame).payloadOffset() +
+                TLV_HEADER_LENGTH + lldpPacket.getChassisId().getLength() +
+                TLV_HEADER_LENGTH + 1;
+
         isStopped = true;
         start();
         log.debug("Started discovery manager for switch {}", device.id());
@@ -106,7 +116,7 @@ class LinkDiscovery implements TimerTask {
     synchronized void stop() {
         if (!isStopped) {
             isStopped = true;
-            timeout.cancel();
+            context.probeScheduler().remove(this);
         } else {
             log.warn("LinkDiscovery stopped multiple times?");
         }
@@ -115,14 +125,14 @@ class LinkDiscovery implements TimerTask {
     synchronized void start() {
         if (isStopped) {
             isStopped = false;
-            timeout = Timer.getTimer().newTimeout(this, 0, MILLISECONDS);
+            context.probeScheduler().add(this);
         } else {
             log.warn("LinkDiscovery started multiple times?");
         }
     }
 
     synchronized boolean isStopped() {
-        return isStopped || timeout.isCancelled();
+        return isStopped || !context.probeScheduler().contains(this);
     }
 
     /**
@@ -188,69 +198,54 @@ class LinkDiscovery implements TimerTask {
 
 
     /**
-     * Execute this method every t milliseconds. Loops over all ports
-     * labeled as fast and sends out an LLDP. Send out an LLDP on a single slow
-     * port.
+     * Sends out probes from the ports due in the given round; invoked by the
+     * probe scheduler once per probe interval. Ports with a known link are
+     * probed every round, quiet ports only every few rounds, staggered so
+     * that they are not all probed in the same round.
      *
-     * @param t timeout
+     * @param round probe round number
      */
-    @Override
-    public void run(Timeout t) {
-        if (isStopped()) {
+    void probe(long round) {
+        if (isStopped || !context.mastershipService().isLocalMaster(device.id())) {
             return;
         }
 
-        if (context.mastershipService().isLocalMaster(device.id())) {
-            log.trace("Sending probes from {}", device.id());
-            ports.forEach(this::sendProbes);
-        }
-
-        if (!isStopped()) {
-            timeout = Timer.getTimer().newTimeout(this, context.probeRate(), MILLISECONDS);
+        log.trace("Sending probes from {}", device.id());
+        int quietFactor = Math.max(1, context.quietPortProbeFactor());
+        for (Long port : ports) {
+            if ((round + port) % quietFactor == 0 || hasLink(port)) {
+                sendProbes(port);
+            }
         }
     }
 
-    /**
-     * Creates packet_out LLDP for specified output port.
-     *
-     * @param port the port
-     * @return Packet_out message with LLDP data
-     */
-    private OutboundPacket createOutBoundLldp(Long port) {
-        if (port == null) {
-            return null;
-        }
-        lldpPacket.setPortId(port.intValue());
-        ethPacket.setSourceMACAddress(SRC_MAC);
-        return new DefaultOutboundPacket(device.id(),
-                                         builder().setOutput(portNumber(port)).build(),
-                                         ByteBuffer.wrap(ethPacket.serialize()));
+    private boolean hasLink(long port) {
+        Set<Link> links = context.linkService()
+                .getEgressLinks(new ConnectPoint(device.id(), portNumber(port)));
+        return links != null && !links.isEmpty();
     }
 
     /**
-     * Creates packet_out BDDP for specified output port.
+     * Creates packet_out for specified output port from the given probe
+     * frame.
      *
-     * @param port the port
+     * @param frame probe frame
+     * @param port  the port
      * @return Packet_out message with LLDP data
      */
-    private OutboundPacket createOutBoundBddp(Long port) {
-        if (port == null) {
-            return null;
-        }
-        lldpPacket.setPortId(port.intValue());
-        bddpEth.setSourceMACAddress(SRC_MAC);
+    private OutboundPacket createOutBound(byte[] frame, long port) {
+        byte[] data = frame.clone();
+        ByteBuffer.wrap(data).putInt(portOffset, (int) port);
         return new DefaultOutboundPacket(device.id(),
                                          builder().setOutput(portNumber(port)).build(),
-                                         ByteBuffer.wrap(bddpEth.serialize()));
+                                         ByteBuffer.wrap(data));
     }
 
     private void sendProbes(Long portNumber) {
         log.trace("Sending probes out to {}@{}", portNumber, device.id());
-        OutboundPacket pkt = createOutBoundLldp(portNumber);
-        context.packetService().emit(pkt);
+        context.packetService().emit(createOutBound(lldpFrame, portNumber));
         if (context.useBddp()) {
-            OutboundPacket bpkt = createOutBoundBddp(portNumber);
-            context.packetService().emit(bpkt);
+            context.packetService().emit(createOutBound(bddpFrame, portNumber));
         }
     }
 
@@ -45,6 +45,7 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.onlab.packet.Ethernet;
+import org.onlab.packet.EthernetView;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.core.ApplicationId;
@@ -71,6 +72,7 @@ import org.onosproject.net.link.LinkProvider;
 import org.onosproject.net.link.LinkProviderRegistry;
 import org.onosproject.net.link.LinkProviderService;
 import org.onosproject.net.link.LinkService;
+import org.onosproject.net.packet.InboundPacket;
 import org.onosproject.net.packet.PacketContext;
 import org.onosproject.net.packet.PacketPriority;
 import org.onosproject.net.packet.PacketProcessor;
@@ -94,7 +96,7 @@ public class LldpLinkProvider extends AbstractProvider implements LinkProvider {
 
     private static final String FORMAT =
             "Settings: enabled={}, useBDDP={}, probeRate={}, " +
-                    "staleLinkAge={}";
+                    "staleLinkAge={}, quietPortProbeFactor={}";
 
     // When a Device/Port has this annotation, do not send out LLDP/BDDP
     public static final String NO_LLDP = "no-lldp";
@@ -158,7 +160,15 @@ public class LldpLinkProvider extends AbstractProvider implements LinkProvider {
             label = "Number of millis beyond which links will be considered stale")
     private int staleLinkAge = DEFAULT_STALE_LINK_AGE;
 
+    private static final String PROP_QUIET_PORT_PROBE_FACTOR = "quietPortProbeFactor";
+    private static final int DEFAULT_QUIET_PORT_PROBE_FACTOR = 1;
+    @Property(name = PROP_QUIET_PORT_PROBE_FACTOR, intValue = DEFAULT_QUIET_PORT_PROBE_FACTOR,
+            label = "Number of probe rounds between probes of ports with no known link; " +
+                    "1 probes them every round")
+    private int quietPortProbeFactor = DEFAULT_QUIET_PORT_PROBE_FACTOR;
+
     private final DiscoveryContext context = new InternalDiscoveryContext();
+    private final ProbeScheduler probeScheduler = new ProbeScheduler();
     private final InternalRoleListener roleListener = new InternalRoleListener();
     private final InternalDeviceListener deviceListener = new InternalDeviceListener();
     private final InternalPacketProcessor packetProcessor = new InternalPacketProcessor();
@@ -253,7 +263,7 @@ public class LldpLinkProvider extends AbstractProvider implements LinkProvider {
         Dictionary<?, ?> properties = context != null ? context.getProperties() : new Properties();
 
         boolean newEnabled, newUseBddp;
-        int newProbeRate, newStaleLinkAge;
+        int newProbeRate, newStaleLinkAge, newQuietPortProbeFactor;
         try {
             String s = get(properties, PROP_ENABLED);
             newEnabled = isNullOrEmpty(s) || Boolean.parseBoolean(s.trim());
@@ -267,20 +277,26 @@ public class LldpLinkProvider extends AbstractProvider implements LinkProvider {
             s = get(properties, PROP_STALE_LINK_AGE);
             newStaleLinkAge = isNullOrEmpty(s) ? staleLinkAge : Integer.parseInt(s.trim());
 
+            s = get(properties, PROP_QUIET_PORT_PROBE_FACTOR);
+            newQuietPortProbeFactor = isNullOrEmpty(s) ? quietPortProbeFactor : Integer.parseInt(s.trim());
+
         } catch (NumberFormatException e) {
             log.warn("Component configuration had invalid values", e);
             newEnabled = enabled;
             newUseBddp = useBddp;
             newProbeRate = probeRate;
             newStaleLinkAge = staleLinkAge;
+            newQuietPortProbeFactor = quietPortProbeFactor;
         }
 
         boolean wasEnabled = enabled;
+        boolean probeRateChanged = probeRate != newProbeRate;
 
         enabled = newEnabled;
         useBddp = newUseBddp;
         probeRate = newProbeRate;
         staleLinkAge = newStaleLinkAge;
+        quietPortProbeFactor = newQuietPortProbeFactor;
 
         if (!wasEnabled && enabled) {
             enable();
@@ -288,12 +304,15 @@ public class LldpLinkProvider extends AbstractProvider implements LinkProvider {
             disable();
         } else {
             if (enabled) {
+                if (probeRateChanged) {
+                    probeScheduler.start(probeRate);
+                }
                 // update all discovery helper state
                 loadDevices();
             }
         }
 
-        log.info(FORMAT, enabled, useBddp, probeRate, staleLinkAge);
+        log.info(FORMAT, enabled, useBddp, probeRate, staleLinkAge, quietPortProbeFactor);
     }
 
     /**
@@ -305,6 +324,7 @@ public class LldpLinkProvider extends AbstractProvider implements LinkProvider {
         deviceService.addListener(deviceListener);
         packetService.addProcessor(packetProcessor, PacketProcessor.advisor(0));
 
+        probeScheduler.start(probeRate);
         loadDevices();
 
         executor = newSingleThreadScheduledExecutor(groupedThreads("onos/link", "discovery-%d"));
@@ -331,6 +351,7 @@ public class LldpLinkProvider extends AbstractProvider implements LinkProvider {
         if (executor != null) {
             executor.shutdownNow();
         }
+        probeScheduler.stop();
         discoverers.values().forEach(LinkDiscovery::stop);
         discoverers.clear();
 
@@ -595,7 +616,18 @@ public class LldpLinkProvider extends AbstractProvider implements LinkProvider {
                 return;
             }
 
-            Ethernet eth = context.inPacket().parsed();
+            // Screen out other traffic by peeking at the ethertype, which
+            // avoids parsing every packet-in just to discard it.
+            InboundPacket pkt = context.inPacket();
+            if (pkt.unparsed() != null) {
+                EthernetView headers = pkt.headers();
+                if (!headers.isValid() ||
+                        (headers.etherType() != TYPE_LLDP && headers.etherType() != TYPE_BSN)) {
+                    return;
+                }
+            }
+
+            Ethernet eth = pkt.parsed();
             if (eth == null || (eth.getEtherType() != TYPE_LLDP && eth.getEtherType() != TYPE_BSN)) {
                 return;
             }
@@ -689,11 +721,26 @@ public class LldpLinkProvider extends AbstractProvider implements LinkProvider {
             return packetService;
         }
 
+        @Override
+        public LinkService linkService() {
+            return linkService;
+        }
+
+        @Override
+        public ProbeScheduler probeScheduler() {
+            return probeScheduler;
+        }
+
         @Override
         public long probeRate() {
             return probeRate;
         }
 
+        @Override
+        public int quietPortProbeFactor() {
+            return quietPortProbeFactor;
+        }
+
         @Override
         public boolean useBddp() {
             return useBddp;
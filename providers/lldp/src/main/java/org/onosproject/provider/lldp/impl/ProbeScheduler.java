@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.provider.lldp.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.slf4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.onlab.util.Tools.groupedThreads;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Timing wheel driving the probes of all device link discovery helpers.
+ * <p>
+ * The probe interval is divided into a fixed number of slots and the wheel
+ * advances by one slot per tick, so that it completes one revolution, or
+ * round, per probe interval. Each discovery helper is placed in the slot
+ * holding the fewest helpers and probes all of its device's ports when its
+ * slot comes up, which spreads the probes of a large network evenly across
+ * the interval rather than bursting them. Helpers are told the round number
+ * so they can probe some ports only every few rounds.
+ * </p>
+ */
+final class ProbeScheduler {
+
+    /**
+     * Number of slots in the wheel.
+     */
+    static final int SLOTS = 32;
+
+    private final Logger log = getLogger(getClass());
+
+    private final List<Set<LinkDiscovery>> wheel = Lists.newArrayListWithCapacity(SLOTS);
+    private final Map<LinkDiscovery, Integer> slots = Maps.newHashMap();
+
+    private ScheduledExecutorService executor;
+    private int cursor = 0;
+    private long round = 0;
+
+    ProbeScheduler() {
+        for (int i = 0; i < SLOTS; i++) {
+            wheel.add(Sets.newLinkedHashSet());
+        }
+    }
+
+    /**
+     * Starts turning the wheel, or restarts it with a new probe interval.
+     *
+     * @param probeRate probe interval in millis
+     */
+    synchronized void start(long probeRate) {
+        stop();
+        long tick = Math.max(1, probeRate * 1000 / SLOTS);
+        executor = newSingleThreadScheduledExecutor(groupedThreads("onos/link", "probe-%d"));
+        executor.scheduleAtFixedRate(this::tick, tick, tick, MICROSECONDS);
+    }
+
+    /**
+     * Stops turning the wheel.
+     */
+    synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Adds a discovery helper to the least occupied slot of the wheel.
+     *
+     * @param discovery discovery helper
+     */
+    synchronized void add(LinkDiscovery discovery) {
+        if (slots.containsKey(discovery)) {
+            return;
+        }
+        int slot = 0;
+        for (int i = 1; i < SLOTS; i++) {
+            if (wheel.get(i).size() < wheel.get(slot).size()) {
+                slot = i;
+            }
+        }
+        wheel.get(slot).add(discovery);
+        slots.put(discovery, slot);
+    }
+
+    /**
+     * Removes a discovery helper from the wheel.
+     *
+     * @param discovery discovery helper
+     */
+    synchronized void remove(LinkDiscovery discovery) {
+        Integer slot = slots.remove(discovery);
+        if (slot != null) {
+            wheel.get(slot).remove(discovery);
+        }
+    }
+
+    /**
+     * Returns whether a discovery helper is on the wheel.
+     *
+     * @param discovery discovery helper
+     * @return true if the helper is scheduled
+     */
+    synchronized boolean contains(LinkDiscovery discovery) {
+        return slots.containsKey(discovery);
+    }
+
+    // Advances the wheel by one slot and probes from the helpers in it.
+    private void tick() {
+        List<LinkDiscovery> due;
+        long currentRound;
+        synchronized (this) {
+            due = ImmutableList.copyOf(wheel.get(cursor));
+            currentRound = round;
+            if (++cursor == SLOTS) {
+                cursor = 0;
+                round++;
+            }
+        }
+        for (LinkDiscovery discovery : due) {
+            try {
+                discovery.probe(currentRound);
+            } catch (Exception e) {
+                // Catch all exceptions to avoid the wheel being suppressed
+                log.warn("Unable to send probes", e);
+            }
+        }
+    }
+}
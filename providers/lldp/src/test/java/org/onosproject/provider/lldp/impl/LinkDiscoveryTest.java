@@ -0,0 +1,194 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.provider.lldp.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.ONOSLLDP;
+import org.onosproject.mastership.MastershipService;
+import org.onosproject.mastership.MastershipServiceAdapter;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DefaultPort;
+import org.onosproject.net.Device;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+import org.onosproject.net.LinkKey;
+import org.onosproject.net.MastershipRole;
+import org.onosproject.net.flow.instructions.Instructions;
+import org.onosproject.net.link.LinkProviderService;
+import org.onosproject.net.link.LinkService;
+import org.onosproject.net.link.LinkServiceAdapter;
+import org.onosproject.net.packet.OutboundPacket;
+import org.onosproject.net.packet.PacketService;
+import org.onosproject.net.packet.PacketServiceAdapter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.NetTestTools.device;
+import static org.onosproject.net.NetTestTools.link;
+import static org.onosproject.net.PortNumber.portNumber;
+
+/**
+ * Tests of the probes sent by the device link discovery helper.
+ */
+public class LinkDiscoveryTest {
+
+    private static final int QUIET_FACTOR = 3;
+
+    private final Device device = device("d1");
+    private final List<OutboundPacket> emitted = new ArrayList<>();
+    private final ProbeScheduler scheduler = new ProbeScheduler();
+    private LinkDiscovery discovery;
+    private int quietFactor = QUIET_FACTOR;
+
+    @Before
+    public void setUp() {
+        discovery = new LinkDiscovery(device, new TestDiscoveryContext());
+        for (int i = 1; i <= 3; i++) {
+            discovery.addPort(new DefaultPort(device, portNumber(i), true));
+        }
+        emitted.clear();
+    }
+
+    private List<Integer> probedPorts() throws Exception {
+        List<Integer> ports = new ArrayList<>();
+        for (OutboundPacket packet : emitted) {
+            Ethernet eth = Ethernet.deserializer().deserialize(packet.data().array(), 0,
+                                                               packet.data().limit());
+            ONOSLLDP lldp = ONOSLLDP.parseONOSLLDP(eth);
+            assertEquals("incorrect device", device.id().toString(), lldp.getDeviceString());
+            assertEquals("incorrect output port",
+                         ImmutableList.of(Instructions.createOutput(portNumber(lldp.getPort()))),
+                         packet.treatment().allInstructions());
+            ports.add(lldp.getPort());
+        }
+        return ports;
+    }
+
+    /**
+     * Tests that the patched probe frames carry the right device and port.
+     */
+    @Test
+    public void probeFrames() throws Exception {
+        quietFactor = 1;
+        discovery.probe(0);
+        assertEquals("incorrect probe count", 3, emitted.size());
+        assertEquals("incorrect ports", ImmutableSet.of(1, 2, 3), ImmutableSet.copyOf(probedPorts()));
+    }
+
+    /**
+     * Tests that quiet ports are probed only every few rounds while ports
+     * with a known link are probed every round.
+     */
+    @Test
+    public void quietPorts() throws Exception {
+        List<Integer> probed = new ArrayList<>();
+        for (int round = 1; round <= QUIET_FACTOR; round++) {
+            emitted.clear();
+            discovery.probe(round);
+            probed.addAll(probedPorts());
+        }
+        assertEquals("port with link not probed every round",
+                     QUIET_FACTOR, Collections.frequency(probed, 2));
+        assertEquals("quiet port probed too often", 1, Collections.frequency(probed, 1));
+        assertEquals("quiet port probed too often", 1, Collections.frequency(probed, 3));
+    }
+
+    /**
+     * Tests that stopping and starting the helper takes it off and puts it
+     * back on the probe scheduler.
+     */
+    @Test
+    public void scheduling() {
+        assertTrue("helper not scheduled", scheduler.contains(discovery));
+        discovery.stop();
+        assertFalse("helper still scheduled", scheduler.contains(discovery));
+        assertTrue("helper not stopped", discovery.isStopped());
+        discovery.start();
+        assertTrue("helper not scheduled", scheduler.contains(discovery));
+    }
+
+    private class TestDiscoveryContext implements DiscoveryContext {
+        @Override
+        public MastershipService mastershipService() {
+            return new MastershipServiceAdapter() {
+                @Override
+                public MastershipRole getLocalRole(DeviceId deviceId) {
+                    return MastershipRole.MASTER;
+                }
+            };
+        }
+
+        @Override
+        public LinkProviderService providerService() {
+            return null;
+        }
+
+        @Override
+        public PacketService packetService() {
+            return new PacketServiceAdapter() {
+                @Override
+                public void emit(OutboundPacket packet) {
+                    emitted.add(packet);
+                }
+            };
+        }
+
+        @Override
+        public LinkService linkService() {
+            return new LinkServiceAdapter() {
+                @Override
+                public Set<Link> getEgressLinks(ConnectPoint connectPoint) {
+                    return connectPoint.port().toLong() == 2 ?
+                            ImmutableSet.of(link("d1", 2, "d2", 1)) : ImmutableSet.of();
+                }
+            };
+        }
+
+        @Override
+        public ProbeScheduler probeScheduler() {
+            return scheduler;
+        }
+
+        @Override
+        public long probeRate() {
+            return 3000;
+        }
+
+        @Override
+        public int quietPortProbeFactor() {
+            return quietFactor;
+        }
+
+        @Override
+        public boolean useBddp() {
+            return false;
+        }
+
+        @Override
+        public void touchLink(LinkKey key) {
+        }
+    }
+}
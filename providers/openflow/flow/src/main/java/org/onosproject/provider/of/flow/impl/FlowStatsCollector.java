@@ -72,6 +72,12 @@ class FlowStatsCollector {
         @Override
         public void run() {
             if (sw.getRole() == RoleState.MASTER) {
+                if (!sw.isWritable()) {
+                    // Leave the channel to the pending flow mods; the
+                    // next poll will pick the statistics up
+                    log.debug("Skipping stats poll for backlogged {}", sw.getStringId());
+                    return;
+                }
                 log.trace("Collecting stats for {}", sw.getStringId());
                 OFFlowStatsRequest request = sw.factory().buildFlowStatsRequest()
                         .setMatch(sw.factory().matchWildcardAll())
@@ -211,6 +211,10 @@ public class NewAdaptiveFlowStatsCollector {
 
     // send openflow flow stats request message with getting all flow entries to a given switch sw
     private void ofFlowStatsRequestAllSend() {
+        if (!sw.isWritable()) {
+            log.debug("Skipping flow stats poll for backlogged {}", sw.getStringId());
+            return;
+        }
         OFFlowStatsRequest request = sw.factory().buildFlowStatsRequest()
                 .setMatch(sw.factory().matchWildcardAll())
                 .setTableId(TableId.ALL)
@@ -403,54 +407,52 @@ public class NewAdaptiveFlowStatsCollector {
      *
      */
     public synchronized void addOrUpdateFlows(FlowEntry... flowEntries) {
-       for (FlowEntry fe : flowEntries) {
-           // check if this new rule is an update to an existing entry
-           TypedStoredFlowEntry stored = deviceFlowTable.getFlowEntry(fe);
-
-           if (stored != null) {
-               // duplicated flow entry is collected!, just skip
-               if (fe.bytes() == stored.bytes() && fe.packets() == stored.packets()
-                       && fe.life() == stored.life()) {
-                   log.debug("addOrUpdateFlows:, FlowId=" + Long.toHexString(fe.id().value())
-                                   + ",is DUPLICATED stats collection, just skip."
-                                   + " AdaptiveStats collection thread for {}",
-                           sw.getStringId());
-
-                   stored.setLastSeen();
-                   continue;
-               } else if (fe.life() < stored.life()) {
-                   // Invalid updates the stats values, i.e., bytes, packets, durations ...
-                   log.debug("addOrUpdateFlows():" +
-                               " Invalid Flow Update! The new life is SMALLER than the previous one, jus skip." +
-                               " new flowId=" + Long.toHexString(fe.id().value()) +
-                               ", old flowId=" + Long.toHexString(stored.id().value()) +
-                               ", new bytes=" + fe.bytes() + ", old bytes=" + stored.bytes() +
-                               ", new life=" + fe.life() + ", old life=" + stored.life() +
-                               ", new lastSeen=" + fe.lastSeen() + ", old lastSeen=" + stored.lastSeen());
-                   // go next
-                   stored.setLastSeen();
-                   continue;
-               }
-
-               // update now
-               stored.setLife(fe.life());
-               stored.setPackets(fe.packets());
-               stored.setBytes(fe.bytes());
-               stored.setLastSeen();
-               if (stored.state() == FlowEntry.FlowEntryState.PENDING_ADD) {
-                   // flow is really RULE_ADDED
-                   stored.setState(FlowEntry.FlowEntryState.ADDED);
-               }
-               // flow is RULE_UPDATED, skip adding and just updating flow live table
-               //deviceFlowTable.calAndSetFlowLiveType(stored);
-               continue;
-           }
-
-           // add new flow entry, we suppose IMMEDIATE_FLOW
-           TypedStoredFlowEntry newFlowEntry = new DefaultTypedFlowEntry(fe,
-                    FlowLiveType.IMMEDIATE_FLOW);
-           deviceFlowTable.addWithCalAndSetFlowLiveType(newFlowEntry);
+        for (FlowEntry fe : flowEntries) {
+            addOrUpdateFlow(fe);
+        }
+    }
+
+    private void addOrUpdateFlow(FlowEntry fe) {
+        // check if this new rule is an update to an existing entry
+        TypedStoredFlowEntry stored = deviceFlowTable.getFlowEntry(fe);
+
+        if (stored != null) {
+            // duplicated flow entry is collected!, just skip
+            if (fe.bytes() == stored.bytes() && fe.packets() == stored.packets()
+                    && fe.life() == stored.life()) {
+                log.trace("addOrUpdateFlows:, FlowId={}, is DUPLICATED stats collection, just skip."
+                                  + " AdaptiveStats collection thread for {}",
+                          fe.id(), sw.getStringId());
+
+                stored.setLastSeen();
+                return;
+            } else if (fe.life() < stored.life()) {
+                // Invalid updates the stats values, i.e., bytes, packets, durations ...
+                log.debug("addOrUpdateFlows(): Invalid Flow Update! The new life is SMALLER than"
+                                  + " the previous one, just skip. new={}, old={}", fe, stored);
+                // go next
+                stored.setLastSeen();
+                return;
+            }
+
+            // update now
+            stored.setLife(fe.life());
+            stored.setPackets(fe.packets());
+            stored.setBytes(fe.bytes());
+            stored.setLastSeen();
+            if (stored.state() == FlowEntry.FlowEntryState.PENDING_ADD) {
+                // flow is really RULE_ADDED
+                stored.setState(FlowEntry.FlowEntryState.ADDED);
+            }
+            // flow is RULE_UPDATED, skip adding and just updating flow live table
+            //deviceFlowTable.calAndSetFlowLiveType(stored);
+            return;
         }
+
+        // add new flow entry, we suppose IMMEDIATE_FLOW
+        TypedStoredFlowEntry newFlowEntry = new DefaultTypedFlowEntry(fe,
+                FlowLiveType.IMMEDIATE_FLOW);
+        deviceFlowTable.addWithCalAndSetFlowLiveType(newFlowEntry);
     }
 
     /**
@@ -483,10 +485,11 @@ public class NewAdaptiveFlowStatsCollector {
      * @param flowEntries the flow entry list
      *
      */
-    public void pushFlowMetrics(List<FlowEntry> flowEntries) {
-        flowEntries.forEach(fe -> {
-            addOrUpdateFlows(fe);
-        });
+    public synchronized void pushFlowMetrics(List<FlowEntry> flowEntries) {
+        // the whole reply is applied under a single acquisition of the lock
+        for (FlowEntry fe : flowEntries) {
+            addOrUpdateFlow(fe);
+        }
     }
 
     /**
@@ -540,13 +543,19 @@ public class NewAdaptiveFlowStatsCollector {
             return flowEntries.computeIfAbsent(flowId, id -> Sets.newCopyOnWriteArraySet());
         }
 
-        // get flow entry for the given flow rule
+        // get flow entry for the given flow rule; looking up an unknown
+        // flow does not allocate an entry set for it
         private TypedStoredFlowEntry getFlowEntryInternal(FlowRule rule) {
-            Set<TypedStoredFlowEntry> flowEntries = getFlowEntriesInternal(rule.id());
-            return flowEntries.stream()
-                    .filter(entry -> Objects.equal(entry, rule))
-                    .findAny()
-                    .orElse(null);
+            Set<TypedStoredFlowEntry> flowEntries = this.flowEntries.get(rule.id());
+            if (flowEntries == null) {
+                return null;
+            }
+            for (TypedStoredFlowEntry entry : flowEntries) {
+                if (Objects.equal(entry, rule)) {
+                    return entry;
+                }
+            }
+            return null;
         }
 
         // get the flow entries for all flows in flow table
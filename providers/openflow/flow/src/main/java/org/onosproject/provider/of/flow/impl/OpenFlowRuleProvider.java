@@ -19,6 +19,7 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalCause;
 import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.apache.felix.scr.annotations.Activate;
@@ -327,13 +328,15 @@ public class OpenFlowRuleProvider extends AbstractProvider
         Dpid dpid = Dpid.dpid(batch.deviceId().uri());
         OpenFlowSwitch sw = controller.getSwitch(dpid);
         OFFlowMod mod;
+        // Hand the whole batch, barrier included, to the switch at once so
+        // that it is written out in as few buffers as possible
+        List<OFMessage> msgs = Lists.newArrayListWithCapacity(batch.size() + 1);
         for (FlowRuleBatchEntry fbe : batch.getOperations()) {
             // flow is the third party privacy flow
 
             FlowRuleExtPayLoad flowRuleExtPayLoad = fbe.target().payLoad();
             if (hasPayload(flowRuleExtPayLoad)) {
-                OFMessage msg = new ThirdPartyMessage(flowRuleExtPayLoad.payLoad());
-                sw.sendMsg(msg);
+                msgs.add(new ThirdPartyMessage(flowRuleExtPayLoad.payLoad()));
                 continue;
             }
             FlowModBuilder builder =
@@ -368,11 +371,12 @@ public class OpenFlowRuleProvider extends AbstractProvider
                             fbe.operator(), fbe);
                     continue;
             }
-            sw.sendMsg(mod);
+            msgs.add(mod);
         }
         OFBarrierRequest.Builder builder = sw.factory().buildBarrierRequest()
                 .setXid(batch.id());
-        sw.sendMsg(builder.build());
+        msgs.add(builder.build());
+        sw.sendMsg(msgs);
     }
 
     private boolean hasPayload(FlowRuleExtPayLoad flowRuleExtPayLoad) {
@@ -70,6 +70,12 @@ class TableStatisticsCollector {
         @Override
         public void run() {
             if (sw.getRole() == RoleState.MASTER) {
+                if (!sw.isWritable()) {
+                    // Leave the channel to the pending flow mods; the
+                    // next poll will pick the statistics up
+                    log.debug("Skipping table stats poll for backlogged {}", sw.getStringId());
+                    return;
+                }
                 log.trace("Collecting stats for {}", sw.getStringId());
                 OFTableStatsRequest request = sw.factory().buildTableStatsRequest()
                         .build();
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Immutable graph implemented using the compressed sparse row layout.
+ * <p>
+ * Vertexes are assigned dense integer indexes and the egress and ingress
+ * edges of each vertex occupy a contiguous range of a shared edge array,
+ * delimited by an offsets array. Besides the {@link Graph} contract, the
+ * graph exposes this layout so that searches can work on primitive arrays
+ * indexed by vertex and edge rather than on maps keyed by vertex.
+ * </p>
+ *
+ * @param <V> vertex type
+ * @param <E> edge type
+ */
+public class CompressedSparseRowGraph<V extends Vertex, E extends Edge<V>>
+        implements Graph<V, E> {
+
+    private final Set<V> vertexes;
+    private final Set<E> edges;
+
+    private final Object[] vertexArray;
+    private final Map<V, Integer> indexes;
+
+    // Egress edges of vertex i are at [srcOffsets[i], srcOffsets[i + 1])
+    private final int[] srcOffsets;
+    private final Object[] srcEdges;
+    private final int[] srcTargets;
+
+    // Ingress edges of vertex i are at [dstOffsets[i], dstOffsets[i + 1])
+    private final int[] dstOffsets;
+    private final Object[] dstEdges;
+
+    /**
+     * Creates a graph comprising of the specified vertexes and edges.
+     *
+     * @param vertexes set of graph vertexes
+     * @param edges    set of graph edges
+     */
+    public CompressedSparseRowGraph(Set<V> vertexes, Set<E> edges) {
+        checkNotNull(vertexes, "Vertex set cannot be null");
+        checkNotNull(edges, "Edge set cannot be null");
+
+        // Make sure that all edge end-points are added as vertexes
+        ImmutableSet.Builder<V> actualVertexes = ImmutableSet.builder();
+        actualVertexes.addAll(vertexes);
+        for (E edge : edges) {
+            actualVertexes.add(edge.src());
+            actualVertexes.add(edge.dst());
+        }
+        this.vertexes = actualVertexes.build();
+        this.edges = ImmutableSet.copyOf(edges);
+
+        // Assign indexes to the vertexes
+        int vertexCount = this.vertexes.size();
+        this.vertexArray = this.vertexes.toArray();
+        this.indexes = new HashMap<>(vertexCount * 2);
+        for (int i = 0; i < vertexCount; i++) {
+            @SuppressWarnings("unchecked")
+            V vertex = (V) vertexArray[i];
+            indexes.put(vertex, i);
+        }
+
+        // Count the egress and ingress edges of each vertex, turn the counts
+        // into offsets and then place each edge into its slot.
+        int edgeCount = this.edges.size();
+        this.srcOffsets = new int[vertexCount + 1];
+        this.dstOffsets = new int[vertexCount + 1];
+        for (E edge : this.edges) {
+            srcOffsets[indexes.get(edge.src()) + 1]++;
+            dstOffsets[indexes.get(edge.dst()) + 1]++;
+        }
+        for (int i = 0; i < vertexCount; i++) {
+            srcOffsets[i + 1] += srcOffsets[i];
+            dstOffsets[i + 1] += dstOffsets[i];
+        }
+
+        this.srcEdges = new Object[edgeCount];
+        this.srcTargets = new int[edgeCount];
+        this.dstEdges = new Object[edgeCount];
+        int[] srcFill = new int[vertexCount];
+        int[] dstFill = new int[vertexCount];
+        for (E edge : this.edges) {
+            int src = indexes.get(edge.src());
+            int dst = indexes.get(edge.dst());
+            int srcSlot = srcOffsets[src] + srcFill[src]++;
+            srcEdges[srcSlot] = edge;
+            srcTargets[srcSlot] = dst;
+            dstEdges[dstOffsets[dst] + dstFill[dst]++] = edge;
+        }
+    }
+
+    /**
+     * Returns a compressed sparse row copy of the specified graph, or the
+     * graph itself if it already uses this layout.
+     *
+     * @param graph graph to copy
+     * @param <V>   vertex type
+     * @param <E>   edge type
+     * @return compressed sparse row graph
+     */
+    public static <V extends Vertex, E extends Edge<V>>
+            CompressedSparseRowGraph<V, E> copyOf(Graph<V, E> graph) {
+        if (graph instanceof CompressedSparseRowGraph) {
+            return (CompressedSparseRowGraph<V, E>) graph;
+        }
+        return new CompressedSparseRowGraph<>(graph.getVertexes(), graph.getEdges());
+    }
+
+    @Override
+    public Set<V> getVertexes() {
+        return vertexes;
+    }
+
+    @Override
+    public Set<E> getEdges() {
+        return edges;
+    }
+
+    @Override
+    public Set<E> getEdgesFrom(V src) {
+        Integer index = indexes.get(src);
+        return index == null ? ImmutableSet.of() :
+                new EdgeRange<>(srcEdges, srcOffsets[index], srcOffsets[index + 1]);
+    }
+
+    @Override
+    public Set<E> getEdgesTo(V dst) {
+        Integer index = indexes.get(dst);
+        return index == null ? ImmutableSet.of() :
+                new EdgeRange<>(dstEdges, dstOffsets[index], dstOffsets[index + 1]);
+    }
+
+    /**
+     * Returns the number of vertexes in the graph.
+     *
+     * @return vertex count
+     */
+    public int vertexCount() {
+        return vertexArray.length;
+    }
+
+    /**
+     * Returns the number of edges in the graph.
+     *
+     * @return edge count
+     */
+    public int edgeCount() {
+        return srcEdges.length;
+    }
+
+    /**
+     * Returns the index of the specified vertex.
+     *
+     * @param vertex graph vertex
+     * @return vertex index; -1 if the vertex is not in the graph
+     */
+    public int indexOf(V vertex) {
+        Integer index = indexes.get(vertex);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the vertex with the specified index.
+     *
+     * @param index vertex index
+     * @return graph vertex
+     */
+    @SuppressWarnings("unchecked")
+    public V vertex(int index) {
+        return (V) vertexArray[index];
+    }
+
+    /**
+     * Returns the index of the first egress edge of the specified vertex.
+     * The egress edges of a vertex are numbered consecutively up to, but
+     * excluding, the first egress edge of the next vertex.
+     *
+     * @param index vertex index
+     * @return index of the first egress edge
+     */
+    public int firstEdgeFrom(int index) {
+        return srcOffsets[index];
+    }
+
+    /**
+     * Returns the index following the last egress edge of the specified
+     * vertex.
+     *
+     * @param index vertex index
+     * @return index past the last egress edge
+     */
+    public int endEdgeFrom(int index) {
+        return srcOffsets[index + 1];
+    }
+
+    /**
+     * Returns the egress edge with the specified index.
+     *
+     * @param edgeIndex egress edge index
+     * @return graph edge
+     */
+    @SuppressWarnings("unchecked")
+    public E edge(int edgeIndex) {
+        return (E) srcEdges[edgeIndex];
+    }
+
+    /**
+     * Returns the index of the destination vertex of the egress edge with
+     * the specified index.
+     *
+     * @param edgeIndex egress edge index
+     * @return destination vertex index
+     */
+    public int edgeTarget(int edgeIndex) {
+        return srcTargets[edgeIndex];
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof CompressedSparseRowGraph) {
+            CompressedSparseRowGraph that = (CompressedSparseRowGraph) obj;
+            return this.getClass() == that.getClass() &&
+                    Objects.equals(this.vertexes, that.vertexes) &&
+                    Objects.equals(this.edges, that.edges);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(vertexes, edges);
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("vertexes", vertexes)
+                .add("edges", edges)
+                .toString();
+    }
+
+    // Read-only set view over a range of an edge array.
+    private static final class EdgeRange<E> extends AbstractSet<E> {
+        private final Object[] edges;
+        private final int start;
+        private final int end;
+
+        private EdgeRange(Object[] edges, int start, int end) {
+            this.edges = edges;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<E>() {
+                private int next = start;
+
+                @Override
+                public boolean hasNext() {
+                    return next < end;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public E next() {
+                    if (next >= end) {
+                        throw new NoSuchElementException();
+                    }
+                    return (E) edges[next++];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra shortest-path graph search algorithm capable of finding not just
+ * one, but all shortest paths between the source and destinations, working
+ * on a {@link CompressedSparseRowGraph}.
+ * <p>
+ * Costs, parent edges and the min priority queue are kept in primitive
+ * arrays indexed by vertex and edge, so that relaxing an edge allocates
+ * nothing. Graphs using another layout are copied into the compressed sparse
+ * row layout first; callers searching the same graph repeatedly should do
+ * that copy once up front. The results are the same as those produced by
+ * {@link DijkstraGraphSearch}.
+ * </p>
+ */
+public class IndexedDijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
+        extends AbstractGraphPathSearch<V, E> {
+
+    private static final int NONE = -1;
+
+    @Override
+    public Result<V, E> search(Graph<V, E> graph, V src, V dst,
+                               EdgeWeight<V, E> weight, int maxPaths) {
+        checkArguments(graph, src, dst);
+        CompressedSparseRowGraph<V, E> csr = CompressedSparseRowGraph.copyOf(graph);
+
+        int vertexCount = csr.vertexCount();
+        int srcIndex = csr.indexOf(src);
+        int dstIndex = dst == null ? NONE : csr.indexOf(dst);
+
+        // Cost to reach each vertex; parent edges of each vertex are chained
+        // through the parent edge indexes.
+        double[] costs = new double[vertexCount];
+        Arrays.fill(costs, Double.MAX_VALUE);
+        int[] parentHeads = new int[vertexCount];
+        Arrays.fill(parentHeads, NONE);
+        int[] parentCounts = new int[vertexCount];
+        int[] nextParents = new int[csr.edgeCount()];
+
+        // Binary min heap of vertex indexes ordered by cost, along with the
+        // position of each vertex in the heap; NONE if not queued.
+        int[] heap = new int[vertexCount];
+        int[] positions = new int[vertexCount];
+        Arrays.fill(positions, NONE);
+        int heapSize = 0;
+
+        // Cost to reach the source vertex is 0 of course.
+        costs[srcIndex] = 0.0;
+        heap[heapSize] = srcIndex;
+        positions[srcIndex] = heapSize++;
+
+        double threshold = samenessThreshold();
+        while (heapSize > 0) {
+            // Get the nearest vertex
+            int nearest = heap[0];
+            positions[nearest] = NONE;
+            if (--heapSize > 0) {
+                heap[0] = heap[heapSize];
+                positions[heap[0]] = 0;
+                siftDown(heap, positions, costs, heapSize, 0);
+            }
+            if (nearest == dstIndex) {
+                break;
+            }
+
+            // Relax all its egress edges.
+            double cost = costs[nearest];
+            for (int e = csr.firstEdgeFrom(nearest), end = csr.endEdgeFrom(nearest); e < end; e++) {
+                double hopCost = weight == null ? 1.0 : weight.weight(csr.edge(e));
+                if (hopCost < 0) {
+                    continue;
+                }
+
+                int v = csr.edgeTarget(e);
+                double oldCost = costs[v];
+                double newCost = cost + hopCost;
+                boolean relaxed = newCost < oldCost;
+                boolean same = Math.abs(newCost - oldCost) <= threshold;
+                if (!same && !relaxed) {
+                    continue;
+                }
+
+                if (!same) {
+                    // A cheaper way to the vertex supersedes the parents
+                    // accrued so far.
+                    parentHeads[v] = NONE;
+                    parentCounts[v] = 0;
+                }
+                costs[v] = newCost;
+                if (maxPaths == ALL_PATHS || parentCounts[v] < maxPaths) {
+                    nextParents[e] = parentHeads[v];
+                    parentHeads[v] = e;
+                    parentCounts[v]++;
+                }
+
+                if (relaxed) {
+                    if (positions[v] == NONE) {
+                        heap[heapSize] = v;
+                        positions[v] = heapSize++;
+                    }
+                    siftUp(heap, positions, costs, positions[v]);
+                }
+            }
+        }
+
+        // Now construct the result and a set of paths from it.
+        DefaultResult result = new DefaultResult(src, dst, maxPaths);
+        for (int v = 0; v < vertexCount; v++) {
+            if (costs[v] == Double.MAX_VALUE) {
+                continue;
+            }
+            V vertex = csr.vertex(v);
+            result.updateVertex(vertex, null, costs[v], false);
+            for (int e = parentHeads[v]; e != NONE; e = nextParents[e]) {
+                result.updateVertex(vertex, csr.edge(e), costs[v], false);
+            }
+        }
+        result.buildPaths();
+        return result;
+    }
+
+    // Moves the vertex at the given heap position up towards the root until
+    // its parent is no more costly.
+    private static void siftUp(int[] heap, int[] positions, double[] costs, int position) {
+        int vertex = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (costs[heap[parent]] <= costs[vertex]) {
+                break;
+            }
+            heap[position] = heap[parent];
+            positions[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = vertex;
+        positions[vertex] = position;
+    }
+
+    // Moves the vertex at the given heap position down towards the leaves
+    // until none of its children is less costly.
+    private static void siftDown(int[] heap, int[] positions, double[] costs,
+                                 int heapSize, int position) {
+        int vertex = heap[position];
+        int half = heapSize >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < heapSize && costs[heap[right]] < costs[heap[child]]) {
+                child = right;
+            }
+            if (costs[vertex] <= costs[heap[child]]) {
+                break;
+            }
+            heap[position] = heap[child];
+            positions[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = vertex;
+        positions[vertex] = position;
+    }
+
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import java.nio.ByteBuffer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Read-only view of the Ethernet and IPv4 headers of a frame.
+ * <p>
+ * Unlike {@link Ethernet#deserializer()}, which decodes the whole frame into
+ * a tree of packet objects, copying the payload at each layer, the view
+ * decodes individual header fields from the underlying bytes only when they
+ * are asked for. The underlying bytes are not copied and must not be
+ * modified while the view is in use.
+ * </p>
+ */
+public final class EthernetView {
+
+    private static final int SRC_MAC_OFFSET = Ethernet.DATALAYER_ADDRESS_LENGTH;
+    private static final int ETHER_TYPE_OFFSET = 2 * Ethernet.DATALAYER_ADDRESS_LENGTH;
+    private static final int IPV4_HEADER_LENGTH = 20;
+    private static final int IPV4_PROTOCOL_OFFSET = 9;
+    private static final int IPV4_SRC_OFFSET = 12;
+    private static final int IPV4_DST_OFFSET = 16;
+    private static final int IPV4_FRAGMENT_OFFSET = 6;
+    private static final int TRANSPORT_PORTS_LENGTH = 4;
+
+    private final ByteBuffer frame;
+    private final int start;
+    private final int length;
+
+    private EthernetView(ByteBuffer frame) {
+        this.frame = frame;
+        this.start = frame.position();
+        this.length = frame.remaining();
+    }
+
+    /**
+     * Returns a view of the frame held by the remaining bytes of a buffer.
+     * Subsequent changes of the buffer position do not affect the view.
+     *
+     * @param frame buffer holding the frame
+     * @return view of the frame headers
+     */
+    public static EthernetView of(ByteBuffer frame) {
+        return new EthernetView(checkNotNull(frame, "Frame cannot be null").duplicate());
+    }
+
+    /**
+     * Returns a view of the frame held by a byte array.
+     *
+     * @param frame frame bytes
+     * @return view of the frame headers
+     */
+    public static EthernetView of(byte[] frame) {
+        return new EthernetView(ByteBuffer.wrap(checkNotNull(frame, "Frame cannot be null")));
+    }
+
+    /**
+     * Returns whether the frame is long enough to hold its Ethernet header,
+     * including any VLAN tag.
+     *
+     * @return true if the Ethernet header is complete
+     */
+    public boolean isValid() {
+        return length >= Ethernet.ETHERNET_HEADER_LENGTH &&
+                (!isTagged() || length >= Ethernet.ETHERNET_HEADER_LENGTH + Ethernet.VLAN_HEADER_LENGTH);
+    }
+
+    /**
+     * Returns the destination MAC address.
+     *
+     * @return destination MAC address
+     */
+    public MacAddress destinationMac() {
+        return mac(0);
+    }
+
+    /**
+     * Returns the source MAC address.
+     *
+     * @return source MAC address
+     */
+    public MacAddress sourceMac() {
+        return mac(SRC_MAC_OFFSET);
+    }
+
+    /**
+     * Returns the VLAN identifier.
+     *
+     * @return VLAN identifier; {@link Ethernet#VLAN_UNTAGGED} if the frame
+     * carries no VLAN tag
+     */
+    public short vlanId() {
+        checkValid();
+        return isTagged() ? (short) (tci() & 0x0fff) : Ethernet.VLAN_UNTAGGED;
+    }
+
+    /**
+     * Returns the priority code point of the VLAN tag.
+     *
+     * @return priority code; 0 if the frame carries no VLAN tag
+     */
+    public byte priorityCode() {
+        checkValid();
+        return isTagged() ? (byte) (tci() >> 13 & 0x07) : 0;
+    }
+
+    /**
+     * Returns the ethertype of the payload, following any VLAN tag.
+     *
+     * @return ethertype
+     */
+    public short etherType() {
+        checkValid();
+        return frame.getShort(start + payloadOffset() - 2);
+    }
+
+    /**
+     * Returns the offset of the payload from the start of the frame.
+     *
+     * @return payload offset in bytes
+     */
+    public int payloadOffset() {
+        return isTagged() ? Ethernet.ETHERNET_HEADER_LENGTH + Ethernet.VLAN_HEADER_LENGTH :
+                Ethernet.ETHERNET_HEADER_LENGTH;
+    }
+
+    /**
+     * Returns whether the payload is a complete IPv4 header.
+     *
+     * @return true if the frame carries IPv4
+     */
+    public boolean isIpv4() {
+        return isValid() && etherType() == Ethernet.TYPE_IPV4 &&
+                length >= payloadOffset() + IPV4_HEADER_LENGTH;
+    }
+
+    /**
+     * Returns the IPv4 protocol of the payload.
+     *
+     * @return IP protocol number
+     * @throws IllegalStateException if the frame does not carry IPv4
+     */
+    public byte ipProtocol() {
+        checkIpv4();
+        return frame.get(start + payloadOffset() + IPV4_PROTOCOL_OFFSET);
+    }
+
+    /**
+     * Returns the IPv4 source address.
+     *
+     * @return source address
+     * @throws IllegalStateException if the frame does not carry IPv4
+     */
+    public Ip4Address ipv4Source() {
+        checkIpv4();
+        return Ip4Address.valueOf(frame.getInt(start + payloadOffset() + IPV4_SRC_OFFSET));
+    }
+
+    /**
+     * Returns the IPv4 destination address.
+     *
+     * @return destination address
+     * @throws IllegalStateException if the frame does not carry IPv4
+     */
+    public Ip4Address ipv4Destination() {
+        checkIpv4();
+        return Ip4Address.valueOf(frame.getInt(start + payloadOffset() + IPV4_DST_OFFSET));
+    }
+
+    /**
+     * Returns whether the payload is the first, or only, fragment of a TCP
+     * or UDP datagram and holds its transport ports.
+     *
+     * @return true if the transport ports are present
+     */
+    public boolean hasTransportPorts() {
+        if (!isIpv4()) {
+            return false;
+        }
+        byte protocol = ipProtocol();
+        int ip = start + payloadOffset();
+        return (protocol == IPv4.PROTOCOL_TCP || protocol == IPv4.PROTOCOL_UDP) &&
+                (frame.getShort(ip + IPV4_FRAGMENT_OFFSET) & 0x1fff) == 0 &&
+                length >= payloadOffset() + ipv4HeaderLength() + TRANSPORT_PORTS_LENGTH;
+    }
+
+    /**
+     * Returns the TCP or UDP source port.
+     *
+     * @return source port
+     * @throws IllegalStateException if the frame holds no transport ports
+     */
+    public int sourcePort() {
+        checkState(hasTransportPorts(), "No transport ports");
+        return frame.getShort(start + payloadOffset() + ipv4HeaderLength()) & 0xffff;
+    }
+
+    /**
+     * Returns the TCP or UDP destination port.
+     *
+     * @return destination port
+     * @throws IllegalStateException if the frame holds no transport ports
+     */
+    public int destinationPort() {
+        checkState(hasTransportPorts(), "No transport ports");
+        return frame.getShort(start + payloadOffset() + ipv4HeaderLength() + 2) & 0xffff;
+    }
+
+    private int ipv4HeaderLength() {
+        return (frame.get(start + payloadOffset()) & 0x0f) * 4;
+    }
+
+    private boolean isTagged() {
+        return length >= ETHER_TYPE_OFFSET + 2 &&
+                frame.getShort(start + ETHER_TYPE_OFFSET) == Ethernet.TYPE_VLAN;
+    }
+
+    private short tci() {
+        return frame.getShort(start + Ethernet.ETHERNET_HEADER_LENGTH);
+    }
+
+    private MacAddress mac(int offset) {
+        checkValid();
+        byte[] address = new byte[Ethernet.DATALAYER_ADDRESS_LENGTH];
+        for (int i = 0; i < address.length; i++) {
+            address[i] = frame.get(start + offset + i);
+        }
+        return MacAddress.valueOf(address);
+    }
+
+    private void checkValid() {
+        checkState(isValid(), "Incomplete Ethernet header");
+    }
+
+    private void checkIpv4() {
+        checkState(isIpv4(), "Not an IPv4 frame");
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014-2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.testing.EqualsTester;
+import org.junit.Test;
+
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the compressed sparse row graph implementation.
+ */
+public class CompressedSparseRowGraphTest {
+
+    private static final TestVertex A = new TestVertex("A");
+    private static final TestVertex B = new TestVertex("B");
+    private static final TestVertex C = new TestVertex("C");
+    private static final TestVertex D = new TestVertex("D");
+    private static final TestVertex E = new TestVertex("E");
+    private static final TestVertex F = new TestVertex("F");
+    private static final TestVertex G = new TestVertex("G");
+
+    private final Set<TestEdge> edges =
+            ImmutableSet.of(new TestEdge(A, B, 1), new TestEdge(B, C, 1),
+                            new TestEdge(C, D, 1), new TestEdge(D, A, 1),
+                            new TestEdge(B, D, 1));
+
+    @Test
+    public void equality() {
+        Set<TestVertex> vertexes = ImmutableSet.of(A, B, C, D, E, F);
+        Set<TestVertex> vertexes2 = ImmutableSet.of(A, B, C, D, E, F, G);
+
+        CompressedSparseRowGraph<TestVertex, TestEdge> graph = new CompressedSparseRowGraph<>(vertexes, edges);
+        CompressedSparseRowGraph<TestVertex, TestEdge> same = new CompressedSparseRowGraph<>(vertexes, edges);
+        CompressedSparseRowGraph<TestVertex, TestEdge> different = new CompressedSparseRowGraph<>(vertexes2, edges);
+
+        new EqualsTester()
+                .addEqualityGroup(graph, same)
+                .addEqualityGroup(different)
+                .testEquals();
+    }
+
+    @Test
+    public void basics() {
+        Set<TestVertex> vertexes = ImmutableSet.of(A, B, C, D, E, F);
+        CompressedSparseRowGraph<TestVertex, TestEdge> graph = new CompressedSparseRowGraph<>(vertexes, edges);
+        assertEquals("incorrect vertex count", 6, graph.getVertexes().size());
+        assertEquals("incorrect edge count", 5, graph.getEdges().size());
+
+        assertEquals("incorrect egress edge count", 1, graph.getEdgesFrom(A).size());
+        assertEquals("incorrect ingress edge count", 1, graph.getEdgesTo(A).size());
+        assertEquals("incorrect ingress edge count", 1, graph.getEdgesTo(C).size());
+        assertEquals("incorrect egress edge count", 2, graph.getEdgesFrom(B).size());
+        assertEquals("incorrect ingress edge count", 2, graph.getEdgesTo(D).size());
+        assertTrue("no egress edges expected", graph.getEdgesFrom(G).isEmpty());
+        assertEquals("incorrect egress edges",
+                     ImmutableSet.of(new TestEdge(B, C, 1), new TestEdge(B, D, 1)),
+                     graph.getEdgesFrom(B));
+    }
+
+    @Test
+    public void indexes() {
+        CompressedSparseRowGraph<TestVertex, TestEdge> graph =
+                new CompressedSparseRowGraph<>(ImmutableSet.of(A, B, C, D, E, F), edges);
+        assertEquals("incorrect vertex count", 6, graph.vertexCount());
+        assertEquals("incorrect edge count", 5, graph.edgeCount());
+        assertEquals("incorrect missing index", -1, graph.indexOf(G));
+
+        int b = graph.indexOf(B);
+        assertSame("incorrect vertex", B, graph.vertex(b));
+        assertEquals("incorrect egress range", 2, graph.endEdgeFrom(b) - graph.firstEdgeFrom(b));
+        for (int e = graph.firstEdgeFrom(b); e < graph.endEdgeFrom(b); e++) {
+            assertSame("incorrect edge source", B, graph.edge(e).src());
+            assertSame("incorrect edge target", graph.edge(e).dst(), graph.vertex(graph.edgeTarget(e)));
+        }
+    }
+
+    @Test
+    public void copy() {
+        AdjacencyListsGraph<TestVertex, TestEdge> graph =
+                new AdjacencyListsGraph<>(ImmutableSet.of(A, B, C, D), edges);
+        CompressedSparseRowGraph<TestVertex, TestEdge> copy = CompressedSparseRowGraph.copyOf(graph);
+        assertEquals("incorrect vertexes", graph.getVertexes(), copy.getVertexes());
+        assertEquals("incorrect edges", graph.getEdges(), copy.getEdges());
+        assertSame("copy expected to be reused", copy, CompressedSparseRowGraph.copyOf(copy));
+    }
+}
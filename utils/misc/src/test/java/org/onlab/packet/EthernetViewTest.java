@@ -0,0 +1,129 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the EthernetView class.
+ */
+public class EthernetViewTest {
+
+    private static final MacAddress SRC_MAC = MacAddress.valueOf("00:00:00:00:00:01");
+    private static final MacAddress DST_MAC = MacAddress.valueOf("00:00:00:00:00:02");
+    private static final Ip4Address SRC_IP = Ip4Address.valueOf("10.0.0.1");
+    private static final Ip4Address DST_IP = Ip4Address.valueOf("10.0.0.2");
+
+    private static byte[] ipv4Frame(short vlan) {
+        UDP udp = new UDP();
+        udp.setSourcePort(5000);
+        udp.setDestinationPort(6000);
+        udp.setPayload(new Data(new byte[8]));
+
+        IPv4 ip = new IPv4();
+        ip.setSourceAddress(SRC_IP.toInt());
+        ip.setDestinationAddress(DST_IP.toInt());
+        ip.setProtocol(IPv4.PROTOCOL_UDP);
+        ip.setPayload(udp);
+
+        Ethernet eth = new Ethernet();
+        eth.setSourceMACAddress(SRC_MAC);
+        eth.setDestinationMACAddress(DST_MAC);
+        eth.setVlanID(vlan);
+        eth.setPriorityCode((byte) 5);
+        eth.setEtherType(Ethernet.TYPE_IPV4);
+        eth.setPayload(ip);
+        return eth.serialize();
+    }
+
+    /**
+     * Tests the headers of an untagged IPv4 frame.
+     */
+    @Test
+    public void untaggedIpv4() {
+        EthernetView view = EthernetView.of(ipv4Frame(Ethernet.VLAN_UNTAGGED));
+        assertTrue(view.isValid());
+        assertEquals(DST_MAC, view.destinationMac());
+        assertEquals(SRC_MAC, view.sourceMac());
+        assertEquals(Ethernet.VLAN_UNTAGGED, view.vlanId());
+        assertEquals(Ethernet.TYPE_IPV4, view.etherType());
+        assertEquals(Ethernet.ETHERNET_HEADER_LENGTH, view.payloadOffset());
+        assertTrue(view.isIpv4());
+        assertEquals(IPv4.PROTOCOL_UDP, view.ipProtocol());
+        assertEquals(SRC_IP, view.ipv4Source());
+        assertEquals(DST_IP, view.ipv4Destination());
+        assertTrue(view.hasTransportPorts());
+        assertEquals(5000, view.sourcePort());
+        assertEquals(6000, view.destinationPort());
+    }
+
+    /**
+     * Tests that the view agrees with the deserializer on a tagged frame
+     * which does not start at the beginning of its buffer.
+     */
+    @Test
+    public void taggedIpv4() throws Exception {
+        byte[] frame = ipv4Frame((short) 10);
+        Ethernet eth = Ethernet.deserializer().deserialize(frame, 0, frame.length);
+
+        ByteBuffer buffer = ByteBuffer.allocate(frame.length + 3);
+        buffer.put(new byte[3]).put(frame).position(3);
+        EthernetView view = EthernetView.of(buffer);
+        buffer.position(0);
+
+        assertEquals(eth.getDestinationMAC(), view.destinationMac());
+        assertEquals(eth.getSourceMAC(), view.sourceMac());
+        assertEquals(eth.getVlanID(), view.vlanId());
+        assertEquals(eth.getPriorityCode(), view.priorityCode());
+        assertEquals(eth.getEtherType(), view.etherType());
+        assertEquals(SRC_IP, view.ipv4Source());
+        assertEquals(DST_IP, view.ipv4Destination());
+    }
+
+    /**
+     * Tests a frame too short to hold an Ethernet header.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void truncated() {
+        EthernetView view = EthernetView.of(new byte[10]);
+        assertFalse(view.isValid());
+        assertFalse(view.isIpv4());
+        view.etherType();
+    }
+
+    /**
+     * Tests that IPv4 fields are not decoded from other frames.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void notIpv4() {
+        Ethernet eth = new Ethernet();
+        eth.setSourceMACAddress(SRC_MAC);
+        eth.setDestinationMACAddress(DST_MAC);
+        eth.setEtherType(Ethernet.TYPE_LLDP);
+        eth.setPayload(new Data(new byte[32]));
+        EthernetView view = EthernetView.of(eth.serialize());
+        assertEquals(Ethernet.TYPE_LLDP, view.etherType());
+        assertFalse(view.isIpv4());
+        assertFalse(view.hasTransportPorts());
+        view.ipv4Source();
+    }
+}
@@ -15,21 +15,32 @@
  */
 package org.onlab.netty;
 
+import io.netty.buffer.ByteBuf;
 import org.onlab.util.ByteArraySizeHashPrinter;
 import org.onosproject.store.cluster.messaging.Endpoint;
 
 import com.google.common.base.MoreObjects;
 
+import static com.google.common.base.Preconditions.checkState;
+
 /**
  * Internal message representation with additional attributes
  * for supporting, synchronous request/reply behavior.
+ * <p>
+ * Inbound messages hold a retained slice of the buffer they were decoded
+ * from, so that decoding does not copy the payload on the I/O thread. The
+ * payload is copied out, and the slice released, on the first call to
+ * {@link #payload()}; a message which is never read must be released
+ * explicitly.
+ * </p>
  */
 public final class InternalMessage {
 
     private final long id;
     private final Endpoint sender;
     private final String type;
-    private final byte[] payload;
+    private byte[] payload;
+    private ByteBuf payloadBuffer;
 
     public InternalMessage(long id, Endpoint sender, String type, byte[] payload) {
         this.id = id;
@@ -38,6 +49,22 @@ public final class InternalMessage {
         this.payload = payload;
     }
 
+    /**
+     * Creates a message whose payload is backed by the given buffer; the
+     * message takes over the caller's reference to the buffer.
+     *
+     * @param id            message id
+     * @param sender        sender endpoint
+     * @param type          message type
+     * @param payloadBuffer retained buffer holding the payload
+     */
+    public InternalMessage(long id, Endpoint sender, String type, ByteBuf payloadBuffer) {
+        this.id = id;
+        this.sender = sender;
+        this.type = type;
+        this.payloadBuffer = payloadBuffer;
+    }
+
     public long id() {
         return id;
     }
@@ -50,17 +77,33 @@ public final class InternalMessage {
         return sender;
     }
 
-    public byte[] payload() {
+    public synchronized byte[] payload() {
+        if (payload == null) {
+            checkState(payloadBuffer != null, "Payload already released");
+            payload = new byte[payloadBuffer.readableBytes()];
+            payloadBuffer.getBytes(payloadBuffer.readerIndex(), payload);
+            release();
+        }
         return payload;
     }
 
+    /**
+     * Releases the buffer backing the payload, if any, without reading it.
+     */
+    public synchronized void release() {
+        if (payloadBuffer != null) {
+            payloadBuffer.release();
+            payloadBuffer = null;
+        }
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
                 .add("id", id)
                 .add("type", type)
                 .add("sender", sender)
-                .add("payload", ByteArraySizeHashPrinter.of(payload))
+                .add("payload", payload != null ? ByteArraySizeHashPrinter.of(payload) : payloadBuffer)
                 .toString();
     }
 }
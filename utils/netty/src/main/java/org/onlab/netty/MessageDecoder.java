@@ -21,6 +21,8 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ReplayingDecoder;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.onlab.packet.IpAddress;
@@ -33,6 +35,14 @@ import com.google.common.base.Charsets;
 
 /**
  * Decoder for inbound messages.
+ * <p>
+ * A decoder instance is bound to a single connection. It remembers the sender
+ * endpoint last seen on that connection and the message types announced by
+ * the peer's {@link MessageEncoder}, so that steady-state traffic does not
+ * allocate a new sender address or message type string per message. Both
+ * framings of the message type are accepted, whether or not the peer
+ * interns types. Payloads are not copied; see {@link InternalMessage}.
+ * </p>
  */
 public class MessageDecoder extends ReplayingDecoder<DecoderState> {
 
@@ -42,10 +52,14 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
     private long messageId;
     private int preamble;
     private Version ipVersion;
-    private IpAddress senderIp;
-    private int senderPort;
+    private final byte[] ip4Octets = new byte[IpAddress.INET_BYTE_LENGTH];
+    private final byte[] ip6Octets = new byte[IpAddress.INET6_BYTE_LENGTH];
+    private byte[] senderOctets;
+    private byte[] cachedSenderOctets;
+    private Endpoint sender;
     private int messageTypeLength;
     private String messageType;
+    private final List<String> messageTypes = new ArrayList<>();
     private int contentLength;
 
     public MessageDecoder(int correctPreamble) {
@@ -73,30 +87,44 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
             ipVersion = buffer.readByte() == 0x0 ? Version.INET : Version.INET6;
             checkpoint(DecoderState.READ_SENDER_IP);
         case READ_SENDER_IP:
-            byte[] octets = new byte[IpAddress.byteLength(ipVersion)];
-            buffer.readBytes(octets);
-            senderIp = IpAddress.valueOf(ipVersion, octets);
+            senderOctets = ipVersion == Version.INET ? ip4Octets : ip6Octets;
+            buffer.readBytes(senderOctets);
             checkpoint(DecoderState.READ_SENDER_PORT);
         case READ_SENDER_PORT:
-            senderPort = buffer.readInt();
+            int senderPort = buffer.readInt();
+            if (sender == null || sender.port() != senderPort
+                    || !Arrays.equals(cachedSenderOctets, senderOctets)) {
+                cachedSenderOctets = senderOctets.clone();
+                sender = new Endpoint(IpAddress.valueOf(ipVersion, senderOctets), senderPort);
+            }
             checkpoint(DecoderState.READ_MESSAGE_TYPE_LENGTH);
         case READ_MESSAGE_TYPE_LENGTH:
             messageTypeLength = buffer.readInt();
+            if (messageTypeLength < 0) {
+                int typeId = -messageTypeLength - 1;
+                checkState(typeId < messageTypes.size(), "Unknown message type id %s", typeId);
+                messageType = messageTypes.get(typeId);
+            }
             checkpoint(DecoderState.READ_MESSAGE_TYPE);
         case READ_MESSAGE_TYPE:
-            byte[] messageTypeBytes = new byte[messageTypeLength];
-            buffer.readBytes(messageTypeBytes);
-            messageType = new String(messageTypeBytes, Charsets.UTF_8);
+            if (messageTypeLength >= 0) {
+                byte[] messageTypeBytes = new byte[messageTypeLength];
+                buffer.readBytes(messageTypeBytes);
+                messageType = new String(messageTypeBytes, Charsets.UTF_8);
+                if (messageTypes.size() < MessageEncoder.MAX_MESSAGE_TYPE_IDS) {
+                    messageTypes.add(messageType);
+                }
+            }
             checkpoint(DecoderState.READ_CONTENT_LENGTH);
         case READ_CONTENT_LENGTH:
             contentLength = buffer.readInt();
             checkpoint(DecoderState.READ_CONTENT);
         case READ_CONTENT:
-            //TODO Perform a sanity check on the size before allocating
-            byte[] payload = new byte[contentLength];
-            buffer.readBytes(payload);
+            // Hand on a retained slice rather than a copy of the payload; the
+            // cumulation buffer is copied, not compacted, while it is shared
+            ByteBuf payload = buffer.readSlice(contentLength).retain();
             InternalMessage message = new InternalMessage(messageId,
-                    new Endpoint(senderIp, senderPort),
+                    sender,
                     messageType,
                     payload);
             out.add(message);
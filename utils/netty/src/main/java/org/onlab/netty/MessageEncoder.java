@@ -16,11 +16,12 @@
 package org.onlab.netty;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.IpAddress.Version;
@@ -32,15 +33,36 @@ import com.google.common.base.Charsets;
 
 /**
  * Encode InternalMessage out into a byte buffer.
+ * <p>
+ * An encoder instance is bound to a single connection. By default every
+ * message carries its full type string. With type interning enabled, the
+ * first message of a given type carries the full type string, which
+ * implicitly assigns it the next type id on this connection; subsequent
+ * messages of that type only carry the negated id, which the peer's
+ * {@link MessageDecoder} resolves against the same table. Interning must
+ * only be enabled once all peers run a decoder that understands it.
+ * </p>
  */
-@Sharable
 public class MessageEncoder extends MessageToByteEncoder<InternalMessage> {
 
+    /**
+     * Maximum number of message types interned per connection; types beyond
+     * this limit are always sent in full.
+     */
+    static final int MAX_MESSAGE_TYPE_IDS = 4096;
+
     private final int preamble;
+    private final boolean internMessageTypes;
+    private final Map<String, Integer> messageTypeIds = new HashMap<>();
 
     public MessageEncoder(int preamble) {
+        this(preamble, false);
+    }
+
+    public MessageEncoder(int preamble, boolean internMessageTypes) {
         super();
         this.preamble = preamble;
+        this.internMessageTypes = internMessageTypes;
     }
 
     private final Logger log = LoggerFactory.getLogger(getClass());
@@ -69,13 +91,23 @@ public class MessageEncoder extends MessageToByteEncoder<InternalMessage> {
         // write sender port
         out.writeInt(sender.port());
 
-        byte[] messageTypeBytes = message.type().getBytes(Charsets.UTF_8);
+        Integer messageTypeId = messageTypeIds.get(message.type());
+        if (messageTypeId != null) {
+            // write reference to a message type already sent on this connection
+            out.writeInt(-messageTypeId - 1);
+        } else {
+            byte[] messageTypeBytes = message.type().getBytes(Charsets.UTF_8);
+
+            // write length of message type
+            out.writeInt(messageTypeBytes.length);
 
-        // write length of message type
-        out.writeInt(messageTypeBytes.length);
+            // write message type bytes
+            out.writeBytes(messageTypeBytes);
 
-        // write message type bytes
-        out.writeBytes(messageTypeBytes);
+            if (internMessageTypes && messageTypeIds.size() < MAX_MESSAGE_TYPE_IDS) {
+                messageTypeIds.put(message.type(), messageTypeIds.size());
+            }
+        }
 
         byte[] payload = message.payload();
 
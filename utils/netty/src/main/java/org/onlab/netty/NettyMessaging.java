@@ -16,6 +16,7 @@
 package org.onlab.netty;
 
 import com.google.common.cache.Cache;
+import com.google.common.base.MoreObjects;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
@@ -53,6 +54,8 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.security.KeyStore;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
@@ -90,14 +93,26 @@ public class NettyMessaging implements MessagingService {
             })
             .build();
 
-    private final GenericKeyedObjectPool<Endpoint, Channel> channels
-            = new GenericKeyedObjectPool<Endpoint, Channel>(new OnosCommunicationChannelFactory());
+    private final GenericKeyedObjectPool<ChannelKey, Channel> channels
+            = new GenericKeyedObjectPool<ChannelKey, Channel>(new OnosCommunicationChannelFactory());
+
+    /**
+     * Lane reserved for control message types; bulk message types are
+     * striped across lanes 1 through {@code channelsPerEndpoint}.
+     */
+    private static final int CONTROL_LANE = 0;
+    protected static final int DEFAULT_CHANNELS_PER_ENDPOINT = 1;
+    protected int channelsPerEndpoint = DEFAULT_CHANNELS_PER_ENDPOINT;
+    private final Set<String> controlMessageTypes = ConcurrentHashMap.newKeySet();
 
     private EventLoopGroup serverGroup;
     private EventLoopGroup clientGroup;
     private Class<? extends ServerChannel> serverChannelClass;
     private Class<? extends Channel> clientChannelClass;
 
+    protected static final boolean INTERN_TYPES_DISABLED = false;
+    protected boolean internMessageTypes = INTERN_TYPES_DISABLED;
+
     protected static final boolean TLS_DISABLED = false;
     protected boolean enableNettyTls = TLS_DISABLED;
 
@@ -141,6 +156,26 @@ public class NettyMessaging implements MessagingService {
         started.set(true);
     }
 
+    /**
+     * Registers a message type as a control message type. Messages of this
+     * type, and the replies to them, are sent over a dedicated connection
+     * per endpoint so that they never queue behind bulk traffic.
+     *
+     * @param type message type
+     */
+    public void registerControlMessageType(String type) {
+        controlMessageTypes.add(type);
+    }
+
+    /**
+     * Unregisters a control message type.
+     *
+     * @param type message type
+     */
+    public void unregisterControlMessageType(String type) {
+        controlMessageTypes.remove(type);
+    }
+
     public void stop() throws Exception {
         if (started.get()) {
             channels.close();
@@ -160,15 +195,28 @@ public class NettyMessaging implements MessagingService {
     }
 
     protected CompletableFuture<Void> sendAsync(Endpoint ep, InternalMessage message) {
+        return sendAsync(ep, message, message.type());
+    }
+
+    /**
+     * Sends a message over the connection lane selected for the given type.
+     *
+     * @param ep      destination endpoint
+     * @param message message to send
+     * @param laneType message type used to select the connection lane
+     * @return future completed once the message has been written
+     */
+    private CompletableFuture<Void> sendAsync(Endpoint ep, InternalMessage message, String laneType) {
         CompletableFuture<Void> future = new CompletableFuture<>();
         try {
             if (ep.equals(localEp)) {
                 dispatchLocally(message);
                 future.complete(null);
             } else {
+                ChannelKey key = new ChannelKey(ep, lane(laneType));
                 Channel channel = null;
                 try {
-                    channel = channels.borrowObject(ep);
+                    channel = channels.borrowObject(key);
                     channel.writeAndFlush(message).addListener(channelFuture -> {
                         if (!channelFuture.isSuccess()) {
                             future.completeExceptionally(channelFuture.cause());
@@ -177,7 +225,7 @@ public class NettyMessaging implements MessagingService {
                         }
                     });
                 } finally {
-                    channels.returnObject(ep, channel);
+                    channels.returnObject(key, channel);
                 }
             }
         } catch (Exception e) {
@@ -186,6 +234,21 @@ public class NettyMessaging implements MessagingService {
         return future;
     }
 
+    /**
+     * Selects the connection lane for a message type. Control types use the
+     * control lane; all other types are striped by type so that messages of
+     * the same type keep their relative order.
+     *
+     * @param type message type
+     * @return lane index
+     */
+    private int lane(String type) {
+        if (controlMessageTypes.contains(type)) {
+            return CONTROL_LANE;
+        }
+        return 1 + Math.floorMod(type.hashCode(), Math.max(channelsPerEndpoint, 1));
+    }
+
     @Override
     public CompletableFuture<byte[]> sendAndReceive(Endpoint ep, String type, byte[] payload) {
         CompletableFuture<byte[]> response = new CompletableFuture<>();
@@ -215,7 +278,7 @@ public class NettyMessaging implements MessagingService {
                         localEp,
                         REPLY_MESSAGE_TYPE,
                         responsePayload);
-                sendAsync(message.sender(), response).whenComplete((result, error) -> {
+                sendAsync(message.sender(), response, message.type()).whenComplete((result, error) -> {
                     if (error != null) {
                         log.debug("Failed to respond", error);
                     }
@@ -233,7 +296,7 @@ public class NettyMessaging implements MessagingService {
                                                                    localEp,
                                                                    REPLY_MESSAGE_TYPE,
                                                                    result);
-                    sendAsync(message.sender(), response).whenComplete((r, e) -> {
+                    sendAsync(message.sender(), response, message.type()).whenComplete((r, e) -> {
                         if (e != null) {
                             log.debug("Failed to respond", e);
                         }
@@ -275,22 +338,61 @@ public class NettyMessaging implements MessagingService {
         });
     }
 
+    /**
+     * Key identifying a pooled connection: a remote endpoint and a lane.
+     */
+    private static final class ChannelKey {
+        private final Endpoint endpoint;
+        private final int lane;
+
+        private ChannelKey(Endpoint endpoint, int lane) {
+            this.endpoint = endpoint;
+            this.lane = lane;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(endpoint, lane);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ChannelKey)) {
+                return false;
+            }
+            ChannelKey that = (ChannelKey) obj;
+            return lane == that.lane && Objects.equals(endpoint, that.endpoint);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("endpoint", endpoint)
+                    .add("lane", lane)
+                    .toString();
+        }
+    }
+
     private class OnosCommunicationChannelFactory
-        implements KeyedPoolableObjectFactory<Endpoint, Channel> {
+        implements KeyedPoolableObjectFactory<ChannelKey, Channel> {
 
         @Override
-        public void activateObject(Endpoint endpoint, Channel channel)
+        public void activateObject(ChannelKey key, Channel channel)
                 throws Exception {
         }
 
         @Override
-        public void destroyObject(Endpoint ep, Channel channel) throws Exception {
-            log.debug("Closing connection to {}", ep);
+        public void destroyObject(ChannelKey key, Channel channel) throws Exception {
+            log.debug("Closing connection to {}", key);
             channel.close();
         }
 
         @Override
-        public Channel makeObject(Endpoint ep) throws Exception {
+        public Channel makeObject(ChannelKey key) throws Exception {
+            Endpoint ep = key.endpoint;
             Bootstrap bootstrap = new Bootstrap();
             bootstrap.option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
             bootstrap.option(ChannelOption.WRITE_BUFFER_HIGH_WATER_MARK, 10 * 64 * 1024);
@@ -308,17 +410,17 @@ public class NettyMessaging implements MessagingService {
             }
             // Start the client.
             ChannelFuture f = bootstrap.connect(ep.host().toString(), ep.port()).sync();
-            log.debug("Established a new connection to {}", ep);
+            log.debug("Established a new connection to {}", key);
             return f.channel();
         }
 
         @Override
-        public void passivateObject(Endpoint ep, Channel channel)
+        public void passivateObject(ChannelKey key, Channel channel)
                 throws Exception {
         }
 
         @Override
-        public boolean validateObject(Endpoint ep, Channel channel) {
+        public boolean validateObject(ChannelKey key, Channel channel) {
             return channel.isOpen();
         }
     }
@@ -326,7 +428,6 @@ public class NettyMessaging implements MessagingService {
     private class SslServerCommunicationChannelInitializer extends ChannelInitializer<SocketChannel> {
 
         private final ChannelHandler dispatcher = new InboundMessageDispatcher();
-        private final ChannelHandler encoder = new MessageEncoder(preamble);
 
         @Override
         protected void initChannel(SocketChannel channel) throws Exception {
@@ -352,7 +453,7 @@ public class NettyMessaging implements MessagingService {
             serverSslEngine.setEnableSessionCreation(true);
 
             channel.pipeline().addLast("ssl", new io.netty.handler.ssl.SslHandler(serverSslEngine))
-                    .addLast("encoder", encoder)
+                    .addLast("encoder", new MessageEncoder(preamble, internMessageTypes))
                     .addLast("decoder", new MessageDecoder(preamble))
                     .addLast("handler", dispatcher);
         }
@@ -362,7 +463,6 @@ public class NettyMessaging implements MessagingService {
     private class SslClientCommunicationChannelInitializer extends ChannelInitializer<SocketChannel> {
 
         private final ChannelHandler dispatcher = new InboundMessageDispatcher();
-        private final ChannelHandler encoder = new MessageEncoder(preamble);
 
         @Override
         protected void initChannel(SocketChannel channel) throws Exception {
@@ -387,7 +487,7 @@ public class NettyMessaging implements MessagingService {
             clientSslEngine.setEnableSessionCreation(true);
 
             channel.pipeline().addLast("ssl", new io.netty.handler.ssl.SslHandler(clientSslEngine))
-                    .addLast("encoder", encoder)
+                    .addLast("encoder", new MessageEncoder(preamble, internMessageTypes))
                     .addLast("decoder", new MessageDecoder(preamble))
                     .addLast("handler", dispatcher);
         }
@@ -397,12 +497,11 @@ public class NettyMessaging implements MessagingService {
     private class OnosCommunicationChannelInitializer extends ChannelInitializer<SocketChannel> {
 
         private final ChannelHandler dispatcher = new InboundMessageDispatcher();
-        private final ChannelHandler encoder = new MessageEncoder(preamble);
 
         @Override
         protected void initChannel(SocketChannel channel) throws Exception {
                 channel.pipeline()
-                        .addLast("encoder", encoder)
+                        .addLast("encoder", new MessageEncoder(preamble, internMessageTypes))
                         .addLast("decoder", new MessageDecoder(preamble))
                         .addLast("handler", dispatcher);
         }
@@ -435,6 +534,7 @@ public class NettyMessaging implements MessagingService {
                 if (futureResponse != null) {
                     futureResponse.complete(message.payload());
                 } else {
+                    message.release();
                     log.warn("Received a reply for message id:[{}]. "
                             + " from {}. But was unable to locate the"
                             + " request handle", message.id(), message.sender());
@@ -446,8 +546,14 @@ public class NettyMessaging implements MessagingService {
         }
         Consumer<InternalMessage> handler = handlers.get(type);
         if (handler != null) {
-            handler.accept(message);
+            try {
+                handler.accept(message);
+            } catch (RuntimeException e) {
+                message.release();
+                throw e;
+            }
         } else {
+            message.release();
             log.debug("No handler registered for {}", type);
         }
     }
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.After;
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onosproject.store.cluster.messaging.Endpoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Round-trip tests of the message encoder and decoder.
+ */
+public class MessageCodecTest {
+
+    private static final int PREAMBLE = 0x0ddba11;
+    private static final Endpoint IP4_SENDER = new Endpoint(IpAddress.valueOf("10.0.0.1"), 9876);
+    private static final Endpoint IP6_SENDER = new Endpoint(IpAddress.valueOf("fe80::1:2"), 9876);
+
+    private final List<ByteBuf> frames = new ArrayList<>();
+    private EmbeddedChannel encoder;
+    private final EmbeddedChannel decoder = new EmbeddedChannel(new MessageDecoder(PREAMBLE));
+
+    @After
+    public void tearDown() {
+        frames.forEach(ByteBuf::release);
+        decoder.finish();
+        if (encoder != null) {
+            encoder.finish();
+        }
+    }
+
+    @Test
+    public void fullTypesByDefault() {
+        encoder = new EmbeddedChannel(new MessageEncoder(PREAMBLE));
+        ByteBuf first = encode(message(1, IP4_SENDER, "foo", "a"));
+        ByteBuf second = encode(message(2, IP4_SENDER, "foo", "a"));
+        assertEquals("type not sent in full", first.readableBytes(), second.readableBytes());
+
+        InternalMessage decoded = decode(first);
+        assertMessage(decoded, 1, IP4_SENDER, "foo", "a");
+        assertMessage(decode(second), 2, IP4_SENDER, "foo", "a");
+    }
+
+    @Test
+    public void internedTypes() {
+        encoder = new EmbeddedChannel(new MessageEncoder(PREAMBLE, true));
+        ByteBuf first = encode(message(1, IP4_SENDER, "foo", "a"));
+        ByteBuf second = encode(message(2, IP4_SENDER, "foo", "b"));
+        ByteBuf third = encode(message(3, IP4_SENDER, "bar", "c"));
+        ByteBuf fourth = encode(message(4, IP4_SENDER, "foo", "d"));
+        assertEquals("type not interned", first.readableBytes() - "foo".length(), second.readableBytes());
+
+        InternalMessage m1 = decode(first);
+        InternalMessage m2 = decode(second);
+        assertMessage(m1, 1, IP4_SENDER, "foo", "a");
+        assertMessage(m2, 2, IP4_SENDER, "foo", "b");
+        assertMessage(decode(third), 3, IP4_SENDER, "bar", "c");
+        assertMessage(decode(fourth), 4, IP4_SENDER, "foo", "d");
+        assertSame("type not shared", m1.type(), m2.type());
+        assertSame("sender not shared", m1.sender(), m2.sender());
+    }
+
+    @Test
+    public void internedTypeLimit() {
+        encoder = new EmbeddedChannel(new MessageEncoder(PREAMBLE, true));
+        int limit = MessageEncoder.MAX_MESSAGE_TYPE_IDS;
+        for (int i = 0; i < limit; i++) {
+            assertMessage(decode(encode(message(i, IP4_SENDER, "type" + i, "x"))), i, IP4_SENDER, "type" + i, "x");
+        }
+
+        // Types past the limit keep being sent in full
+        String extra = "type" + limit;
+        ByteBuf first = encode(message(limit, IP4_SENDER, extra, "x"));
+        ByteBuf second = encode(message(limit + 1, IP4_SENDER, extra, "y"));
+        assertEquals("type interned past limit", first.readableBytes(), second.readableBytes());
+        assertMessage(decode(first), limit, IP4_SENDER, extra, "x");
+        assertMessage(decode(second), limit + 1, IP4_SENDER, extra, "y");
+
+        // while types within the limit stay interned
+        ByteBuf interned = encode(message(limit + 2, IP4_SENDER, "type0", "z"));
+        assertEquals("type not interned", first.readableBytes() - extra.length(), interned.readableBytes());
+        assertMessage(decode(interned), limit + 2, IP4_SENDER, "type0", "z");
+    }
+
+    @Test
+    public void ip6Sender() {
+        encoder = new EmbeddedChannel(new MessageEncoder(PREAMBLE, true));
+        assertMessage(decode(encode(message(1, IP6_SENDER, "foo", "a"))), 1, IP6_SENDER, "foo", "a");
+        assertMessage(decode(encode(message(2, IP4_SENDER, "foo", "b"))), 2, IP4_SENDER, "foo", "b");
+        assertMessage(decode(encode(message(3, IP6_SENDER, "foo", "c"))), 3, IP6_SENDER, "foo", "c");
+    }
+
+    @Test
+    public void payloadSurvivesLaterFrames() {
+        encoder = new EmbeddedChannel(new MessageEncoder(PREAMBLE));
+        ByteBuf first = encode(message(1, IP4_SENDER, "foo", "first"));
+        ByteBuf second = encode(message(2, IP4_SENDER, "foo", "second"));
+
+        // Deliver the second frame in pieces, so that it is accumulated
+        // behind the first while the first payload is still unread
+        int split = second.readableBytes() / 2;
+        decoder.writeInbound(first.duplicate().retain(), second.slice(0, split).retain());
+        InternalMessage m1 = (InternalMessage) decoder.readInbound();
+        assertNull("partial frame decoded", decoder.readInbound());
+        decoder.writeInbound(second.slice(split, second.readableBytes() - split).retain());
+        InternalMessage m2 = (InternalMessage) decoder.readInbound();
+
+        assertMessage(m2, 2, IP4_SENDER, "foo", "second");
+        assertMessage(m1, 1, IP4_SENDER, "foo", "first");
+    }
+
+    private static InternalMessage message(long id, Endpoint sender, String type, String payload) {
+        return new InternalMessage(id, sender, type, payload.getBytes());
+    }
+
+    private ByteBuf encode(InternalMessage message) {
+        assertTrue("message not encoded", encoder.writeOutbound(message));
+        ByteBuf frame = (ByteBuf) encoder.readOutbound();
+        frames.add(frame);
+        return frame;
+    }
+
+    private InternalMessage decode(ByteBuf frame) {
+        assertTrue("message not decoded", decoder.writeInbound(frame.duplicate().retain()));
+        return (InternalMessage) decoder.readInbound();
+    }
+
+    private static void assertMessage(InternalMessage message, long id, Endpoint sender,
+                                      String type, String payload) {
+        assertEquals("incorrect id", id, message.id());
+        assertEquals("incorrect sender", sender, message.sender());
+        assertEquals("incorrect type", type, message.type());
+        assertArrayEquals("incorrect payload", payload.getBytes(), message.payload());
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2015 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.netty;
+
+import com.google.common.collect.Sets;
+import org.junit.Test;
+import org.onlab.junit.TestUtils;
+
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests of the selection of connection lanes by NettyMessaging.
+ */
+public class NettyMessagingTest {
+
+    private static final String CONTROL_TYPE = "control";
+
+    private final NettyMessaging messaging = new NettyMessaging();
+
+    private int lane(String type) throws Exception {
+        return TestUtils.callMethod(messaging, "lane", String.class, type);
+    }
+
+    @Test
+    public void controlTypesUseControlLane() throws Exception {
+        messaging.channelsPerEndpoint = 4;
+        messaging.registerControlMessageType(CONTROL_TYPE);
+        assertEquals("control type not on the control lane", 0, lane(CONTROL_TYPE));
+
+        messaging.unregisterControlMessageType(CONTROL_TYPE);
+        assertNotEquals("bulk type on the control lane", 0, lane(CONTROL_TYPE));
+    }
+
+    @Test
+    public void bulkTypesStripedPerType() throws Exception {
+        messaging.channelsPerEndpoint = 4;
+        Set<Integer> lanes = Sets.newHashSet();
+        for (int i = 0; i < 100; i++) {
+            String type = "type" + i;
+            int lane = lane(type);
+            assertTrue("lane out of range", lane >= 1 && lane <= 4);
+            assertEquals("type moved to another lane", lane, lane(type));
+            lanes.add(lane);
+        }
+        assertEquals("types not striped across all lanes", Sets.newHashSet(1, 2, 3, 4), lanes);
+    }
+
+    @Test
+    public void singleBulkLaneByDefault() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            assertEquals("more than one bulk lane", 1, lane("type" + i));
+        }
+    }
+}